@@ -9,6 +9,8 @@ import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AlumnoDto;
 
 public interface AlumnoService {
@@ -17,7 +19,11 @@ public interface AlumnoService {
     
     Optional<Alumno> buscarPorId(Long alumnoId);
 
+    Optional<Alumno> buscarPorDni(String dni);
+
     List<Alumno> buscarTodos();
+
+    Pagina<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden);
    
     void eliminarPorId(Long alumnoId)
     throws EntidadNoEncontradaException, ReglaNegocioException;
@@ -25,8 +31,12 @@ public interface AlumnoService {
     Asignatura inscribirEnMateria(Long alumnoId, Long materiaId)
     throws EntidadNoEncontradaException, EntidadDuplicadaException, ReglaNegocioException;
     
-    Asignatura cambiarEstadoAsignatura(Long alumnoId, Long asignaturaId, EstadoAsignatura nuevoEstado)
-    throws EntidadNoEncontradaException, ReglaNegocioException;;
+    /**
+     * Con {@code versionEsperada} null se compara contra la versión recién leída.
+     */
+    Asignatura cambiarEstadoAsignatura(Long alumnoId, Long asignaturaId, EstadoAsignatura nuevoEstado,
+            Long versionEsperada)
+    throws EntidadNoEncontradaException, ReglaNegocioException;
     
     List<Asignatura> obtenerAsignaturas(Long alumnoId) throws EntidadNoEncontradaException;
 }
\ No newline at end of file
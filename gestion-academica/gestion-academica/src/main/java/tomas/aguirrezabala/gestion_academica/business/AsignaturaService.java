@@ -5,7 +5,12 @@ import java.util.Optional;
 
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.CantidadPorEstado;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AsignaturaDto;
 
 public interface AsignaturaService {
@@ -16,7 +21,19 @@ public interface AsignaturaService {
     Optional<Asignatura> buscarPorId(Long asignaturaId);
     
     List<Asignatura> buscarTodas();
+
+    Pagina<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden);
     
     void eliminarPorId(Long asignaturaId) throws EntidadNoEncontradaException;
 
+    CantidadPorEstado contarPorMateriaYEstado(Long materiaId, EstadoAsignatura estado)
+    throws EntidadNoEncontradaException;
+
+    /**
+     * Alumnos, ordenados por id, con ese estado en alguna de las materias o, con
+     * {@code enTodas}, en cada una.
+     */
+    List<Alumno> buscarAlumnosPorEstado(List<Long> materiaIds, EstadoAsignatura estado, boolean enTodas)
+    throws EntidadNoEncontradaException;
+
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import java.util.Optional;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.CarreraDto;
 
 public interface CarreraService {
@@ -15,7 +17,11 @@ public interface CarreraService {
     
     Optional<Carrera> buscarPorId(Long id);
     
+    Optional<Carrera> buscarPorNombre(String nombre);
+    
     List<Carrera> buscarTodas();
+
+    Pagina<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden);
     
     void eliminarPorId(Long id) throws EntidadNoEncontradaException;
     
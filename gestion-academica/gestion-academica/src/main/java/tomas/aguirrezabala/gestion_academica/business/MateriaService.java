@@ -7,6 +7,8 @@ import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.MateriaDto;
 
 public interface MateriaService {
@@ -15,9 +17,19 @@ public interface MateriaService {
     
     Optional<Materia> buscarPorId(Long materiaId);
     
+    Optional<Materia> buscarPorNombre(String nombre);
+    
     List<Materia> buscarTodas();
+
+    Pagina<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden);
     
     void eliminarPorId(Long materiaId) throws EntidadNoEncontradaException, ReglaNegocioException;
+
+    /**
+     * Falla si hay alumnos inscriptos en la materia. Con el particionado cada nodo tiene sólo
+     * sus inscripciones: el nodo 0 se lo pregunta a todos antes de borrarla.
+     */
+    void verificarSinInscriptos(Long materiaId) throws ReglaNegocioException;
     
     Materia crearConCorrelatividades(Materia materia, List<Long> correlatividades)
     throws EntidadNoEncontradaException, ReglaNegocioException;
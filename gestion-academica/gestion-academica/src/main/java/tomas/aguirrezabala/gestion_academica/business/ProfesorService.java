@@ -6,6 +6,8 @@ import java.util.Optional;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.model.dto.ProfesorDto;
 
@@ -15,7 +17,11 @@ public interface ProfesorService {
     
     Optional<Profesor> buscarPorId(Long id);
     
+    Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido);
+    
     List<Profesor> buscarTodos();
+
+    Pagina<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden);
     
     void eliminarPorId(Long id) throws EntidadNoEncontradaException, ReglaNegocioException;
     
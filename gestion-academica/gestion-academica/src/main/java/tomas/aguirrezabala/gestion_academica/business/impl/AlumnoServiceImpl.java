@@ -14,10 +14,14 @@ import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AlumnoDto;
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
 import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
 
 @Service
 public class AlumnoServiceImpl implements AlumnoService {
@@ -31,11 +35,15 @@ public class AlumnoServiceImpl implements AlumnoService {
     @Autowired
     private AsignaturaDao asignaturaDao;
 
+    @Autowired
+    private UnidadDeTrabajo unidadDeTrabajo;
+
     @Override
     public Alumno guardar(AlumnoDto alumnoDto) throws EntidadDuplicadaException {
-        if (alumnoDto.getId() == null && alumnoDto.getDni() != null) {
-            boolean existeAlumnoConMismoDni = alumnoDao.buscarTodos().stream()
-                    .anyMatch(a -> alumnoDto.getDni().equals(a.getDni()));
+        if (alumnoDto.getDni() != null) {
+            boolean existeAlumnoConMismoDni = alumnoDao.buscarPorDni(alumnoDto.getDni())
+                    .filter(a -> !a.getId().equals(alumnoDto.getId()))
+                    .isPresent();
             
             if (existeAlumnoConMismoDni) {
                 throw new EntidadDuplicadaException("Alumno", "DNI", alumnoDto.getDni());
@@ -44,6 +52,7 @@ public class AlumnoServiceImpl implements AlumnoService {
         
         Alumno alumno = new Alumno();
         alumno.setId(alumnoDto.getId());
+        alumno.setVersion(alumnoDto.getVersion());
         alumno.setNombre(alumnoDto.getNombre());
         alumno.setApellido(alumnoDto.getApellido());
         alumno.setDni(alumnoDto.getDni());
@@ -56,30 +65,48 @@ public class AlumnoServiceImpl implements AlumnoService {
         return alumnoDao.buscarPorId(alumnoId);
     }
 
+    @Override
+    public Optional<Alumno> buscarPorDni(String dni) {
+        return alumnoDao.buscarPorDni(dni);
+    }
+
     @Override
     public List<Alumno> buscarTodos() {
         return alumnoDao.buscarTodos();
     }
 
+    @Override
+    public Pagina<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return Pagina.de(alumnoDao.buscarPagina(despuesDeId, limite + 1, orden), limite, Alumno::getId);
+    }
+
     @Override
     public void eliminarPorId(Long alumnoId) throws EntidadNoEncontradaException, ReglaNegocioException {
+        unidadDeTrabajo.ejecutar(Alcance.escribe(Alumno.class, alumnoId), () -> {
 
-        Optional<Alumno> alumnoOptional = alumnoDao.buscarPorId(alumnoId);
-        if (alumnoOptional.isEmpty()) {
-            throw new EntidadNoEncontradaException("Alumno", alumnoId);
-        }
-        
-        List<Asignatura> asignaturas = asignaturaDao.buscarPorAlumnoId(alumnoId);
-        if (asignaturas != null && !asignaturas.isEmpty()) {
-            throw new ReglaNegocioException("No se puede eliminar el alumno porque tiene asignaturas asociadas");
-        }
-        
-        alumnoDao.borrarPorId(alumnoId);
+            Optional<Alumno> alumnoOptional = alumnoDao.buscarPorId(alumnoId);
+            if (alumnoOptional.isEmpty()) {
+                throw new EntidadNoEncontradaException("Alumno", alumnoId);
+            }
+            
+            if (asignaturaDao.existePorAlumnoId(alumnoId)) {
+                throw new ReglaNegocioException("No se puede eliminar el alumno porque tiene asignaturas asociadas");
+            }
+            
+            alumnoDao.borrarPorId(alumnoId);
+        });
     }
 
     @Override
     public Asignatura inscribirEnMateria(Long alumnoId, Long materiaId)
             throws EntidadNoEncontradaException, EntidadDuplicadaException, ReglaNegocioException {
+        // El alumno va en exclusiva porque se validan sus asignaturas; la materia sólo se
+        // lee, así las inscripciones de distintos alumnos a la misma materia no se esperan.
+        return unidadDeTrabajo.ejecutar(Alcance.escribe(Alumno.class, alumnoId).yLee(Materia.class, materiaId),
+                () -> inscribir(alumnoId, materiaId));
+    }
+
+    private Asignatura inscribir(Long alumnoId, Long materiaId) {
        
         Optional<Alumno> alumnoOptional = alumnoDao.buscarPorId(alumnoId);
         if (alumnoOptional.isEmpty()) {
@@ -98,7 +125,7 @@ public class AlumnoServiceImpl implements AlumnoService {
             throw new EntidadDuplicadaException("El alumno ya está inscrito en esta materia");
         }
 
-        verificarCorrelatividades(alumno, materia);
+        Correlatividades.verificar(asignaturaDao, materiaDao, alumno, materia);
         
         Asignatura asignatura = new Asignatura();
         asignatura.setAlumno(alumno);
@@ -108,37 +135,15 @@ public class AlumnoServiceImpl implements AlumnoService {
         return asignaturaDao.guardar(asignatura);
     }
 
-    private void verificarCorrelatividades(Alumno alumno, Materia materia) {
-
-        List<Long> correlatividades = materia.getCorrelatividades();
-        if (correlatividades == null || correlatividades.isEmpty()) {
-            return;
-        }
-
-        List<Asignatura> asignaturasDelAlumno = asignaturaDao.buscarPorAlumnoId(alumno.getId());
-
-        for (Long correlativaId : correlatividades) {
-            boolean cumpleCorrelativa = asignaturasDelAlumno.stream()
-                .anyMatch(a -> correlativaId.equals(a.getMateria().getId()) && 
-                          (a.getEstado() == EstadoAsignatura.APROBADO || 
-                           a.getEstado() == EstadoAsignatura.REGULAR));
-            
-            if (!cumpleCorrelativa) {
-
-                String nombreCorrelativa = materiaDao.buscarPorId(correlativaId)
-                    .map(Materia::getNombre)
-                    .orElse("ID: " + correlativaId);
-                
-                throw new ReglaNegocioException(
-                    "No se puede inscribir en " + materia.getNombre() + 
-                    " porque no cumple con la correlatividad " + nombreCorrelativa);
-            }
-        }
+    @Override
+    public Asignatura cambiarEstadoAsignatura(Long alumnoId, Long asignaturaId, EstadoAsignatura nuevoEstado,
+            Long versionEsperada) throws EntidadNoEncontradaException, ReglaNegocioException {
+        return unidadDeTrabajo.ejecutar(Alcance.escribe(Alumno.class, alumnoId),
+                () -> cambiarEstado(alumnoId, asignaturaId, nuevoEstado, versionEsperada));
     }
 
-    @Override
-    public Asignatura cambiarEstadoAsignatura(Long alumnoId, Long asignaturaId, EstadoAsignatura nuevoEstado)
-            throws EntidadNoEncontradaException, ReglaNegocioException {
+    private Asignatura cambiarEstado(Long alumnoId, Long asignaturaId, EstadoAsignatura nuevoEstado,
+            Long versionEsperada) {
       
         Optional<Alumno> alumnoOptional = alumnoDao.buscarPorId(alumnoId);
         if (alumnoOptional.isEmpty()) {
@@ -149,12 +154,16 @@ public class AlumnoServiceImpl implements AlumnoService {
         if (asignaturaOptional.isEmpty()) {
             throw new EntidadNoEncontradaException("Asignatura", asignaturaId);
         }
-        Asignatura asignatura = asignaturaOptional.get();
+        Asignatura asignatura = asignaturaOptional.get().copiar();
         
         if (!alumnoId.equals(asignatura.getAlumno().getId())) {
             throw new ReglaNegocioException("La asignatura no pertenece al alumno especificado");
         }
         
+        // La copia conserva la versión leída: si otro la modificó en el medio, el DAO rechaza la escritura.
+        if (versionEsperada != null) {
+            asignatura.setVersion(versionEsperada);
+        }
         asignatura.setEstado(nuevoEstado);
         
         return asignaturaDao.guardar(asignatura);
@@ -1,6 +1,7 @@
 package tomas.aguirrezabala.gestion_academica.business.impl;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +13,17 @@ import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaExcept
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.CantidadPorEstado;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AsignaturaDto;
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
 import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
 
 @Service
 public class AsignaturaServiceImpl implements AsignaturaService {
@@ -30,10 +36,33 @@ public class AsignaturaServiceImpl implements AsignaturaService {
     
     @Autowired
     private MateriaDao materiaDao;
+
+    @Autowired
+    private UnidadDeTrabajo unidadDeTrabajo;
     
     @Override
     public Asignatura guardar(AsignaturaDto asignaturaDto)
             throws EntidadNoEncontradaException, EntidadDuplicadaException {
+        Notas.verificar(asignaturaDto.getNota());
+        while (true) {
+            // Si la asignatura pasa a otro alumno, también cambian las del alumno que la tenía.
+            Long alumnoAnterior = asignaturaDto.getId() != null ? alumnoDe(asignaturaDao.buscarPorId(asignaturaDto.getId())) : null;
+            Optional<Asignatura> guardada = unidadDeTrabajo.ejecutar(
+                    Alcance.escribe(Asignatura.class, asignaturaDto.getId())
+                            .yEscribe(Alumno.class, asignaturaDto.getAlumnoId())
+                            .yEscribe(Alumno.class, alumnoAnterior)
+                            .yLee(Materia.class, asignaturaDto.getMateriaId()),
+                    () -> guardarValidada(asignaturaDto, alumnoAnterior));
+            if (guardada.isPresent()) {
+                return guardada.get();
+            }
+        }
+    }
+
+    /**
+     * Vacío si la asignatura cambió de alumno desde que se leyó: el alcance ya no la cubre.
+     */
+    private Optional<Asignatura> guardarValidada(AsignaturaDto asignaturaDto, Long alumnoAnterior) {
 
         Alumno alumno = null;
         if (asignaturaDto.getAlumnoId() != null) {
@@ -66,7 +95,7 @@ public class AsignaturaServiceImpl implements AsignaturaService {
                         ", Materia ID: " + asignaturaDto.getMateriaId());
             }
             
-            verificarCorrelatividades(alumno, materia);
+            Correlatividades.verificar(asignaturaDao, materiaDao, alumno, materia);
         }
 
         if (asignaturaDto.getId() != null) {
@@ -74,62 +103,98 @@ public class AsignaturaServiceImpl implements AsignaturaService {
             if (asignaturaOpt.isEmpty()) {
                 throw new EntidadNoEncontradaException("Asignatura", asignaturaDto.getId());
             }
+            if (!Objects.equals(alumnoDe(asignaturaOpt), alumnoAnterior)) {
+                return Optional.empty();
+            }
         }
 
         Asignatura asignatura = new Asignatura();
         asignatura.setId(asignaturaDto.getId());
+        asignatura.setVersion(asignaturaDto.getVersion());
         asignatura.setAlumno(alumno);
         asignatura.setMateria(materia);
         asignatura.setEstado(asignaturaDto.getEstado());
         asignatura.setNota(asignaturaDto.getNota());
         
-        return asignaturaDao.guardar(asignatura);
+        return Optional.of(asignaturaDao.guardar(asignatura));
+    }
+
+    @Override
+    public Optional<Asignatura> buscarPorId(Long asignaturaId) {
+        return asignaturaDao.buscarPorId(asignaturaId);
     }
 
-    private void verificarCorrelatividades(Alumno alumno, Materia materia) {
+    @Override
+    public List<Asignatura> buscarTodas() {
+        return asignaturaDao.buscarTodos();
+    }
 
-        List<Long> correlatividades = materia.getCorrelatividades();
-        if (correlatividades == null || correlatividades.isEmpty()) {
-            return;
-        }
+    @Override
+    public Pagina<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return Pagina.de(asignaturaDao.buscarPagina(despuesDeId, limite + 1, orden), limite, Asignatura::getId);
+    }
 
-        List<Asignatura> asignaturasDelAlumno = asignaturaDao.buscarPorAlumnoId(alumno.getId());
+    @Override
+    public void eliminarPorId(Long asignaturaId) throws EntidadNoEncontradaException {
+        while (true) {
+            Optional<Asignatura> asignaturaOpt = asignaturaDao.buscarPorId(asignaturaId);
+            if (asignaturaOpt.isEmpty()) {
+                throw new EntidadNoEncontradaException("Asignatura", asignaturaId);
+            }
 
-        for (Long correlativaId : correlatividades) {
-            boolean cumpleCorrelativa = asignaturasDelAlumno.stream()
-                .anyMatch(a -> correlativaId.equals(a.getMateria().getId()) && 
-                          (a.getEstado() == EstadoAsignatura.APROBADO || 
-                           a.getEstado() == EstadoAsignatura.REGULAR));
-            
-            if (!cumpleCorrelativa) {
-                String nombreCorrelativa = materiaDao.buscarPorId(correlativaId)
-                    .map(Materia::getNombre)
-                    .orElse("ID: " + correlativaId);
-                
-                throw new ReglaNegocioException(
-                    "No se puede inscribir en " + materia.getNombre() + 
-                    " porque no cumple con la correlatividad " + nombreCorrelativa);
+            Long alumnoId = alumnoDe(asignaturaOpt);
+            boolean borrada = unidadDeTrabajo.ejecutar(
+                    Alcance.escribe(Asignatura.class, asignaturaId).yEscribe(Alumno.class, alumnoId), () -> {
+                        // Se vuelve a leer con el lock tomado: si la movieron a otro alumno, otra vuelta.
+                        Optional<Asignatura> actual = asignaturaDao.buscarPorId(asignaturaId);
+                        if (actual.isEmpty()) {
+                            throw new EntidadNoEncontradaException("Asignatura", asignaturaId);
+                        }
+                        if (!Objects.equals(alumnoDe(actual), alumnoId)) {
+                            return false;
+                        }
+                        asignaturaDao.borrarPorId(asignaturaId);
+                        return true;
+                    });
+            if (borrada) {
+                return;
             }
         }
     }
 
     @Override
-    public Optional<Asignatura> buscarPorId(Long asignaturaId) {
-        return asignaturaDao.buscarPorId(asignaturaId);
+    public CantidadPorEstado contarPorMateriaYEstado(Long materiaId, EstadoAsignatura estado)
+            throws EntidadNoEncontradaException {
+        verificarMaterias(List.of(materiaId), estado);
+        return new CantidadPorEstado(materiaId, estado, asignaturaDao.contarPorMateriaIdYEstado(materiaId, estado));
     }
 
     @Override
-    public List<Asignatura> buscarTodas() {
-        return asignaturaDao.buscarTodos();
+    public List<Alumno> buscarAlumnosPorEstado(List<Long> materiaIds, EstadoAsignatura estado, boolean enTodas)
+            throws EntidadNoEncontradaException {
+        verificarMaterias(materiaIds, estado);
+        // Un alumno borrado entre las dos lecturas simplemente no aparece.
+        return asignaturaDao.buscarAlumnoIdsPorEstado(materiaIds, estado, enTodas).stream()
+                .map(alumnoDao::buscarPorId)
+                .flatMap(Optional::stream)
+                .toList();
     }
 
-    @Override
-    public void eliminarPorId(Long asignaturaId) throws EntidadNoEncontradaException {
-        Optional<Asignatura> asignaturaOpt = asignaturaDao.buscarPorId(asignaturaId);
-        if (asignaturaOpt.isEmpty()) {
-            throw new EntidadNoEncontradaException("Asignatura", asignaturaId);
+    private static Long alumnoDe(Optional<Asignatura> asignatura) {
+        return asignatura.map(Asignatura::getAlumno).map(Alumno::getId).orElse(null);
+    }
+
+    private void verificarMaterias(List<Long> materiaIds, EstadoAsignatura estado) {
+        if (estado == null) {
+            throw new ReglaNegocioException("Hay que indicar el estado de la asignatura");
+        }
+        if (materiaIds == null || materiaIds.isEmpty()) {
+            throw new ReglaNegocioException("Hay que indicar al menos una materia");
+        }
+        for (Long materiaId : materiaIds) {
+            if (materiaId == null || materiaDao.buscarPorId(materiaId).isEmpty()) {
+                throw new EntidadNoEncontradaException("Materia", materiaId);
+            }
         }
-        
-        asignaturaDao.borrarPorId(asignaturaId);
     }
 }
\ No newline at end of file
@@ -12,6 +12,8 @@ import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.CarreraDto;
 import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
@@ -27,9 +29,10 @@ public class CarreraServiceImpl implements CarreraService {
     
     @Override
     public Carrera guardar(CarreraDto carreraDto) throws EntidadDuplicadaException {
-        if (carreraDto.getId() == null && carreraDto.getNombre() != null) {
-            boolean existeCarreraConMismoNombre = carreraDao.buscarAll().stream()
-                    .anyMatch(c -> carreraDto.getNombre().equals(c.getNombre()));
+        if (carreraDto.getNombre() != null) {
+            boolean existeCarreraConMismoNombre = carreraDao.buscarPorNombre(carreraDto.getNombre())
+                    .filter(c -> !c.getId().equals(carreraDto.getId()))
+                    .isPresent();
             
             if (existeCarreraConMismoNombre) {
                 throw new EntidadDuplicadaException("Carrera", "nombre", carreraDto.getNombre());
@@ -38,6 +41,7 @@ public class CarreraServiceImpl implements CarreraService {
 
         Carrera carrera = new Carrera();
         carrera.setId(carreraDto.getId());
+        carrera.setVersion(carreraDto.getVersion());
         carrera.setNombre(carreraDto.getNombre());
         carrera.setDuracionAnios(carreraDto.getCantidadCuatrimestres());
 
@@ -58,10 +62,20 @@ public class CarreraServiceImpl implements CarreraService {
         return carreraDao.buscarPorId(id);
     }
     
+    @Override
+    public Optional<Carrera> buscarPorNombre(String nombre) {
+        return carreraDao.buscarPorNombre(nombre);
+    }
+    
     @Override
     public List<Carrera> buscarTodas() {
         return carreraDao.buscarAll();
     }
+
+    @Override
+    public Pagina<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return Pagina.de(carreraDao.buscarPagina(despuesDeId, limite + 1, orden), limite, Carrera::getId);
+    }
     
     @Override
     public void eliminarPorId(Long id) throws EntidadNoEncontradaException {
@@ -87,7 +101,7 @@ public class CarreraServiceImpl implements CarreraService {
             throw new EntidadNoEncontradaException("Materia", materiaId);
         }
         
-        Carrera carrera = carreraOpt.get();
+        Carrera carrera = carreraOpt.get().copiar();
         Materia materia = materiaOpt.get();
 
         boolean materiaYaAsignada = carrera.getMaterias().stream()
@@ -0,0 +1,37 @@
+package tomas.aguirrezabala.gestion_academica.business.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+
+/**
+ * Regla de toda inscripción: el alumno tiene que tener aprobadas o regulares las
+ * correlativas de la materia. El DAO dice cuáles faltan y se informan todas juntas.
+ */
+final class Correlatividades {
+
+    private Correlatividades() {
+    }
+
+    static void verificar(AsignaturaDao asignaturaDao, MateriaDao materiaDao, Alumno alumno, Materia materia) {
+        List<Long> faltantes = asignaturaDao.buscarCorrelativasSinCumplir(alumno.getId(), materia);
+        if (faltantes.isEmpty()) {
+            return;
+        }
+        String nombres = faltantes.stream()
+                .map(correlativaId -> materiaDao.buscarPorId(correlativaId)
+                        .map(Materia::getNombre)
+                        .orElse("ID: " + correlativaId))
+                .collect(Collectors.joining(", "));
+        throw new ReglaNegocioException("No se puede inscribir en " + materia.getNombre()
+                + (faltantes.size() == 1
+                        ? " porque no cumple con la correlatividad "
+                        : " porque no cumple con las correlatividades ")
+                + nombres);
+    }
+}
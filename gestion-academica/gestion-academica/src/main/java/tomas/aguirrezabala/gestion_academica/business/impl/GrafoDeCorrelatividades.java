@@ -0,0 +1,297 @@
+package tomas.aguirrezabala.gestion_academica.business.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+/**
+ * Grafo de correlatividades con un orden topológico que se mantiene en cada cambio
+ * (Pearce y Kelly): cada arista va de la correlativa a la materia que la pide. Una arista
+ * que ya respeta el orden se agrega sin recorrer nada; si no, sólo se recorren las materias
+ * cuyo orden queda entre sus dos extremos y se reordenan entre ellas. Si en ese recorrido
+ * aparece la correlativa, la arista cerraría un ciclo.
+ * Se arma con todas las materias la primera vez que se usa y después no se vuelve a leer:
+ * supone que toda escritura de materias de la base pasa por este grafo, en este proceso.
+ * Vale con los DAOs en memoria y MVStore; con el perfil jdbc, dos instancias sobre la
+ * misma base no ven las correlatividades que guarda la otra.
+ */
+public final class GrafoDeCorrelatividades {
+
+    static final String CICLO = "La correlatividad crearía un ciclo, lo cual no está permitido";
+
+    private final Supplier<Stream<Materia>> materias;
+    private final Map<Long, Integer> nodoDe = new HashMap<>();
+    private int[] orden = new int[64];
+    /** Entrantes: las correlativas de cada materia. */
+    private ListaDeNodos[] correlativas = new ListaDeNodos[64];
+    /** Salientes: las materias que piden a cada una. */
+    private ListaDeNodos[] dependientes = new ListaDeNodos[64];
+    private int[] visita = new int[64];
+    private int visitaActual;
+    private int nodos;
+    /** Lugares de materias borradas, para reusar antes de agrandar los arreglos. */
+    private final ListaDeNodos libres = new ListaDeNodos();
+    private int siguienteOrden;
+    private int[] pila = new int[64];
+    private boolean cargado;
+
+    public GrafoDeCorrelatividades(Supplier<Stream<Materia>> materias) {
+        this.materias = materias;
+    }
+
+    /**
+     * Deja las correlativas de la materia como {@code nuevas} y la guarda con {@code guardar},
+     * todo con el grafo tomado: dos cambios simultáneos no pueden cerrar un ciclo entre los
+     * dos. Una materia nueva no tiene quien la pida, así que no puede cerrar ninguno.
+     * Si hay ciclo o falla el guardado, el grafo queda como estaba.
+     */
+    public synchronized Materia guardar(Long materiaId, List<Long> nuevas, Supplier<Materia> guardar) {
+        cargarSiHaceFalta();
+        int nodo = -1;
+        int[] anteriores = null;
+        if (materiaId != null) {
+            nodo = nodo(materiaId);
+            anteriores = correlativas[nodo].copia();
+            reemplazar(nodo, nuevas, anteriores);
+        }
+        Materia guardada;
+        try {
+            guardada = guardar.get();
+        } catch (RuntimeException e) {
+            if (materiaId != null) {
+                restaurar(nodo, anteriores);
+            }
+            throw e;
+        }
+        if (materiaId == null && guardada != null && guardada.getId() != null) {
+            int nueva = nodo(guardada.getId());
+            reemplazar(nueva, guardada.getCorrelatividades(), correlativas[nueva].copia());
+        }
+        return guardada;
+    }
+
+    public synchronized void quitar(Long materiaId) {
+        // Si todavía no se armó, se va a armar ya sin ella.
+        if (!cargado) {
+            return;
+        }
+        Integer nodo = nodoDe.remove(materiaId);
+        if (nodo == null) {
+            return;
+        }
+        for (int correlativa : correlativas[nodo].copia()) {
+            dependientes[correlativa].quitar(nodo);
+        }
+        for (int dependiente : dependientes[nodo].copia()) {
+            correlativas[dependiente].quitar(nodo);
+        }
+        correlativas[nodo] = new ListaDeNodos();
+        dependientes[nodo] = new ListaDeNodos();
+        libres.agregar(nodo);
+    }
+
+    private void cargarSiHaceFalta() {
+        if (cargado) {
+            return;
+        }
+        cargado = true;
+        try (Stream<Materia> todas = materias.get()) {
+            if (todas == null) {
+                return;
+            }
+            todas.forEach(materia -> {
+                int nodo = nodo(materia.getId());
+                if (materia.getCorrelatividades() != null) {
+                    for (Long correlativaId : materia.getCorrelatividades()) {
+                        // Un ciclo guardado antes de que existiera esta validación queda afuera.
+                        if (correlativaId != null) {
+                            agregar(nodo(correlativaId), nodo);
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    private void reemplazar(int nodo, List<Long> nuevas, int[] anteriores) {
+        quitarCorrelativas(nodo);
+        if (nuevas == null) {
+            return;
+        }
+        for (Long correlativaId : nuevas) {
+            if (correlativaId != null && !agregar(nodo(correlativaId), nodo)) {
+                restaurar(nodo, anteriores);
+                throw new ReglaNegocioException(CICLO);
+            }
+        }
+    }
+
+    private void restaurar(int nodo, int[] anteriores) {
+        quitarCorrelativas(nodo);
+        // Eran parte de un grafo sin ciclos: vuelven a entrar.
+        for (int correlativa : anteriores) {
+            agregar(correlativa, nodo);
+        }
+    }
+
+    private void quitarCorrelativas(int nodo) {
+        for (int correlativa : correlativas[nodo].copia()) {
+            dependientes[correlativa].quitar(nodo);
+        }
+        correlativas[nodo] = new ListaDeNodos();
+    }
+
+    /**
+     * Agrega {@code antes -> despues}; devuelve false, sin cambiar nada, si cerraría un ciclo.
+     */
+    private boolean agregar(int antes, int despues) {
+        if (antes == despues) {
+            return false;
+        }
+        if (correlativas[despues].contiene(antes)) {
+            return true;
+        }
+        int desde = orden[despues];
+        int hasta = orden[antes];
+        if (hasta > desde) {
+            // Lo que sigue a 'despues' sin pasarse de 'antes', y lo que precede a 'antes'
+            // sin bajar de 'despues': sólo esas materias cambian de lugar.
+            int[] siguientes = recorrer(despues, dependientes, desde, hasta, antes);
+            if (siguientes == null) {
+                return false;
+            }
+            int[] previas = recorrer(antes, correlativas, desde, hasta, -1);
+            reordenar(previas, siguientes);
+        }
+        correlativas[despues].agregar(antes);
+        dependientes[antes].agregar(despues);
+        return true;
+    }
+
+    /**
+     * Nodos alcanzables desde {@code inicio} por {@code aristas} con orden entre
+     * {@code minimo} y {@code maximo}; null si aparece {@code prohibido}.
+     */
+    private int[] recorrer(int inicio, ListaDeNodos[] aristas, int minimo, int maximo, int prohibido) {
+        visitaActual++;
+        ListaDeNodos encontrados = new ListaDeNodos();
+        int tope = 0;
+        pila[tope++] = inicio;
+        visita[inicio] = visitaActual;
+        while (tope > 0) {
+            int nodo = pila[--tope];
+            encontrados.agregar(nodo);
+            ListaDeNodos vecinos = aristas[nodo];
+            for (int i = 0; i < vecinos.cantidad; i++) {
+                int vecino = vecinos.valores[i];
+                if (vecino == prohibido) {
+                    return null;
+                }
+                if (visita[vecino] != visitaActual && orden[vecino] >= minimo && orden[vecino] <= maximo) {
+                    visita[vecino] = visitaActual;
+                    if (tope == pila.length) {
+                        pila = Arrays.copyOf(pila, tope * 2);
+                    }
+                    pila[tope++] = vecino;
+                }
+            }
+        }
+        return encontrados.copia();
+    }
+
+    /**
+     * Los lugares que ocupaban los dos grupos se reparten de nuevo: primero las previas y
+     * después las siguientes, cada grupo en su orden relativo de antes.
+     */
+    private void reordenar(int[] previas, int[] siguientes) {
+        long[] porOrden = new long[previas.length + siguientes.length];
+        int[] lugares = new int[porOrden.length];
+        int n = 0;
+        for (int[] grupo : new int[][] {previas, siguientes}) {
+            long[] grupoPorOrden = new long[grupo.length];
+            for (int i = 0; i < grupo.length; i++) {
+                grupoPorOrden[i] = (long) orden[grupo[i]] << 32 | grupo[i];
+                lugares[n + i] = orden[grupo[i]];
+            }
+            Arrays.sort(grupoPorOrden);
+            System.arraycopy(grupoPorOrden, 0, porOrden, n, grupo.length);
+            n += grupo.length;
+        }
+        Arrays.sort(lugares);
+        for (int i = 0; i < porOrden.length; i++) {
+            orden[(int) porOrden[i]] = lugares[i];
+        }
+    }
+
+    private int nodo(long materiaId) {
+        Integer existente = nodoDe.get(materiaId);
+        if (existente != null) {
+            return existente;
+        }
+        if (libres.cantidad > 0) {
+            // Sin aristas, conserva el lugar en el orden que tenía.
+            int nodo = libres.sacarUltimo();
+            nodoDe.put(materiaId, nodo);
+            return nodo;
+        }
+        if (nodos == orden.length) {
+            int largo = nodos * 2;
+            orden = Arrays.copyOf(orden, largo);
+            correlativas = Arrays.copyOf(correlativas, largo);
+            dependientes = Arrays.copyOf(dependientes, largo);
+            visita = Arrays.copyOf(visita, largo);
+        }
+        int nodo = nodos++;
+        // Sin aristas puede ir en cualquier lugar: al final.
+        orden[nodo] = siguienteOrden++;
+        correlativas[nodo] = new ListaDeNodos();
+        dependientes[nodo] = new ListaDeNodos();
+        nodoDe.put(materiaId, nodo);
+        return nodo;
+    }
+
+    private static final class ListaDeNodos {
+
+        private int[] valores = new int[2];
+        private int cantidad;
+
+        void agregar(int valor) {
+            if (cantidad == valores.length) {
+                valores = Arrays.copyOf(valores, cantidad * 2);
+            }
+            valores[cantidad++] = valor;
+        }
+
+        void quitar(int valor) {
+            for (int i = 0; i < cantidad; i++) {
+                if (valores[i] == valor) {
+                    valores[i] = valores[--cantidad];
+                    return;
+                }
+            }
+        }
+
+        int sacarUltimo() {
+            return valores[--cantidad];
+        }
+
+        boolean contiene(int valor) {
+            for (int i = 0; i < cantidad; i++) {
+                if (valores[i] == valor) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int[] copia() {
+            return Arrays.copyOf(valores, cantidad);
+        }
+    }
+}
@@ -13,11 +13,16 @@ import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.model.dto.MateriaDto;
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
 
 @Service
 public class MateriaServiceImpl implements MateriaService {
@@ -30,12 +35,21 @@ public class MateriaServiceImpl implements MateriaService {
     
     @Autowired
     private AsignaturaDao asignaturaDao;
+    
+    @Autowired
+    private CarreraDao carreraDao;
+
+    @Autowired
+    private UnidadDeTrabajo unidadDeTrabajo;
+
+    private final GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> materiaDao.recorrer());
 
     @Override
     public Materia guardar(MateriaDto materiaDto) throws EntidadDuplicadaException, EntidadNoEncontradaException {
-        if (materiaDto.getId() == null && materiaDto.getNombre() != null) {
-            boolean existeMateriaConMismoNombre = materiaDao.buscarAll().stream()
-                    .anyMatch(m -> materiaDto.getNombre().equals(m.getNombre()));
+        if (materiaDto.getNombre() != null) {
+            boolean existeMateriaConMismoNombre = materiaDao.buscarPorNombre(materiaDto.getNombre())
+                    .filter(m -> !m.getId().equals(materiaDto.getId()))
+                    .isPresent();
             
             if (existeMateriaConMismoNombre) {
                 throw new EntidadDuplicadaException("Materia", "nombre", materiaDto.getNombre());
@@ -52,6 +66,7 @@ public class MateriaServiceImpl implements MateriaService {
         
         Materia materia = new Materia();
         materia.setId(materiaDto.getId());
+        materia.setVersion(materiaDto.getVersion());
         materia.setNombre(materiaDto.getNombre());
         materia.setAnio(materiaDto.getAnio());
         materia.setCuatrimestre(materiaDto.getCuatrimestre());
@@ -67,7 +82,7 @@ public class MateriaServiceImpl implements MateriaService {
             materia.setCorrelatividades(correlatividades);
         }
         
-        return materiaDao.guardar(materia);
+        return guardarEnElGrafo(materia);
     }
 
     @Override
@@ -75,34 +90,55 @@ public class MateriaServiceImpl implements MateriaService {
         return materiaDao.buscarPorId(materiaId);
     }
 
+    @Override
+    public Optional<Materia> buscarPorNombre(String nombre) {
+        return materiaDao.buscarPorNombre(nombre);
+    }
+
     @Override
     public List<Materia> buscarTodas() {
         return materiaDao.buscarAll();
     }
 
+    @Override
+    public Pagina<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return Pagina.de(materiaDao.buscarPagina(despuesDeId, limite + 1, orden), limite, Materia::getId);
+    }
+
     @Override
     public void eliminarPorId(Long materiaId) throws EntidadNoEncontradaException, ReglaNegocioException {
+        unidadDeTrabajo.ejecutar(Alcance.escribe(Materia.class, materiaId), () -> eliminar(materiaId));
+    }
+
+    private void eliminar(Long materiaId) {
         Optional<Materia> materiaOptional = materiaDao.buscarPorId(materiaId);
         if (materiaOptional.isEmpty()) {
             throw new EntidadNoEncontradaException("Materia", materiaId);
         }
         
-        List<Materia> materiasQueUsanComoCorrelativa = materiaDao.buscarAll().stream()
-                .filter(m -> m.getCorrelatividades().contains(materiaId))
-                .collect(Collectors.toList());
-        
-        if (!materiasQueUsanComoCorrelativa.isEmpty()) {
-            String materiasDependientes = materiasQueUsanComoCorrelativa.stream()
+        if (materiaDao.existePorCorrelativaId(materiaId)) {
+            String materiasDependientes = materiaDao.recorrer()
+                    .filter(m -> m.getCorrelatividades().contains(materiaId))
                     .map(Materia::getNombre)
                     .collect(Collectors.joining(", "));
             throw new ReglaNegocioException("No se puede eliminar la materia porque es correlativa de: " + materiasDependientes);
         }
         
-        if (asignaturaDao.existePorMateriaId(materiaId)) {
-            throw new ReglaNegocioException("No se puede eliminar la materia porque tiene alumnos inscriptos");
+        verificarSinInscriptos(materiaId);
+        
+        if (carreraDao.existePorMateriaId(materiaId)) {
+            throw new ReglaNegocioException("No se puede eliminar la materia porque pertenece a una carrera");
         }
         
         materiaDao.borrarPorId(materiaId);
+        grafo.quitar(materiaId);
+    }
+
+    @Override
+    public void verificarSinInscriptos(Long materiaId) throws ReglaNegocioException {
+        if (asignaturaDao.existePorMateriaId(materiaId)) {
+            throw new ReglaNegocioException("No se puede eliminar la materia porque tiene alumnos inscriptos");
+        }
     }
 
     @Override
@@ -115,42 +151,20 @@ public class MateriaServiceImpl implements MateriaService {
                 if (correlativaOptional.isEmpty()) {
                     throw new EntidadNoEncontradaException("Materia correlativa", correlativaId);
                 }
-                
-                if (creariaUnCicloDeCorrelatividades(correlativaId, materia.getId(), new ArrayList<>())) {
-                    throw new ReglaNegocioException("La correlatividad crearía un ciclo, lo cual no está permitido");
-                }
             }
             
+            materia = materia.copiar();
             materia.setCorrelatividades(correlatividades);
         }
         
-        return materiaDao.guardar(materia);
+        return guardarEnElGrafo(materia);
     }
-    
-
-    private boolean creariaUnCicloDeCorrelatividades(Long materiaId, Long correlativaId, List<Long> visitadas) {
-        if (visitadas.contains(materiaId)) {
-            return true;
-        }
-        
-        if (materiaId.equals(correlativaId)) {
-            return true;
-        }
-
-        visitadas.add(materiaId);
 
-        Optional<Materia> materiaOptional = materiaDao.buscarPorId(materiaId);
-        if (materiaOptional.isEmpty()) {
-            return false; 
-        }
-
-        Materia materia = materiaOptional.get();
-        for (Long materiaCorrelativaId : materia.getCorrelatividades()) {
-            if (creariaUnCicloDeCorrelatividades(materiaCorrelativaId, correlativaId, new ArrayList<>(visitadas))) {
-                return true;
-            }
-        }
-        
-        return false;
+    /**
+     * Guarda la materia si sus correlativas no cierran un ciclo; el grafo mantiene un orden
+     * topológico, así que la verificación no recorre las correlativas de las correlativas.
+     */
+    private Materia guardarEnElGrafo(Materia materia) {
+        return grafo.guardar(materia.getId(), materia.getCorrelatividades(), () -> materiaDao.guardar(materia));
     }
-}
\ No newline at end of file
+}
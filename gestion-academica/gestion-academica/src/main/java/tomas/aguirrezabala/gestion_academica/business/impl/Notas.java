@@ -0,0 +1,27 @@
+package tomas.aguirrezabala.gestion_academica.business.impl;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+
+/**
+ * Regla de toda nota: hasta dos decimales y hasta 327,67 en valor absoluto, lo que entra
+ * en centésimos en un short. Se verifica acá y no en cada DAO, así una nota aceptada se
+ * guarda igual en memoria, en JDBC y en MVStore.
+ */
+final class Notas {
+
+    private Notas() {
+    }
+
+    static void verificar(Double nota) {
+        if (nota == null) {
+            return;
+        }
+        double centesimos = nota * 100;
+        long redondeada = Math.round(centesimos);
+        if (Double.isNaN(centesimos) || Math.abs(redondeada) > Short.MAX_VALUE
+                || Math.abs(centesimos - redondeada) > 1e-6) {
+            throw new ReglaNegocioException("La nota " + nota
+                    + " no es válida: admite hasta dos decimales y hasta 327,67 en valor absoluto");
+        }
+    }
+}
@@ -14,6 +14,8 @@ import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.model.dto.ProfesorDto;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
@@ -30,10 +32,11 @@ public class ProfesorServiceImpl implements ProfesorService {
     
     @Override
     public Profesor guardar(ProfesorDto profesorDto) throws EntidadDuplicadaException {
-        if (profesorDto.getId() == null && profesorDto.getNombre() != null && profesorDto.getApellido() != null) {
-            boolean existeProfesorConMismoNombreYApellido = profesorDao.buscarAll().stream()
-                    .anyMatch(p -> profesorDto.getNombre().equals(p.getNombre()) && 
-                                   profesorDto.getApellido().equals(p.getApellido()));
+        if (profesorDto.getNombre() != null && profesorDto.getApellido() != null) {
+            boolean existeProfesorConMismoNombreYApellido = profesorDao
+                    .buscarPorNombreYApellido(profesorDto.getNombre(), profesorDto.getApellido())
+                    .filter(p -> !p.getId().equals(profesorDto.getId()))
+                    .isPresent();
             
             if (existeProfesorConMismoNombreYApellido) {
                 throw new EntidadDuplicadaException("Profesor", "nombre y apellido", 
@@ -43,6 +46,7 @@ public class ProfesorServiceImpl implements ProfesorService {
 
         Profesor profesor = new Profesor();
         profesor.setId(profesorDto.getId());
+        profesor.setVersion(profesorDto.getVersion());
         profesor.setNombre(profesorDto.getNombre());
         profesor.setApellido(profesorDto.getApellido());
         profesor.setTitulo(profesorDto.getTitulo());
@@ -64,11 +68,21 @@ public class ProfesorServiceImpl implements ProfesorService {
         return profesorDao.buscarPorId(id);
     }
 
+    @Override
+    public Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido) {
+        return profesorDao.buscarPorNombreYApellido(nombre, apellido);
+    }
+
     @Override
     public List<Profesor> buscarTodos() {
         return profesorDao.buscarAll();
     }
 
+    @Override
+    public Pagina<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return Pagina.de(profesorDao.buscarPagina(despuesDeId, limite + 1, orden), limite, Profesor::getId);
+    }
+
     @Override
     public void eliminarPorId(Long id) throws EntidadNoEncontradaException, ReglaNegocioException {
         Optional<Profesor> profesorOpt = profesorDao.buscarPorId(id);
@@ -82,16 +96,15 @@ public class ProfesorServiceImpl implements ProfesorService {
             throw new ReglaNegocioException("No se puede eliminar el profesor porque tiene materias asignadas");
         }
 
-        List<Materia> materiasDelProfesor = materiaDao.buscarAll().stream()
+        List<String> nombresMaterias = materiaDao.recorrer()
                 .filter(m -> m.getProfesor() != null && id.equals(m.getProfesor().getId()))
-                .collect(Collectors.toList());
+                .map(Materia::getNombre)
+                .toList();
         
-        if (!materiasDelProfesor.isEmpty()) {
-            String nombresMaterias = materiasDelProfesor.stream()
-                    .map(Materia::getNombre)
-                    .collect(Collectors.joining(", "));
+        if (!nombresMaterias.isEmpty()) {
             throw new ReglaNegocioException(
-                    "No se puede eliminar el profesor porque dicta las siguientes materias: " + nombresMaterias);
+                    "No se puede eliminar el profesor porque dicta las siguientes materias: "
+                    + String.join(", ", nombresMaterias));
         }
         
         profesorDao.borrarPorId(id);
@@ -105,7 +118,7 @@ public class ProfesorServiceImpl implements ProfesorService {
 
         List<Materia> materiasDelProfesor = new ArrayList<>(profesorOpt.get().getMaterias());
         
-        List<Materia> materiasDeBD = materiaDao.buscarAll().stream()
+        List<Materia> materiasDeBD = materiaDao.recorrer()
                 .filter(m -> m.getProfesor() != null && profesorId.equals(m.getProfesor().getId()))
                 .collect(Collectors.toList());
 
@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import tomas.aguirrezabala.gestion_academica.business.AlumnoService;
@@ -29,29 +32,45 @@ public class AlumnoController {
     private AlumnoService alumnoService;
 
     @GetMapping
-    public ResponseEntity<List<Alumno>> listarTodos() {
-        List<Alumno> alumnos = alumnoService.buscarTodos();
-        return ResponseEntity.ok(alumnos);
+    public ResponseEntity<List<Alumno>> listarTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            List<Alumno> alumnos = alumnoService.buscarTodos();
+            return ResponseEntity.ok(alumnos);
+        }
+        return Paginacion.responder(alumnoService.buscarPagina(after, Paginacion.limite(limit), Paginacion.orden(sort)));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Alumno> buscarPorId(@PathVariable Long id) {
         return alumnoService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(Versionado::responder)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Alumno", id));
     }
 
+    @GetMapping("/dni/{dni}")
+    public ResponseEntity<Alumno> buscarPorDni(@PathVariable String dni) {
+        return alumnoService.buscarPorDni(dni)
+                .map(Versionado::responder)
+                .orElseThrow(() -> new EntidadNoEncontradaException("Alumno", "DNI", dni));
+    }
+
     @PostMapping
     public ResponseEntity<Alumno> crear(@RequestBody AlumnoDto alumnoDto) {
         Alumno alumnoCreado = alumnoService.guardar(alumnoDto);
-        return new ResponseEntity<>(alumnoCreado, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, alumnoCreado);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Alumno> actualizar(@PathVariable Long id, @RequestBody AlumnoDto alumnoDto) {
+    public ResponseEntity<Alumno> actualizar(@PathVariable Long id, @RequestBody AlumnoDto alumnoDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         alumnoDto.setId(id);
+        alumnoDto.setVersion(Versionado.versionEsperada(ifMatch, alumnoDto.getVersion()));
         Alumno alumnoActualizado = alumnoService.guardar(alumnoDto);
-        return ResponseEntity.ok(alumnoActualizado);
+        return Versionado.responder(alumnoActualizado);
     }
 
     @DeleteMapping("/{id}")
@@ -65,16 +84,18 @@ public class AlumnoController {
             @PathVariable Long idAlumno, 
             @PathVariable Long idMateria) {
         Asignatura asignatura = alumnoService.inscribirEnMateria(idAlumno, idMateria);
-        return new ResponseEntity<>(asignatura, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, asignatura);
     }
 
     @PutMapping("/{idAlumno}/asignatura/{idAsignatura}")
     public ResponseEntity<Asignatura> cambiarEstadoAsignatura(
             @PathVariable Long idAlumno, 
             @PathVariable Long idAsignatura, 
-            @RequestBody EstadoAsignatura estado) {
-        Asignatura asignatura = alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, estado);
-        return ResponseEntity.ok(asignatura);
+            @RequestBody EstadoAsignatura estado,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Asignatura asignatura = alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, estado,
+                Versionado.versionEsperada(ifMatch, null));
+        return Versionado.responder(asignatura);
     }
 
     @GetMapping("/{idAlumno}/asignaturas")
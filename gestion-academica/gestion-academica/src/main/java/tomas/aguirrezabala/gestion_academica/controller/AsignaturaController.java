@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import tomas.aguirrezabala.gestion_academica.business.AsignaturaService;
@@ -28,29 +31,38 @@ public class AsignaturaController {
     private AsignaturaService asignaturaService;
     
     @GetMapping
-    public ResponseEntity<List<Asignatura>> listarTodas() {
-        List<Asignatura> asignaturas = asignaturaService.buscarTodas();
-        return ResponseEntity.ok(asignaturas);
+    public ResponseEntity<List<Asignatura>> listarTodas(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            List<Asignatura> asignaturas = asignaturaService.buscarTodas();
+            return ResponseEntity.ok(asignaturas);
+        }
+        return Paginacion.responder(asignaturaService.buscarPagina(after, Paginacion.limite(limit), Paginacion.orden(sort)));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<Asignatura> buscarPorId(@PathVariable Long id) {
         return asignaturaService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(Versionado::responder)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Asignatura", id));
     }
     
     @PostMapping
     public ResponseEntity<Asignatura> crear(@RequestBody AsignaturaDto asignaturaDto) {
         Asignatura asignaturaCreada = asignaturaService.guardar(asignaturaDto);
-        return new ResponseEntity<>(asignaturaCreada, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, asignaturaCreada);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Asignatura> actualizar(@PathVariable Long id, @RequestBody AsignaturaDto asignaturaDto) {
+    public ResponseEntity<Asignatura> actualizar(@PathVariable Long id, @RequestBody AsignaturaDto asignaturaDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         asignaturaDto.setId(id);
+        asignaturaDto.setVersion(Versionado.versionEsperada(ifMatch, asignaturaDto.getVersion()));
         Asignatura asignaturaActualizada = asignaturaService.guardar(asignaturaDto);
-        return ResponseEntity.ok(asignaturaActualizada);
+        return Versionado.responder(asignaturaActualizada);
     }
     
     @DeleteMapping("/{id}")
@@ -62,7 +74,8 @@ public class AsignaturaController {
     @PutMapping("/{id}/estado")
     public ResponseEntity<Asignatura> actualizarEstado(
             @PathVariable Long id, 
-            @RequestBody EstadoAsignatura estado) {
+            @RequestBody EstadoAsignatura estado,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Asignatura asignatura = asignaturaService.buscarPorId(id)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Asignatura", id));
@@ -72,17 +85,19 @@ public class AsignaturaController {
         asignaturaDto.setAlumnoId(asignatura.getAlumno().getId());
         asignaturaDto.setMateriaId(asignatura.getMateria().getId());
         asignaturaDto.setNota(asignatura.getNota());
+        asignaturaDto.setVersion(Versionado.versionEsperada(ifMatch, asignatura.getVersion()));
 
         asignaturaDto.setEstado(estado);
 
         Asignatura asignaturaActualizada = asignaturaService.guardar(asignaturaDto);
-        return ResponseEntity.ok(asignaturaActualizada);
+        return Versionado.responder(asignaturaActualizada);
     }
     
     @PutMapping("/{id}/nota")
     public ResponseEntity<Asignatura> actualizarNota(
             @PathVariable Long id, 
-            @RequestBody Double nota) {
+            @RequestBody Double nota,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Asignatura asignatura = asignaturaService.buscarPorId(id)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Asignatura", id));
@@ -92,6 +107,7 @@ public class AsignaturaController {
         asignaturaDto.setAlumnoId(asignatura.getAlumno().getId());
         asignaturaDto.setMateriaId(asignatura.getMateria().getId());
         asignaturaDto.setEstado(asignatura.getEstado());
+        asignaturaDto.setVersion(Versionado.versionEsperada(ifMatch, asignatura.getVersion()));
 
         asignaturaDto.setNota(nota);
 
@@ -100,6 +116,6 @@ public class AsignaturaController {
         }
 
         Asignatura asignaturaActualizada = asignaturaService.guardar(asignaturaDto);
-        return ResponseEntity.ok(asignaturaActualizada);
+        return Versionado.responder(asignaturaActualizada);
     }
 }
\ No newline at end of file
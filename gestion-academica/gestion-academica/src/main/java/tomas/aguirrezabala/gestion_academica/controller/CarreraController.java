@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import tomas.aguirrezabala.gestion_academica.business.CarreraService;
@@ -28,29 +31,45 @@ public class CarreraController {
     
    
     @GetMapping
-    public ResponseEntity<List<Carrera>> listarTodas() {
-        List<Carrera> carreras = carreraService.buscarTodas();
-        return ResponseEntity.ok(carreras);
+    public ResponseEntity<List<Carrera>> listarTodas(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            List<Carrera> carreras = carreraService.buscarTodas();
+            return ResponseEntity.ok(carreras);
+        }
+        return Paginacion.responder(carreraService.buscarPagina(after, Paginacion.limite(limit), Paginacion.orden(sort)));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<Carrera> buscarPorId(@PathVariable Long id) {
         return carreraService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(Versionado::responder)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Carrera", id));
     }
     
+    @GetMapping("/nombre/{nombre}")
+    public ResponseEntity<Carrera> buscarPorNombre(@PathVariable String nombre) {
+        return carreraService.buscarPorNombre(nombre)
+                .map(Versionado::responder)
+                .orElseThrow(() -> new EntidadNoEncontradaException("Carrera", "nombre", nombre));
+    }
+    
     @PostMapping
     public ResponseEntity<Carrera> crear(@RequestBody CarreraDto carreraDto) {
         Carrera carreraCreada = carreraService.guardar(carreraDto);
-        return new ResponseEntity<>(carreraCreada, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, carreraCreada);
     }
     
     @PutMapping("/{id}")
-    public ResponseEntity<Carrera> actualizar(@PathVariable Long id, @RequestBody CarreraDto carreraDto) {
+    public ResponseEntity<Carrera> actualizar(@PathVariable Long id, @RequestBody CarreraDto carreraDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         carreraDto.setId(id);
+        carreraDto.setVersion(Versionado.versionEsperada(ifMatch, carreraDto.getVersion()));
         Carrera carreraActualizada = carreraService.guardar(carreraDto);
-        return ResponseEntity.ok(carreraActualizada);
+        return Versionado.responder(carreraActualizada);
     }
     
     @DeleteMapping("/{id}")
@@ -65,7 +84,7 @@ public class CarreraController {
             @PathVariable Long materiaId) {
         
         Carrera carreraActualizada = carreraService.agregarMateria(carreraId, materiaId);
-        return ResponseEntity.ok(carreraActualizada);
+        return Versionado.responder(carreraActualizada);
     }
 
     @GetMapping("/{carreraId}/materias")
@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,11 +12,18 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import tomas.aguirrezabala.gestion_academica.business.AsignaturaService;
 import tomas.aguirrezabala.gestion_academica.business.MateriaService;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.CantidadPorEstado;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.dto.MateriaDto;
 
@@ -25,31 +33,71 @@ public class MateriaController {
     
     @Autowired
     private MateriaService materiaService;
+    
+    @Autowired
+    private AsignaturaService asignaturaService;
 
     @GetMapping
-    public ResponseEntity<List<Materia>> listarTodas() {
-        List<Materia> materias = materiaService.buscarTodas();
-        return ResponseEntity.ok(materias);
+    public ResponseEntity<List<Materia>> listarTodas(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            List<Materia> materias = materiaService.buscarTodas();
+            return ResponseEntity.ok(materias);
+        }
+        return Paginacion.responder(materiaService.buscarPagina(after, Paginacion.limite(limit), Paginacion.orden(sort)));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Materia> buscarPorId(@PathVariable Long id) {
         return materiaService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(Versionado::responder)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Materia", id));
     }
+    
+    @GetMapping("/{id}/alumnos")
+    public ResponseEntity<List<Alumno>> alumnosPorEstado(@PathVariable Long id, @RequestParam String estado) {
+        return ResponseEntity.ok(asignaturaService.buscarAlumnosPorEstado(List.of(id), estado(estado), false));
+    }
+
+    @GetMapping("/{id}/alumnos/cantidad")
+    public ResponseEntity<CantidadPorEstado> cantidadPorEstado(@PathVariable Long id, @RequestParam String estado) {
+        return ResponseEntity.ok(asignaturaService.contarPorMateriaYEstado(id, estado(estado)));
+    }
+
+    /**
+     * Alumnos con el estado en alguna de las materias, o en todas con {@code todas=true}.
+     */
+    @GetMapping("/alumnos")
+    public ResponseEntity<List<Alumno>> alumnosPorEstadoEnMaterias(
+            @RequestParam List<Long> materias,
+            @RequestParam String estado,
+            @RequestParam(defaultValue = "false") boolean todas) {
+        return ResponseEntity.ok(asignaturaService.buscarAlumnosPorEstado(materias, estado(estado), todas));
+    }
+    
+    @GetMapping("/nombre/{nombre}")
+    public ResponseEntity<Materia> buscarPorNombre(@PathVariable String nombre) {
+        return materiaService.buscarPorNombre(nombre)
+                .map(Versionado::responder)
+                .orElseThrow(() -> new EntidadNoEncontradaException("Materia", "nombre", nombre));
+    }
 
     @PostMapping
     public ResponseEntity<Materia> crear(@RequestBody MateriaDto materiaDto) {
         Materia materiaCreada = materiaService.guardar(materiaDto);
-        return new ResponseEntity<>(materiaCreada, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, materiaCreada);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Materia> actualizar(@PathVariable Long id, @RequestBody MateriaDto materiaDto) {
+    public ResponseEntity<Materia> actualizar(@PathVariable Long id, @RequestBody MateriaDto materiaDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         materiaDto.setId(id);
+        materiaDto.setVersion(Versionado.versionEsperada(ifMatch, materiaDto.getVersion()));
         Materia materiaActualizada = materiaService.guardar(materiaDto);
-        return ResponseEntity.ok(materiaActualizada);
+        return Versionado.responder(materiaActualizada);
     }
 
     @DeleteMapping("/{id}")
@@ -67,7 +115,7 @@ public class MateriaController {
             materiaGuardada = materiaService.crearConCorrelatividades(materiaGuardada, materiaDto.getCorrelatividades());
         }
         
-        return new ResponseEntity<>(materiaGuardada, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, materiaGuardada);
     }
     
     @PostMapping("/{id}/correlatividades")
@@ -80,6 +128,14 @@ public class MateriaController {
 
         materia = materiaService.crearConCorrelatividades(materia, correlatividades);
         
-        return ResponseEntity.ok(materia);
+        return Versionado.responder(materia);
+    }
+
+    private static EstadoAsignatura estado(String estado) {
+        try {
+            return EstadoAsignatura.valueOf(estado);
+        } catch (IllegalArgumentException e) {
+            throw new ReglaNegocioException("El parámetro estado sólo admite CURSANDO, APROBADO o REGULAR");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package tomas.aguirrezabala.gestion_academica.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
+
+/**
+ * Parámetros comunes de los listados paginados ({@code after}, {@code limit},
+ * {@code sort}). El cuerpo sigue siendo la lista; el cursor de la página siguiente
+ * va en el encabezado {@code Link} con {@code rel="next"}.
+ * El enrutador de particiones valida {@code limit} con {@link #limite} antes de preguntar
+ * a los nodos.
+ */
+public final class Paginacion {
+
+    static final int LIMITE_POR_DEFECTO = 50;
+    static final int LIMITE_MAXIMO = 500;
+
+    private Paginacion() {
+    }
+
+    public static int limite(Integer limit) {
+        if (limit == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        if (limit < 1 || limit > LIMITE_MAXIMO) {
+            throw new ReglaNegocioException("El parámetro limit debe estar entre 1 y " + LIMITE_MAXIMO);
+        }
+        return limit;
+    }
+
+    static Orden orden(String sort) {
+        return switch (sort) {
+            case "id" -> Orden.ASCENDENTE;
+            case "-id" -> Orden.DESCENDENTE;
+            default -> throw new ReglaNegocioException("El parámetro sort sólo admite id o -id");
+        };
+    }
+
+    static <T> ResponseEntity<List<T>> responder(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.siguiente() != null) {
+            String siguiente = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", pagina.siguiente())
+                    .toUriString();
+            respuesta.header(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+        }
+        return respuesta.body(pagina.elementos());
+    }
+}
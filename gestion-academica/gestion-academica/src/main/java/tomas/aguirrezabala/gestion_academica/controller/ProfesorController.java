@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import tomas.aguirrezabala.gestion_academica.business.ProfesorService;
@@ -32,29 +35,45 @@ public class ProfesorController {
     private ProfesorServiceImpl profesorServiceImpl; 
     
     @GetMapping
-    public ResponseEntity<List<Profesor>> listarTodos() {
-        List<Profesor> profesores = profesorService.buscarTodos();
-        return ResponseEntity.ok(profesores);
+    public ResponseEntity<List<Profesor>> listarTodos(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            List<Profesor> profesores = profesorService.buscarTodos();
+            return ResponseEntity.ok(profesores);
+        }
+        return Paginacion.responder(profesorService.buscarPagina(after, Paginacion.limite(limit), Paginacion.orden(sort)));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<Profesor> buscarPorId(@PathVariable Long id) {
         return profesorService.buscarPorId(id)
-                .map(ResponseEntity::ok)
+                .map(Versionado::responder)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Profesor", id));
     }
+    
+    @GetMapping("/nombre/{nombre}/apellido/{apellido}")
+    public ResponseEntity<Profesor> buscarPorNombreYApellido(@PathVariable String nombre, @PathVariable String apellido) {
+        return profesorService.buscarPorNombreYApellido(nombre, apellido)
+                .map(Versionado::responder)
+                .orElseThrow(() -> new EntidadNoEncontradaException("Profesor", "nombre y apellido", nombre + " " + apellido));
+    }
 
     @PostMapping
     public ResponseEntity<Profesor> crear(@RequestBody ProfesorDto profesorDto) {
         Profesor profesorCreado = profesorService.guardar(profesorDto);
-        return new ResponseEntity<>(profesorCreado, HttpStatus.CREATED);
+        return Versionado.responder(HttpStatus.CREATED, profesorCreado);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Profesor> actualizar(@PathVariable Long id, @RequestBody ProfesorDto profesorDto) {
+    public ResponseEntity<Profesor> actualizar(@PathVariable Long id, @RequestBody ProfesorDto profesorDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         profesorDto.setId(id);
+        profesorDto.setVersion(Versionado.versionEsperada(ifMatch, profesorDto.getVersion()));
         Profesor profesorActualizado = profesorService.guardar(profesorDto);
-        return ResponseEntity.ok(profesorActualizado);
+        return Versionado.responder(profesorActualizado);
     }
     
     @DeleteMapping("/{id}")
@@ -72,7 +91,8 @@ public class ProfesorController {
     @PostMapping("/{id}/materias")
     public ResponseEntity<Profesor> asignarMaterias(
             @PathVariable Long id, 
-            @RequestBody ProfesorDto profesorDto) {
+            @RequestBody ProfesorDto profesorDto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         Profesor profesor = profesorService.buscarPorId(id)
                 .orElseThrow(() -> new EntidadNoEncontradaException("Profesor", id));
@@ -81,9 +101,10 @@ public class ProfesorController {
         profesorDto.setNombre(profesor.getNombre());
         profesorDto.setApellido(profesor.getApellido());
         profesorDto.setTitulo(profesor.getTitulo());
+        profesorDto.setVersion(Versionado.versionEsperada(ifMatch, profesor.getVersion()));
 
         Profesor profesorActualizado = profesorService.guardar(profesorDto);
         
-        return ResponseEntity.ok(profesorActualizado);
+        return Versionado.responder(profesorActualizado);
     }
 }
\ No newline at end of file
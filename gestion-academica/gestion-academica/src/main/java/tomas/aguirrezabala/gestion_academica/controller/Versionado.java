@@ -0,0 +1,48 @@
+package tomas.aguirrezabala.gestion_academica.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * ETag e If-Match de las entidades. El ETag es la versión ({@code "3"}); un PUT con
+ * {@code If-Match} sólo se guarda si la entidad sigue en esa versión y si no responde
+ * 409. Sin {@code If-Match} (o con {@code *}) se usa la versión del cuerpo, si trae.
+ */
+final class Versionado {
+
+    private Versionado() {
+    }
+
+    static Long versionEsperada(String ifMatch, Long porDefecto) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return porDefecto;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            try {
+                return Long.valueOf(etag.substring(1, etag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Cae en el error de abajo.
+            }
+        }
+        throw new ReglaNegocioException("El encabezado If-Match debe ser el ETag de la entidad, p. ej. \"3\"");
+    }
+
+    static <T extends Entidad> ResponseEntity<T> responder(T entidad) {
+        return responder(HttpStatus.OK, entidad);
+    }
+
+    static <T extends Entidad> ResponseEntity<T> responder(HttpStatus estado, T entidad) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.status(estado);
+        if (entidad.getVersion() != null) {
+            respuesta.eTag("\"" + entidad.getVersion() + "\"");
+        }
+        return respuesta.body(entidad);
+    }
+}
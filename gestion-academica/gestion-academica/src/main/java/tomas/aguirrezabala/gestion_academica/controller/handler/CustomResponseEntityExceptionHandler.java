@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
@@ -56,6 +57,20 @@ public class CustomResponseEntityExceptionHandler extends ResponseEntityExceptio
         return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ConflictoDeVersionException.class)
+    public ResponseEntity<CustomApiError> manejarConflictoDeVersion(
+            ConflictoDeVersionException ex, WebRequest request) {
+
+        CustomApiError apiError = new CustomApiError(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                ex.getMessage(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<CustomApiError> manejarExcepcionGeneral(
             Exception ex, WebRequest request) {
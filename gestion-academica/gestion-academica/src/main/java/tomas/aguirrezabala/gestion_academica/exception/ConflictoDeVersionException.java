@@ -0,0 +1,15 @@
+package tomas.aguirrezabala.gestion_academica.exception;
+
+public class ConflictoDeVersionException extends RuntimeException {
+
+    public ConflictoDeVersionException(String mensaje) {
+        super(mensaje);
+    }
+
+    public ConflictoDeVersionException(String entidad, Long id, Long esperada, Long actual) {
+        super(actual != null
+                ? String.format("%s con id %d fue modificado/a por otro usuario: se esperaba la versión %d y está en la %d",
+                        entidad, id, esperada, actual)
+                : String.format("%s con id %d ya no existe: se esperaba la versión %d", entidad, id, esperada));
+    }
+}
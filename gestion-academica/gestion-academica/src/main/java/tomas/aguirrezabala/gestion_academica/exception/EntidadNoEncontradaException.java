@@ -9,4 +9,8 @@ public class EntidadNoEncontradaException extends RuntimeException {
     public EntidadNoEncontradaException(String entidad, Long id) {
         super(String.format("%s con id %d no encontrado/a", entidad, id));
     }
+    
+    public EntidadNoEncontradaException(String entidad, String campo, String valor) {
+        super(String.format("%s con %s %s no encontrado/a", entidad, campo, valor));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package tomas.aguirrezabala.gestion_academica.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
@@ -9,7 +10,7 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @JsonIdentityInfo(
   generator = ObjectIdGenerators.PropertyGenerator.class, 
   property = "id")
-public class Alumno {
+public class Alumno extends Entidad {
     private Long id;
     private String nombre;
     private String apellido;
@@ -34,6 +35,7 @@ public class Alumno {
     }
     
     public void setId(Long id) {
+        verificarMutable();
         this.id = id;
     }
     
@@ -42,6 +44,7 @@ public class Alumno {
     }
     
     public void setNombre(String nombre) {
+        verificarMutable();
         this.nombre = nombre;
     }
     
@@ -50,6 +53,7 @@ public class Alumno {
     }
     
     public void setApellido(String apellido) {
+        verificarMutable();
         this.apellido = apellido;
     }
     
@@ -58,6 +62,7 @@ public class Alumno {
     }
     
     public void setDni(String dni) {
+        verificarMutable();
         this.dni = dni;
     }
     
@@ -66,6 +71,7 @@ public class Alumno {
     }
     
     public void setAsignaturas(List<Asignatura> asignaturas) {
+        verificarMutable();
         this.asignaturas = asignaturas;
     }
     
@@ -74,6 +80,32 @@ public class Alumno {
     }
     
     public void setCarrera(Carrera carrera) {
+        verificarMutable();
         this.carrera = carrera;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Alumno copiar() {
+        Alumno copia = new Alumno(id, nombre, apellido, dni, carrera);
+        copia.asignaturas = asignaturas != null ? new ArrayList<>(asignaturas) : null;
+        return conMismaVersion(copia);
+    }
+
+    /**
+     * Versión de sólo lectura de este alumno con las asignaturas indicadas.
+     */
+    public Alumno conAsignaturas(List<Asignatura> asignaturas) {
+        Alumno vista = new Alumno(id, nombre, apellido, dni, carrera);
+        vista.asignaturas = asignaturas;
+        conMismaVersion(vista).congelar();
+        return vista;
+    }
+
+    @Override
+    public void congelar() {
+        if (asignaturas != null) {
+            asignaturas = Collections.unmodifiableList(asignaturas);
+        }
+        super.congelar();
+    }
+}
@@ -6,7 +6,7 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @JsonIdentityInfo(
   generator = ObjectIdGenerators.PropertyGenerator.class, 
   property = "id")
-public class Asignatura {
+public class Asignatura extends Entidad {
     private Long id;
     private Materia materia;
     private Alumno alumno;
@@ -36,6 +36,7 @@ public class Asignatura {
     }
     
     public void setId(Long id) {
+        verificarMutable();
         this.id = id;
     }
     
@@ -44,6 +45,7 @@ public class Asignatura {
     }
     
     public void setMateria(Materia materia) {
+        verificarMutable();
         this.materia = materia;
     }
     
@@ -52,6 +54,7 @@ public class Asignatura {
     }
     
     public void setAlumno(Alumno alumno) {
+        verificarMutable();
         this.alumno = alumno;
     }
     
@@ -60,6 +63,7 @@ public class Asignatura {
     }
     
     public void setEstado(EstadoAsignatura estado) {
+        verificarMutable();
         this.estado = estado;
     }
     
@@ -68,6 +72,12 @@ public class Asignatura {
     }
     
     public void setNota(Double nota) {
+        verificarMutable();
         this.nota = nota;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Asignatura copiar() {
+        return conMismaVersion(new Asignatura(id, materia, alumno, estado, nota));
+    }
+}
@@ -0,0 +1,7 @@
+package tomas.aguirrezabala.gestion_academica.model;
+
+/**
+ * Cuántos alumnos tienen una asignatura de la materia en ese estado.
+ */
+public record CantidadPorEstado(Long materiaId, EstadoAsignatura estado, long cantidad) {
+}
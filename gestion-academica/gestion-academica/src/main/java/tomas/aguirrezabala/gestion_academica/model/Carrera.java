@@ -1,9 +1,10 @@
 package tomas.aguirrezabala.gestion_academica.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Carrera {
+public class Carrera extends Entidad {
     private Long id;
     private String nombre;
     private Integer duracionAnios;
@@ -24,6 +25,7 @@ public class Carrera {
     }
     
     public void setId(Long id) {
+        verificarMutable();
         this.id = id;
     }
     
@@ -32,6 +34,7 @@ public class Carrera {
     }
     
     public void setNombre(String nombre) {
+        verificarMutable();
         this.nombre = nombre;
     }
     
@@ -40,6 +43,7 @@ public class Carrera {
     }
     
     public void setDuracionAnios(Integer duracionAnios) {
+        verificarMutable();
         this.duracionAnios = duracionAnios;
     }
     
@@ -48,6 +52,22 @@ public class Carrera {
     }
     
     public void setMaterias(List<Materia> materias) {
+        verificarMutable();
         this.materias = materias;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Carrera copiar() {
+        Carrera copia = new Carrera(id, nombre, duracionAnios);
+        copia.materias = materias != null ? new ArrayList<>(materias) : null;
+        return conMismaVersion(copia);
+    }
+
+    @Override
+    public void congelar() {
+        if (materias != null) {
+            materias = Collections.unmodifiableList(materias);
+        }
+        super.congelar();
+    }
+}
@@ -0,0 +1,78 @@
+package tomas.aguirrezabala.gestion_academica.model;
+
+/**
+ * Base de las entidades del modelo. Los DAOs en memoria guardan versiones congeladas
+ * y las devuelven sin copiar; para modificar una entidad leída se trabaja sobre
+ * {@link #copiar()} y se vuelve a guardar.
+ * La versión la asigna el DAO al guardar: si la entidad que se guarda trae una, tiene
+ * que coincidir con la guardada o el DAO rechaza la escritura; sin versión se pisa.
+ */
+public abstract class Entidad {
+
+    private boolean congelada;
+    private Long version;
+
+    public abstract Long getId();
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        verificarMutable();
+        this.version = version;
+    }
+
+    public abstract Entidad copiar();
+
+    /**
+     * Deja la instancia de sólo lectura. Pensado para copias recién hechas con
+     * {@link #copiar()}: las listas propias pasan a ser no modificables.
+     */
+    public void congelar() {
+        congelada = true;
+    }
+
+    /**
+     * Para {@link #copiar()}: la copia conserva la versión de la que salió.
+     */
+    protected <E extends Entidad> E conMismaVersion(E copia) {
+        ((Entidad) copia).version = version;
+        return copia;
+    }
+
+    public boolean estaCongelada() {
+        return congelada;
+    }
+
+    protected void verificarMutable() {
+        if (congelada) {
+            throw new UnsupportedOperationException(String.format(
+                    "%s con id %d es una versión de sólo lectura, modifique una copia",
+                    getClass().getSimpleName(), getId()));
+        }
+    }
+
+    /**
+     * Dos versiones de una misma entidad guardada son iguales: se comparan por id. Sin id
+     * (todavía no se guardó) sólo es igual a sí misma. El hash cambia cuando el DAO le da
+     * el id, así que una entidad nueva no se pone en un conjunto antes de guardarla.
+     */
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) {
+            return true;
+        }
+        if (otro == null || getClass() != otro.getClass()) {
+            return false;
+        }
+        Long id = getId();
+        return id != null && id.equals(((Entidad) otro).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        Long id = getId();
+        return id != null ? id.hashCode() : System.identityHashCode(this);
+    }
+}
@@ -4,5 +4,10 @@ public enum EstadoAsignatura {
 
     CURSANDO,
     APROBADO, 
-    REGULAR
-}
\ No newline at end of file
+    REGULAR;
+
+    /** Una materia cuenta como correlativa cumplida si está aprobada o regular. */
+    public boolean cumpleCorrelatividad() {
+        return this == APROBADO || this == REGULAR;
+    }
+}
@@ -0,0 +1,138 @@
+package tomas.aguirrezabala.gestion_academica.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Lista de ids sobre un long[]: sin un Long por elemento. Se usa como cualquier
+ * List&lt;Long&gt; (no admite null) y se puede dejar de sólo lectura al congelar la
+ * entidad que la contiene.
+ */
+public final class ListaLong extends AbstractList<Long> implements RandomAccess {
+
+    private long[] elementos;
+    private int tamanio;
+    private boolean soloLectura;
+
+    public ListaLong() {
+        elementos = new long[4];
+    }
+
+    public ListaLong(Collection<Long> ids) {
+        if (ids instanceof ListaLong otra) {
+            elementos = Arrays.copyOf(otra.elementos, Math.max(4, otra.tamanio));
+            tamanio = otra.tamanio;
+            return;
+        }
+        elementos = new long[Math.max(4, ids.size())];
+        for (Long id : ids) {
+            agregar(Objects.requireNonNull(id, "La lista no admite ids nulos"));
+        }
+    }
+
+    public long getLong(int indice) {
+        Objects.checkIndex(indice, tamanio);
+        return elementos[indice];
+    }
+
+    public boolean contieneLong(long id) {
+        for (int i = 0; i < tamanio; i++) {
+            if (elementos[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void agregar(long id) {
+        verificarModificable();
+        if (tamanio == elementos.length) {
+            elementos = Arrays.copyOf(elementos, tamanio * 2);
+        }
+        elementos[tamanio++] = id;
+        modCount++;
+    }
+
+    public long[] aArreglo() {
+        return Arrays.copyOf(elementos, tamanio);
+    }
+
+    public void congelar() {
+        soloLectura = true;
+    }
+
+    @Override
+    public Long get(int indice) {
+        return getLong(indice);
+    }
+
+    @Override
+    public int size() {
+        return tamanio;
+    }
+
+    @Override
+    public boolean contains(Object objeto) {
+        return objeto instanceof Long id && contieneLong(id);
+    }
+
+    @Override
+    public int indexOf(Object objeto) {
+        if (objeto instanceof Long id) {
+            for (int i = 0; i < tamanio; i++) {
+                if (elementos[i] == id) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Long set(int indice, Long id) {
+        verificarModificable();
+        long anterior = getLong(indice);
+        elementos[indice] = Objects.requireNonNull(id, "La lista no admite ids nulos");
+        return anterior;
+    }
+
+    @Override
+    public void add(int indice, Long id) {
+        verificarModificable();
+        Objects.checkIndex(indice, tamanio + 1);
+        Objects.requireNonNull(id, "La lista no admite ids nulos");
+        if (tamanio == elementos.length) {
+            elementos = Arrays.copyOf(elementos, Math.max(4, tamanio * 2));
+        }
+        System.arraycopy(elementos, indice, elementos, indice + 1, tamanio - indice);
+        elementos[indice] = id;
+        tamanio++;
+        modCount++;
+    }
+
+    @Override
+    public Long remove(int indice) {
+        verificarModificable();
+        long anterior = getLong(indice);
+        System.arraycopy(elementos, indice + 1, elementos, indice, tamanio - indice - 1);
+        tamanio--;
+        modCount++;
+        return anterior;
+    }
+
+    @Override
+    public void clear() {
+        verificarModificable();
+        tamanio = 0;
+        modCount++;
+    }
+
+    private void verificarModificable() {
+        if (soloLectura) {
+            throw new UnsupportedOperationException("La lista es de sólo lectura");
+        }
+    }
+}
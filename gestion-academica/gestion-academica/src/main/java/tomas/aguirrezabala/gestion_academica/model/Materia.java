@@ -1,15 +1,14 @@
 package tomas.aguirrezabala.gestion_academica.model;
 
-import java.util.ArrayList;
 import java.util.List;
 
-public class Materia {
+public class Materia extends Entidad {
     private Long id;
     private String nombre;
     private Integer anio;
     private Integer cuatrimestre;
     private Profesor profesor;
-    private List<Long> correlatividades = new ArrayList<>();
+    private ListaLong correlatividades = new ListaLong();
 
     public Materia() {
     }
@@ -35,6 +34,7 @@ public class Materia {
     }
     
     public void setId(Long id) {
+        verificarMutable();
         this.id = id;
     }
     
@@ -43,6 +43,7 @@ public class Materia {
     }
     
     public void setNombre(String nombre) {
+        verificarMutable();
         this.nombre = nombre;
     }
     
@@ -51,6 +52,7 @@ public class Materia {
     }
     
     public void setAnio(Integer anio) {
+        verificarMutable();
         this.anio = anio;
     }
     
@@ -59,6 +61,7 @@ public class Materia {
     }
     
     public void setCuatrimestre(Integer cuatrimestre) {
+        verificarMutable();
         this.cuatrimestre = cuatrimestre;
     }
     
@@ -67,6 +70,7 @@ public class Materia {
     }
     
     public void setProfesor(Profesor profesor) {
+        verificarMutable();
         this.profesor = profesor;
     }
     
@@ -75,6 +79,22 @@ public class Materia {
     }
     
     public void setCorrelatividades(List<Long> correlatividades) {
-        this.correlatividades = correlatividades;
+        verificarMutable();
+        this.correlatividades = correlatividades != null ? new ListaLong(correlatividades) : null;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Materia copiar() {
+        Materia copia = new Materia(id, nombre, anio, cuatrimestre, profesor);
+        copia.correlatividades = correlatividades != null ? new ListaLong(correlatividades) : null;
+        return conMismaVersion(copia);
+    }
+
+    @Override
+    public void congelar() {
+        if (correlatividades != null) {
+            correlatividades.congelar();
+        }
+        super.congelar();
+    }
+}
@@ -0,0 +1,11 @@
+package tomas.aguirrezabala.gestion_academica.model;
+
+/**
+ * Sentido de un listado paginado. Siempre es por id: es la única clave única y
+ * estable, así un cursor nunca saltea ni repite filas entre páginas.
+ */
+public enum Orden {
+
+    ASCENDENTE,
+    DESCENDENTE
+}
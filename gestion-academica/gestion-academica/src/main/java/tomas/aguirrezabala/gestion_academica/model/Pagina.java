@@ -0,0 +1,22 @@
+package tomas.aguirrezabala.gestion_academica.model;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Una página de un listado y el cursor para pedir la siguiente (null si es la última).
+ */
+public record Pagina<T>(List<T> elementos, Long siguiente) {
+
+    /**
+     * Arma la página a partir de hasta {@code limite + 1} filas: si vino la fila de más,
+     * hay otra página y arranca después de la última que se devuelve.
+     */
+    public static <T> Pagina<T> de(List<T> filas, int limite, Function<T, Long> obtenerId) {
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> elementos = List.copyOf(filas.subList(0, limite));
+        return new Pagina<>(elementos, obtenerId.apply(elementos.get(limite - 1)));
+    }
+}
@@ -1,9 +1,10 @@
 package tomas.aguirrezabala.gestion_academica.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
-public class Profesor {
+public class Profesor extends Entidad {
     private Long id;
     private String nombre;
     private String apellido;
@@ -26,6 +27,7 @@ public class Profesor {
     }
     
     public void setId(Long id) {
+        verificarMutable();
         this.id = id;
     }
     
@@ -34,6 +36,7 @@ public class Profesor {
     }
     
     public void setNombre(String nombre) {
+        verificarMutable();
         this.nombre = nombre;
     }
     
@@ -42,6 +45,7 @@ public class Profesor {
     }
     
     public void setApellido(String apellido) {
+        verificarMutable();
         this.apellido = apellido;
     }
     
@@ -50,6 +54,7 @@ public class Profesor {
     }
     
     public void setTitulo(String titulo) {
+        verificarMutable();
         this.titulo = titulo;
     }
     
@@ -58,6 +63,22 @@ public class Profesor {
     }
     
     public void setMaterias(List<Materia> materias) {
+        verificarMutable();
         this.materias = materias;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Profesor copiar() {
+        Profesor copia = new Profesor(id, nombre, apellido, titulo);
+        copia.materias = materias != null ? new ArrayList<>(materias) : null;
+        return conMismaVersion(copia);
+    }
+
+    @Override
+    public void congelar() {
+        if (materias != null) {
+            materias = Collections.unmodifiableList(materias);
+        }
+        super.congelar();
+    }
+}
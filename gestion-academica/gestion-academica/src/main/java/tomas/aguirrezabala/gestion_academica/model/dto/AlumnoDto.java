@@ -5,6 +5,7 @@ import java.util.List;
 
 public class AlumnoDto {
     private Long id;
+    private Long version;
     private String nombre;
     private String apellido;
     private String dni;
@@ -32,6 +33,14 @@ public class AlumnoDto {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getNombre() {
         return nombre;
     }
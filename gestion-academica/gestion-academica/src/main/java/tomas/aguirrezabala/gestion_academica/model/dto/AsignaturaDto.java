@@ -4,6 +4,7 @@ import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 
 public class AsignaturaDto {
     private Long id;
+    private Long version;
     private Long materiaId;
     private Long alumnoId;
     private EstadoAsignatura estado;
@@ -29,6 +30,14 @@ public class AsignaturaDto {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Long getMateriaId() {
         return materiaId;
     }
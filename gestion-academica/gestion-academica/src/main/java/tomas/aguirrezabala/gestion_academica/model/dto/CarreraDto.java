@@ -5,6 +5,7 @@ import java.util.List;
 
 public class CarreraDto {
     private Long id;
+    private Long version;
     private String nombre;
     private Integer cantidadCuatrimestres;
     private List<Long> materiasIds = new ArrayList<>();
@@ -28,6 +29,14 @@ public class CarreraDto {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getNombre() {
         return nombre;
     }
@@ -5,6 +5,7 @@ import java.util.List;
 
 public class MateriaDto {
     private Long id;
+    private Long version;
     private String nombre;
     private Integer anio;
     private Integer cuatrimestre;
@@ -31,6 +32,14 @@ public class MateriaDto {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getNombre() {
         return nombre;
     }
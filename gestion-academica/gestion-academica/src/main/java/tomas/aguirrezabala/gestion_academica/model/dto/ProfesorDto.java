@@ -5,6 +5,7 @@ import java.util.List;
 
 public class ProfesorDto {
     private Long id;
+    private Long version;
     private String nombre;
     private String apellido;
     private String titulo;
@@ -30,6 +31,14 @@ public class ProfesorDto {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getNombre() {
         return nombre;
     }
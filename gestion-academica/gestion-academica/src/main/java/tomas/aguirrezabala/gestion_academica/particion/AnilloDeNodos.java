@@ -0,0 +1,64 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import java.util.Arrays;
+
+/**
+ * Hashing consistente: cada nodo pone {@code virtuales} puntos en un anillo de 64 bits y
+ * una clave le pertenece al primer punto que encuentra hacia adelante. Los puntos de un
+ * nodo dependen sólo de su número, así que agregar un nodo mueve aproximadamente 1/N de
+ * las claves y no reparte todo de nuevo.
+ */
+public final class AnilloDeNodos {
+
+    private final long[] puntos;
+    private final int[] duenios;
+
+    public AnilloDeNodos(int nodos, int virtuales) {
+        if (nodos < 1 || virtuales < 1) {
+            throw new IllegalArgumentException("El anillo necesita al menos un nodo y un punto por nodo");
+        }
+        long[][] pares = new long[nodos * virtuales][];
+        for (int nodo = 0; nodo < nodos; nodo++) {
+            for (int v = 0; v < virtuales; v++) {
+                pares[nodo * virtuales + v] = new long[] { mezclar(((long) nodo << 32) | v), nodo };
+            }
+        }
+        Arrays.sort(pares, (a, b) -> Long.compareUnsigned(a[0], b[0]));
+        puntos = new long[pares.length];
+        duenios = new int[pares.length];
+        for (int i = 0; i < pares.length; i++) {
+            puntos[i] = pares[i][0];
+            duenios[i] = (int) pares[i][1];
+        }
+    }
+
+    public int duenio(long clave) {
+        long hash = mezclar(clave);
+        int desde = 0;
+        int hasta = puntos.length;
+        while (desde < hasta) {
+            int medio = (desde + hasta) >>> 1;
+            if (Long.compareUnsigned(puntos[medio], hash) < 0) {
+                desde = medio + 1;
+            } else {
+                hasta = medio;
+            }
+        }
+        return duenios[desde == puntos.length ? 0 : desde];
+    }
+
+    public int duenio(String clave) {
+        // String.hashCode está fijado por la especificación: da lo mismo en todos los nodos.
+        return duenio(0x5DEECE66DL ^ clave.hashCode());
+    }
+
+    /** Finalizador de MurmurHash3: distribuye bien claves consecutivas. */
+    private static long mezclar(long x) {
+        x ^= x >>> 33;
+        x *= 0xFF51AFD7ED558CCDL;
+        x ^= x >>> 33;
+        x *= 0xC4CEB9FE1A85EC53L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
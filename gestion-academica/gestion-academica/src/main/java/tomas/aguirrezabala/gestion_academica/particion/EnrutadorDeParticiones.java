@@ -0,0 +1,588 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import tomas.aguirrezabala.gestion_academica.business.MateriaService;
+import tomas.aguirrezabala.gestion_academica.controller.Paginacion;
+import tomas.aguirrezabala.gestion_academica.controller.handler.CustomApiError;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+
+/**
+ * Capa de ruteo delante de los controladores cuando hay {@link Particiones} activas:
+ * <ul>
+ * <li>{@code /alumno/{id}/**} y {@code /asignatura/{id}/**} van al nodo dueño del id; un
+ * alta de alumno va al dueño de su DNI y una de asignatura al dueño de su alumno.</li>
+ * <li>Los listados de alumnos y asignaturas se piden a todos los nodos y se mezclan por id
+ * respetando {@code sort}, {@code limit} y {@code after}; la búsqueda por DNI también
+ * pregunta a todos.</li>
+ * <li>Los alumnos y cantidades por estado de {@code /materia/.../alumnos} también se piden
+ * a todos y se suman o se mezclan por id: las asignaturas de un alumno están en su nodo,
+ * así que cada nodo ya resuelve solo "en todas las materias".</li>
+ * <li>Las lecturas de materias, carreras y profesores se responden localmente. Las
+ * escrituras las aplica el nodo 0 y las encola para repetirlas, en el mismo orden, en los
+ * demás; el cliente recibe la respuesta del nodo 0 cuando todos respondieron lo mismo o se
+ * venció la espera. Lo que depende de datos de cada nodo (las inscripciones de una materia
+ * que se borra) se pregunta a todos antes de aplicarla.</li>
+ * </ul>
+ * Un pedido que ya fue reenviado trae {@link #REENVIADO} y se atiende acá sin volver a rutear.
+ * Un nodo que al repetir una escritura responde otra cosa que el nodo 0 quedó con datos
+ * replicados distintos: deja de atender (503) hasta que se lo vuelva a sincronizar.
+ */
+@Component
+public class EnrutadorDeParticiones extends OncePerRequestFilter {
+
+    static final String REENVIADO = "X-Gestion-Reenviado";
+    /** En una escritura reenviada: sólo verificar si se puede aplicar en este nodo. */
+    static final String VALIDAR = "X-Gestion-Validar";
+    /** En una repetición: el estado con el que respondió el nodo 0. */
+    static final String ESTADO_ESPERADO = "X-Gestion-Estado-Esperado";
+    /** En la respuesta al cliente: nodos que todavía no confirmaron la escritura replicada. */
+    static final String REPLICAS_PENDIENTES = "X-Gestion-Replicas-Pendientes";
+
+    private static final Logger log = LoggerFactory.getLogger(EnrutadorDeParticiones.class);
+
+    private static final Pattern POR_ID = Pattern.compile("/(alumno|asignatura)/(\\d{1,18})(/.*)?");
+    private static final Pattern POR_ESTADO = Pattern.compile("/materia(/\\d{1,18})?/alumnos(/cantidad)?");
+    private static final Pattern MATERIA = Pattern.compile("/materia/(\\d{1,18})");
+    private static final List<String> ENCABEZADOS_PEDIDO = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ACCEPT,
+            HttpHeaders.IF_MATCH);
+    private static final List<String> ENCABEZADOS_RESPUESTA = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG,
+            HttpHeaders.LINK);
+
+    @Autowired
+    private Particiones particiones;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private MateriaService materiaService;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    /** Cuánto espera el cliente a que los demás nodos repitan una escritura replicada. */
+    private static final Duration ESPERA_REPLICAS = Duration.ofSeconds(10);
+
+    /**
+     * Ordena las escrituras de datos replicados: se toma para aplicarlas en el nodo 0 y
+     * encolarlas, así todos los nodos las ven en el mismo orden. Sólo el borrado de una
+     * materia espera la red con el lock, mientras pregunta a los demás si se puede.
+     */
+    private final ReentrantLock replicacion = new ReentrantLock(true);
+
+    private Replicador<HttpRequest> replicador;
+
+    /** Por qué este nodo dejó de atender, o null mientras sus datos replicados coinciden. */
+    private volatile String desincronizado;
+
+    @PostConstruct
+    void iniciar() {
+        if (particiones.activas() && particiones.esPrimario()) {
+            replicador = new Replicador<>(particiones.cantidad(),
+                    (nodo, pedido) -> http.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode(),
+                    Duration.ofSeconds(1));
+        }
+    }
+
+    @PreDestroy
+    void cerrar() {
+        if (replicador != null) {
+            replicador.cerrar();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !particiones.activas();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        String metodo = request.getMethod();
+        if (desincronizado != null) {
+            responderError(HttpStatus.SERVICE_UNAVAILABLE, desincronizado, request, response);
+            return;
+        }
+        if (request.getHeader(REENVIADO) != null) {
+            atenderReenviado(ruta, request, response, chain);
+            return;
+        }
+
+        Matcher porId = POR_ID.matcher(ruta);
+        if (porId.matches()) {
+            enviar(particiones.duenio(Long.parseLong(porId.group(2))), request, null, response, chain);
+        } else if (ruta.equals("/alumno") || ruta.equals("/asignatura")) {
+            if (metodo.equals("GET")) {
+                juntarListados(request, response, chain);
+            } else if (metodo.equals("POST")) {
+                byte[] cuerpo = request.getInputStream().readAllBytes();
+                enviar(duenioDelAlta(ruta, cuerpo), request, cuerpo, response, chain);
+            } else {
+                chain.doFilter(request, response);
+            }
+        } else if (ruta.startsWith("/alumno/dni/") && metodo.equals("GET")) {
+            buscarEnTodos(request, response);
+        } else if (POR_ESTADO.matcher(ruta).matches() && metodo.equals("GET")) {
+            juntarPorEstado(ruta.endsWith("/cantidad"), request, response);
+        } else if (esReplicada(ruta) && !esLectura(metodo)) {
+            replicar(ruta, request, response, chain);
+        } else {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private void atenderReenviado(String ruta, HttpServletRequest request, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        if (request.getHeader(VALIDAR) != null) {
+            Matcher materia = MATERIA.matcher(ruta);
+            if (request.getMethod().equals("DELETE") && materia.matches()) {
+                try {
+                    materiaService.verificarSinInscriptos(Long.parseLong(materia.group(1)));
+                } catch (ReglaNegocioException e) {
+                    responderError(HttpStatus.BAD_REQUEST, e.getMessage(), request, response);
+                    return;
+                }
+            }
+            response.setStatus(HttpStatus.NO_CONTENT.value());
+            return;
+        }
+        String esperado = request.getHeader(ESTADO_ESPERADO);
+        if (esperado == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        ContentCachingResponseWrapper local = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, local);
+        if (!esperado.equals(String.valueOf(local.getStatus()))) {
+            desincronizado = "El nodo " + particiones.local() + " respondió " + local.getStatus() + " al repetir "
+                    + request.getMethod() + " " + request.getRequestURI() + " y el nodo 0 " + esperado
+                    + ": sus datos replicados quedaron distintos y no atiende hasta que se lo vuelva a sincronizar";
+            log.error(desincronizado);
+        }
+        local.copyBodyToResponse();
+    }
+
+    private int duenioDelAlta(String ruta, byte[] cuerpo) {
+        JsonNode alta;
+        try {
+            alta = json.readTree(cuerpo);
+        } catch (IOException e) {
+            // Que lo rechace el controlador local con su 400 de siempre.
+            return particiones.local();
+        }
+        if (alta == null) {
+            return particiones.local();
+        }
+        if (ruta.equals("/alumno")) {
+            JsonNode dni = alta.path("dni");
+            return dni.isTextual() ? particiones.duenio(dni.asText()) : particiones.local();
+        }
+        JsonNode alumnoId = alta.path("alumnoId");
+        return alumnoId.canConvertToLong() ? particiones.duenio(alumnoId.asLong()) : particiones.local();
+    }
+
+    private void enviar(int nodo, HttpServletRequest request, byte[] cuerpo, HttpServletResponse response,
+            FilterChain chain) throws ServletException, IOException {
+        if (nodo == particiones.local()) {
+            chain.doFilter(cuerpo == null ? request : new CuerpoLeido(request, cuerpo), response);
+            return;
+        }
+        if (cuerpo == null) {
+            cuerpo = request.getInputStream().readAllBytes();
+        }
+        try {
+            copiar(http.send(pedido(nodo, request, cuerpo, true), HttpResponse.BodyHandlers.ofByteArray()), response);
+        } catch (IOException e) {
+            nodoCaido(nodo, request, response, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            nodoCaido(nodo, request, response, e);
+        }
+    }
+
+    private void juntarListados(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean todos = Boolean.parseBoolean(request.getParameter("all"));
+        int limite = 0;
+        if (!todos) {
+            String limit = request.getParameter("limit");
+            try {
+                limite = Paginacion.limite(limit == null ? null : Integer.valueOf(limit));
+            } catch (NumberFormatException | ReglaNegocioException e) {
+                // Antes de preguntar a nadie: que lo rechace el controlador local con su 400 de siempre.
+                chain.doFilter(request, response);
+                return;
+            }
+        }
+        List<HttpResponse<byte[]>> respuestas = preguntarATodos(request, response);
+        if (respuestas == null) {
+            return;
+        }
+        List<JsonNode> filas = new ArrayList<>();
+        boolean hayMas = false;
+        for (HttpResponse<byte[]> respuesta : respuestas) {
+            if (respuesta.statusCode() != HttpStatus.OK.value()) {
+                // Un parámetro inválido lo rechazan todos igual: alcanza con devolver uno.
+                copiar(respuesta, response);
+                return;
+            }
+            json.readTree(respuesta.body()).forEach(filas::add);
+            hayMas |= respuesta.headers().firstValue(HttpHeaders.LINK).isPresent();
+        }
+
+        Comparator<JsonNode> porId = Comparator.comparingLong(fila -> fila.path("id").asLong());
+        filas.sort("-id".equals(request.getParameter("sort")) ? porId.reversed() : porId);
+        if (!todos) {
+            // Cada nodo devolvió sus primeras 'limite' filas: las primeras 'limite' de la
+            // mezcla están todas ahí, y cualquier fila que falte va después del cursor.
+            if (filas.size() > limite) {
+                filas = filas.subList(0, limite);
+                hayMas = true;
+            }
+            if (hayMas && !filas.isEmpty()) {
+                String siguiente = ServletUriComponentsBuilder.fromRequest(request)
+                        .replaceQueryParam("after", filas.get(filas.size() - 1).path("id").asLong())
+                        .toUriString();
+                response.setHeader(HttpHeaders.LINK, "<" + siguiente + ">; rel=\"next\"");
+            }
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        json.writeValue(response.getOutputStream(), filas);
+    }
+
+    private void juntarPorEstado(boolean cantidad, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        List<HttpResponse<byte[]>> respuestas = preguntarATodos(request, response);
+        if (respuestas == null) {
+            return;
+        }
+        List<JsonNode> cuerpos = new ArrayList<>();
+        for (HttpResponse<byte[]> respuesta : respuestas) {
+            if (respuesta.statusCode() != HttpStatus.OK.value()) {
+                // Materia inexistente o estado inválido: todos responden lo mismo.
+                copiar(respuesta, response);
+                return;
+            }
+            cuerpos.add(json.readTree(respuesta.body()));
+        }
+        Object resultado;
+        if (cantidad) {
+            long total = cuerpos.stream().mapToLong(cuerpo -> cuerpo.path("cantidad").asLong()).sum();
+            resultado = ((ObjectNode) cuerpos.get(0)).put("cantidad", total);
+        } else {
+            List<JsonNode> alumnos = new ArrayList<>();
+            cuerpos.forEach(cuerpo -> cuerpo.forEach(alumnos::add));
+            alumnos.sort(Comparator.comparingLong(alumno -> alumno.path("id").asLong()));
+            resultado = alumnos;
+        }
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        json.writeValue(response.getOutputStream(), resultado);
+    }
+
+    private void buscarEnTodos(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        List<HttpResponse<byte[]>> respuestas = preguntarATodos(request, response);
+        if (respuestas == null) {
+            return;
+        }
+        // El DNI pudo cambiar después del alta, así que el dueño del DNI no alcanza.
+        HttpResponse<byte[]> elegida = respuestas.stream()
+                .filter(respuesta -> respuesta.statusCode() == HttpStatus.OK.value())
+                .findFirst()
+                .orElse(respuestas.get(particiones.local()));
+        copiar(elegida, response);
+    }
+
+    /** Devuelve null si algún nodo no respondió; en ese caso ya contestó 502. */
+    private List<HttpResponse<byte[]>> preguntarATodos(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        List<CompletableFuture<HttpResponse<byte[]>>> pendientes = new ArrayList<>();
+        for (int nodo = 0; nodo < particiones.cantidad(); nodo++) {
+            pendientes.add(http.sendAsync(pedido(nodo, request, new byte[0], true),
+                    HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        List<HttpResponse<byte[]>> respuestas = new ArrayList<>();
+        for (int nodo = 0; nodo < pendientes.size(); nodo++) {
+            try {
+                respuestas.add(pendientes.get(nodo).join());
+            } catch (CompletionException e) {
+                nodoCaido(nodo, request, response, e.getCause());
+                return null;
+            }
+        }
+        return respuestas;
+    }
+
+    private void replicar(String ruta, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        byte[] cuerpo = request.getInputStream().readAllBytes();
+        if (!particiones.esPrimario()) {
+            // Sin REENVIADO: el nodo 0 la aplica y la repite en todos, este incluido.
+            try {
+                copiar(http.send(pedido(0, request, cuerpo, false), HttpResponse.BodyHandlers.ofByteArray()), response);
+            } catch (IOException e) {
+                nodoCaido(0, request, response, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                nodoCaido(0, request, response, e);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper local = new ContentCachingResponseWrapper(response);
+        List<CompletableFuture<Integer>> repeticiones = List.of();
+        replicacion.lock();
+        try {
+            if (request.getMethod().equals("DELETE") && MATERIA.matcher(ruta).matches()
+                    && !validarEnLosDemas(request, response)) {
+                return;
+            }
+            chain.doFilter(new CuerpoLeido(request, cuerpo), local);
+            if (HttpStatus.valueOf(local.getStatus()).is2xxSuccessful()) {
+                List<HttpRequest> pedidos = new ArrayList<>();
+                for (int nodo = 0; nodo < particiones.cantidad(); nodo++) {
+                    pedidos.add(nodo == 0 ? null : HttpRequest.newBuilder(pedido(nodo, request, cuerpo, true),
+                            (nombre, valor) -> true).header(ESTADO_ESPERADO, String.valueOf(local.getStatus())).build());
+                }
+                repeticiones = replicador.encolar(pedidos);
+            }
+        } finally {
+            replicacion.unlock();
+        }
+        // La escritura ya quedó en el nodo 0 y en orden para los demás: el cliente recibe esa
+        // respuesta aunque alguno no la haya confirmado todavía.
+        List<Integer> pendientes = esperarRepeticiones(repeticiones, local.getStatus(), request);
+        if (!pendientes.isEmpty()) {
+            local.setHeader(REPLICAS_PENDIENTES,
+                    String.join(",", pendientes.stream().map(String::valueOf).toList()));
+        }
+        local.copyBodyToResponse();
+    }
+
+    /**
+     * Pregunta a los demás nodos si la escritura se puede aplicar con sus datos. Si alguno
+     * la rechaza o no responde ya contestó al cliente y devuelve false: no se aplica en ninguno.
+     */
+    private boolean validarEnLosDemas(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        List<CompletableFuture<HttpResponse<byte[]>>> validaciones = new ArrayList<>();
+        for (int nodo = 1; nodo < particiones.cantidad(); nodo++) {
+            validaciones.add(http.sendAsync(HttpRequest.newBuilder(pedido(nodo, request, new byte[0], true),
+                    (nombre, valor) -> true).header(VALIDAR, "true").build(), HttpResponse.BodyHandlers.ofByteArray()));
+        }
+        for (int i = 0; i < validaciones.size(); i++) {
+            HttpResponse<byte[]> respuesta;
+            try {
+                respuesta = validaciones.get(i).join();
+            } catch (CompletionException e) {
+                nodoCaido(i + 1, request, response, e.getCause());
+                return false;
+            }
+            if (!HttpStatus.valueOf(respuesta.statusCode()).is2xxSuccessful()) {
+                copiar(respuesta, response);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Espera, ya sin el lock, a que cada nodo repita la escritura. Devuelve los nodos que no
+     * la confirmaron a tiempo; uno que respondió distinto ya dejó de atender por su cuenta.
+     */
+    private List<Integer> esperarRepeticiones(List<CompletableFuture<Integer>> repeticiones, int esperado,
+            HttpServletRequest request) {
+        List<Integer> pendientes = new ArrayList<>();
+        long limite = System.nanoTime() + ESPERA_REPLICAS.toNanos();
+        for (int i = 0; i < repeticiones.size(); i++) {
+            int nodo = i + 1;
+            int respondido;
+            try {
+                respondido = repeticiones.get(i).get(Math.max(0, limite - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.warn("El nodo {} todavía no repitió {} {} ({} en cola)", nodo, request.getMethod(),
+                        request.getRequestURI(), replicador.pendientes(nodo));
+                pendientes.add(nodo);
+                continue;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pendientes.add(nodo);
+                continue;
+            } catch (ExecutionException e) {
+                log.error("No se pudo repetir {} {} en el nodo {}: las réplicas quedaron distintas",
+                        request.getMethod(), request.getRequestURI(), nodo, e.getCause());
+                pendientes.add(nodo);
+                continue;
+            }
+            if (respondido != esperado) {
+                log.error("El nodo {} respondió {} al repetir {} {} (el nodo 0 respondió {}): queda fuera de servicio"
+                        + " hasta que se lo vuelva a sincronizar", nodo, respondido, request.getMethod(),
+                        request.getRequestURI(), esperado);
+                pendientes.add(nodo);
+            }
+        }
+        return pendientes;
+    }
+
+    private HttpRequest pedido(int nodo, HttpServletRequest request, byte[] cuerpo, boolean reenviado) {
+        String query = request.getQueryString();
+        HttpRequest.Builder pedido = HttpRequest.newBuilder()
+                .uri(URI.create(particiones.url(nodo) + request.getRequestURI() + (query == null ? "" : "?" + query)))
+                .timeout(Duration.ofSeconds(30))
+                .method(request.getMethod(), cuerpo.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(cuerpo));
+        for (String encabezado : ENCABEZADOS_PEDIDO) {
+            String valor = request.getHeader(encabezado);
+            if (valor != null) {
+                pedido.header(encabezado, valor);
+            }
+        }
+        if (reenviado) {
+            pedido.header(REENVIADO, String.valueOf(particiones.local()));
+        }
+        return pedido.build();
+    }
+
+    private void copiar(HttpResponse<byte[]> respuesta, HttpServletResponse response) throws IOException {
+        response.setStatus(respuesta.statusCode());
+        for (String encabezado : ENCABEZADOS_RESPUESTA) {
+            respuesta.headers().firstValue(encabezado).ifPresent(valor -> response.setHeader(encabezado, valor));
+        }
+        response.getOutputStream().write(respuesta.body());
+    }
+
+    private void nodoCaido(int nodo, HttpServletRequest request, HttpServletResponse response, Throwable causa)
+            throws IOException {
+        log.warn("El nodo {} ({}) no respondió: {}", nodo, particiones.url(nodo), causa.toString());
+        responderError(HttpStatus.BAD_GATEWAY, "No se pudo contactar al nodo " + nodo + " (" + particiones.url(nodo) + ")",
+                request, response);
+    }
+
+    private void responderError(HttpStatus estado, String mensaje, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CustomApiError error = new CustomApiError(
+                estado.value(),
+                estado.getReasonPhrase(),
+                mensaje,
+                request.getRequestURI());
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        json.writeValue(response.getOutputStream(), error);
+    }
+
+    private static boolean esReplicada(String ruta) {
+        return ruta.startsWith("/materia") || ruta.startsWith("/carrera") || ruta.startsWith("/profesor");
+    }
+
+    private static boolean esLectura(String metodo) {
+        return metodo.equals("GET") || metodo.equals("HEAD") || metodo.equals("OPTIONS");
+    }
+
+    /** El cuerpo ya se leyó para decidir el nodo: el controlador lo vuelve a leer de acá. */
+    private static final class CuerpoLeido extends HttpServletRequestWrapper {
+
+        private final byte[] cuerpo;
+
+        CuerpoLeido(HttpServletRequest request, byte[] cuerpo) {
+            super(request);
+            this.cuerpo = cuerpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(cuerpo);
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String charset = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return cuerpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return cuerpo.length;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Reparto de alumnos entre instancias. {@code gestion-academica.particion.nodos} lista la
+ * URL base de cada instancia (la misma lista, en el mismo orden, en todas) y
+ * {@code gestion-academica.particion.nodo} dice cuál es esta. Cada alumno vive, con sus
+ * asignaturas, en el nodo que el anillo asigna a su id; materias, carreras y profesores
+ * están replicados en todos y el nodo 0 ordena sus escrituras.
+ * Con menos de dos nodos no hay particionado. Sólo está soportado con los DAOs en memoria.
+ */
+@Component
+public class Particiones {
+
+    private static final int PUNTOS_POR_NODO = 128;
+
+    @Value("${gestion-academica.particion.nodos:}")
+    private List<String> nodos;
+
+    @Value("${gestion-academica.particion.nodo:0}")
+    private int nodo;
+
+    @Autowired
+    private Environment entorno;
+
+    private AnilloDeNodos anillo;
+
+    @PostConstruct
+    void iniciar() {
+        nodos = nodos.stream().map(String::trim).filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+        if (!activas()) {
+            return;
+        }
+        if (nodo < 0 || nodo >= nodos.size()) {
+            throw new IllegalStateException("gestion-academica.particion.nodo debe estar entre 0 y " + (nodos.size() - 1));
+        }
+        if (entorno.acceptsProfiles(Profiles.of("jdbc | mvstore"))) {
+            throw new IllegalStateException("El particionado sólo está soportado con los DAOs en memoria");
+        }
+        anillo = new AnilloDeNodos(nodos.size(), PUNTOS_POR_NODO);
+    }
+
+    public boolean activas() {
+        return nodos.size() > 1;
+    }
+
+    public int cantidad() {
+        return nodos.size();
+    }
+
+    public int local() {
+        return nodo;
+    }
+
+    public boolean esPrimario() {
+        return nodo == 0;
+    }
+
+    public String url(int nodo) {
+        return nodos.get(nodo);
+    }
+
+    public int duenio(long id) {
+        return activas() ? anillo.duenio(id) : nodo;
+    }
+
+    public int duenio(String clave) {
+        return activas() ? anillo.duenio(clave) : nodo;
+    }
+
+    public boolean esLocal(long id) {
+        return duenio(id) == nodo;
+    }
+}
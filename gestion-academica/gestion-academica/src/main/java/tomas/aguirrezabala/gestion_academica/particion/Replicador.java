@@ -0,0 +1,106 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cola de repeticiones del nodo 0 hacia cada uno de los demás. Las escrituras se encolan en
+ * el orden en que se aplicaron y un hilo por nodo las manda de a una: si el nodo no responde
+ * se reintenta la misma, así ninguna posterior se adelanta. Quien encola no espera la red;
+ * recibe una promesa por nodo con el estado que respondió.
+ */
+final class Replicador<P> {
+
+    private static final Logger log = LoggerFactory.getLogger(Replicador.class);
+
+    @FunctionalInterface
+    interface Envio<P> {
+
+        /** Devuelve el estado HTTP con el que respondió el nodo. */
+        int enviar(int nodo, P pedido) throws IOException, InterruptedException;
+    }
+
+    private record Repeticion<P>(P pedido, CompletableFuture<Integer> respuesta) {
+    }
+
+    private final Envio<P> envio;
+    private final Duration reintento;
+    private final List<BlockingQueue<Repeticion<P>>> colas = new ArrayList<>();
+    private final List<Thread> hilos = new ArrayList<>();
+
+    /** Repite hacia los nodos 1 a {@code nodos - 1}. */
+    Replicador(int nodos, Envio<P> envio, Duration reintento) {
+        this.envio = envio;
+        this.reintento = reintento;
+        for (int nodo = 0; nodo < nodos; nodo++) {
+            colas.add(new LinkedBlockingQueue<>());
+            if (nodo == 0) {
+                hilos.add(null);
+                continue;
+            }
+            int destino = nodo;
+            Thread hilo = new Thread(() -> repetir(destino), "replicador-nodo-" + nodo);
+            hilo.setDaemon(true);
+            hilo.start();
+            hilos.add(hilo);
+        }
+    }
+
+    /**
+     * Encola un pedido por nodo (el índice 0 se ignora). Se llama con el orden de las
+     * escrituras ya fijado: dos llamadas no deben cruzarse.
+     */
+    List<CompletableFuture<Integer>> encolar(List<P> porNodo) {
+        List<CompletableFuture<Integer>> respuestas = new ArrayList<>();
+        for (int nodo = 1; nodo < colas.size(); nodo++) {
+            Repeticion<P> repeticion = new Repeticion<>(porNodo.get(nodo), new CompletableFuture<>());
+            colas.get(nodo).add(repeticion);
+            respuestas.add(repeticion.respuesta());
+        }
+        return respuestas;
+    }
+
+    int pendientes(int nodo) {
+        return colas.get(nodo).size();
+    }
+
+    void cerrar() {
+        for (Thread hilo : hilos) {
+            if (hilo != null) {
+                hilo.interrupt();
+            }
+        }
+    }
+
+    private void repetir(int nodo) {
+        BlockingQueue<Repeticion<P>> cola = colas.get(nodo);
+        try {
+            while (true) {
+                Repeticion<P> repeticion = cola.take();
+                while (true) {
+                    try {
+                        repeticion.respuesta().complete(envio.enviar(nodo, repeticion.pedido()));
+                        break;
+                    } catch (IOException e) {
+                        log.warn("El nodo {} no respondió una repetición ({} en cola): se reintenta en {}: {}",
+                                nodo, cola.size() + 1, reintento, e.toString());
+                        Thread.sleep(reintento.toMillis());
+                    } catch (RuntimeException e) {
+                        repeticion.respuesta().completeExceptionally(e);
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
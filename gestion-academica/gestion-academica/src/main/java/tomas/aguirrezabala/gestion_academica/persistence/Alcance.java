@@ -0,0 +1,56 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * Entidades que una unidad de trabajo necesita tener quietas mientras corre: las que
+ * escribe (o cuyas dependientes escribe) en exclusiva, las que sólo consulta compartidas.
+ * Los ids nulos se ignoran; la operación es la que decide qué hacer con ellos.
+ */
+public final class Alcance {
+
+    public record Clave(Class<? extends Entidad> tipo, long id, boolean exclusiva) {
+    }
+
+    private final List<Clave> claves = new ArrayList<>();
+
+    private Alcance() {
+    }
+
+    public static Alcance escribe(Class<? extends Entidad> tipo, Long id) {
+        return new Alcance().yEscribe(tipo, id);
+    }
+
+    public static Alcance lee(Class<? extends Entidad> tipo, Long id) {
+        return new Alcance().yLee(tipo, id);
+    }
+
+    public Alcance yEscribe(Class<? extends Entidad> tipo, Long id) {
+        if (id != null) {
+            claves.add(new Clave(tipo, id, true));
+        }
+        return this;
+    }
+
+    public Alcance yLee(Class<? extends Entidad> tipo, Long id) {
+        if (id != null) {
+            claves.add(new Clave(tipo, id, false));
+        }
+        return this;
+    }
+
+    public Alcance yLee(Class<? extends Entidad> tipo, List<Long> ids) {
+        if (ids != null) {
+            ids.forEach(id -> yLee(tipo, id));
+        }
+        return this;
+    }
+
+    public List<Clave> claves() {
+        return Collections.unmodifiableList(claves);
+    }
+}
@@ -2,12 +2,17 @@ package tomas.aguirrezabala.gestion_academica.persistence;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 
 public interface AlumnoDao {
     Alumno guardar(Alumno alumno);
     Optional<Alumno> buscarPorId(Long alumnoId);
+    Optional<Alumno> buscarPorDni(String dni);
     List<Alumno> buscarTodos();
+    List<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden);
+    Stream<Alumno> recorrer();
     void borrarPorId(Long alumnoId);
 }
\ No newline at end of file
@@ -1,16 +1,31 @@
 package tomas.aguirrezabala.gestion_academica.persistence;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 
 public interface AsignaturaDao {
     Asignatura guardar(Asignatura asignatura);
     Optional<Asignatura> buscarPorId(Long asignaturaid);
     List<Asignatura> buscarTodos();
+    List<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden);
+    Stream<Asignatura> recorrer();
     void borrarPorId(Long asignaturaid);
     List<Asignatura> buscarPorAlumnoId(Long alumnoId);
+    Map<Long, List<Asignatura>> buscarPorAlumnoIds(Collection<Long> alumnoIds);
     Optional<Asignatura> buscarPorAlumnoIdYMateriaId(Long alumnoId, Long materiaId);
     boolean existePorMateriaId(Long materiaId);
+    boolean existePorAlumnoId(Long alumnoId);
+    long contarPorMateriaIdYEstado(Long materiaId, EstadoAsignatura estado);
+    /** Ids de alumno ordenados; con {@code enTodas} tienen que tener el estado en cada materia. */
+    List<Long> buscarAlumnoIdsPorEstado(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas);
+    /** Ids ordenados de las correlativas de la materia que el alumno no tiene aprobadas ni regulares. */
+    List<Long> buscarCorrelativasSinCumplir(Long alumnoId, Materia materia);
 }
\ No newline at end of file
@@ -2,12 +2,18 @@ package tomas.aguirrezabala.gestion_academica.persistence;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 
 public interface CarreraDao {
     Carrera guardar(Carrera carrera);
     Optional<Carrera> buscarPorId(Long carreraId);
+    Optional<Carrera> buscarPorNombre(String nombre);
+    boolean existePorMateriaId(Long materiaId);
     List<Carrera> buscarAll();
+    List<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden);
+    Stream<Carrera> recorrer();
     void borrarPorId(Long carreraId);
 }
\ No newline at end of file
@@ -2,12 +2,18 @@ package tomas.aguirrezabala.gestion_academica.persistence;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 
 public interface MateriaDao {
     Materia guardar(Materia materia);
     Optional<Materia> buscarPorId(Long materiaId);
+    Optional<Materia> buscarPorNombre(String nombre);
+    boolean existePorCorrelativaId(Long correlativaId);
     List<Materia> buscarAll();
+    List<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden);
+    Stream<Materia> recorrer();
     void borrarPorId(Long materiaId);
 }
\ No newline at end of file
@@ -2,12 +2,17 @@ package tomas.aguirrezabala.gestion_academica.persistence;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 
 public interface ProfesorDao {
     Profesor guardar(Profesor profesor);
     Optional<Profesor> buscarPorId(Long profesorId);
+    Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido);
     List<Profesor> buscarAll();
+    List<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden);
+    Stream<Profesor> recorrer();
     void borrarPorId(Long profesorId);
 }
\ No newline at end of file
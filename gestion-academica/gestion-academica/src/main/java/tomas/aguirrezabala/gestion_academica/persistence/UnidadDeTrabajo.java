@@ -0,0 +1,19 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.function.Supplier;
+
+/**
+ * Corre una operación de varios pasos sobre los DAOs (validar y después escribir) sin que
+ * otra unidad con un alcance en conflicto pueda meterse en el medio.
+ */
+public interface UnidadDeTrabajo {
+
+    <R> R ejecutar(Alcance alcance, Supplier<R> operacion);
+
+    default void ejecutar(Alcance alcance, Runnable operacion) {
+        ejecutar(alcance, () -> {
+            operacion.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,409 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+
+/**
+ * Almacén concurrente compartido por los DAOs en memoria.
+ * Las lecturas no bloquean y las escrituras sólo se serializan por clave,
+ * por lo que varios hilos de Tomcat pueden usar el mismo DAO sin perder datos.
+ * Cada guardar publica una versión congelada de la entidad; las lecturas la
+ * devuelven sin copiar y los listados recorren una instantánea inmutable.
+ * La instantánea se publica por segmento de {@link MapaLong}, con el lock del segmento
+ * ya tomado: una escritura no compite con las de otros segmentos por una sola referencia.
+ */
+public class AlmacenEnMemoria<T extends Entidad> implements AlmacenPersistible<T> {
+
+    /** Una línea de caché por segmento, para que publicar en uno no invalide a los vecinos. */
+    private static final int SEPARACION = 16;
+
+    private final MapaLong<T> entidades = new MapaLong<>();
+    private final AtomicReferenceArray<MapaPersistente<T>> publicadas = new AtomicReferenceArray<>(MapaLong.SEGMENTOS * SEPARACION);
+    private volatile GeneradorDeIds ids = new SecuenciaPorBloques();
+    private final Function<T, Long> obtenerId;
+    private final BiConsumer<T, Long> asignarId;
+    private final List<IndiceUnico<T, ?>> indicesUnicos = new CopyOnWriteArrayList<>();
+    private final List<Referencia<T>> referencias = new CopyOnWriteArrayList<>();
+    private final List<GuardaDeBorrado> guardasDeBorrado = new CopyOnWriteArrayList<>();
+    private final List<TextoCompartido<T>> textosCompartidos = new CopyOnWriteArrayList<>();
+    private final List<BiConsumer<Long, T>> oyentes = new CopyOnWriteArrayList<>();
+    private volatile Anotacion<T> anotacion;
+
+    public AlmacenEnMemoria(Function<T, Long> obtenerId, BiConsumer<T, Long> asignarId) {
+        this.obtenerId = obtenerId;
+        this.asignarId = asignarId;
+        for (int i = 0; i < MapaLong.SEGMENTOS; i++) {
+            publicadas.set(i * SEPARACION, MapaPersistente.vacio());
+        }
+    }
+
+    public <K> IndiceUnico<T, K> agregarIndiceUnico(Function<T, K> obtenerClave, String entidad, String campo) {
+        IndiceUnico<T, K> indice = new IndiceUnico<>(obtenerClave, entidad, campo);
+        indicesUnicos.add(indice);
+        return indice;
+    }
+
+    public Referencia<T> agregarReferencia(Function<T, Long> obtenerIdDestino, String entidadDestino) {
+        return agregarReferencias(entidad -> {
+            Long idDestino = obtenerIdDestino.apply(entidad);
+            return idDestino != null ? List.of(idDestino) : List.of();
+        }, entidadDestino);
+    }
+
+    public Referencia<T> agregarReferencias(Function<T, Collection<Long>> obtenerIdsDestino, String entidadDestino) {
+        Referencia<T> referencia = new Referencia<>(obtenerIdsDestino, entidadDestino);
+        referencias.add(referencia);
+        return referencia;
+    }
+
+    /**
+     * El campo se guarda con la instancia de {@link TextosCompartidos}: para textos que se
+     * repiten entre entidades, como nombres y apellidos.
+     */
+    public void compartirTexto(Function<T, String> obtener, BiConsumer<T, String> asignar) {
+        textosCompartidos.add(new TextoCompartido<>(obtener, asignar));
+    }
+
+    /**
+     * Recibe el id y la versión publicada (null al borrar) de cada cambio, también los que
+     * vienen de cargar o reproducir la bitácora; se registra antes de cargar nada. Corre
+     * después de publicar y sin locks: dos cambios seguidos de un id pueden llegar en otro
+     * orden, y si el oyente falla el cambio ya está hecho.
+     */
+    public void avisarCambios(BiConsumer<Long, T> oyente) {
+        oyentes.add(oyente);
+    }
+
+    void agregarGuardaDeBorrado(Referencia<?> referencia, String mensaje) {
+        guardasDeBorrado.add(new GuardaDeBorrado(referencia, mensaje));
+    }
+
+    @Override
+    public void anotarEn(Bitacora bitacora, String nombre, Codificador<T> codificador) {
+        anotacion = new Anotacion<>(bitacora, nombre, codificador);
+    }
+
+    @Override
+    public Captura<T> capturar() {
+        Instantanea<T> instantanea = instantanea();
+        return new Captura<>(instantanea, instantanea.tamanio(), ids.ultimo());
+    }
+
+    @Override
+    public void usarIds(GeneradorDeIds ids) {
+        ids.avanzarHasta(this.ids.ultimo());
+        this.ids = ids;
+    }
+
+    /**
+     * Las entidades vienen recién decodificadas y ordenadas por id, así que se congelan
+     * sin copiar, el mapa persistente de cada segmento se arma de una vez y los índices únicos y las
+     * referencias se reconstruyen en una sola pasada.
+     */
+    @Override
+    public void cargar(List<T> cargadas, long ultimoIdGuardado) {
+        if (!entidades.vacio()) {
+            throw new IllegalStateException("Sólo se puede cargar una instantánea en un almacén vacío");
+        }
+        long[] claves = new long[cargadas.size()];
+        for (int i = 0; i < claves.length; i++) {
+            T entidad = cargadas.get(i);
+            compartirTextos(entidad);
+            entidad.congelar();
+            claves[i] = obtenerId.apply(entidad);
+        }
+        for (int i = 0; i < claves.length; i++) {
+            entidades.poner(claves[i], cargadas.get(i));
+        }
+        // Segunda pasada: con todas las entidades presentes las autorreferencias ya se pueden contar.
+        for (int i = 0; i < claves.length; i++) {
+            Long id = claves[i];
+            T entidad = cargadas.get(i);
+            for (IndiceUnico<T, ?> indice : indicesUnicos) {
+                indice.reservar(id, entidad);
+            }
+            for (Referencia<T> referencia : referencias) {
+                referencia.cargar(entidad);
+            }
+            avisar(id, entidad);
+        }
+        publicarOrdenados(claves, cargadas);
+        long mayorId = claves.length > 0 ? claves[claves.length - 1] : 0;
+        ids.avanzarHasta(Math.max(mayorId, ultimoIdGuardado));
+    }
+
+    boolean contiene(Long id) {
+        return entidades.contiene(id);
+    }
+
+    boolean retener(Long id, Referencia<?> referencia) {
+        return entidades.calcularSiPresente(id, (clave, entidad) -> {
+            referencia.incrementar(clave);
+            return entidad;
+        }) != null;
+    }
+
+    @Override
+    public T guardar(T entidad) {
+        return escribir(entidad, true);
+    }
+
+    @Override
+    public T restaurar(T entidad) {
+        return escribir(entidad, false);
+    }
+
+    private T escribir(T entidad, boolean controlarVersion) {
+        Long id = obtenerId.apply(entidad);
+        boolean nueva = id == null;
+        if (nueva) {
+            id = ids.siguiente();
+            asignarId.accept(entidad, id);
+        } else {
+            // Ids explícitos (p. ej. al reproducir la bitácora) no deben volver a asignarse.
+            ids.avanzarHasta(id);
+        }
+        @SuppressWarnings("unchecked")
+        T version = (T) entidad.copiar();
+        compartirTextos(version);
+        Anotacion<T> anotacion = this.anotacion;
+        CompletableFuture<?>[] confirmacion = new CompletableFuture<?>[1];
+        // Las referencias se toman fuera del compute: el destino puede ser este mismo almacén.
+        List<List<Long>> retenidas = new ArrayList<>();
+        try {
+            if (anotacion != null) {
+                anotacion.bitacora().verificarDisponible();
+            }
+            for (Referencia<T> referencia : referencias) {
+                retenidas.add(referencia.retener(version));
+            }
+            entidades.calcular(id, (clave, anterior) -> {
+                if (controlarVersion) {
+                    version.setVersion(Versiones.siguiente(entidad, anterior));
+                }
+                version.congelar();
+                byte[] registro = anotacion != null ? anotacion.codificar(GUARDAR, clave, version) : null;
+                reservarClavesUnicas(clave, anterior, version);
+                MapaPersistente<T> publicada = publicadas.get(lugar(clave)).con(clave, version);
+                // Lo que puede fallar ya pasó: de acá en adelante nada se deshace.
+                Runnable publicar = () -> {
+                    for (IndiceUnico<T, ?> indice : indicesUnicos) {
+                        indice.confirmar(clave, anterior, version);
+                    }
+                    for (Referencia<T> referencia : referencias) {
+                        referencia.soltar(anterior);
+                    }
+                    publicar(clave, publicada);
+                };
+                if (anotacion == null) {
+                    publicar.run();
+                } else {
+                    try {
+                        confirmacion[0] = anotacion.bitacora().anotarYPublicar(registro, publicar);
+                    } catch (RuntimeException e) {
+                        for (IndiceUnico<T, ?> indice : indicesUnicos) {
+                            indice.cancelarReserva(clave, anterior, version);
+                        }
+                        throw e;
+                    }
+                }
+                return version;
+            });
+        } catch (RuntimeException e) {
+            for (int i = 0; i < retenidas.size(); i++) {
+                referencias.get(i).liberar(retenidas.get(i));
+            }
+            if (nueva) {
+                asignarId.accept(entidad, null);
+            }
+            throw e;
+        }
+        if (controlarVersion) {
+            entidad.setVersion(version.getVersion());
+        }
+        avisar(id, version);
+        if (confirmacion[0] != null) {
+            Bitacora.esperar(confirmacion[0]);
+        }
+        return entidad;
+    }
+
+    private void avisar(Long id, T version) {
+        for (BiConsumer<Long, T> oyente : oyentes) {
+            oyente.accept(id, version);
+        }
+    }
+
+    private void compartirTextos(T entidad) {
+        for (TextoCompartido<T> texto : textosCompartidos) {
+            String valor = texto.obtener().apply(entidad);
+            if (valor != null) {
+                texto.asignar().accept(entidad, TextosCompartidos.compartir(valor));
+            }
+        }
+    }
+
+    private void reservarClavesUnicas(Long id, T anterior, T entidad) {
+        List<IndiceUnico<T, ?>> reservados = new ArrayList<>();
+        try {
+            for (IndiceUnico<T, ?> indice : indicesUnicos) {
+                indice.reservar(id, entidad);
+                reservados.add(indice);
+            }
+        } catch (RuntimeException e) {
+            for (IndiceUnico<T, ?> indice : reservados) {
+                indice.cancelarReserva(id, anterior, entidad);
+            }
+            throw e;
+        }
+    }
+
+    public Optional<T> buscarPorId(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entidades.buscar(id));
+    }
+
+    public List<T> buscarTodos() {
+        return instantanea().valores();
+    }
+
+    /**
+     * Stream perezoso sobre la instantánea actual: no ve escrituras posteriores y se
+     * puede partir para recorrerlo en paralelo.
+     */
+    public Stream<T> recorrer() {
+        return StreamSupport.stream(instantanea().spliterator(), false);
+    }
+
+    public List<T> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return instantanea().pagina(despuesDeId, limite, orden == Orden.DESCENDENTE);
+    }
+
+    /**
+     * Vista del almacén que no ve escrituras posteriores. Los segmentos se leen uno tras
+     * otro; la captura sigue siendo coherente con la bitácora porque cada escritura se
+     * anota antes de publicar y la captura espera a las que ya se anotaron.
+     */
+    public Instantanea<T> instantanea() {
+        @SuppressWarnings("unchecked")
+        MapaPersistente<T>[] segmentos = new MapaPersistente[MapaLong.SEGMENTOS];
+        for (int i = 0; i < segmentos.length; i++) {
+            segmentos[i] = publicadas.get(i * SEPARACION);
+        }
+        return new Instantanea<>(segmentos);
+    }
+
+    /**
+     * Sólo se llama dentro de un cálculo sobre la clave: con el lock de su segmento tomado
+     * nadie más publica en ese lugar y alcanza con una escritura volátil.
+     */
+    private void publicar(long clave, MapaPersistente<T> mapa) {
+        publicadas.set(lugar(clave), mapa);
+    }
+
+    private void publicarOrdenados(long[] claves, List<T> valores) {
+        List<List<Integer>> posiciones = new ArrayList<>();
+        for (int i = 0; i < MapaLong.SEGMENTOS; i++) {
+            posiciones.add(new ArrayList<>());
+        }
+        for (int i = 0; i < claves.length; i++) {
+            posiciones.get(MapaLong.segmentoDe(claves[i])).add(i);
+        }
+        for (int segmento = 0; segmento < MapaLong.SEGMENTOS; segmento++) {
+            List<Integer> deSegmento = posiciones.get(segmento);
+            long[] clavesDeSegmento = new long[deSegmento.size()];
+            List<T> valoresDeSegmento = new ArrayList<>(deSegmento.size());
+            for (int j = 0; j < clavesDeSegmento.length; j++) {
+                clavesDeSegmento[j] = claves[deSegmento.get(j)];
+                valoresDeSegmento.add(valores.get(deSegmento.get(j)));
+            }
+            publicadas.set(segmento * SEPARACION, MapaPersistente.desdeOrdenados(clavesDeSegmento, valoresDeSegmento));
+        }
+    }
+
+    private static int lugar(long clave) {
+        return MapaLong.segmentoDe(clave) * SEPARACION;
+    }
+
+    public <K> Optional<T> buscarPorClaveUnica(IndiceUnico<T, K> indice, K clave) {
+        Long id = indice.buscar(clave);
+        if (id == null) {
+            return Optional.empty();
+        }
+        T entidad = entidades.buscar(id);
+        if (entidad == null || !Objects.equals(clave, indice.claveDe(entidad))) {
+            return Optional.empty();
+        }
+        return Optional.of(entidad);
+    }
+
+    @Override
+    public void borrarPorId(Long id) {
+        if (id != null) {
+            Anotacion<T> anotacion = this.anotacion;
+            if (anotacion != null) {
+                anotacion.bitacora().verificarDisponible();
+            }
+            CompletableFuture<?>[] confirmacion = new CompletableFuture<?>[1];
+            boolean[] borrada = new boolean[1];
+            entidades.calcularSiPresente(id, (clave, anterior) -> {
+                for (GuardaDeBorrado guarda : guardasDeBorrado) {
+                    if (guarda.referencia().contar(clave) > 0) {
+                        throw new ReglaNegocioException(guarda.mensaje());
+                    }
+                }
+                byte[] registro = anotacion != null ? anotacion.codificar(BORRAR, clave, null) : null;
+                MapaPersistente<T> publicada = publicadas.get(lugar(clave)).sin(clave);
+                Runnable publicar = () -> {
+                    for (Referencia<T> referencia : referencias) {
+                        referencia.soltar(anterior);
+                    }
+                    for (IndiceUnico<T, ?> indice : indicesUnicos) {
+                        indice.quitar(clave, anterior);
+                    }
+                    publicar(clave, publicada);
+                };
+                if (anotacion == null) {
+                    publicar.run();
+                } else {
+                    confirmacion[0] = anotacion.bitacora().anotarYPublicar(registro, publicar);
+                }
+                borrada[0] = true;
+                return null;
+            });
+            if (borrada[0]) {
+                avisar(id, null);
+            }
+            if (confirmacion[0] != null) {
+                Bitacora.esperar(confirmacion[0]);
+            }
+        }
+    }
+
+
+    public int cantidad() {
+        return entidades.tamanio();
+    }
+
+    private record GuardaDeBorrado(Referencia<?> referencia, String mensaje) {
+    }
+
+    private record TextoCompartido<T>(Function<T, String> obtener, BiConsumer<T, String> asignar) {
+    }
+}
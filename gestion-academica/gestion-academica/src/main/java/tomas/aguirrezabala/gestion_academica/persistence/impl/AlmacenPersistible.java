@@ -0,0 +1,87 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * Almacén en memoria que {@link BitacoraDeDaos} puede hacer persistente: anota cada
+ * cambio en la bitácora, lo reproduce al arrancar y se vuelca en las instantáneas.
+ */
+interface AlmacenPersistible<T extends Entidad> {
+
+    byte GUARDAR = 1;
+    byte BORRAR = 2;
+
+    T guardar(T entidad);
+
+    /**
+     * Guarda una entidad leída de la bitácora o de una instantánea con la versión que
+     * trae, sin compararla con la guardada.
+     */
+    T restaurar(T entidad);
+
+    void borrarPorId(Long id);
+
+    /**
+     * Desde acá cada guardar/borrar se anota en la bitácora, en el mismo orden en que
+     * se aplica en memoria, y no devuelve hasta que el registro es durable.
+     */
+    void anotarEn(Bitacora bitacora, String nombre, Codificador<T> codificador);
+
+    /**
+     * Entidades y último id vistos en un mismo instante, para volcar a disco. Se llama con
+     * todo lo anotado antes de la captura ya publicado; no puede esperar a los escritores.
+     */
+    Captura<T> capturar();
+
+    /**
+     * Carga masiva al arrancar desde una instantánea en disco, en un almacén vacío.
+     */
+    void cargar(List<T> cargadas, long ultimoIdGuardado);
+
+    /**
+     * Cambia el generador de ids de las altas; el nuevo arranca después del último id
+     * que pudo entregar el anterior.
+     */
+    void usarIds(GeneradorDeIds ids);
+
+    /**
+     * Aplica un registro escrito por este almacén (sin el nombre, que ya leyó quien despacha).
+     */
+    default void reproducir(DataInputStream entrada, Codificador<T> codificador) throws IOException {
+        byte operacion = entrada.readByte();
+        long id = entrada.readLong();
+        if (operacion == BORRAR) {
+            borrarPorId(id);
+        } else {
+            restaurar(codificador.leer(entrada));
+        }
+    }
+
+    record Captura<T>(Iterable<T> entidades, int cantidad, long ultimoId) {
+    }
+
+    record Anotacion<T>(Bitacora bitacora, String nombre, Codificador<T> codificador) {
+
+        byte[] codificar(byte operacion, Long id, T version) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            try (DataOutputStream salida = new DataOutputStream(bytes)) {
+                salida.writeUTF(nombre);
+                salida.writeByte(operacion);
+                salida.writeLong(id);
+                if (version != null) {
+                    codificador.escribir(salida, version);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
+import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+
+@Repository
+@Profile("jdbc")
+public class AlumnoDaoJdbcImpl implements AlumnoDao {
+
+    private static final String SELECCIONAR = "SELECT a.id, a.nombre, a.apellido, a.dni, a.version, "
+            + "c.id AS carrera_id, c.nombre AS carrera_nombre, c.duracion_anios AS carrera_duracion_anios "
+            + "FROM alumno a LEFT JOIN carrera c ON c.id = a.carrera_id";
+
+    private final TablaJdbc alumnos = new TablaJdbc("alumno", "nombre", "apellido", "dni", "carrera_id");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private AsignaturaDao asignaturaDao;
+
+    @Override
+    @Transactional
+    public Alumno guardar(Alumno alumno) {
+        Long carreraId = alumno.getCarrera() != null ? alumno.getCarrera().getId() : null;
+        try {
+            long id = alumnos.guardar(jdbc, alumno, alumno.getNombre(), alumno.getApellido(), alumno.getDni(),
+                    carreraId);
+            alumno.setId(id);
+        } catch (DuplicateKeyException e) {
+            throw new EntidadDuplicadaException("Alumno", "DNI", alumno.getDni());
+        } catch (DataIntegrityViolationException e) {
+            throw new EntidadNoEncontradaException("Carrera", carreraId);
+        }
+        return alumno;
+    }
+
+    @Override
+    public Optional<Alumno> buscarPorId(Long alumnoId) {
+        if (alumnoId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE a.id = ?", alumnoId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Alumno> buscarPorDni(String dni) {
+        if (dni == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE a.dni = ?", dni).stream().findFirst();
+    }
+
+    @Override
+    public List<Alumno> buscarTodos() {
+        return buscar(SELECCIONAR + " ORDER BY a.id");
+    }
+
+    @Override
+    public List<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return buscar(SELECCIONAR + TablaJdbc.pagina("a.id", orden),
+                TablaJdbc.parametrosDePagina(despuesDeId, limite, orden));
+    }
+
+    @Override
+    public Stream<Alumno> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Alumno::getId);
+    }
+
+    @Override
+    @Transactional
+    public void borrarPorId(Long alumnoId) {
+        try {
+            alumnos.borrar(jdbc, alumnoId);
+        } catch (DataIntegrityViolationException e) {
+            if (asignaturaDao.existePorAlumnoId(alumnoId)) {
+                throw new ReglaNegocioException("No se puede eliminar el alumno porque tiene asignaturas asociadas");
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Las asignaturas de todos los alumnos encontrados se cargan en una sola consulta;
+     * la carrera viene del JOIN con sus datos propios, sin materias.
+     */
+    private List<Alumno> buscar(String sql, Object... parametros) {
+        List<Alumno> encontrados = jdbc.query(sql, (fila, numero) -> leer(fila), parametros);
+        if (encontrados.isEmpty()) {
+            return encontrados;
+        }
+        Map<Long, List<Asignatura>> asignaturasPorAlumno = asignaturaDao.buscarPorAlumnoIds(
+                encontrados.stream().map(Alumno::getId).toList());
+        List<Alumno> resultado = new ArrayList<>(encontrados.size());
+        for (Alumno alumno : encontrados) {
+            resultado.add(alumno.conAsignaturas(asignaturasPorAlumno.getOrDefault(alumno.getId(), new ArrayList<>())));
+        }
+        return resultado;
+    }
+
+    private static Alumno leer(ResultSet fila) throws SQLException {
+        Long carreraId = fila.getObject("carrera_id", Long.class);
+        Carrera carrera = carreraId != null
+                ? new Carrera(carreraId, fila.getString("carrera_nombre"), fila.getObject("carrera_duracion_anios", Integer.class))
+                : null;
+        return TablaJdbc.conVersion(new Alumno(fila.getLong("id"), fila.getString("nombre"),
+                fila.getString("apellido"), fila.getString("dni"), carrera), fila);
+    }
+}
@@ -0,0 +1,168 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+@Repository
+@Profile("mvstore")
+public class AlumnoDaoMVStoreImpl implements AlumnoDao {
+
+    static final MapaMVStore<Alumno> ALUMNOS = new MapaMVStore<>("alumno", new CodificadorAlumno());
+    private static final IndiceMVStore<String> POR_DNI = new IndiceMVStore<>("alumno.dni", StringDataType.INSTANCE);
+
+    @Autowired
+    private BaseMVStore base;
+
+    @Autowired
+    private AsignaturaDaoMVStoreImpl asignaturaDao;
+
+    @Override
+    public Alumno guardar(Alumno alumno) {
+        Long idOriginal = alumno.getId();
+        Long versionOriginal = alumno.getVersion();
+        alumno.setId(base.asignarId(ALUMNOS.nombre(), idOriginal));
+        try {
+            base.escribir(transaccion -> {
+                Alumno anterior = ALUMNOS.bloquear(transaccion, alumno.getId());
+                alumno.setVersion(Versiones.siguiente(alumno, anterior));
+                POR_DNI.reservar(transaccion, anterior != null ? anterior.getDni() : null, alumno.getDni(),
+                        alumno.getId(), "Alumno", "DNI");
+                ALUMNOS.escribir(transaccion, alumno);
+                return alumno;
+            });
+        } catch (RuntimeException e) {
+            alumno.setId(idOriginal);
+            alumno.setVersion(versionOriginal);
+            throw e;
+        }
+        return alumno;
+    }
+
+    @Override
+    public Optional<Alumno> buscarPorId(Long alumnoId) {
+        return base.leer(transaccion -> Optional.ofNullable(ALUMNOS.leer(transaccion, alumnoId))
+                .map(alumno -> completar(transaccion, List.of(alumno)).get(0)));
+    }
+
+    @Override
+    public Optional<Alumno> buscarPorDni(String dni) {
+        return base.leer(transaccion -> {
+            long[] ids = POR_DNI.buscar(transaccion, dni);
+            return ids.length > 0
+                    ? Optional.ofNullable(ALUMNOS.leer(transaccion, ids[0]))
+                            .map(alumno -> completar(transaccion, List.of(alumno)).get(0))
+                    : Optional.<Alumno>empty();
+        });
+    }
+
+    @Override
+    public List<Alumno> buscarTodos() {
+        return base.leer(transaccion -> completar(transaccion, ALUMNOS.leerTodos(transaccion)));
+    }
+
+    @Override
+    public List<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return base.leer(transaccion -> completar(transaccion,
+                ALUMNOS.leerPagina(transaccion, despuesDeId, limite, orden)));
+    }
+
+    @Override
+    public Stream<Alumno> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Alumno::getId);
+    }
+
+    @Override
+    public void borrarPorId(Long alumnoId) {
+        base.escribir(transaccion -> {
+            Alumno anterior = ALUMNOS.bloquear(transaccion, alumnoId);
+            if (anterior == null) {
+                return null;
+            }
+            if (AsignaturaDaoMVStoreImpl.POR_ALUMNO.existe(transaccion, alumnoId)) {
+                throw new ReglaNegocioException("No se puede eliminar el alumno porque tiene asignaturas asociadas");
+            }
+            POR_DNI.quitar(transaccion, anterior.getDni(), alumnoId);
+            ALUMNOS.borrar(transaccion, alumnoId);
+            return null;
+        });
+    }
+
+    /**
+     * Alumno con sus datos propios, sin carrera ni asignaturas, como lo ven sus asignaturas.
+     */
+    static Alumno leerSinRelaciones(Transaction transaccion, Long alumnoId) {
+        Alumno alumno = ALUMNOS.leer(transaccion, alumnoId);
+        if (alumno != null) {
+            alumno.setCarrera(null);
+        }
+        return alumno;
+    }
+
+    /**
+     * Las asignaturas de todos los alumnos se leen juntas; la carrera vuelve sin materias.
+     */
+    private List<Alumno> completar(Transaction transaccion, List<Alumno> alumnos) {
+        Map<Long, List<Asignatura>> asignaturasPorAlumno = asignaturaDao.leerPorAlumnos(transaccion,
+                alumnos.stream().map(Alumno::getId).toList());
+        Map<Long, Carrera> carreras = new HashMap<>();
+        List<Alumno> resultado = new ArrayList<>(alumnos.size());
+        for (Alumno alumno : alumnos) {
+            if (alumno.getCarrera() != null) {
+                alumno.setCarrera(carreras.computeIfAbsent(alumno.getCarrera().getId(),
+                        carreraId -> CarreraDaoMVStoreImpl.leerSinMaterias(transaccion, carreraId)));
+            }
+            resultado.add(alumno.conAsignaturas(asignaturasPorAlumno.getOrDefault(alumno.getId(), new ArrayList<>())));
+        }
+        return resultado;
+    }
+
+    private static final class CodificadorAlumno implements Codificador<Alumno> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Alumno alumno) throws IOException {
+            salida.writeLong(alumno.getId());
+            escribirTexto(salida, alumno.getNombre());
+            escribirTexto(salida, alumno.getApellido());
+            escribirTexto(salida, alumno.getDni());
+            escribirId(salida, alumno.getCarrera());
+            escribirVersion(salida, alumno);
+        }
+
+        @Override
+        public Alumno leer(DataInputStream entrada) throws IOException {
+            Alumno alumno = new Alumno(entrada.readLong(), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada), null);
+            Long carreraId = leerId(entrada);
+            if (carreraId != null) {
+                alumno.setCarrera(new Carrera(carreraId, null, null));
+            }
+            return leerVersion(entrada, alumno);
+        }
+    }
+}
@@ -1,90 +1,96 @@
 package tomas.aguirrezabala.gestion_academica.persistence.impl;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 
 @Repository
+@Profile("!jdbc & !mvstore")
 public class AlumnoDaoMemoryImpl implements AlumnoDao {
     
-    private final Map<Long, Alumno> alumnos = new HashMap<>();
-    private final AtomicLong ultimoId = new AtomicLong(0);
+    private final AlmacenEnMemoria<Alumno> alumnos = new AlmacenEnMemoria<>(Alumno::getId, Alumno::setId);
+    private final IndiceUnico<Alumno, String> porDni = alumnos.agregarIndiceUnico(Alumno::getDni, "Alumno", "DNI");
 
     @Autowired
     @Lazy
     private AsignaturaDao asignaturaDao;
     
+    public AlumnoDaoMemoryImpl() {
+        alumnos.compartirTexto(Alumno::getNombre, Alumno::setNombre);
+        alumnos.compartirTexto(Alumno::getApellido, Alumno::setApellido);
+    }
+    
+    AlmacenEnMemoria<Alumno> almacen() {
+        return alumnos;
+    }
+    
     @Override
     public Alumno guardar(Alumno alumno) {
-        if (alumno.getId() == null) {
-            alumno.setId(ultimoId.incrementAndGet());
-        }
-        alumnos.put(alumno.getId(), alumno);
-        return alumno;
+        return alumnos.guardar(alumno);
     }
     
     @Override
     public Optional<Alumno> buscarPorId(Long alumnoId) {
-        Alumno alumno = alumnos.get(alumnoId);
-        
-        if (alumno != null) {
-
-            Alumno alumnoCopia = clonarAlumno(alumno);
-            
-            if (asignaturaDao != null) {
-                List<Asignatura> asignaturas = asignaturaDao.buscarPorAlumnoId(alumnoId);
-                alumnoCopia.setAsignaturas(asignaturas);
-            }
-            
-            return Optional.of(alumnoCopia);
-        }
-        
-        return Optional.empty();
+        return alumnos.buscarPorId(alumnoId).map(this::conAsignaturas);
+    }
+    
+    @Override
+    public Optional<Alumno> buscarPorDni(String dni) {
+        return alumnos.buscarPorClaveUnica(porDni, dni).map(this::conAsignaturas);
     }
     
     @Override
     public List<Alumno> buscarTodos() {
-        List<Alumno> resultado = new ArrayList<>();
-        
-        for (Alumno alumno : alumnos.values()) {
-            Alumno alumnoCopia = clonarAlumno(alumno);
-            
-            if (asignaturaDao != null) {
-                List<Asignatura> asignaturas = asignaturaDao.buscarPorAlumnoId(alumno.getId());
-                alumnoCopia.setAsignaturas(asignaturas);
-            }
-            
-            resultado.add(alumnoCopia);
-        }
-        
-        return resultado;
+        return conAsignaturas(alumnos.buscarTodos());
+    }
+    
+    @Override
+    public List<Alumno> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return conAsignaturas(alumnos.buscarPagina(despuesDeId, limite, orden));
+    }
+    
+    @Override
+    public Stream<Alumno> recorrer() {
+        return alumnos.recorrer().map(this::conAsignaturas);
     }
     
     @Override
     public void borrarPorId(Long alumnoId) {
-        alumnos.remove(alumnoId);
+        alumnos.borrarPorId(alumnoId);
     }
     
-    private Alumno clonarAlumno(Alumno original) {
-        Alumno clon = new Alumno();
-        clon.setId(original.getId());
-        clon.setNombre(original.getNombre());
-        clon.setApellido(original.getApellido());
-        clon.setDni(original.getDni());
-        clon.setCarrera(original.getCarrera());
+    private List<Alumno> conAsignaturas(List<Alumno> todos) {
+        if (asignaturaDao == null) {
+            return todos;
+        }
+        
+        Map<Long, List<Asignatura>> asignaturasPorAlumno = asignaturaDao.buscarPorAlumnoIds(
+                todos.stream().map(Alumno::getId).toList());
+        List<Alumno> resultado = new ArrayList<>(todos.size());
+        for (Alumno alumno : todos) {
+            resultado.add(alumno.conAsignaturas(asignaturasPorAlumno.getOrDefault(alumno.getId(), new ArrayList<>())));
+        }
         
-        return clon;
+        return resultado;
+    }
+    
+    private Alumno conAsignaturas(Alumno alumno) {
+        if (asignaturaDao == null) {
+            return alumno;
+        }
+        return alumno.conAsignaturas(asignaturaDao.buscarPorAlumnoId(alumno.getId()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+
+@Repository
+@Profile("jdbc")
+public class AsignaturaDaoJdbcImpl implements AsignaturaDao {
+
+    private static final String SELECCIONAR = "SELECT s.id, s.materia_id, s.estado, s.nota, s.version, "
+            + "a.id AS alumno_id, a.nombre AS alumno_nombre, a.apellido AS alumno_apellido, a.dni AS alumno_dni "
+            + "FROM asignatura s LEFT JOIN alumno a ON a.id = s.alumno_id";
+    private static final String EXISTE_ALUMNO = "SELECT EXISTS (SELECT 1 FROM alumno WHERE id = ?)";
+
+    private final TablaJdbc asignaturas = new TablaJdbc("asignatura", "alumno_id", "materia_id", "estado", "nota");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MateriaDaoJdbcImpl materiaDao;
+
+    @Override
+    @Transactional
+    public Asignatura guardar(Asignatura asignatura) {
+        Long alumnoId = asignatura.getAlumno() != null ? asignatura.getAlumno().getId() : null;
+        Long materiaId = asignatura.getMateria() != null ? asignatura.getMateria().getId() : null;
+        try {
+            long id = asignaturas.guardar(jdbc, asignatura, alumnoId, materiaId,
+                    asignatura.getEstado() != null ? asignatura.getEstado().name() : null, asignatura.getNota());
+            asignatura.setId(id);
+        } catch (DuplicateKeyException e) {
+            throw new EntidadDuplicadaException("Asignatura", "alumno y materia",
+                    "Alumno ID: " + alumnoId + ", Materia ID: " + materiaId);
+        } catch (DataIntegrityViolationException e) {
+            if (!Boolean.TRUE.equals(jdbc.queryForObject(EXISTE_ALUMNO, Boolean.class, alumnoId))) {
+                throw new EntidadNoEncontradaException("Alumno", alumnoId);
+            }
+            throw new EntidadNoEncontradaException("Materia", materiaId);
+        }
+        return asignatura;
+    }
+
+    @Override
+    public Optional<Asignatura> buscarPorId(Long asignaturaId) {
+        if (asignaturaId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE s.id = ?", asignaturaId).stream().findFirst();
+    }
+
+    @Override
+    public List<Asignatura> buscarTodos() {
+        return buscar(SELECCIONAR + " ORDER BY s.id");
+    }
+
+    @Override
+    public List<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return buscar(SELECCIONAR + TablaJdbc.pagina("s.id", orden),
+                TablaJdbc.parametrosDePagina(despuesDeId, limite, orden));
+    }
+
+    @Override
+    public Stream<Asignatura> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Asignatura::getId);
+    }
+
+    @Override
+    @Transactional
+    public void borrarPorId(Long asignaturaId) {
+        asignaturas.borrar(jdbc, asignaturaId);
+    }
+
+    @Override
+    public List<Asignatura> buscarPorAlumnoId(Long alumnoId) {
+        if (alumnoId == null) {
+            return new ArrayList<>();
+        }
+        return buscar(SELECCIONAR + " WHERE s.alumno_id = ? ORDER BY s.id", alumnoId);
+    }
+
+    @Override
+    public Map<Long, List<Asignatura>> buscarPorAlumnoIds(Collection<Long> alumnoIds) {
+        Map<Long, List<Asignatura>> porAlumno = new HashMap<>();
+        if (alumnoIds.isEmpty()) {
+            return porAlumno;
+        }
+        for (Asignatura asignatura : buscar(SELECCIONAR + " WHERE s.alumno_id = ANY(?) ORDER BY s.id",
+                (Object) TablaJdbc.ids(alumnoIds))) {
+            porAlumno.computeIfAbsent(asignatura.getAlumno().getId(), id -> new ArrayList<>()).add(asignatura);
+        }
+        return porAlumno;
+    }
+
+    @Override
+    public Optional<Asignatura> buscarPorAlumnoIdYMateriaId(Long alumnoId, Long materiaId) {
+        if (alumnoId == null || materiaId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE s.alumno_id = ? AND s.materia_id = ?", alumnoId, materiaId)
+                .stream().findFirst();
+    }
+
+    @Override
+    public boolean existePorMateriaId(Long materiaId) {
+        return materiaId != null && Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM asignatura WHERE materia_id = ?)", Boolean.class, materiaId));
+    }
+
+    @Override
+    public boolean existePorAlumnoId(Long alumnoId) {
+        return alumnoId != null && Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM asignatura WHERE alumno_id = ?)", Boolean.class, alumnoId));
+    }
+
+    @Override
+    public long contarPorMateriaIdYEstado(Long materiaId, EstadoAsignatura estado) {
+        if (materiaId == null || estado == null) {
+            return 0;
+        }
+        Long cantidad = jdbc.queryForObject("SELECT COUNT(*) FROM asignatura WHERE materia_id = ? AND estado = ?",
+                Long.class, materiaId, estado.name());
+        return cantidad != null ? cantidad : 0;
+    }
+
+    /**
+     * Con {@code enTodas} se agrupa por alumno y se pide una fila por materia: alumno y
+     * materia son únicos juntos.
+     */
+    @Override
+    public List<Long> buscarAlumnoIdsPorEstado(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas) {
+        Long[] materias = TablaJdbc.ids(materiaIds);
+        if (materias.length == 0 || estado == null) {
+            return new ArrayList<>();
+        }
+        String sql = "SELECT alumno_id FROM asignatura WHERE materia_id = ANY(?) AND estado = ? AND alumno_id IS NOT NULL "
+                + (enTodas ? "GROUP BY alumno_id HAVING COUNT(*) = ? " : "GROUP BY alumno_id ")
+                + "ORDER BY alumno_id";
+        return enTodas
+                ? jdbc.queryForList(sql, Long.class, (Object) materias, estado.name(), materias.length)
+                : jdbc.queryForList(sql, Long.class, (Object) materias, estado.name());
+    }
+
+    @Override
+    public List<Long> buscarCorrelativasSinCumplir(Long alumnoId, Materia materia) {
+        Long[] correlativas = materia != null && materia.getCorrelatividades() != null
+                ? TablaJdbc.ids(materia.getCorrelatividades()) : new Long[0];
+        if (alumnoId == null || correlativas.length == 0) {
+            return new ArrayList<>();
+        }
+        String[] cumplen = Arrays.stream(EstadoAsignatura.values())
+                .filter(EstadoAsignatura::cumpleCorrelatividad)
+                .map(EstadoAsignatura::name)
+                .toArray(String[]::new);
+        Set<Long> cumplidas = new HashSet<>(jdbc.queryForList(
+                "SELECT materia_id FROM asignatura WHERE alumno_id = ? AND materia_id = ANY(?) AND estado = ANY(?)",
+                Long.class, alumnoId, correlativas, cumplen));
+        return Arrays.stream(correlativas).filter(id -> !cumplidas.contains(id)).sorted().toList();
+    }
+
+    /**
+     * Las materias se traen todas juntas después de leer las asignaturas; el alumno
+     * viene del JOIN con sus datos propios, sin carrera ni asignaturas.
+     */
+    private List<Asignatura> buscar(String sql, Object... parametros) {
+        List<Long> materiaIds = new ArrayList<>();
+        List<Asignatura> encontradas = jdbc.query(sql, (fila, numero) -> {
+            Long materiaId = fila.getObject("materia_id", Long.class);
+            materiaIds.add(materiaId);
+            return leer(fila, materiaId);
+        }, parametros);
+        if (encontradas.isEmpty()) {
+            return encontradas;
+        }
+        Map<Long, Materia> materiasPorId = materiaDao.buscarPorIds(materiaIds);
+        for (Asignatura asignatura : encontradas) {
+            if (asignatura.getMateria() != null) {
+                asignatura.setMateria(materiasPorId.get(asignatura.getMateria().getId()));
+            }
+        }
+        return encontradas;
+    }
+
+    private static Asignatura leer(ResultSet fila, Long materiaId) throws SQLException {
+        Long alumnoId = fila.getObject("alumno_id", Long.class);
+        Alumno alumno = alumnoId != null
+                ? new Alumno(alumnoId, fila.getString("alumno_nombre"), fila.getString("alumno_apellido"),
+                        fila.getString("alumno_dni"), null)
+                : null;
+        Materia materia = materiaId != null ? new Materia(materiaId, null, null, null) : null;
+        String estado = fila.getString("estado");
+        return TablaJdbc.conVersion(new Asignatura(fila.getLong("id"), materia, alumno,
+                estado != null ? EstadoAsignatura.valueOf(estado) : null, fila.getObject("nota", Double.class)), fila);
+    }
+}
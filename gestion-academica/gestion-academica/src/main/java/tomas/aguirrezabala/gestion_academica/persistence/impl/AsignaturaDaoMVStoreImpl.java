@@ -0,0 +1,315 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+@Repository
+@Profile("mvstore")
+public class AsignaturaDaoMVStoreImpl implements AsignaturaDao {
+
+    static final MapaMVStore<Asignatura> ASIGNATURAS = new MapaMVStore<>("asignatura", new CodificadorAsignatura());
+    static final IndiceMVStore<Long> POR_ALUMNO = new IndiceMVStore<>("asignatura.alumno", LongDataType.INSTANCE);
+    static final IndiceMVStore<Long> POR_MATERIA = new IndiceMVStore<>("asignatura.materia", LongDataType.INSTANCE);
+    /** La clave es el mismo texto que informa la excepción de duplicado. */
+    private static final IndiceMVStore<String> POR_ALUMNO_Y_MATERIA = new IndiceMVStore<>(
+            "asignatura.alumno_materia", StringDataType.INSTANCE);
+
+    @Autowired
+    private BaseMVStore base;
+
+    @Autowired
+    private MateriaDaoMVStoreImpl materiaDao;
+
+    @Override
+    public Asignatura guardar(Asignatura asignatura) {
+        Long idOriginal = asignatura.getId();
+        Long versionOriginal = asignatura.getVersion();
+        asignatura.setId(base.asignarId(ASIGNATURAS.nombre(), idOriginal));
+        try {
+            base.escribir(transaccion -> {
+                Long alumnoId = alumnoId(asignatura);
+                Long materiaId = materiaId(asignatura);
+                // Alumno y materia quedan bloqueados: no se pueden borrar hasta el commit.
+                if (alumnoId != null && AlumnoDaoMVStoreImpl.ALUMNOS.bloquear(transaccion, alumnoId) == null) {
+                    throw new EntidadNoEncontradaException("Alumno", alumnoId);
+                }
+                if (materiaId != null && MateriaDaoMVStoreImpl.MATERIAS.bloquear(transaccion, materiaId) == null) {
+                    throw new EntidadNoEncontradaException("Materia", materiaId);
+                }
+                Asignatura anterior = ASIGNATURAS.bloquear(transaccion, asignatura.getId());
+                asignatura.setVersion(Versiones.siguiente(asignatura, anterior));
+                POR_ALUMNO_Y_MATERIA.reservar(transaccion, claveDe(anterior), claveDe(asignatura), asignatura.getId(),
+                        "Asignatura", "alumno y materia");
+                POR_ALUMNO.mover(transaccion, alumnoId(anterior), alumnoId, asignatura.getId());
+                POR_MATERIA.mover(transaccion, materiaId(anterior), materiaId, asignatura.getId());
+                ASIGNATURAS.escribir(transaccion, asignatura);
+                return asignatura;
+            });
+        } catch (RuntimeException e) {
+            asignatura.setId(idOriginal);
+            asignatura.setVersion(versionOriginal);
+            throw e;
+        }
+        return asignatura;
+    }
+
+    @Override
+    public Optional<Asignatura> buscarPorId(Long asignaturaId) {
+        return base.leer(transaccion -> Optional.ofNullable(ASIGNATURAS.leer(transaccion, asignaturaId))
+                .map(asignatura -> completar(transaccion, List.of(asignatura)).get(0)));
+    }
+
+    @Override
+    public List<Asignatura> buscarTodos() {
+        return base.leer(transaccion -> completar(transaccion, ASIGNATURAS.leerTodos(transaccion)));
+    }
+
+    @Override
+    public List<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return base.leer(transaccion -> completar(transaccion,
+                ASIGNATURAS.leerPagina(transaccion, despuesDeId, limite, orden)));
+    }
+
+    @Override
+    public Stream<Asignatura> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Asignatura::getId);
+    }
+
+    @Override
+    public void borrarPorId(Long asignaturaId) {
+        base.escribir(transaccion -> {
+            Asignatura anterior = ASIGNATURAS.bloquear(transaccion, asignaturaId);
+            if (anterior != null) {
+                POR_ALUMNO_Y_MATERIA.quitar(transaccion, claveDe(anterior), asignaturaId);
+                POR_ALUMNO.quitar(transaccion, alumnoId(anterior), asignaturaId);
+                POR_MATERIA.quitar(transaccion, materiaId(anterior), asignaturaId);
+                ASIGNATURAS.borrar(transaccion, asignaturaId);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<Asignatura> buscarPorAlumnoId(Long alumnoId) {
+        if (alumnoId == null) {
+            return new ArrayList<>();
+        }
+        return base.leer(transaccion -> leerPorAlumnos(transaccion, List.of(alumnoId))
+                .getOrDefault(alumnoId, new ArrayList<>()));
+    }
+
+    @Override
+    public Map<Long, List<Asignatura>> buscarPorAlumnoIds(Collection<Long> alumnoIds) {
+        return base.leer(transaccion -> leerPorAlumnos(transaccion, alumnoIds));
+    }
+
+    @Override
+    public Optional<Asignatura> buscarPorAlumnoIdYMateriaId(Long alumnoId, Long materiaId) {
+        if (alumnoId == null || materiaId == null) {
+            return Optional.empty();
+        }
+        return base.leer(transaccion -> {
+            long[] ids = POR_ALUMNO_Y_MATERIA.buscar(transaccion, clave(alumnoId, materiaId));
+            return ids.length > 0
+                    ? Optional.ofNullable(ASIGNATURAS.leer(transaccion, ids[0]))
+                            .map(asignatura -> completar(transaccion, List.of(asignatura)).get(0))
+                    : Optional.<Asignatura>empty();
+        });
+    }
+
+    @Override
+    public boolean existePorMateriaId(Long materiaId) {
+        return base.leer(transaccion -> POR_MATERIA.existe(transaccion, materiaId));
+    }
+
+    @Override
+    public boolean existePorAlumnoId(Long alumnoId) {
+        return base.leer(transaccion -> POR_ALUMNO.existe(transaccion, alumnoId));
+    }
+
+    @Override
+    public long contarPorMateriaIdYEstado(Long materiaId, EstadoAsignatura estado) {
+        if (materiaId == null || estado == null) {
+            return 0;
+        }
+        return base.leer(transaccion -> leerPorMaterias(transaccion, List.of(materiaId)).stream()
+                .filter(asignatura -> asignatura.getEstado() == estado)
+                .count());
+    }
+
+    /**
+     * Por el índice de materia; el estado se mira en cada asignatura.
+     */
+    @Override
+    public List<Long> buscarAlumnoIdsPorEstado(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas) {
+        List<Long> materias = materiaIds.stream().filter(id -> id != null).distinct().toList();
+        if (materias.isEmpty() || estado == null) {
+            return new ArrayList<>();
+        }
+        return base.leer(transaccion -> {
+            Map<Long, Integer> materiasPorAlumno = new TreeMap<>();
+            for (Asignatura asignatura : leerPorMaterias(transaccion, materias)) {
+                if (asignatura.getEstado() == estado && alumnoId(asignatura) != null) {
+                    materiasPorAlumno.merge(alumnoId(asignatura), 1, Integer::sum);
+                }
+            }
+            return materiasPorAlumno.entrySet().stream()
+                    .filter(alumno -> !enTodas || alumno.getValue() == materias.size())
+                    .map(Map.Entry::getKey)
+                    .toList();
+        });
+    }
+
+    /**
+     * Por el índice de alumno: las asignaturas de un alumno son pocas.
+     */
+    @Override
+    public List<Long> buscarCorrelativasSinCumplir(Long alumnoId, Materia materia) {
+        if (alumnoId == null || materia == null || materia.getCorrelatividades() == null) {
+            return new ArrayList<>();
+        }
+        Set<Long> cumplidas = new HashSet<>();
+        for (Asignatura asignatura : buscarPorAlumnoId(alumnoId)) {
+            if (asignatura.getEstado() != null && asignatura.getEstado().cumpleCorrelatividad()
+                    && asignatura.getMateria() != null) {
+                cumplidas.add(asignatura.getMateria().getId());
+            }
+        }
+        return materia.getCorrelatividades().stream()
+                .filter(id -> id != null && !cumplidas.contains(id))
+                .distinct()
+                .sorted()
+                .toList();
+    }
+
+    private static Collection<Asignatura> leerPorMaterias(Transaction transaccion, Collection<Long> materiaIds) {
+        List<Long> asignaturaIds = new ArrayList<>();
+        for (Long materiaId : materiaIds) {
+            for (long asignaturaId : POR_MATERIA.buscar(transaccion, materiaId)) {
+                asignaturaIds.add(asignaturaId);
+            }
+        }
+        return ASIGNATURAS.leerVarios(transaccion, asignaturaIds).values();
+    }
+
+    /**
+     * Asignaturas de varios alumnos dentro de una lectura del DAO de alumnos, ordenadas
+     * por id como en el índice.
+     */
+    Map<Long, List<Asignatura>> leerPorAlumnos(Transaction transaccion, Collection<Long> alumnoIds) {
+        Map<Long, List<Asignatura>> porAlumno = new HashMap<>();
+        List<Long> asignaturaIds = new ArrayList<>();
+        for (Long alumnoId : new LinkedHashSet<>(alumnoIds)) {
+            for (long asignaturaId : POR_ALUMNO.buscar(transaccion, alumnoId)) {
+                asignaturaIds.add(asignaturaId);
+            }
+        }
+        List<Asignatura> asignaturas = new ArrayList<>(ASIGNATURAS.leerVarios(transaccion, asignaturaIds).values());
+        for (Asignatura asignatura : asignaturas) {
+            porAlumno.computeIfAbsent(alumnoId(asignatura), id -> new ArrayList<>()).add(asignatura);
+        }
+        completar(transaccion, asignaturas);
+        return porAlumno;
+    }
+
+    /**
+     * Las materias se leen todas juntas; el alumno vuelve con sus datos propios, sin
+     * carrera ni asignaturas.
+     */
+    private List<Asignatura> completar(Transaction transaccion, List<Asignatura> asignaturas) {
+        Map<Long, Materia> materias = materiaDao.leerVarios(transaccion,
+                asignaturas.stream().map(AsignaturaDaoMVStoreImpl::materiaId).toList());
+        Map<Long, Alumno> alumnos = new HashMap<>();
+        for (Asignatura asignatura : asignaturas) {
+            if (asignatura.getMateria() != null) {
+                asignatura.setMateria(materias.get(asignatura.getMateria().getId()));
+            }
+            if (asignatura.getAlumno() != null) {
+                asignatura.setAlumno(alumnos.computeIfAbsent(asignatura.getAlumno().getId(),
+                        alumnoId -> AlumnoDaoMVStoreImpl.leerSinRelaciones(transaccion, alumnoId)));
+            }
+        }
+        return asignaturas;
+    }
+
+    private static Long alumnoId(Asignatura asignatura) {
+        return asignatura != null && asignatura.getAlumno() != null ? asignatura.getAlumno().getId() : null;
+    }
+
+    private static Long materiaId(Asignatura asignatura) {
+        return asignatura != null && asignatura.getMateria() != null ? asignatura.getMateria().getId() : null;
+    }
+
+    private static String claveDe(Asignatura asignatura) {
+        Long alumnoId = alumnoId(asignatura);
+        Long materiaId = materiaId(asignatura);
+        return alumnoId != null && materiaId != null ? clave(alumnoId, materiaId) : null;
+    }
+
+    private static String clave(Long alumnoId, Long materiaId) {
+        return "Alumno ID: " + alumnoId + ", Materia ID: " + materiaId;
+    }
+
+    private static final class CodificadorAsignatura implements Codificador<Asignatura> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Asignatura asignatura) throws IOException {
+            salida.writeLong(asignatura.getId());
+            escribirId(salida, asignatura.getMateria());
+            escribirId(salida, asignatura.getAlumno());
+            escribirTexto(salida, asignatura.getEstado() != null ? asignatura.getEstado().name() : null);
+            salida.writeBoolean(asignatura.getNota() != null);
+            if (asignatura.getNota() != null) {
+                salida.writeDouble(asignatura.getNota());
+            }
+            escribirVersion(salida, asignatura);
+        }
+
+        @Override
+        public Asignatura leer(DataInputStream entrada) throws IOException {
+            Long id = entrada.readLong();
+            Long materiaId = leerId(entrada);
+            Long alumnoId = leerId(entrada);
+            String estado = leerTexto(entrada);
+            Double nota = entrada.readBoolean() ? entrada.readDouble() : null;
+            return leerVersion(entrada, new Asignatura(id,
+                    materiaId != null ? new Materia(materiaId, null, null, null) : null,
+                    alumnoId != null ? new Alumno(alumnoId, null, null, null, null) : null,
+                    estado != null ? EstadoAsignatura.valueOf(estado) : null, nota));
+        }
+    }
+}
@@ -1,69 +1,136 @@
 package tomas.aguirrezabala.gestion_academica.persistence.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import jakarta.annotation.PostConstruct;
+
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 
 @Repository
+@Profile("!jdbc & !mvstore")
 public class AsignaturaDaoMemoryImpl implements AsignaturaDao {
     
-    private final Map<Long, Asignatura> asignaturas = new HashMap<>();
-    private final AtomicLong ultimoId = new AtomicLong(0);
+    private final AsignaturasColumnares asignaturas = new AsignaturasColumnares();
+    
+    @Autowired
+    private AlumnoDaoMemoryImpl alumnoDao;
+    
+    @Autowired
+    private MateriaDaoMemoryImpl materiaDao;
+    
+    @Value("${gestion-academica.asignaturas.archivo-frio:}")
+    private String archivoFrio;
+    
+    @Value("${gestion-academica.asignaturas.filas-por-tramo:65536}")
+    private int filasPorTramo;
+    
+    @Value("${gestion-academica.asignaturas.tramos-calientes:4}")
+    private int tramosCalientes;
+    
+    @Value("${gestion-academica.asignaturas.tramos-en-cache:8}")
+    private int tramosEnCache;
+    
+    @PostConstruct
+    void vincularReferencias() {
+        asignaturas.referenciasAAlumno().vincular(alumnoDao.almacen(), true, 
+                "No se puede eliminar el alumno porque tiene asignaturas asociadas");
+        asignaturas.referenciasAMateria().vincular(materiaDao.almacen(), true, 
+                "No se puede eliminar la materia porque tiene alumnos inscriptos");
+        asignaturas.resolverCon(alumnoId -> alumnoDao.almacen().buscarPorId(alumnoId).orElse(null),
+                materiaId -> materiaDao.almacen().buscarPorId(materiaId).orElse(null));
+        materiaDao.almacen().avisarCambios(asignaturas::materiaCambiada);
+        // Antes de que la bitácora cargue nada: los tramos viejos van a disco a medida que se cargan.
+        if (archivoFrio != null && !archivoFrio.isBlank()) {
+            asignaturas.archivarEn(Path.of(archivoFrio), filasPorTramo, tramosCalientes, tramosEnCache);
+        }
+    }
+    
+    AsignaturasColumnares almacen() {
+        return asignaturas;
+    }
     
     @Override
     public Asignatura guardar(Asignatura asignatura) {
-        if (asignatura.getId() == null) {
-            asignatura.setId(ultimoId.incrementAndGet());
-        }
-        asignaturas.put(asignatura.getId(), asignatura);
-        return asignatura;
+        return asignaturas.guardar(asignatura);
     }
     
     @Override
     public Optional<Asignatura> buscarPorId(Long asignaturaId) {
-        return Optional.ofNullable(asignaturas.get(asignaturaId));
+        return asignaturas.buscarPorId(asignaturaId);
     }
     
     @Override
     public List<Asignatura> buscarTodos() {
-        return new ArrayList<>(asignaturas.values());
+        return asignaturas.buscarTodos();
+    }
+    
+    @Override
+    public List<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return asignaturas.buscarPagina(despuesDeId, limite, orden);
+    }
+    
+    @Override
+    public Stream<Asignatura> recorrer() {
+        return asignaturas.recorrer();
     }
     
     @Override
     public void borrarPorId(Long asignaturaId) {
-        asignaturas.remove(asignaturaId);
+        asignaturas.borrarPorId(asignaturaId);
     }
     
     @Override
     public List<Asignatura> buscarPorAlumnoId(Long alumnoId) {
-        return buscarTodos().stream()
-                .filter(asignatura -> asignatura.getAlumno() != null && 
-                        alumnoId.equals(asignatura.getAlumno().getId()))
-                .collect(Collectors.toList());
+        return asignaturas.buscarPorAlumnoId(alumnoId);
+    }
+    
+    @Override
+    public Map<Long, List<Asignatura>> buscarPorAlumnoIds(Collection<Long> alumnoIds) {
+        return asignaturas.buscarPorAlumnoIds(alumnoIds);
     }
     
     @Override
     public Optional<Asignatura> buscarPorAlumnoIdYMateriaId(Long alumnoId, Long materiaId) {
-        return buscarTodos().stream()
-                .filter(asignatura -> asignatura.getAlumno() != null && 
-                        alumnoId.equals(asignatura.getAlumno().getId()) &&
-                        asignatura.getMateria() != null &&
-                        materiaId.equals(asignatura.getMateria().getId()))
-                .findFirst();
+        return asignaturas.buscarPorAlumnoIdYMateriaId(alumnoId, materiaId);
     }
+    
     @Override
     public boolean existePorMateriaId(Long materiaId) {
-        return buscarTodos().stream()
-                .anyMatch(asignatura -> asignatura.getMateria() != null && 
-                        materiaId.equals(asignatura.getMateria().getId()));
+        return asignaturas.referenciasAMateria().contar(materiaId) > 0;
+    }
+    
+    @Override
+    public boolean existePorAlumnoId(Long alumnoId) {
+        return asignaturas.referenciasAAlumno().contar(alumnoId) > 0;
+    }
+    
+    @Override
+    public long contarPorMateriaIdYEstado(Long materiaId, EstadoAsignatura estado) {
+        return asignaturas.contarPorMateriaYEstado(materiaId, estado);
+    }
+    
+    @Override
+    public List<Long> buscarAlumnoIdsPorEstado(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas) {
+        return asignaturas.alumnosPorEstado(materiaIds, estado, enTodas);
     }
+
+    @Override
+    public List<Long> buscarCorrelativasSinCumplir(Long alumnoId, Materia materia) {
+        return asignaturas.correlativasSinCumplir(alumnoId, materia);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,1636 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+
+/**
+ * Almacén de asignaturas en columnas de primitivos: cada fila ocupa 35 bytes
+ * (id, alumno, materia, estado, nota escalada, versión y el enlace a la siguiente fila
+ * del mismo alumno) en lugar de un objeto con sus referencias. Las asignaturas se
+ * arman recién al devolverlas.
+ * Las filas se dan densas, en orden de alta, sin importar cuán salteados sean los ids
+ * (p. ej. los de un nodo con el particionado). Como los ids nuevos crecen, la columna de
+ * ids queda ordenada y un id se busca por bisección; un id explícito menor a uno que ya
+ * tiene fila (al reproducir la bitácora) va en la fila siguiente con el valor de la
+ * anterior en la columna y su id real en {@link #fueraDeOrden}.
+ * No hay un lock de escritura común: cada escritura toma el de la estría de su alumno (y
+ * el del anterior si la asignatura cambia de alumno), que cuida la cadena y la unicidad, y
+ * el de la estría de su fila; el alta sólo comparte un lock corto para darse id y fila.
+ * Las columnas crecen de a trozos que no se mueven, así que crecer no copia filas que otro
+ * esté escribiendo. Las lecturas no bloquean: leen las columnas y reintentan si cambió el
+ * contador de alguna estría que miraron (impar mientras se modifica).
+ * Con {@link #archivarEn} las filas de los tramos viejos pasan a {@link TramosFrios} y
+ * las columnas en memoria empiezan en la primera fila caliente.
+ * Cada escritura actualiza además un {@link IndiceDeEstados} por materia y estado, que
+ * incluye a las filas frías.
+ */
+public class AsignaturasColumnares implements AlmacenPersistible<Asignatura> {
+
+    private static final int BITS_POR_TROZO = 10;
+    private static final int FILAS_POR_TROZO = 1 << BITS_POR_TROZO;
+    private static final int PORCION = 1024;
+    private static final int ESTRIAS = 64;
+    /** Un bit por estría. */
+    private static final long TODAS = -1L;
+    /** Un contador por línea de caché, como las publicaciones de AlmacenEnMemoria. */
+    private static final int SEPARACION = 16;
+    private static final int INTENTOS_SIN_BLOQUEAR = 8;
+    static final byte LIBRE = 0;
+    private static final byte SIN_ESTADO = 1;
+    private static final short SIN_NOTA = Short.MIN_VALUE;
+    private static final EstadoAsignatura[] ESTADOS = EstadoAsignatura.values();
+
+    /** Id y fila de las altas, y el crecimiento y recorte de las columnas. */
+    private final Object altas = new Object();
+    private final ReentrantLock[] candadosDeAlumno = candados();
+    private final ReentrantLock[] candadosDeFila = candados();
+    /** Por número de tramo frío: uno solo a la vez lo reescribe. */
+    private final ReentrantLock[] candadosDeTramo = candados();
+    private final AtomicLongArray cambiosDeAlumno = new AtomicLongArray(ESTRIAS * SEPARACION);
+    private final AtomicLongArray cambiosDeFila = new AtomicLongArray(ESTRIAS * SEPARACION);
+    private final AtomicBoolean archivando = new AtomicBoolean();
+    private volatile Columnas columnas = new Columnas(0, new Trozo[] {new Trozo()});
+    /** Mayor id con fila. */
+    private volatile long ultimoId;
+    /** Filas asignadas: hasta dónde hay que recorrer las columnas. */
+    private volatile int filasAsignadas;
+    /** Valor de la columna de ids en la última fila asignada. */
+    private long ultimoValor;
+    /** Id -> fila de los ids que llegaron después de uno mayor, ordenados por id. */
+    private final ConcurrentSkipListMap<Long, Integer> fueraDeOrden = new ConcurrentSkipListMap<>();
+    /** Fila -> id real de esas mismas filas. */
+    private final MapaLong<Long> idFueraDeOrden = new MapaLong<>();
+    private volatile GeneradorDeIds ids = new SecuenciaPorBloques();
+    private final LongAdder cantidad = new LongAdder();
+    /** Alumno -> fila + 1 de su primera asignatura; la cadena sigue ordenada por fila. */
+    private final MapaLong<Integer> primeraPorAlumno = new MapaLong<>();
+    private final Referencia<Asignatura> referenciasAAlumno = new Referencia<>(
+            asignatura -> idsDe(asignatura.getAlumno() != null ? asignatura.getAlumno().getId() : null), "Alumno");
+    private final Referencia<Asignatura> referenciasAMateria = new Referencia<>(
+            asignatura -> idsDe(asignatura.getMateria() != null ? asignatura.getMateria().getId() : null), "Materia");
+    private volatile Function<Long, Alumno> buscarAlumno = alumnoId -> null;
+    private volatile Function<Long, Materia> buscarMateria = materiaId -> null;
+    private volatile Anotacion<Asignatura> anotacion;
+    /** Null mientras todo esté en memoria. */
+    private volatile TramosFrios frios;
+    private final IndiceDeEstados estados = new IndiceDeEstados();
+
+    public Referencia<Asignatura> referenciasAAlumno() {
+        return referenciasAAlumno;
+    }
+
+    public Referencia<Asignatura> referenciasAMateria() {
+        return referenciasAMateria;
+    }
+
+    /**
+     * De dónde salen el alumno y la materia al armar una asignatura. Sin vincular
+     * (o si ya no están) vuelven sólo con el id.
+     */
+    public void resolverCon(Function<Long, Alumno> buscarAlumno, Function<Long, Materia> buscarMateria) {
+        this.buscarAlumno = buscarAlumno;
+        this.buscarMateria = buscarMateria;
+    }
+
+    /**
+     * Desde acá los tramos de {@code filasPorTramo} filas que queden atrás de los
+     * {@code tramosCalientes} más nuevos se guardan en un subdirectorio propio de
+     * {@code directorio} y se sueltan de la memoria; los {@code tramosEnMemoria} leídos más
+     * recientemente quedan cargados. Lo que es por alumno o por materia (la primera fila de
+     * cada alumno, el {@link IndiceDeEstados} y los contadores de referencias) sigue en
+     * memoria: crece con los alumnos y materias, no con las inscripciones.
+     */
+    public void archivarEn(Path directorio, int filasPorTramo, int tramosCalientes, int tramosEnMemoria) {
+        synchronized (altas) {
+            if (frios != null) {
+                throw new IllegalStateException("Los tramos fríos ya están configurados");
+            }
+            frios = new TramosFrios(directorio, filasPorTramo, tramosCalientes, tramosEnMemoria);
+        }
+        archivarViejos();
+    }
+
+    /** Filas reservadas en las columnas en memoria. */
+    public int filasEnMemoria() {
+        return columnas.largo();
+    }
+
+    /** Tramos fríos que están cargados ahora. */
+    public int tramosCargados() {
+        TramosFrios frios = this.frios;
+        return frios != null ? frios.cargados() : 0;
+    }
+
+    @Override
+    public Asignatura guardar(Asignatura asignatura) {
+        return escribir(asignatura, true);
+    }
+
+    @Override
+    public Asignatura restaurar(Asignatura asignatura) {
+        return escribir(asignatura, false);
+    }
+
+    private Asignatura escribir(Asignatura asignatura, boolean controlarVersion) {
+        Long idExplicito = asignatura.getId();
+        long alumnoId = idDe(asignatura.getAlumno());
+        long materiaId = idDe(asignatura.getMateria());
+        byte estado = codificarEstado(asignatura.getEstado());
+        short nota = codificarNota(asignatura.getNota());
+        if (idExplicito != null && idExplicito < 1) {
+            throw new IllegalArgumentException("Id de asignatura fuera de rango: " + idExplicito);
+        }
+        Anotacion<Asignatura> anotacion = this.anotacion;
+        if (anotacion != null) {
+            anotacion.bitacora().verificarDisponible();
+        }
+        // Como en AlmacenEnMemoria, alumno y materia se retienen antes de escribir y con su propio lock.
+        List<Long> alumnosRetenidos = referenciasAAlumno.retener(asignatura);
+        List<Long> materiasRetenidas;
+        try {
+            materiasRetenidas = referenciasAMateria.retener(asignatura);
+        } catch (RuntimeException e) {
+            referenciasAAlumno.liberar(alumnosRetenidos);
+            throw e;
+        }
+        CompletableFuture<?> confirmacion = null;
+        try {
+            long id = 0;
+            int fila = -1;
+            if (idExplicito != null) {
+                id = idExplicito;
+                synchronized (altas) {
+                    ids.avanzarHasta(id);
+                    ultimoId = Math.max(ultimoId, id);
+                }
+                fila = filaDeId(new Lector(), id);
+            }
+            Estrias tomadas = null;
+            while (tomadas == null) {
+                if (fila >= 0) {
+                    tomadas = bloquear(fila, alumnoId);
+                    break;
+                }
+                // Una alta rechazada no deja una fila libre ni un id gastado: lo que puede
+                // rechazarla se verifica con el lock del alumno, antes de asignarlos.
+                Estrias delAlumno = new Estrias(alumnoId, alumnoId);
+                delAlumno.bloquear();
+                try {
+                    if (controlarVersion) {
+                        Versiones.siguiente(asignatura, null);
+                    }
+                    verificarUnica(-1, alumnoId, materiaId);
+                    synchronized (altas) {
+                        if (idExplicito != null) {
+                            fila = filaDeId(new Lector(), id);
+                        } else {
+                            id = ids.siguiente();
+                        }
+                        if (fila < 0) {
+                            fila = nuevaFila(id);
+                            ultimoId = Math.max(ultimoId, id);
+                            tomadas = delAlumno;
+                        }
+                    }
+                } finally {
+                    if (tomadas == null) {
+                        delAlumno.soltar();
+                    }
+                }
+                // Si otra alta trajo el mismo id, se vuelve a empezar sobre su fila.
+                if (tomadas != null) {
+                    tomadas.bloquearFila(fila);
+                }
+            }
+            Estrias estrias = tomadas;
+            ReemplazoFrio reemplazo = null;
+            try {
+                Asignatura anterior = esqueleto(filaDe(fila));
+                long version = controlarVersion ? Versiones.siguiente(asignatura, anterior)
+                        : codificarVersion(asignatura.getVersion());
+                int columnaVersion = enColumna(version);
+                verificarUnica(fila, alumnoId, materiaId);
+                Fila nueva = new Fila(fila, id, alumnoId, materiaId, estado, nota, columnaVersion);
+                byte[] registro = anotacion != null ? anotacion.codificar(GUARDAR, id, esqueleto(nueva)) : null;
+                // Con el lock del alumno el archivador no mueve la base.
+                if (fila < columnas.base) {
+                    reemplazo = new ReemplazoFrio(nueva);
+                }
+                // Lo que puede fallar ya pasó: de acá en adelante nada se deshace.
+                ReemplazoFrio frio = reemplazo;
+                Runnable publicar = () -> {
+                    escribirFila(nueva, anterior, estrias, frio);
+                    quitarDelIndice(anterior);
+                    estados.agregar(alumnoId, materiaId, asignatura.getEstado());
+                    if (anterior == null) {
+                        cantidad.increment();
+                    }
+                    referenciasAAlumno.soltar(anterior);
+                    referenciasAMateria.soltar(anterior);
+                };
+                if (anotacion == null) {
+                    publicar.run();
+                } else {
+                    confirmacion = anotacion.bitacora().anotarYPublicar(registro, publicar);
+                }
+                if (idExplicito == null) {
+                    asignatura.setId(id);
+                }
+                if (controlarVersion) {
+                    asignatura.setVersion(version);
+                }
+            } finally {
+                if (reemplazo != null) {
+                    reemplazo.terminar();
+                }
+                estrias.soltar();
+            }
+        } catch (RuntimeException e) {
+            referenciasAAlumno.liberar(alumnosRetenidos);
+            referenciasAMateria.liberar(materiasRetenidas);
+            throw e;
+        }
+        archivarViejos();
+        if (confirmacion != null) {
+            Bitacora.esperar(confirmacion);
+        }
+        return asignatura;
+    }
+
+    @Override
+    public void borrarPorId(Long id) {
+        if (id == null || id < 1) {
+            return;
+        }
+        Anotacion<Asignatura> anotacion = this.anotacion;
+        if (anotacion != null) {
+            anotacion.bitacora().verificarDisponible();
+        }
+        int fila = filaDeId(new Lector(), id);
+        Fila actual = fila >= 0 ? filaDe(fila) : null;
+        if (actual == null) {
+            return;
+        }
+        CompletableFuture<?> confirmacion = null;
+        Estrias estrias = bloquear(fila, actual.alumno());
+        ReemplazoFrio reemplazo = null;
+        try {
+            Asignatura anterior = esqueleto(filaDe(fila));
+            if (anterior == null) {
+                return;
+            }
+            byte[] registro = anotacion != null ? anotacion.codificar(BORRAR, id, null) : null;
+            Fila libre = new Fila(fila, id, 0, 0, LIBRE, SIN_NOTA, 0);
+            if (fila < columnas.base) {
+                reemplazo = new ReemplazoFrio(libre);
+            }
+            ReemplazoFrio frio = reemplazo;
+            Runnable publicar = () -> {
+                escribirFila(libre, anterior, estrias, frio);
+                cantidad.decrement();
+                quitarDelIndice(anterior);
+                referenciasAAlumno.soltar(anterior);
+                referenciasAMateria.soltar(anterior);
+            };
+            if (anotacion == null) {
+                publicar.run();
+            } else {
+                confirmacion = anotacion.bitacora().anotarYPublicar(registro, publicar);
+            }
+        } finally {
+            if (reemplazo != null) {
+                reemplazo.terminar();
+            }
+            estrias.soltar();
+        }
+        if (confirmacion != null) {
+            Bitacora.esperar(confirmacion);
+        }
+    }
+
+    /**
+     * Toma los locks de la fila y de sus alumnos anterior y nuevo. El anterior se lee antes
+     * de tenerlos: si otra escritura lo cambió mientras tanto, se vuelve a empezar.
+     */
+    private Estrias bloquear(int fila, long alumnoId) {
+        while (true) {
+            Fila actual = filaDe(fila);
+            Estrias estrias = new Estrias(actual != null ? actual.alumno() : alumnoId, alumnoId, fila);
+            estrias.bloquear();
+            Fila leida = filaDe(fila);
+            if (estrias.cubre(leida != null ? leida.alumno() : alumnoId)) {
+                return estrias;
+            }
+            estrias.soltar();
+        }
+    }
+
+    /**
+     * Da la fila siguiente a un id que no tiene ninguna; se llama con el lock de altas. La
+     * columna de ids no baja nunca: un id menor al último queda anotado aparte.
+     */
+    private int nuevaFila(long id) {
+        int fila = filasAsignadas;
+        if (fila == Integer.MAX_VALUE) {
+            throw new IllegalStateException("No entran más asignaturas en las columnas");
+        }
+        Columnas columnas = conCapacidad(fila + 1);
+        if (id > ultimoValor) {
+            ultimoValor = id;
+        } else {
+            fueraDeOrden.put(id, fila);
+            idFueraDeOrden.poner(fila, id);
+        }
+        columnas.trozo(fila).id[indice(fila)] = ultimoValor;
+        filasAsignadas = fila + 1;
+        return fila;
+    }
+
+    /**
+     * Escribe la fila (LIBRE para borrarla) con los locks de sus estrías tomados. Una fila
+     * fría no se modifica en el lugar: se publica el tramo que ya se reescribió con ella.
+     */
+    private void escribirFila(Fila nueva, Asignatura anterior, Estrias estrias, ReemplazoFrio frio) {
+        int fila = nueva.fila();
+        estrias.abrirCambio();
+        try {
+            if (frio != null) {
+                frio.publicar();
+                return;
+            }
+            Columnas actuales = columnas;
+            Trozo trozo = actuales.trozo(fila);
+            int i = indice(fila);
+            long alumnoAnterior = trozo.alumno[i];
+            if (anterior != null && alumnoAnterior != nueva.alumno()) {
+                desenlazar(actuales, fila, alumnoAnterior);
+            }
+            trozo.alumno[i] = nueva.alumno();
+            trozo.materia[i] = nueva.materia();
+            trozo.estado[i] = nueva.estado();
+            trozo.nota[i] = nueva.nota();
+            trozo.version[i] = nueva.version();
+            if (nueva.estado() != LIBRE && (anterior == null || alumnoAnterior != nueva.alumno())) {
+                enlazar(actuales, fila, nueva.alumno());
+            }
+        } finally {
+            estrias.cerrarCambio();
+        }
+    }
+
+    /**
+     * Pasa a disco los tramos que quedaron atrás de los calientes y suelta sus filas de las
+     * columnas. Archiva un hilo a la vez; los demás siguen de largo.
+     */
+    private void archivarViejos() {
+        TramosFrios frios = this.frios;
+        if (frios == null || !hayQueArchivar(frios) || !archivando.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            while (hayQueArchivar(frios)) {
+                archivarTramos(frios);
+            }
+        } finally {
+            archivando.set(false);
+        }
+    }
+
+    private boolean hayQueArchivar(TramosFrios frios) {
+        return frios.tramosAArchivar(filasAsignadas) > columnas.base / frios.filasPorTramo();
+    }
+
+    /**
+     * Las filas se copian con las estrías de alumno tomadas, pero los archivos se escriben
+     * sin ningún lock. Al publicar se vuelven a tomar: un tramo que alguien modificó en el
+     * medio se escribe de nuevo, esta vez con los locks. Las cadenas por alumno sólo recorren
+     * filas calientes: la primera de cada alumno archivado se corre a su primera fila que
+     * sigue en memoria.
+     */
+    private void archivarTramos(TramosFrios frios) {
+        int filasPorTramo = frios.filasPorTramo();
+        int desde;
+        int hasta;
+        TramosFrios.Tramo[] tramos;
+        bloquearAlumnos();
+        try {
+            Columnas actuales = columnas;
+            desde = actuales.base / filasPorTramo;
+            hasta = frios.tramosAArchivar(filasAsignadas);
+            tramos = new TramosFrios.Tramo[Math.max(0, hasta - desde)];
+            for (int numero = desde; numero < hasta; numero++) {
+                tramos[numero - desde] = actuales.tramo(numero * filasPorTramo, filasPorTramo);
+            }
+        } finally {
+            soltarAlumnos();
+        }
+        if (tramos.length == 0) {
+            return;
+        }
+        TramosFrios.Segmento[] nuevos = new TramosFrios.Segmento[tramos.length];
+        for (int i = 0; i < tramos.length; i++) {
+            nuevos[i] = frios.escribir(desde + i, tramos[i]);
+        }
+        bloquearAlumnos();
+        try {
+            Columnas actuales = columnas;
+            Set<Long> alumnos = new HashSet<>();
+            for (int i = 0; i < tramos.length; i++) {
+                TramosFrios.Tramo tramo = actuales.tramo((desde + i) * filasPorTramo, filasPorTramo);
+                if (!tramo.mismasFilas(tramos[i])) {
+                    frios.descartar(nuevos[i]);
+                    nuevos[i] = frios.escribir(desde + i, tramo);
+                }
+                for (long alumnoId : tramo.alumnos()) {
+                    alumnos.add(alumnoId);
+                }
+            }
+            int nuevaBase = hasta * filasPorTramo;
+            for (int estria = 0; estria < ESTRIAS; estria++) {
+                abrirCambio(cambiosDeAlumno, estria);
+            }
+            try {
+                synchronized (altas) {
+                    frios.publicar(nuevos);
+                    columnas = columnas.recortar(nuevaBase);
+                }
+                for (long alumnoId : alumnos) {
+                    int siguiente = primera(alumnoId);
+                    while (siguiente > 0 && siguiente - 1 < nuevaBase) {
+                        siguiente = actuales.siguienteDe(siguiente - 1);
+                    }
+                    if (siguiente > 0) {
+                        primeraPorAlumno.poner(alumnoId, siguiente);
+                    } else {
+                        primeraPorAlumno.quitar(alumnoId);
+                    }
+                }
+            } finally {
+                for (int estria = 0; estria < ESTRIAS; estria++) {
+                    cerrarCambio(cambiosDeAlumno, estria);
+                }
+            }
+        } finally {
+            soltarAlumnos();
+        }
+    }
+
+    public Optional<Asignatura> buscarPorId(Long id) {
+        if (id == null || id < 1) {
+            return Optional.empty();
+        }
+        // El id de una fila no cambia: sólo se valida la lectura de la fila.
+        int fila = filaDeId(new Lector(), id);
+        if (fila < 0) {
+            return Optional.empty();
+        }
+        Fila leida = leerFila(fila, () -> filaDe(fila));
+        return Optional.ofNullable(leida).map(this::armar);
+    }
+
+    /**
+     * Ordenadas por id; cada porción de la tabla se lee consistente por separado.
+     */
+    public List<Asignatura> buscarTodos() {
+        return buscarPagina(null, Integer.MAX_VALUE, Orden.ASCENDENTE);
+    }
+
+    /**
+     * Hasta {@code limite} asignaturas con id posterior al cursor en el orden pedido. El
+     * cursor se ubica por bisección en la columna de ids y desde ahí se leen porciones de
+     * filas seguidas.
+     */
+    public List<Asignatura> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        List<Asignatura> resultado = new ArrayList<>(Math.min(limite, cantidad()));
+        boolean descendente = orden == Orden.DESCENDENTE;
+        Long cursor = despuesDeId;
+        while (resultado.size() < limite) {
+            int porcion = Math.min(limite - resultado.size(), PORCION);
+            Long desde = cursor;
+            List<Fila> filas = leerFilas(() -> pagina(desde, porcion, descendente));
+            for (Fila fila : filas) {
+                resultado.add(armar(fila));
+            }
+            if (filas.size() < porcion) {
+                break;
+            }
+            cursor = filas.get(filas.size() - 1).id();
+        }
+        return resultado;
+    }
+
+    /**
+     * Stream perezoso por páginas; como buscarTodos, cada página se lee consistente.
+     */
+    public Stream<Asignatura> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Asignatura::getId);
+    }
+
+    public List<Asignatura> buscarPorAlumnoId(Long alumnoId) {
+        List<Asignatura> resultado = new ArrayList<>();
+        if (alumnoId == null) {
+            return resultado;
+        }
+        for (Fila fila : leerAlumno(alumnoId, () -> filasDeAlumno(alumnoId))) {
+            resultado.add(armar(fila));
+        }
+        return resultado;
+    }
+
+    /**
+     * Todos los alumnos en una lectura: cada tramo frío se lee una sola vez para todos los
+     * que tiene, en lugar de una vez por alumno.
+     */
+    public Map<Long, List<Asignatura>> buscarPorAlumnoIds(Collection<Long> alumnoIds) {
+        Map<Long, List<Asignatura>> resultado = new HashMap<>();
+        long[] distintos = alumnoIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).distinct().toArray();
+        if (distintos.length == 0) {
+            return resultado;
+        }
+        long estrias = 0;
+        for (long alumnoId : distintos) {
+            estrias |= 1L << estriaDeAlumno(alumnoId);
+        }
+        Map<Long, List<Fila>> porAlumno = leer(cambiosDeAlumno, candadosDeAlumno, estrias,
+                () -> filasDeAlumnos(distintos));
+        porAlumno.forEach((alumnoId, filas) -> {
+            if (!filas.isEmpty()) {
+                List<Asignatura> armadas = new ArrayList<>(filas.size());
+                for (Fila fila : filas) {
+                    armadas.add(armar(fila));
+                }
+                resultado.put(alumnoId, armadas);
+            }
+        });
+        return resultado;
+    }
+
+    public Optional<Asignatura> buscarPorAlumnoIdYMateriaId(Long alumnoId, Long materiaId) {
+        if (alumnoId == null || materiaId == null) {
+            return Optional.empty();
+        }
+        Fila encontrada = leerAlumno(alumnoId, () -> {
+            for (Fila fila : filasDeAlumno(alumnoId)) {
+                if (fila.materia() == materiaId) {
+                    return fila;
+                }
+            }
+            return null;
+        });
+        return Optional.ofNullable(encontrada).map(this::armar);
+    }
+
+    public int cantidad() {
+        return cantidad.intValue();
+    }
+
+    public long contarPorMateriaYEstado(Long materiaId, EstadoAsignatura estado) {
+        return materiaId != null ? estados.contar(materiaId, estado) : 0;
+    }
+
+    /**
+     * Ids, ordenados, de los alumnos con ese estado en alguna de las materias (o en todas).
+     */
+    public List<Long> alumnosPorEstado(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas) {
+        return Arrays.stream(estados.alumnos(materiaIds, estado, enTodas)).boxed().toList();
+    }
+
+    /**
+     * Para avisar cada cambio de una materia: sus correlativas se vuelven a compilar en la
+     * próxima consulta, no en la escritura de la materia.
+     */
+    public void materiaCambiada(Long materiaId, Materia materia) {
+        if (materiaId != null) {
+            estados.olvidarCorrelativas(materiaId);
+        }
+    }
+
+    public List<Long> correlativasSinCumplir(Long alumnoId, Materia materia) {
+        if (alumnoId == null || materia == null || materia.getId() == null
+                || materia.getCorrelatividades() == null || materia.getCorrelatividades().isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(estados.correlativasSinCumplir(alumnoId, materia.getId(), materia.getCorrelatividades()))
+                .boxed().toList();
+    }
+
+    @Override
+    public void anotarEn(Bitacora bitacora, String nombre, Codificador<Asignatura> codificador) {
+        anotacion = new Anotacion<>(bitacora, nombre, codificador);
+    }
+
+    /**
+     * Copia las columnas sin tomar ningún lock, para no frenar a los escritores. De los
+     * tramos fríos sólo abre los archivos,
+     * que se leen recién al recorrer (una sola vez) la captura.
+     */
+    @Override
+    public Captura<Asignatura> capturar() {
+        long[] antes = new long[ESTRIAS];
+        while (true) {
+            if (pares(cambiosDeFila, TODAS, antes)) {
+                long hasta = ultimoId;
+                int asignadas = filasAsignadas;
+                Columnas columnas = this.columnas;
+                int hastaFila = Math.max(columnas.base, Math.min(asignadas, columnas.capacidad()));
+                Columnas copia = columnas.copiar(hastaFila);
+                Map<Integer, Long> idsReales = new HashMap<>();
+                fueraDeOrden.forEach((id, fila) -> idsReales.put(fila, id));
+                List<FileChannel> abiertos = new ArrayList<>();
+                int ocupadas = 0;
+                try {
+                    if (columnas.base > 0) {
+                        TramosFrios frios = this.frios;
+                        TramosFrios.Segmento[] segmentos = frios.segmentos();
+                        for (int numero = 0; numero < columnas.base / frios.filasPorTramo(); numero++) {
+                            abiertos.add(FileChannel.open(segmentos[numero].archivo(), StandardOpenOption.READ));
+                            ocupadas += segmentos[numero].ocupadas();
+                        }
+                    }
+                } catch (IOException e) {
+                    // Lo reemplazó una escritura en el medio: se vuelve a intentar.
+                    cerrar(abiertos);
+                    Thread.onSpinWait();
+                    continue;
+                }
+                VarHandle.acquireFence();
+                if (iguales(cambiosDeFila, TODAS, antes)) {
+                    for (int fila = copia.base; fila < hastaFila; fila++) {
+                        if (copia.trozo(fila).estado[indice(fila)] != LIBRE) {
+                            ocupadas++;
+                        }
+                    }
+                    return new Captura<>(() -> new Recorrido(abiertos, copia, hastaFila, idsReales), ocupadas,
+                            Math.max(hasta, ids.ultimo()));
+                }
+                cerrar(abiertos);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void cargar(List<Asignatura> cargadas, long ultimoIdGuardado) {
+        bloquearAlumnos();
+        try {
+            synchronized (altas) {
+                if (cantidad() > 0 || filasAsignadas > 0) {
+                    throw new IllegalStateException("Sólo se puede cargar una instantánea en un almacén vacío");
+                }
+                List<Asignatura> ordenadas = new ArrayList<>(cargadas);
+                ordenadas.sort(Comparator.comparingLong(Asignatura::getId));
+                long mayorId = ordenadas.isEmpty() ? 0 : ordenadas.get(ordenadas.size() - 1).getId();
+                Map<Long, Integer> ultimaPorAlumno = new HashMap<>();
+                for (int estria = 0; estria < ESTRIAS; estria++) {
+                    abrirCambio(cambiosDeAlumno, estria);
+                    abrirCambio(cambiosDeFila, estria);
+                }
+                try {
+                    Columnas columnas = conCapacidad(Math.max(ordenadas.size(), 1));
+                    // Recién al final se pasan a disco los tramos viejos.
+                    for (int fila = 0; fila < ordenadas.size(); fila++) {
+                        Asignatura asignatura = ordenadas.get(fila);
+                        long alumnoId = idDe(asignatura.getAlumno());
+                        Trozo trozo = columnas.trozo(fila);
+                        int i = indice(fila);
+                        trozo.id[i] = asignatura.getId();
+                        trozo.alumno[i] = alumnoId;
+                        trozo.materia[i] = idDe(asignatura.getMateria());
+                        trozo.estado[i] = codificarEstado(asignatura.getEstado());
+                        trozo.nota[i] = codificarNota(asignatura.getNota());
+                        trozo.version[i] = enColumna(codificarVersion(asignatura.getVersion()));
+                        // En orden de fila: alcanza con colgar cada una al final de su alumno.
+                        if (alumnoId != 0) {
+                            Integer ultima = ultimaPorAlumno.put(alumnoId, fila);
+                            if (ultima == null) {
+                                primeraPorAlumno.poner(alumnoId, fila + 1);
+                            } else {
+                                columnas.apuntar(ultima, fila + 1);
+                            }
+                        }
+                    }
+                    filasAsignadas = ordenadas.size();
+                    ultimoValor = mayorId;
+                } finally {
+                    for (int estria = 0; estria < ESTRIAS; estria++) {
+                        cerrarCambio(cambiosDeFila, estria);
+                        cerrarCambio(cambiosDeAlumno, estria);
+                    }
+                }
+                for (Asignatura asignatura : ordenadas) {
+                    referenciasAAlumno.cargar(asignatura);
+                    referenciasAMateria.cargar(asignatura);
+                    estados.agregar(idDe(asignatura.getAlumno()), idDe(asignatura.getMateria()), asignatura.getEstado());
+                }
+                cantidad.add(ordenadas.size());
+                ultimoId = Math.max(ultimoId, mayorId);
+                ids.avanzarHasta(Math.max(mayorId, ultimoIdGuardado));
+            }
+        } finally {
+            soltarAlumnos();
+        }
+        archivarViejos();
+    }
+
+    @Override
+    public void usarIds(GeneradorDeIds ids) {
+        synchronized (altas) {
+            ids.avanzarHasta(this.ids.ultimo());
+            this.ids = ids;
+        }
+    }
+
+    private <R> R leerAlumno(long alumnoId, Supplier<R> lectura) {
+        return leer(cambiosDeAlumno, candadosDeAlumno, 1L << estriaDeAlumno(alumnoId), lectura);
+    }
+
+    private <R> R leerFila(int fila, Supplier<R> lectura) {
+        return leer(cambiosDeFila, candadosDeFila, 1L << estriaDeFila(fila), lectura);
+    }
+
+    private <R> R leerFilas(Supplier<R> lectura) {
+        return leer(cambiosDeFila, candadosDeFila, TODAS, lectura);
+    }
+
+    /**
+     * Lectura optimista de las estrías marcadas (un bit por estría): si una escritura la
+     * cruzó se repite, y tras varios intentos se hace con sus locks para no quedar a merced
+     * de un escritor continuo.
+     */
+    private static <R> R leer(AtomicLongArray cambios, ReentrantLock[] candados, long estrias,
+            Supplier<R> lectura) {
+        long[] antes = new long[ESTRIAS];
+        for (int intento = 0; intento < INTENTOS_SIN_BLOQUEAR; intento++) {
+            if (pares(cambios, estrias, antes)) {
+                R resultado = lectura.get();
+                VarHandle.acquireFence();
+                if (iguales(cambios, estrias, antes)) {
+                    return resultado;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        for (int estria = 0; estria < ESTRIAS; estria++) {
+            if ((estrias & (1L << estria)) != 0) {
+                candados[estria].lock();
+            }
+        }
+        try {
+            return lectura.get();
+        } finally {
+            for (int estria = ESTRIAS - 1; estria >= 0; estria--) {
+                if ((estrias & (1L << estria)) != 0) {
+                    candados[estria].unlock();
+                }
+            }
+        }
+    }
+
+    /** Lee los contadores de las estrías marcadas; false si alguno está impar. */
+    private static boolean pares(AtomicLongArray cambios, long estrias, long[] leidos) {
+        for (long quedan = estrias; quedan != 0; quedan &= quedan - 1) {
+            int estria = Long.numberOfTrailingZeros(quedan);
+            leidos[estria] = cambios.get(estria * SEPARACION);
+            if ((leidos[estria] & 1) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean iguales(AtomicLongArray cambios, long estrias, long[] antes) {
+        for (long quedan = estrias; quedan != 0; quedan &= quedan - 1) {
+            int estria = Long.numberOfTrailingZeros(quedan);
+            if (cambios.get(estria * SEPARACION) != antes[estria]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Se llama con el lock de la estría tomado. */
+    private static void abrirCambio(AtomicLongArray cambios, int estria) {
+        int i = estria * SEPARACION;
+        cambios.set(i, cambios.get(i) + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    private static void cerrarCambio(AtomicLongArray cambios, int estria) {
+        int i = estria * SEPARACION;
+        cambios.set(i, cambios.get(i) + 1);
+    }
+
+    /** Todas las estrías de alumno, en orden: con ellas no hay ninguna escritura en curso. */
+    private void bloquearAlumnos() {
+        for (ReentrantLock candado : candadosDeAlumno) {
+            candado.lock();
+        }
+    }
+
+    private void soltarAlumnos() {
+        for (int estria = ESTRIAS - 1; estria >= 0; estria--) {
+            candadosDeAlumno[estria].unlock();
+        }
+    }
+
+    private static int estriaDeAlumno(long alumnoId) {
+        return (int) ((alumnoId * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+
+    /** Filas seguidas caen en estrías distintas: las altas en paralelo no se cruzan. */
+    private static int estriaDeFila(int fila) {
+        return fila & (ESTRIAS - 1);
+    }
+
+    private static ReentrantLock[] candados() {
+        ReentrantLock[] candados = new ReentrantLock[ESTRIAS];
+        for (int i = 0; i < ESTRIAS; i++) {
+            candados[i] = new ReentrantLock();
+        }
+        return candados;
+    }
+
+    private List<Fila> filasDeAlumno(long alumnoId) {
+        return filasDeAlumnos(alumnoId).get(alumnoId);
+    }
+
+    /**
+     * Primero las filas frías de los tramos que tienen a cada alumno, leyendo cada tramo
+     * una vez, y después su cadena en memoria. Los enlaces siempre apuntan a una fila
+     * posterior, así que una lectura que cruza una escritura termina igual (y después se
+     * descarta).
+     */
+    private Map<Long, List<Fila>> filasDeAlumnos(long... alumnoIds) {
+        Map<Long, List<Fila>> porAlumno = new HashMap<>();
+        for (long alumnoId : alumnoIds) {
+            porAlumno.put(alumnoId, new ArrayList<>());
+        }
+        Columnas columnas = this.columnas;
+        if (columnas.base > 0) {
+            TramosFrios frios = this.frios;
+            TramosFrios.Segmento[] segmentos = frios.segmentos();
+            for (int numero = 0; numero < columnas.base / frios.filasPorTramo(); numero++) {
+                TramosFrios.Tramo tramo = null;
+                for (long alumnoId : alumnoIds) {
+                    if (segmentos[numero].tieneAlumno(alumnoId)) {
+                        if (tramo == null) {
+                            tramo = tramoDe(numero * frios.filasPorTramo());
+                        }
+                        List<Fila> filas = porAlumno.get(alumnoId);
+                        for (int fila : tramo.filasDe(alumnoId)) {
+                            filas.add(Fila.de(tramo, fila));
+                        }
+                    }
+                }
+            }
+        }
+        for (long alumnoId : alumnoIds) {
+            List<Fila> filas = porAlumno.get(alumnoId);
+            int siguiente = primera(alumnoId);
+            while (siguiente > columnas.base && siguiente <= columnas.capacidad()) {
+                int fila = siguiente - 1;
+                Fila leida = Fila.de(columnas, fila);
+                if (leida != null && leida.alumno() == alumnoId) {
+                    filas.add(leida);
+                }
+                siguiente = columnas.siguienteDe(fila);
+            }
+            if (!fueraDeOrden.isEmpty()) {
+                filas.replaceAll(this::conIdReal);
+                filas.sort(Comparator.comparingLong(Fila::id));
+            }
+        }
+        return porAlumno;
+    }
+
+    private int primera(long alumnoId) {
+        Integer primera = primeraPorAlumno.buscar(alumnoId);
+        return primera != null ? primera : 0;
+    }
+
+    /**
+     * Fila del id, ocupada o libre (las borradas conservan su id); -1 si nunca tuvo.
+     */
+    private int filaDeId(Lector lector, long id) {
+        Integer fuera = fueraDeOrden.get(id);
+        if (fuera != null) {
+            return fuera;
+        }
+        // La primera fila con cada valor de la columna es la de ese id.
+        int fila = lector.cota(id, true);
+        return fila < lector.hasta && lector.valor(fila) == id ? fila : -1;
+    }
+
+    /**
+     * Una porción de la página: las filas en orden de la columna de ids desde el cursor,
+     * intercaladas con las que llegaron fuera de orden.
+     */
+    private List<Fila> pagina(Long despuesDe, int limite, boolean descendente) {
+        Lector lector = new Lector();
+        int fila;
+        NavigableMap<Long, Integer> fuera = fueraDeOrden;
+        if (despuesDe == null) {
+            fila = descendente ? lector.hasta - 1 : 0;
+        } else if (descendente) {
+            fila = lector.cota(despuesDe, true) - 1;
+            fuera = fueraDeOrden.headMap(despuesDe, false);
+        } else {
+            fila = lector.cota(despuesDe, false);
+            fuera = fueraDeOrden.tailMap(despuesDe, false);
+        }
+        Iterator<Map.Entry<Long, Integer>> extras = (descendente ? fuera.descendingMap() : fuera).entrySet().iterator();
+        int paso = descendente ? -1 : 1;
+        List<Fila> resultado = new ArrayList<>(Math.min(limite, 64));
+        Fila enOrden = null;
+        Fila extra = null;
+        while (resultado.size() < limite) {
+            while (enOrden == null && fila >= 0 && fila < lector.hasta) {
+                if (!esFueraDeOrden(fila)) {
+                    enOrden = lector.fila(fila);
+                }
+                fila += paso;
+            }
+            while (extra == null && extras.hasNext()) {
+                int otra = extras.next().getValue();
+                if (otra < lector.hasta) {
+                    extra = lector.fila(otra);
+                }
+            }
+            if (enOrden == null && extra == null) {
+                break;
+            }
+            if (enOrden == null || extra != null && (descendente ? extra.id() > enOrden.id() : extra.id() < enOrden.id())) {
+                resultado.add(extra);
+                extra = null;
+            } else {
+                resultado.add(enOrden);
+                enOrden = null;
+            }
+        }
+        return resultado;
+    }
+
+    private boolean esFueraDeOrden(int fila) {
+        return !fueraDeOrden.isEmpty() && idFueraDeOrden.contiene(fila);
+    }
+
+    private Fila conIdReal(Fila fila) {
+        Long real = fueraDeOrden.isEmpty() ? null : idFueraDeOrden.buscar(fila.fila());
+        return real != null ? fila.conId(real) : fila;
+    }
+
+    private Fila filaDe(int fila) {
+        return new Lector().fila(fila);
+    }
+
+    /**
+     * Si una escritura reemplazó el segmento mientras se leía, se lee el nuevo.
+     */
+    private TramosFrios.Tramo tramoDe(int fila) {
+        while (true) {
+            TramosFrios.Segmento segmento = frios.segmentoDe(fila);
+            try {
+                return frios.tramo(segmento);
+            } catch (UncheckedIOException e) {
+                if (frios.segmentoDe(fila) == segmento) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void verificarUnica(int fila, long alumnoId, long materiaId) {
+        if (alumnoId == 0 || materiaId == 0) {
+            return;
+        }
+        for (Fila otra : filasDeAlumno(alumnoId)) {
+            if (otra.fila() != fila && otra.materia() == materiaId) {
+                throw new EntidadDuplicadaException("Asignatura", "alumno y materia",
+                        "Alumno ID: " + alumnoId + ", Materia ID: " + materiaId);
+            }
+        }
+    }
+
+    /**
+     * Inserta la fila en la cadena de su alumno respetando el orden por fila. El enlace
+     * de la fila nueva se escribe antes que el que apunta a ella.
+     */
+    private void enlazar(Columnas columnas, int fila, long alumnoId) {
+        if (alumnoId == 0) {
+            return;
+        }
+        int primera = primera(alumnoId);
+        if (primera == 0 || primera - 1 > fila) {
+            columnas.apuntar(fila, primera);
+            primeraPorAlumno.poner(alumnoId, fila + 1);
+            return;
+        }
+        int previa = primera - 1;
+        while (columnas.siguienteDe(previa) > 0 && columnas.siguienteDe(previa) - 1 < fila) {
+            previa = columnas.siguienteDe(previa) - 1;
+        }
+        columnas.apuntar(fila, columnas.siguienteDe(previa));
+        columnas.apuntar(previa, fila + 1);
+    }
+
+    private void desenlazar(Columnas columnas, int fila, long alumnoId) {
+        if (alumnoId == 0) {
+            return;
+        }
+        int primera = primera(alumnoId);
+        if (primera == fila + 1) {
+            if (columnas.siguienteDe(fila) > 0) {
+                primeraPorAlumno.poner(alumnoId, columnas.siguienteDe(fila));
+            } else {
+                primeraPorAlumno.quitar(alumnoId);
+            }
+        } else if (primera > 0) {
+            int previa = primera - 1;
+            while (columnas.siguienteDe(previa) > 0 && columnas.siguienteDe(previa) != fila + 1) {
+                previa = columnas.siguienteDe(previa) - 1;
+            }
+            if (columnas.siguienteDe(previa) == fila + 1) {
+                columnas.apuntar(previa, columnas.siguienteDe(fila));
+            }
+        }
+        columnas.apuntar(fila, 0);
+    }
+
+    /**
+     * Agrega los trozos que falten; se llama con el lock de altas. Los trozos que ya había
+     * pasan tal cual a las columnas nuevas, con lo que se escriba en ellos mientras tanto.
+     */
+    private Columnas conCapacidad(int filas) {
+        Columnas actuales = columnas;
+        if (filas <= actuales.capacidad()) {
+            return actuales;
+        }
+        Columnas nuevas = actuales.agrandar(filas);
+        columnas = nuevas;
+        return nuevas;
+    }
+
+    private Asignatura armar(Fila fila) {
+        Alumno alumno = null;
+        if (fila.alumno() != 0) {
+            alumno = buscarAlumno.apply(fila.alumno());
+            if (alumno == null) {
+                alumno = new Alumno(fila.alumno(), null, null, null, null);
+            }
+        }
+        Materia materia = null;
+        if (fila.materia() != 0) {
+            materia = buscarMateria.apply(fila.materia());
+            if (materia == null) {
+                materia = new Materia(fila.materia(), null, null, null);
+            }
+        }
+        Asignatura asignatura = new Asignatura(fila.id(), materia, alumno, decodificarEstado(fila.estado()),
+                decodificarNota(fila.nota()));
+        asignatura.setVersion(decodificarVersion(fila.version()));
+        asignatura.congelar();
+        return asignatura;
+    }
+
+    private void quitarDelIndice(Asignatura anterior) {
+        if (anterior != null) {
+            estados.quitar(idDe(anterior.getAlumno()), idDe(anterior.getMateria()), anterior.getEstado());
+        }
+    }
+
+    /**
+     * Asignatura con alumno y materia sólo por id, como la necesitan las referencias
+     * y la bitácora. Null si la fila está libre.
+     */
+    private static Asignatura esqueleto(Fila leida) {
+        if (leida == null) {
+            return null;
+        }
+        Asignatura asignatura = new Asignatura(leida.id(),
+                leida.materia() != 0 ? new Materia(leida.materia(), null, null, null) : null,
+                leida.alumno() != 0 ? new Alumno(leida.alumno(), null, null, null, null) : null,
+                decodificarEstado(leida.estado()), decodificarNota(leida.nota()));
+        asignatura.setVersion(decodificarVersion(leida.version()));
+        return asignatura;
+    }
+
+    private static int indice(int fila) {
+        return fila & (FILAS_POR_TROZO - 1);
+    }
+
+    private static long idDe(Alumno alumno) {
+        return alumno != null && alumno.getId() != null ? alumno.getId() : 0;
+    }
+
+    private static long idDe(Materia materia) {
+        return materia != null && materia.getId() != null ? materia.getId() : 0;
+    }
+
+    private static List<Long> idsDe(Long id) {
+        return id != null ? List.of(id) : List.of();
+    }
+
+    private static byte codificarEstado(EstadoAsignatura estado) {
+        return estado != null ? (byte) (estado.ordinal() + 2) : SIN_ESTADO;
+    }
+
+    private static EstadoAsignatura decodificarEstado(byte codigo) {
+        return codigo >= 2 ? ESTADOS[codigo - 2] : null;
+    }
+
+    /**
+     * La nota se guarda en centésimos en un short: admite hasta dos decimales y hasta 327,67
+     * en valor absoluto.
+     */
+    static short codificarNota(Double nota) {
+        if (nota == null) {
+            return SIN_NOTA;
+        }
+        double centesimos = nota * 100;
+        long redondeada = Math.round(centesimos);
+        if (Double.isNaN(centesimos) || Math.abs(redondeada) > Short.MAX_VALUE
+                || Math.abs(centesimos - redondeada) > 1e-6) {
+            throw new ReglaNegocioException("La nota " + nota
+                    + " no es válida: admite hasta dos decimales y hasta 327,67 en valor absoluto");
+        }
+        return (short) redondeada;
+    }
+
+    static Double decodificarNota(short centesimos) {
+        return centesimos != SIN_NOTA ? centesimos / 100.0 : null;
+    }
+
+    private static void cerrar(List<FileChannel> abiertos) {
+        for (FileChannel abierto : abiertos) {
+            try {
+                abierto.close();
+            } catch (IOException e) {
+                // Sólo se leía.
+            }
+        }
+    }
+
+    /**
+     * 0 es "sin versión" (filas restauradas de registros anteriores a las versiones).
+     */
+    private static long codificarVersion(Long version) {
+        return version != null ? version : 0;
+    }
+
+    /**
+     * La columna de versiones es de int: una versión que no entra se rechaza en lugar de
+     * guardarse truncada, que haría coincidir un If-Match viejo con la versión nueva.
+     */
+    private static int enColumna(long version) {
+        if (version < 0 || version > Integer.MAX_VALUE) {
+            throw new ReglaNegocioException("La versión " + version + " de la asignatura está fuera de rango: admite hasta "
+                    + Integer.MAX_VALUE);
+        }
+        return (int) version;
+    }
+
+    private static Long decodificarVersion(int version) {
+        return version != 0 ? (long) version : null;
+    }
+
+    /**
+     * Los locks de una escritura: el de la estría de cada alumno que toca, en orden, y
+     * después el de la estría de la fila.
+     */
+    private final class Estrias {
+
+        private final int primera;
+        private final int segunda;
+        private int fila = -1;
+
+        /** Sin fila todavía: la toma {@link #bloquearFila} cuando se asigna. */
+        Estrias(long alumnoAnterior, long alumnoNuevo) {
+            int anterior = estriaDeAlumno(alumnoAnterior);
+            int nueva = estriaDeAlumno(alumnoNuevo);
+            this.primera = Math.min(anterior, nueva);
+            this.segunda = Math.max(anterior, nueva);
+        }
+
+        Estrias(long alumnoAnterior, long alumnoNuevo, int fila) {
+            this(alumnoAnterior, alumnoNuevo);
+            this.fila = estriaDeFila(fila);
+        }
+
+        boolean cubre(long alumnoId) {
+            int estria = estriaDeAlumno(alumnoId);
+            return estria == primera || estria == segunda;
+        }
+
+        void bloquear() {
+            candadosDeAlumno[primera].lock();
+            if (segunda != primera) {
+                candadosDeAlumno[segunda].lock();
+            }
+            if (fila >= 0) {
+                candadosDeFila[fila].lock();
+            }
+        }
+
+        void bloquearFila(int fila) {
+            this.fila = estriaDeFila(fila);
+            candadosDeFila[this.fila].lock();
+        }
+
+        void soltar() {
+            if (fila >= 0) {
+                candadosDeFila[fila].unlock();
+            }
+            if (segunda != primera) {
+                candadosDeAlumno[segunda].unlock();
+            }
+            candadosDeAlumno[primera].unlock();
+        }
+
+        void abrirCambio() {
+            AsignaturasColumnares.abrirCambio(cambiosDeAlumno, primera);
+            if (segunda != primera) {
+                AsignaturasColumnares.abrirCambio(cambiosDeAlumno, segunda);
+            }
+            AsignaturasColumnares.abrirCambio(cambiosDeFila, fila);
+        }
+
+        void cerrarCambio() {
+            AsignaturasColumnares.cerrarCambio(cambiosDeFila, fila);
+            if (segunda != primera) {
+                AsignaturasColumnares.cerrarCambio(cambiosDeAlumno, segunda);
+            }
+            AsignaturasColumnares.cerrarCambio(cambiosDeAlumno, primera);
+        }
+    }
+
+    /**
+     * Tramo frío ya reescrito con una fila cambiada, listo para reemplazar al publicado.
+     * Mientras tanto tiene el lock de su tramo: nadie más lo reemplaza, así que publicarlo
+     * no falla.
+     */
+    private final class ReemplazoFrio {
+
+        private final ReentrantLock candado;
+        private final TramosFrios.Segmento viejo;
+        private final TramosFrios.Segmento nuevo;
+        private boolean publicado;
+
+        ReemplazoFrio(Fila fila) {
+            TramosFrios frios = AsignaturasColumnares.this.frios;
+            candado = candadosDeTramo[estriaDeFila(fila.fila() / frios.filasPorTramo())];
+            candado.lock();
+            try {
+                viejo = frios.segmentoDe(fila.fila());
+                nuevo = frios.escribir(viejo.numero(), frios.tramo(viejo).con(fila.fila(), fila.alumno(),
+                        fila.materia(), fila.estado(), fila.nota(), fila.version()));
+            } catch (RuntimeException e) {
+                candado.unlock();
+                throw e;
+            }
+        }
+
+        void publicar() {
+            if (!frios.reemplazar(viejo, nuevo)) {
+                throw new IllegalStateException("Se reemplazó el tramo " + viejo.numero() + " sin su lock");
+            }
+            publicado = true;
+        }
+
+        /** Suelta el tramo y borra el segmento que quedó sin usar. */
+        void terminar() {
+            candado.unlock();
+            try {
+                frios.descartar(publicado ? viejo : nuevo);
+            } catch (UncheckedIOException e) {
+                // Queda un archivo de más, que se borra al arrancar.
+            }
+        }
+    }
+
+    /**
+     * {@link #FILAS_POR_TROZO} filas de cada columna.
+     */
+    private static final class Trozo {
+
+        /** No decrece: en las filas fuera de orden repite el valor de la anterior. */
+        final long[] id;
+        final long[] alumno;
+        final long[] materia;
+        final byte[] estado;
+        final short[] nota;
+        final int[] version;
+        /** Fila + 1 de la siguiente asignatura del mismo alumno; 0 al final. */
+        final int[] siguiente;
+
+        Trozo() {
+            this(new long[FILAS_POR_TROZO], new long[FILAS_POR_TROZO], new long[FILAS_POR_TROZO],
+                    new byte[FILAS_POR_TROZO], new short[FILAS_POR_TROZO], new int[FILAS_POR_TROZO],
+                    new int[FILAS_POR_TROZO]);
+            Arrays.fill(nota, SIN_NOTA);
+        }
+
+        private Trozo(long[] id, long[] alumno, long[] materia, byte[] estado, short[] nota, int[] version,
+                int[] siguiente) {
+            this.id = id;
+            this.alumno = alumno;
+            this.materia = materia;
+            this.estado = estado;
+            this.nota = nota;
+            this.version = version;
+            this.siguiente = siguiente;
+        }
+
+        /** Copia sin los enlaces. */
+        Trozo copiar() {
+            return new Trozo(id.clone(), alumno.clone(), materia.clone(), estado.clone(), nota.clone(),
+                    version.clone(), null);
+        }
+    }
+
+    private static final class Columnas {
+
+        /** Fila caliente más vieja; las anteriores están en los tramos fríos. */
+        final int base;
+        /** El trozo k empieza en la fila k * FILAS_POR_TROZO; los que quedaron enteros antes de la base son null. */
+        final Trozo[] trozos;
+
+        Columnas(int base, Trozo[] trozos) {
+            this.base = base;
+            this.trozos = trozos;
+        }
+
+        /** Una fila más que la última que entra. */
+        int capacidad() {
+            return trozos.length << BITS_POR_TROZO;
+        }
+
+        /** Filas de los trozos en memoria. */
+        int largo() {
+            return (trozos.length - (base >>> BITS_POR_TROZO)) << BITS_POR_TROZO;
+        }
+
+        Trozo trozo(int fila) {
+            return trozos[fila >>> BITS_POR_TROZO];
+        }
+
+        int siguienteDe(int fila) {
+            return trozo(fila).siguiente[indice(fila)];
+        }
+
+        void apuntar(int fila, int siguienteFila) {
+            trozo(fila).siguiente[indice(fila)] = siguienteFila;
+        }
+
+        Columnas agrandar(int filas) {
+            int cantidad = (int) (((long) filas + FILAS_POR_TROZO - 1) >>> BITS_POR_TROZO);
+            Trozo[] nuevos = Arrays.copyOf(trozos, cantidad);
+            for (int k = trozos.length; k < cantidad; k++) {
+                nuevos[k] = new Trozo();
+            }
+            return new Columnas(base, nuevos);
+        }
+
+        /** Las filas desde la base hasta {@code hasta}, sin los enlaces. */
+        Columnas copiar(int hasta) {
+            int cantidad = (int) (((long) hasta + FILAS_POR_TROZO - 1) >>> BITS_POR_TROZO);
+            Trozo[] copias = new Trozo[cantidad];
+            for (int k = base >>> BITS_POR_TROZO; k < cantidad; k++) {
+                copias[k] = trozos[k].copiar();
+            }
+            return new Columnas(base, copias);
+        }
+
+        /** Sin los trozos que quedan enteros antes de {@code nuevaBase}. */
+        Columnas recortar(int nuevaBase) {
+            Trozo[] restantes = trozos.clone();
+            Arrays.fill(restantes, 0, Math.min(restantes.length, nuevaBase >>> BITS_POR_TROZO), null);
+            return new Columnas(nuevaBase, restantes);
+        }
+
+        TramosFrios.Tramo tramo(int desde, int filas) {
+            long[] id = new long[filas];
+            long[] alumno = new long[filas];
+            long[] materia = new long[filas];
+            byte[] estado = new byte[filas];
+            short[] nota = new short[filas];
+            int[] version = new int[filas];
+            for (int hechas = 0; hechas < filas;) {
+                Trozo trozo = trozo(desde + hechas);
+                int i = indice(desde + hechas);
+                int largo = Math.min(filas - hechas, FILAS_POR_TROZO - i);
+                System.arraycopy(trozo.id, i, id, hechas, largo);
+                System.arraycopy(trozo.alumno, i, alumno, hechas, largo);
+                System.arraycopy(trozo.materia, i, materia, hechas, largo);
+                System.arraycopy(trozo.estado, i, estado, hechas, largo);
+                System.arraycopy(trozo.nota, i, nota, hechas, largo);
+                System.arraycopy(trozo.version, i, version, hechas, largo);
+                hechas += largo;
+            }
+            return new TramosFrios.Tramo(desde, id, alumno, materia, estado, nota, version);
+        }
+    }
+
+    /**
+     * El id sale de la columna; en una fila fuera de orden hay que corregirlo con {@link #conId}.
+     */
+    private record Fila(int fila, long id, long alumno, long materia, byte estado, short nota, int version) {
+
+        static Fila de(Columnas columnas, int fila) {
+            Trozo trozo = columnas.trozo(fila);
+            int i = indice(fila);
+            byte estado = trozo.estado[i];
+            return estado != LIBRE
+                    ? new Fila(fila, trozo.id[i], trozo.alumno[i], trozo.materia[i], estado, trozo.nota[i],
+                            trozo.version[i])
+                    : null;
+        }
+
+        static Fila de(TramosFrios.Tramo tramo, int fila) {
+            int i = fila - tramo.desde;
+            byte estado = tramo.estado[i];
+            return estado != LIBRE
+                    ? new Fila(fila, tramo.id[i], tramo.alumno[i], tramo.materia[i], estado, tramo.nota[i],
+                            tramo.version[i])
+                    : null;
+        }
+
+        Fila conId(long id) {
+            return new Fila(fila, id, alumno, materia, estado, nota, version);
+        }
+    }
+
+    /**
+     * Lee filas frías o calientes de unas mismas columnas sin volver a buscar el tramo en
+     * cada una.
+     */
+    private final class Lector {
+
+        final Columnas columnas = AsignaturasColumnares.this.columnas;
+        /** Las columnas se leen antes: si crecieron en el medio, no se pasa de ellas. */
+        final int hasta = Math.min(filasAsignadas, columnas.capacidad());
+        private TramosFrios.Tramo tramo;
+
+        /** Null si la fila está libre. */
+        Fila fila(int fila) {
+            Fila leida = fila >= columnas.base ? Fila.de(columnas, fila) : Fila.de(tramoEn(fila), fila);
+            return leida != null ? conIdReal(leida) : null;
+        }
+
+        long valor(int fila) {
+            if (fila >= columnas.base) {
+                return columnas.trozo(fila).id[indice(fila)];
+            }
+            TramosFrios.Tramo tramo = tramoEn(fila);
+            return tramo.id[fila - tramo.desde];
+        }
+
+        /**
+         * Primera fila con un valor mayor o igual al id ({@code incluido}) o mayor;
+         * {@link #hasta} si no hay. Entre los segmentos fríos se elige por su último valor
+         * y sólo se lee ese.
+         */
+        int cota(long id, boolean incluido) {
+            int bajo = columnas.base;
+            if (bajo > 0) {
+                TramosFrios frios = AsignaturasColumnares.this.frios;
+                TramosFrios.Segmento[] segmentos = frios.segmentos();
+                int segmento = 0;
+                int alto = columnas.base / frios.filasPorTramo();
+                while (segmento < alto) {
+                    int medio = (segmento + alto) >>> 1;
+                    if (pasa(segmentos[medio].ultimoValor(), id, incluido)) {
+                        alto = medio;
+                    } else {
+                        segmento = medio + 1;
+                    }
+                }
+                if (segmento < columnas.base / frios.filasPorTramo()) {
+                    bajo = segmento * frios.filasPorTramo();
+                }
+            }
+            int alto = bajo < columnas.base ? bajo + tramoEn(bajo).filas() : hasta;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (pasa(valor(medio), id, incluido)) {
+                    alto = medio;
+                } else {
+                    bajo = medio + 1;
+                }
+            }
+            return bajo;
+        }
+
+        private TramosFrios.Tramo tramoEn(int fila) {
+            if (tramo == null || fila < tramo.desde || fila >= tramo.desde + tramo.filas()) {
+                tramo = tramoDe(fila);
+            }
+            return tramo;
+        }
+
+        private static boolean pasa(long valor, long id, boolean incluido) {
+            return incluido ? valor >= id : valor > id;
+        }
+    }
+
+    /**
+     * Primero los tramos fríos, cada uno leído de su archivo recién al llegar a él, y
+     * después la copia de las columnas.
+     */
+    private static final class Recorrido implements Iterator<Asignatura> {
+
+        private final Iterator<FileChannel> frios;
+        private final Columnas copia;
+        private final int hasta;
+        /** Fila -> id de las que están fuera de orden. */
+        private final Map<Integer, Long> idsReales;
+        private TramosFrios.Tramo tramo;
+        private int fila;
+        private Fila proxima;
+
+        Recorrido(List<FileChannel> frios, Columnas copia, int hasta, Map<Integer, Long> idsReales) {
+            this.frios = frios.iterator();
+            this.copia = copia;
+            this.hasta = hasta;
+            this.idsReales = idsReales;
+            avanzar();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return proxima != null;
+        }
+
+        @Override
+        public Asignatura next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Long real = idsReales.get(proxima.fila());
+            Asignatura asignatura = esqueleto(real != null ? proxima.conId(real) : proxima);
+            avanzar();
+            return asignatura;
+        }
+
+        private void avanzar() {
+            proxima = null;
+            while (proxima == null) {
+                if (tramo != null && fila < tramo.desde + tramo.filas()) {
+                    proxima = Fila.de(tramo, fila++);
+                } else if (frios.hasNext()) {
+                    tramo = leer(frios.next());
+                    fila = tramo.desde;
+                } else if (fila < copia.base) {
+                    fila = copia.base;
+                } else if (fila < hasta) {
+                    proxima = Fila.de(copia, fila++);
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private static TramosFrios.Tramo leer(FileChannel archivo) {
+            try (archivo) {
+                return TramosFrios.leer(Channels.newInputStream(archivo));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer un tramo de la instantánea", e);
+            }
+        }
+    }
+}
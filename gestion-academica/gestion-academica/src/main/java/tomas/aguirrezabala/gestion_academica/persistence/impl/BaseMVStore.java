@@ -0,0 +1,141 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
+
+import org.h2.engine.IsolationLevel;
+import org.h2.mvstore.MVStore;
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.mvstore.tx.TransactionStore;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * MVStore compartido por los DAOs del perfil "mvstore". Cada entidad vive en su propio
+ * mapa id -> bytes y cada índice en otro mapa; cada operación de un DAO es una
+ * transacción del TransactionStore que abarca todos los mapas que toca, así que una
+ * caída nunca deja una entidad sin sus índices.
+ * Con {@code gestion-academica.mvstore.archivo} vacío el almacén queda sólo en memoria.
+ */
+@Component
+@Profile("mvstore")
+public class BaseMVStore {
+
+    private static final String SECUENCIAS = "secuencias";
+
+    @Value("${gestion-academica.mvstore.archivo:}")
+    private String archivo;
+
+    @Value("${gestion-academica.mvstore.cache-mb:64}")
+    private int cacheMb;
+
+    @Value("${gestion-academica.mvstore.sincronizar:false}")
+    private boolean sincronizar;
+
+    @Value("${gestion-academica.mvstore.espera-bloqueo:10s}")
+    private Duration esperaBloqueo;
+
+    private MVStore store;
+    private TransactionStore transacciones;
+
+    @PostConstruct
+    void abrir() {
+        MVStore.Builder constructor = new MVStore.Builder().cacheSize(cacheMb);
+        if (archivo != null && !archivo.isBlank()) {
+            Path ruta = Path.of(archivo).toAbsolutePath();
+            try {
+                Files.createDirectories(ruta.getParent());
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear el directorio de " + ruta, e);
+            }
+            constructor.fileName(ruta.toString());
+        }
+        store = constructor.open();
+        transacciones = new TransactionStore(store);
+        transacciones.init();
+        // Lo que quedó a medias antes de una caída se deshace.
+        transacciones.endLeftoverTransactions();
+    }
+
+    @PreDestroy
+    void cerrar() {
+        transacciones.close();
+        store.close();
+    }
+
+    /**
+     * Lectura de lo confirmado hasta ahora; no bloquea ni espera a los escritores.
+     */
+    <R> R leer(Function<Transaction, R> lectura) {
+        Transaction transaccion = comenzar();
+        try {
+            return lectura.apply(transaccion);
+        } finally {
+            transaccion.commit();
+        }
+    }
+
+    /**
+     * Ejecuta la escritura en una transacción y la confirma; ante cualquier excepción
+     * la deshace entera. Con {@code sincronizar} no vuelve hasta que está en disco; si
+     * no, el auto-commit del MVStore la escribe en segundo plano (en una caída se pierde
+     * ese último tramo, pero nunca media transacción).
+     */
+    <R> R escribir(Function<Transaction, R> escritura) {
+        Transaction transaccion = comenzar();
+        R resultado;
+        try {
+            resultado = escritura.apply(transaccion);
+        } catch (RuntimeException e) {
+            transaccion.rollback();
+            throw e;
+        }
+        transaccion.commit();
+        if (sincronizar && store.getFileStore() != null) {
+            store.commit();
+            store.sync();
+        }
+        return resultado;
+    }
+
+    /**
+     * Próximo id de {@code nombre}, o {@code explicito} si viene uno (adelantando la
+     * secuencia para no repetirlo). Como las secuencias de una base, se confirma en su
+     * propia transacción: no retiene a las demás altas y un rollback sólo deja un hueco.
+     */
+    long asignarId(String nombre, Long explicito) {
+        Transaction transaccion = comenzar();
+        try {
+            TransactionMap<String, Long> secuencias = transaccion.openMap(SECUENCIAS, StringDataType.INSTANCE,
+                    LongDataType.INSTANCE);
+            Long ultimo = secuencias.get(nombre);
+            if (explicito != null && ultimo != null && explicito <= ultimo) {
+                return explicito;
+            }
+            ultimo = secuencias.lock(nombre);
+            long actual = ultimo != null ? ultimo : 0L;
+            long id = explicito != null ? explicito : actual + 1;
+            if (id > actual) {
+                secuencias.put(nombre, id);
+            }
+            return id;
+        } finally {
+            transaccion.commit();
+        }
+    }
+
+    private Transaction comenzar() {
+        return transacciones.begin(null, (int) esperaBloqueo.toMillis(), 0, IsolationLevel.READ_COMMITTED);
+    }
+}
@@ -0,0 +1,592 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de sólo anexado sobre un FileChannel. Cada registro se guarda como
+ * [longitud][crc32][datos]; al reproducir, un registro cortado o corrupto al final
+ * (caída a mitad de una escritura) se descarta y el archivo se trunca ahí.
+ * Un único hilo escribe los registros en el orden en que se anotaron: en modo
+ * {@link ModoDurabilidad#GRUPO} todos los pendientes juntos con un solo fsync por lote,
+ * en {@link ModoDurabilidad#SINCRONO} de a uno.
+ * Si una escritura o un fsync fallan, el archivo se trunca hasta lo durable, los pendientes
+ * fallan y la bitácora no acepta nada más: lo que sigue podría quedar detrás de un
+ * registro cortado.
+ * <p>
+ * El archivo empieza con un encabezado que dice en qué posición lógica está su primer
+ * registro. {@link #compactar(long)} descarta los registros ya volcados a una instantánea
+ * reescribiendo el archivo sin ellos; las posiciones no cambian, así que las de las
+ * instantáneas y las réplicas siguen valiendo.
+ */
+public class Bitacora implements Closeable {
+
+    static final int CABECERA = Integer.BYTES * 2;
+    /** Bytes del encabezado del archivo: [magia][posición del primer registro]. */
+    public static final int ENCABEZADO = Integer.BYTES + Long.BYTES;
+    private static final int MAGIA = 0x47414942;
+
+    private final Path archivo;
+    private final ModoDurabilidad modo;
+    private final long ventanaNanos;
+    private final Object candado = new Object();
+    private final ArrayDeque<Pendiente> pendientes = new ArrayDeque<>();
+    private FileChannel canal;
+    private Thread escritor;
+    private boolean abierta;
+    /** Dónde va a quedar el próximo registro anotado. */
+    private long posicion;
+    /** Hasta dónde el archivo está escrito y sincronizado. */
+    private long durable;
+    /** Posición del primer registro que queda en el archivo. */
+    private long base;
+    private volatile IOException falla;
+    /** Escrituras anotadas que todavía no publicaron, por fase; ver {@link #capturar}. */
+    private final long[] sinPublicar = new long[2];
+    private int fase;
+
+    public Bitacora(Path archivo, ModoDurabilidad modo, Duration ventana) {
+        this.archivo = archivo;
+        this.modo = modo;
+        this.ventanaNanos = ventana.toNanos();
+    }
+
+    /**
+     * Recorre en orden los registros válidos que quedan en el archivo. Debe llamarse antes
+     * de {@link #abrir()}. Devuelve la cantidad de registros aplicados.
+     */
+    public int reproducir(Consumer<byte[]> aplicar) throws IOException {
+        return recorrer(-1, aplicar);
+    }
+
+    /**
+     * Igual que {@link #reproducir(Consumer)} pero empezando en una posición obtenida
+     * con {@link #capturar(LongFunction)}, p. ej. la guardada en una instantánea. Falla si
+     * esa posición ya se compactó.
+     */
+    public int reproducir(long desde, Consumer<byte[]> aplicar) throws IOException {
+        if (desde < 0) {
+            throw new IllegalArgumentException("Posición de la bitácora negativa: " + desde);
+        }
+        return recorrer(desde, aplicar);
+    }
+
+    /** Con {@code desde} negativo, desde el primer registro del archivo. */
+    private int recorrer(long desde, Consumer<byte[]> aplicar) throws IOException {
+        if (!Files.exists(archivo)) {
+            if (desde > 0) {
+                throw new IllegalStateException("No existe la bitácora " + archivo + " para reproducir desde " + desde);
+            }
+            return 0;
+        }
+        int cantidad = 0;
+        long inicio;
+        long valido;
+        long fin;
+        try (FileChannel lectura = FileChannel.open(archivo, StandardOpenOption.READ);
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(Channels.newInputStream(lectura)))) {
+            inicio = leerBase(lectura, archivo);
+            fin = inicio + lectura.size() - ENCABEZADO;
+            valido = desde < 0 ? inicio : desde;
+            if (valido < inicio) {
+                throw new IllegalStateException("La bitácora " + archivo + " empieza en " + inicio
+                        + " (lo anterior se compactó) y se pidió reproducir desde " + valido);
+            }
+            if (valido > fin) {
+                throw new IllegalStateException("La bitácora " + archivo + " termina en " + fin
+                        + " y se pidió reproducir desde " + valido);
+            }
+            lectura.position(valido - inicio + ENCABEZADO);
+            while (fin - valido >= CABECERA) {
+                int longitud = entrada.readInt();
+                int crc = entrada.readInt();
+                if (longitud < 0 || longitud > fin - valido - CABECERA) {
+                    break;
+                }
+                byte[] datos = new byte[longitud];
+                entrada.readFully(datos);
+                if (crc32(datos) != crc) {
+                    break;
+                }
+                aplicar.accept(datos);
+                valido += CABECERA + longitud;
+                cantidad++;
+            }
+        }
+        if (valido < fin) {
+            try (FileChannel escritura = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                escritura.truncate(valido - inicio + ENCABEZADO);
+                escritura.force(true);
+            }
+        }
+        return cantidad;
+    }
+
+    public void abrir() throws IOException {
+        synchronized (candado) {
+            if (abierta) {
+                return;
+            }
+            Path directorio = archivo.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            if (!Files.exists(archivo)) {
+                crearVacia(archivo, 0);
+            }
+            // Sin APPEND porque hay que leer el encabezado; sólo escribe este hilo, al final.
+            canal = FileChannel.open(archivo, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                base = leerBase(canal, archivo);
+                canal.position(canal.size());
+            } catch (IOException e) {
+                canal.close();
+                throw e;
+            }
+            posicion = base + canal.size() - ENCABEZADO;
+            durable = posicion;
+            abierta = true;
+            falla = null;
+        }
+        escritor = new Thread(this::escribirLotes, "bitacora-" + archivo.getFileName());
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola un registro. Las llamadas quedan en la bitácora en el mismo orden en que
+     * se hicieron; el futuro se completa cuando el registro es durable según el modo.
+     * Nunca lanza: si la bitácora está cerrada o falló, el futuro se completa con error.
+     */
+    public CompletableFuture<Void> anotar(byte[] datos) {
+        ByteBuffer registro = enmarcar(datos);
+        synchronized (candado) {
+            try {
+                verificarDisponible();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return encolar(registro);
+        }
+    }
+
+    /**
+     * Encola el registro y recién entonces corre {@code publicar}, que hace visible el cambio
+     * en memoria. Si la bitácora no acepta el registro lanza sin publicar nada; {@code publicar}
+     * no debe fallar, porque el registro ya quedó anotado. El futuro es el de {@link #anotar}:
+     * conviene esperarlo después de soltar los locks propios.
+     */
+    public CompletableFuture<Void> anotarYPublicar(byte[] datos, Runnable publicar) {
+        ByteBuffer registro = enmarcar(datos);
+        CompletableFuture<Void> confirmacion;
+        int suFase;
+        synchronized (candado) {
+            verificarDisponible();
+            confirmacion = encolar(registro);
+            suFase = fase;
+            sinPublicar[suFase]++;
+        }
+        try {
+            publicar.run();
+        } finally {
+            synchronized (candado) {
+                if (--sinPublicar[suFase] == 0) {
+                    candado.notifyAll();
+                }
+            }
+        }
+        return confirmacion;
+    }
+
+    private CompletableFuture<Void> encolar(ByteBuffer registro) {
+        posicion += registro.remaining();
+        CompletableFuture<Void> confirmacion = modo != ModoDurabilidad.ASINCRONO
+                ? new CompletableFuture<>()
+                : CompletableFuture.completedFuture(null);
+        if (pendientes.isEmpty()) {
+            candado.notifyAll();
+        }
+        pendientes.add(new Pendiente(registro, confirmacion, -1));
+        return confirmacion;
+    }
+
+    /**
+     * Le pasa a la captura la posición donde va a quedar el próximo registro, después de
+     * esperar a que publiquen todas las escrituras anotadas antes de ella: lo que está antes
+     * de esa posición está en la captura, que también puede ver escrituras posteriores.
+     * Las escrituras nuevas no esperan; las capturas se hacen de a una.
+     */
+    public <R> R capturar(LongFunction<R> captura) {
+        long hasta;
+        synchronized (candado) {
+            hasta = posicion;
+            int anterior = fase;
+            fase ^= 1;
+            boolean interrumpido = false;
+            while (sinPublicar[anterior] > 0) {
+                try {
+                    candado.wait();
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+            if (interrumpido) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return captura.apply(hasta);
+    }
+
+    /**
+     * Futuro que se completa cuando todo lo anotado hasta ahora es durable, sea cual sea el modo.
+     */
+    public CompletableFuture<Void> vaciar() {
+        synchronized (candado) {
+            try {
+                verificarDisponible();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+            if (pendientes.isEmpty()) {
+                candado.notifyAll();
+            }
+            pendientes.add(new Pendiente(ByteBuffer.allocate(0), confirmacion, -1));
+            return confirmacion;
+        }
+    }
+
+    /**
+     * Descarta del archivo los registros anteriores a {@code hasta}, que tiene que ser una
+     * posición de {@link #capturar(LongFunction)} ya cubierta por una instantánea durable.
+     * Lo hace el hilo escritor entre dos lotes: copia el resto a un temporal que reemplaza
+     * al archivo de forma atómica. Si falla, la bitácora queda como estaba y sigue aceptando
+     * escrituras; el futuro se completa con el error.
+     */
+    public CompletableFuture<Void> compactar(long hasta) {
+        synchronized (candado) {
+            try {
+                verificarDisponible();
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            if (hasta > posicion) {
+                return CompletableFuture.failedFuture(new IllegalArgumentException(
+                        "No se puede compactar hasta " + hasta + ": la bitácora termina en " + posicion));
+            }
+            if (hasta <= base) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+            if (pendientes.isEmpty()) {
+                candado.notifyAll();
+            }
+            pendientes.add(new Pendiente(ByteBuffer.allocate(0), confirmacion, hasta));
+            return confirmacion;
+        }
+    }
+
+    /**
+     * Hasta dónde el archivo está escrito y sincronizado. Siempre es el fin de un registro:
+     * lo que una escritura confirmada anotó está antes.
+     */
+    public long durable() {
+        synchronized (candado) {
+            return durable;
+        }
+    }
+
+    /**
+     * Espera hasta que haya registros durables más allá de {@code desde}, hasta que la
+     * bitácora se cierre o pase {@code espera}, y devuelve hasta dónde es durable el archivo.
+     * Lo que está antes de esa posición ya no cambia y se puede leer del archivo.
+     */
+    public long esperarDurable(long desde, Duration espera) throws InterruptedException {
+        synchronized (candado) {
+            long limite = System.nanoTime() + espera.toNanos();
+            long restante;
+            while (durable <= desde && abierta && (restante = limite - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(candado, restante);
+            }
+            return durable;
+        }
+    }
+
+    /**
+     * Posición del primer registro que queda en el archivo; antes de ella todo se compactó.
+     */
+    public long base() {
+        synchronized (candado) {
+            return base;
+        }
+    }
+
+    public boolean abierta() {
+        synchronized (candado) {
+            return abierta;
+        }
+    }
+
+    public void verificarDisponible() {
+        IOException error = falla;
+        if (error != null) {
+            throw new UncheckedIOException("La bitácora dejó de aceptar escrituras", error);
+        }
+        if (!abierta) {
+            throw new IllegalStateException("La bitácora " + archivo + " está cerrada");
+        }
+    }
+
+    /**
+     * Espera la confirmación de {@link #anotar(byte[])} y relanza su error tal cual.
+     */
+    public static void esperar(CompletableFuture<?> confirmacion) {
+        try {
+            confirmacion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    public Path archivo() {
+        return archivo;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread hilo;
+        synchronized (candado) {
+            if (!abierta) {
+                return;
+            }
+            abierta = false;
+            candado.notifyAll();
+            hilo = escritor;
+        }
+        if (hilo != null) {
+            try {
+                hilo.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (candado) {
+            try {
+                if (falla == null) {
+                    canal.force(true);
+                }
+            } finally {
+                canal.close();
+                escritor = null;
+            }
+        }
+    }
+
+    private void escribirLotes() {
+        while (true) {
+            List<Pendiente> lote;
+            synchronized (candado) {
+                try {
+                    while (pendientes.isEmpty() && abierta) {
+                        candado.wait();
+                    }
+                    if (pendientes.isEmpty()) {
+                        return;
+                    }
+                    // Sin ventana el lote es lo que se juntó durante el fsync anterior; con
+                    // ventana se espera además a que lleguen más registros.
+                    long limite = System.nanoTime() + (modo == ModoDurabilidad.SINCRONO ? 0 : ventanaNanos);
+                    long restante;
+                    while (abierta && (restante = limite - System.nanoTime()) > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(candado, restante);
+                    }
+                } catch (InterruptedException e) {
+                    // Sólo close() detiene al escritor; se escribe lo que haya pendiente.
+                }
+                if (modo == ModoDurabilidad.SINCRONO) {
+                    lote = List.of(pendientes.poll());
+                } else {
+                    lote = new ArrayList<>(pendientes);
+                    pendientes.clear();
+                }
+            }
+            ByteBuffer[] registros = new ByteBuffer[lote.size()];
+            for (int i = 0; i < registros.length; i++) {
+                registros[i] = lote.get(i).registro();
+            }
+            try {
+                long escritos = escribir(registros);
+                canal.force(false);
+                synchronized (candado) {
+                    durable += escritos;
+                    candado.notifyAll();
+                }
+            } catch (IOException e) {
+                fallar(e, lote);
+                return;
+            }
+            for (Pendiente pendiente : lote) {
+                if (pendiente.compactarHasta() < 0) {
+                    pendiente.confirmacion().complete(null);
+                    continue;
+                }
+                try {
+                    recortar(pendiente.compactarHasta());
+                    pendiente.confirmacion().complete(null);
+                } catch (IOException e) {
+                    pendiente.confirmacion().completeExceptionally(new UncheckedIOException(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Sólo desde el hilo escritor, con todo lo escrito ya durable. El canal nuevo se abre
+     * sobre el temporal antes de moverlo, así nunca queda uno a medio abrir.
+     */
+    private void recortar(long hasta) throws IOException {
+        if (hasta <= base) {
+            return;
+        }
+        long desde = hasta - base + ENCABEZADO;
+        long fin = durable - base + ENCABEZADO;
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            escribirTodo(nuevo, encabezado(hasta));
+            long copiados = 0;
+            while (copiados < fin - desde) {
+                copiados += canal.transferTo(desde + copiados, fin - desde - copiados, nuevo);
+            }
+            nuevo.force(true);
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            nuevo.close();
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        FileChannel viejo;
+        synchronized (candado) {
+            viejo = canal;
+            canal = nuevo;
+            base = hasta;
+        }
+        viejo.close();
+    }
+
+    /**
+     * Deja el archivo en lo último durable, para que lo confirmado no quede detrás de un
+     * registro a medio escribir, y falla el lote y todo lo que esperaba atrás de él.
+     */
+    private void fallar(IOException error, List<Pendiente> lote) {
+        List<Pendiente> fallidos = new ArrayList<>(lote);
+        synchronized (candado) {
+            falla = error;
+            fallidos.addAll(pendientes);
+            pendientes.clear();
+            posicion = durable;
+            try {
+                canal.truncate(durable - base + ENCABEZADO);
+                canal.force(true);
+            } catch (IOException e) {
+                error.addSuppressed(e);
+            }
+            candado.notifyAll();
+        }
+        for (Pendiente pendiente : fallidos) {
+            pendiente.confirmacion().completeExceptionally(new UncheckedIOException(error));
+        }
+    }
+
+    private long escribir(ByteBuffer[] registros) throws IOException {
+        long total = 0;
+        for (ByteBuffer registro : registros) {
+            total += registro.remaining();
+        }
+        long restante = total;
+        while (restante > 0) {
+            restante -= canal.write(registros);
+        }
+        return total;
+    }
+
+    /**
+     * Lee el encabezado de un archivo de bitácora abierto y devuelve la posición de su
+     * primer registro.
+     */
+    static long leerBase(FileChannel canal, Path archivo) throws IOException {
+        ByteBuffer encabezado = ByteBuffer.allocate(ENCABEZADO);
+        while (encabezado.hasRemaining()) {
+            if (canal.read(encabezado, encabezado.position()) < 0) {
+                throw new IOException("La bitácora " + archivo + " no tiene encabezado");
+            }
+        }
+        if (encabezado.getInt(0) != MAGIA) {
+            throw new IOException(archivo + " no es una bitácora");
+        }
+        return encabezado.getLong(Integer.BYTES);
+    }
+
+    /** Archivo sin registros; se crea de forma atómica para que nunca quede sin encabezado. */
+    private static void crearVacia(Path archivo, long base) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            escribirTodo(nuevo, encabezado(base));
+            nuevo.force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer encabezado(long base) {
+        return ByteBuffer.allocate(ENCABEZADO).putInt(MAGIA).putLong(base).flip();
+    }
+
+    private static void escribirTodo(FileChannel destino, ByteBuffer datos) throws IOException {
+        while (datos.hasRemaining()) {
+            destino.write(datos);
+        }
+    }
+
+    private static ByteBuffer enmarcar(byte[] datos) {
+        ByteBuffer registro = ByteBuffer.allocate(CABECERA + datos.length);
+        registro.putInt(datos.length);
+        registro.putInt(crc32(datos));
+        registro.put(datos);
+        return registro.flip();
+    }
+
+    static int crc32(byte[] datos) {
+        CRC32 crc = new CRC32();
+        crc.update(datos);
+        return (int) crc.getValue();
+    }
+
+    /** {@code compactarHasta} negativo: un registro (o una marca de {@link #vaciar()}). */
+    private record Pendiente(ByteBuffer registro, CompletableFuture<Void> confirmacion, long compactarHasta) {
+    }
+}
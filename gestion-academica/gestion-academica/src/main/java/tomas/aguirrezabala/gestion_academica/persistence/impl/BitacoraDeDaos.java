@@ -0,0 +1,433 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+/**
+ * Hace persistentes los DAOs en memoria: al arrancar reproduce la bitácora y desde ahí
+ * anota cada guardar/borrar. Las entidades relacionadas se guardan por id y al reproducir
+ * se resuelven contra los almacenes, que por el orden de la bitácora ya las contienen.
+ * Cada {@code gestion-academica.instantanea.intervalo} se vuelca una instantánea de todos los
+ * almacenes sin frenar a los escritores; al arrancar se carga esa instantánea y sólo se
+ * reproduce la cola de la bitácora posterior a ella.
+ * La instantánea anterior se conserva junto a la nueva y la bitácora se compacta hasta ella:
+ * si la última está corrupta se arranca de la anterior, que todavía tiene su cola.
+ * Con {@code gestion-academica.bitacora.archivo} vacío (el valor por defecto; el perfil
+ * {@code persistente} lo configura) no se persiste nada.
+ */
+@Component
+@Profile("!jdbc & !mvstore")
+public class BitacoraDeDaos {
+
+    @Value("${gestion-academica.bitacora.archivo:}")
+    private String archivo;
+
+    @Value("${gestion-academica.bitacora.modo:GRUPO}")
+    private ModoDurabilidad modo;
+
+    @Value("${gestion-academica.bitacora.ventana:0ms}")
+    private Duration ventana;
+
+    @Value("${gestion-academica.bitacora.compactar:true}")
+    private boolean compactar;
+
+    @Value("${gestion-academica.instantanea.archivo:}")
+    private String archivoInstantanea;
+
+    @Value("${gestion-academica.instantanea.intervalo:5m}")
+    private Duration intervaloInstantanea;
+
+    @Value("${gestion-academica.replicacion.lider:}")
+    private String lider;
+
+    @Autowired
+    private ProfesorDaoMemoryImpl profesorDao;
+
+    @Autowired
+    private MateriaDaoMemoryImpl materiaDao;
+
+    @Autowired
+    private CarreraDaoMemoryImpl carreraDao;
+
+    @Autowired
+    private AlumnoDaoMemoryImpl alumnoDao;
+
+    @Autowired
+    private AsignaturaDaoMemoryImpl asignaturaDao;
+
+    private static final Logger log = LoggerFactory.getLogger(BitacoraDeDaos.class);
+
+    private final Map<String, AlmacenRegistrado<?>> almacenes = new LinkedHashMap<>();
+    private Bitacora bitacora;
+    private Path instantanea;
+    private Path instantaneaAnterior;
+    private ScheduledExecutorService programador;
+    private long posicionVolcada = -1;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        // En orden de dependencias: cada almacén resuelve sus referencias contra los anteriores.
+        // Profesor -> materias apunta hacia adelante, por eso se vuelve a leer al final.
+        registrar("profesor", profesorDao.almacen(), new CodificadorProfesor(), true);
+        registrar("materia", materiaDao.almacen(), new CodificadorMateria(), false);
+        registrar("carrera", carreraDao.almacen(), new CodificadorCarrera(), false);
+        registrar("alumno", alumnoDao.almacen(), new CodificadorAlumno(), false);
+        registrar("asignatura", asignaturaDao.almacen(), new CodificadorAsignatura(), false);
+        if (archivo == null || archivo.isBlank()) {
+            return;
+        }
+        if (lider != null && !lider.isBlank()) {
+            // Una réplica recibe la bitácora del líder: la propia la reemplaza.
+            log.info("Réplica de {}: no se usa la bitácora local {}", lider, archivo);
+            return;
+        }
+
+        bitacora = new Bitacora(Path.of(archivo), modo, ventana);
+        instantanea = Path.of(archivoInstantanea == null || archivoInstantanea.isBlank()
+                ? archivo + ".instantanea"
+                : archivoInstantanea);
+        instantaneaAnterior = instantanea.resolveSibling(instantanea.getFileName() + ".anterior");
+        long desde = cargarInstantanea();
+        bitacora.reproducir(desde, this::aplicar);
+        bitacora.abrir();
+        for (AlmacenRegistrado<?> registrado : almacenes.values()) {
+            registrado.anotarEn(bitacora);
+        }
+        posicionVolcada = desde;
+
+        if (intervaloInstantanea != null && !intervaloInstantanea.isZero()) {
+            programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "instantanea-daos");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+            long periodo = intervaloInstantanea.toMillis();
+            programador.scheduleWithFixedDelay(this::tomarInstantaneaProgramada, periodo, periodo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void cerrar() throws IOException {
+        if (programador != null) {
+            programador.shutdown();
+            try {
+                programador.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (bitacora != null) {
+            tomarInstantanea();
+            bitacora.close();
+        }
+    }
+
+    /**
+     * Vuelca todos los almacenes si la bitácora avanzó desde el último volcado. Los
+     * escritores sólo esperan mientras se leen las referencias a cada instantánea.
+     */
+    synchronized void tomarInstantanea() throws IOException {
+        // Sin cambios no se captura: una captura puede tener archivos abiertos hasta recorrerla.
+        Captura captura = bitacora.capturar(posicion -> posicion == posicionVolcada ? null
+                : new Captura(posicion, almacenes.values().stream()
+                        .<InstantaneaEnDisco.Seccion<?>>map(AlmacenRegistrado::capturar)
+                        .toList()));
+        if (captura == null) {
+            return;
+        }
+        // La instantánea no puede apuntar más allá de lo que ya es durable en la bitácora.
+        Bitacora.esperar(bitacora.vaciar());
+        boolean habiaUna = Files.exists(instantanea);
+        if (habiaUna) {
+            Files.move(instantanea, instantaneaAnterior, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        long anterior = posicionVolcada;
+        InstantaneaEnDisco.escribir(instantanea, captura.posicion(), captura.secciones());
+        posicionVolcada = captura.posicion();
+        if (compactar && habiaUna) {
+            Bitacora.esperar(bitacora.compactar(anterior));
+        }
+    }
+
+    private void tomarInstantaneaProgramada() {
+        try {
+            tomarInstantanea();
+        } catch (IOException | RuntimeException e) {
+            log.error("No se pudo escribir la instantánea {}", instantanea, e);
+        }
+    }
+
+    /**
+     * Deja en {@code instantanea} la que se cargó, para que la próxima pase a ser la anterior.
+     * Sin ninguna válida se reproduce la bitácora entera, que falla si ya se compactó.
+     */
+    private long cargarInstantanea() throws IOException {
+        InstantaneaEnDisco.Lectura lectura = InstantaneaEnDisco.leer(instantanea);
+        if (lectura == null) {
+            lectura = InstantaneaEnDisco.leer(instantaneaAnterior);
+            if (lectura != null) {
+                log.warn("La instantánea {} falta o está corrupta, se arranca de la anterior", instantanea);
+                Files.move(instantaneaAnterior, instantanea, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        if (lectura == null) {
+            if (Files.exists(instantanea)) {
+                log.warn("La instantánea {} está incompleta o corrupta, se reproduce la bitácora entera", instantanea);
+            }
+            return 0;
+        }
+        for (AlmacenRegistrado<?> registrado : almacenes.values()) {
+            registrado.cargar(lectura);
+        }
+        for (AlmacenRegistrado<?> registrado : almacenes.values()) {
+            if (registrado.apuntaHaciaAdelante()) {
+                registrado.recargar(lectura);
+            }
+        }
+        return lectura.posicionBitacora();
+    }
+
+    private <T extends Entidad> void registrar(String nombre, AlmacenPersistible<T> almacen, Codificador<T> codificador,
+            boolean apuntaHaciaAdelante) {
+        almacenes.put(nombre, new AlmacenRegistrado<>(nombre, almacen, codificador, apuntaHaciaAdelante));
+    }
+
+    /**
+     * La bitácora abierta, o null si no se persiste.
+     */
+    Bitacora bitacora() {
+        return bitacora;
+    }
+
+    /**
+     * Aplica un registro de la bitácora a los almacenes; lo usa también la réplica con los
+     * registros que le manda el líder.
+     */
+    void aplicar(byte[] datos) {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos))) {
+            String nombre = entrada.readUTF();
+            AlmacenRegistrado<?> registrado = almacenes.get(nombre);
+            if (registrado == null) {
+                throw new IllegalStateException("La bitácora tiene registros de un almacén desconocido: " + nombre);
+            }
+            registrado.reproducir(entrada);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Captura(long posicion, List<InstantaneaEnDisco.Seccion<?>> secciones) {
+    }
+
+    private record AlmacenRegistrado<T extends Entidad>(String nombre, AlmacenPersistible<T> almacen,
+            Codificador<T> codificador, boolean apuntaHaciaAdelante) {
+
+        void reproducir(DataInputStream entrada) throws IOException {
+            almacen.reproducir(entrada, codificador);
+        }
+
+        void anotarEn(Bitacora bitacora) {
+            almacen.anotarEn(bitacora, nombre, codificador);
+        }
+
+        InstantaneaEnDisco.Seccion<T> capturar() {
+            return new InstantaneaEnDisco.Seccion<>(nombre, almacen.capturar(), codificador);
+        }
+
+        void cargar(InstantaneaEnDisco.Lectura lectura) throws IOException {
+            InstantaneaEnDisco.SeccionLeida seccion = lectura.seccion(nombre);
+            if (seccion == null) {
+                return;
+            }
+            List<T> entidades = new ArrayList<>(seccion.cantidad());
+            for (int i = 0; i < seccion.cantidad(); i++) {
+                entidades.add(codificador.leer(seccion.entrada()));
+            }
+            almacen.cargar(entidades, seccion.ultimoId());
+        }
+
+        /**
+         * Segunda lectura de la sección, con los almacenes posteriores ya cargados.
+         */
+        void recargar(InstantaneaEnDisco.Lectura lectura) throws IOException {
+            InstantaneaEnDisco.SeccionLeida seccion = lectura.seccion(nombre);
+            if (seccion == null) {
+                return;
+            }
+            for (int i = 0; i < seccion.cantidad(); i++) {
+                almacen.restaurar(codificador.leer(seccion.entrada()));
+            }
+        }
+    }
+
+    private final class CodificadorProfesor implements Codificador<Profesor> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Profesor profesor) throws IOException {
+            salida.writeLong(profesor.getId());
+            escribirTexto(salida, profesor.getNombre());
+            escribirTexto(salida, profesor.getApellido());
+            escribirTexto(salida, profesor.getTitulo());
+            escribirIds(salida, profesor.getMaterias() != null
+                    ? profesor.getMaterias().stream().map(Materia::getId).toList()
+                    : null);
+            escribirVersion(salida, profesor);
+        }
+
+        @Override
+        public Profesor leer(DataInputStream entrada) throws IOException {
+            Profesor profesor = new Profesor(entrada.readLong(), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+            profesor.setMaterias(resolver(materiaDao.almacen(), leerIds(entrada)));
+            return leerVersion(entrada, profesor);
+        }
+    }
+
+    private final class CodificadorMateria implements Codificador<Materia> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Materia materia) throws IOException {
+            salida.writeLong(materia.getId());
+            escribirTexto(salida, materia.getNombre());
+            escribirEntero(salida, materia.getAnio());
+            escribirEntero(salida, materia.getCuatrimestre());
+            escribirId(salida, materia.getProfesor());
+            escribirIds(salida, materia.getCorrelatividades());
+            escribirVersion(salida, materia);
+        }
+
+        @Override
+        public Materia leer(DataInputStream entrada) throws IOException {
+            Materia materia = new Materia(entrada.readLong(), leerTexto(entrada), leerEntero(entrada), leerEntero(entrada));
+            materia.setProfesor(resolver(profesorDao.almacen(), leerId(entrada)));
+            materia.setCorrelatividades(leerIds(entrada));
+            return leerVersion(entrada, materia);
+        }
+    }
+
+    private final class CodificadorCarrera implements Codificador<Carrera> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Carrera carrera) throws IOException {
+            salida.writeLong(carrera.getId());
+            escribirTexto(salida, carrera.getNombre());
+            escribirEntero(salida, carrera.getDuracionAnios());
+            escribirIds(salida, carrera.getMaterias() != null
+                    ? carrera.getMaterias().stream().map(Materia::getId).toList()
+                    : null);
+            escribirVersion(salida, carrera);
+        }
+
+        @Override
+        public Carrera leer(DataInputStream entrada) throws IOException {
+            Carrera carrera = new Carrera(entrada.readLong(), leerTexto(entrada), leerEntero(entrada));
+            carrera.setMaterias(resolver(materiaDao.almacen(), leerIds(entrada)));
+            return leerVersion(entrada, carrera);
+        }
+    }
+
+    private final class CodificadorAlumno implements Codificador<Alumno> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Alumno alumno) throws IOException {
+            salida.writeLong(alumno.getId());
+            escribirTexto(salida, alumno.getNombre());
+            escribirTexto(salida, alumno.getApellido());
+            escribirTexto(salida, alumno.getDni());
+            escribirId(salida, alumno.getCarrera());
+            escribirVersion(salida, alumno);
+        }
+
+        @Override
+        public Alumno leer(DataInputStream entrada) throws IOException {
+            return leerVersion(entrada, new Alumno(entrada.readLong(), leerTexto(entrada), leerTexto(entrada),
+                    leerTexto(entrada), resolver(carreraDao.almacen(), leerId(entrada))));
+        }
+    }
+
+    private final class CodificadorAsignatura implements Codificador<Asignatura> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Asignatura asignatura) throws IOException {
+            salida.writeLong(asignatura.getId());
+            escribirId(salida, asignatura.getMateria());
+            escribirId(salida, asignatura.getAlumno());
+            escribirTexto(salida, asignatura.getEstado() != null ? asignatura.getEstado().name() : null);
+            salida.writeBoolean(asignatura.getNota() != null);
+            if (asignatura.getNota() != null) {
+                salida.writeDouble(asignatura.getNota());
+            }
+            escribirVersion(salida, asignatura);
+        }
+
+        @Override
+        public Asignatura leer(DataInputStream entrada) throws IOException {
+            Long id = entrada.readLong();
+            Materia materia = resolver(materiaDao.almacen(), leerId(entrada));
+            Alumno alumno = resolver(alumnoDao.almacen(), leerId(entrada));
+            String estado = leerTexto(entrada);
+            Double nota = entrada.readBoolean() ? entrada.readDouble() : null;
+            return leerVersion(entrada,
+                    new Asignatura(id, materia, alumno, estado != null ? EstadoAsignatura.valueOf(estado) : null, nota));
+        }
+    }
+
+    private static <T extends Entidad> T resolver(AlmacenEnMemoria<T> almacen, Long id) {
+        return id != null ? almacen.buscarPorId(id).orElse(null) : null;
+    }
+
+    private static <T extends Entidad> List<T> resolver(AlmacenEnMemoria<T> almacen, List<Long> ids) {
+        List<T> entidades = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Optional<T> entidad = almacen.buscarPorId(id);
+            entidad.ifPresent(entidades::add);
+        }
+        return entidades;
+    }
+}
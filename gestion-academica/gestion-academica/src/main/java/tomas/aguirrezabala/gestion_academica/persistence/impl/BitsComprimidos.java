@@ -0,0 +1,343 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Arrays;
+
+/**
+ * Conjunto de enteros no negativos al estilo Roaring: los valores se agrupan en bloques
+ * de 2^16 por sus 16 bits altos y cada bloque se guarda como arreglo ordenado de los 16
+ * bits bajos mientras tenga hasta {@value #MAXIMO_EN_ARREGLO} valores, o como mapa de
+ * bits de 8 KB cuando tiene más. Unión e intersección trabajan bloque a bloque.
+ * No es concurrente: quien lo comparte lo protege.
+ */
+public final class BitsComprimidos {
+
+    private static final int MAXIMO_EN_ARREGLO = 4096;
+    private static final int PALABRAS = 1 << 10;
+
+    /** 16 bits altos de cada bloque, ordenados. */
+    private int[] claves = new int[4];
+    private Bloque[] bloques = new Bloque[4];
+    private int usados;
+    private int cantidad;
+
+    public boolean agregar(int valor) {
+        verificar(valor);
+        int posicion = Arrays.binarySearch(claves, 0, usados, valor >>> 16);
+        Bloque bloque;
+        if (posicion >= 0) {
+            bloque = bloques[posicion];
+        } else {
+            bloque = new Bloque();
+            insertar(-posicion - 1, valor >>> 16, bloque);
+        }
+        if (!bloque.agregar((char) valor)) {
+            return false;
+        }
+        cantidad++;
+        return true;
+    }
+
+    public boolean quitar(int valor) {
+        verificar(valor);
+        int posicion = Arrays.binarySearch(claves, 0, usados, valor >>> 16);
+        if (posicion < 0 || !bloques[posicion].quitar((char) valor)) {
+            return false;
+        }
+        cantidad--;
+        if (bloques[posicion].cantidad == 0) {
+            System.arraycopy(claves, posicion + 1, claves, posicion, usados - posicion - 1);
+            System.arraycopy(bloques, posicion + 1, bloques, posicion, usados - posicion - 1);
+            bloques[--usados] = null;
+        }
+        return true;
+    }
+
+    public boolean contiene(int valor) {
+        if (valor < 0) {
+            return false;
+        }
+        int posicion = Arrays.binarySearch(claves, 0, usados, valor >>> 16);
+        return posicion >= 0 && bloques[posicion].contiene((char) valor);
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Los que están en este conjunto o en {@code otro}; no modifica a ninguno.
+     */
+    public BitsComprimidos o(BitsComprimidos otro) {
+        BitsComprimidos resultado = new BitsComprimidos();
+        int i = 0;
+        int j = 0;
+        while (i < usados || j < otro.usados) {
+            if (j == otro.usados || (i < usados && claves[i] < otro.claves[j])) {
+                resultado.agregarBloque(claves[i], bloques[i].copiar());
+                i++;
+            } else if (i == usados || otro.claves[j] < claves[i]) {
+                resultado.agregarBloque(otro.claves[j], otro.bloques[j].copiar());
+                j++;
+            } else {
+                resultado.agregarBloque(claves[i], Bloque.union(bloques[i], otro.bloques[j]));
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Los que están en los dos; no modifica a ninguno.
+     */
+    public BitsComprimidos y(BitsComprimidos otro) {
+        BitsComprimidos resultado = new BitsComprimidos();
+        int i = 0;
+        int j = 0;
+        while (i < usados && j < otro.usados) {
+            if (claves[i] < otro.claves[j]) {
+                i++;
+            } else if (otro.claves[j] < claves[i]) {
+                j++;
+            } else {
+                Bloque interseccion = Bloque.interseccion(bloques[i], otro.bloques[j]);
+                if (interseccion.cantidad > 0) {
+                    resultado.agregarBloque(claves[i], interseccion);
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Todos los valores en orden creciente.
+     */
+    public int[] valores() {
+        int[] valores = new int[cantidad];
+        int siguiente = 0;
+        for (int i = 0; i < usados; i++) {
+            siguiente = bloques[i].volcar(claves[i] << 16, valores, siguiente);
+        }
+        return valores;
+    }
+
+    private void agregarBloque(int clave, Bloque bloque) {
+        insertar(usados, clave, bloque);
+        cantidad += bloque.cantidad;
+    }
+
+    private void insertar(int posicion, int clave, Bloque bloque) {
+        if (usados == claves.length) {
+            claves = Arrays.copyOf(claves, usados * 2);
+            bloques = Arrays.copyOf(bloques, usados * 2);
+        }
+        System.arraycopy(claves, posicion, claves, posicion + 1, usados - posicion);
+        System.arraycopy(bloques, posicion, bloques, posicion + 1, usados - posicion);
+        claves[posicion] = clave;
+        bloques[posicion] = bloque;
+        usados++;
+    }
+
+    private static void verificar(int valor) {
+        if (valor < 0) {
+            throw new IllegalArgumentException("Sólo se admiten valores no negativos: " + valor);
+        }
+    }
+
+    /**
+     * Los 16 bits bajos de un bloque: en {@code arreglo} (ordenado) o en {@code mapa}.
+     */
+    private static final class Bloque {
+
+        private char[] arreglo = new char[4];
+        private long[] mapa;
+        private int cantidad;
+
+        boolean agregar(char valor) {
+            if (mapa != null) {
+                long palabra = mapa[valor >>> 6];
+                long bit = 1L << valor;
+                if ((palabra & bit) != 0) {
+                    return false;
+                }
+                mapa[valor >>> 6] = palabra | bit;
+                cantidad++;
+                return true;
+            }
+            int posicion = Arrays.binarySearch(arreglo, 0, cantidad, valor);
+            if (posicion >= 0) {
+                return false;
+            }
+            if (cantidad == MAXIMO_EN_ARREGLO) {
+                aMapa();
+                return agregar(valor);
+            }
+            posicion = -posicion - 1;
+            if (cantidad == arreglo.length) {
+                arreglo = Arrays.copyOf(arreglo, Math.min(cantidad * 2, MAXIMO_EN_ARREGLO));
+            }
+            System.arraycopy(arreglo, posicion, arreglo, posicion + 1, cantidad - posicion);
+            arreglo[posicion] = valor;
+            cantidad++;
+            return true;
+        }
+
+        boolean quitar(char valor) {
+            if (mapa != null) {
+                long palabra = mapa[valor >>> 6];
+                long bit = 1L << valor;
+                if ((palabra & bit) == 0) {
+                    return false;
+                }
+                mapa[valor >>> 6] = palabra & ~bit;
+                cantidad--;
+                if (cantidad <= MAXIMO_EN_ARREGLO / 2) {
+                    aArreglo();
+                }
+                return true;
+            }
+            int posicion = Arrays.binarySearch(arreglo, 0, cantidad, valor);
+            if (posicion < 0) {
+                return false;
+            }
+            System.arraycopy(arreglo, posicion + 1, arreglo, posicion, cantidad - posicion - 1);
+            cantidad--;
+            return true;
+        }
+
+        boolean contiene(char valor) {
+            return mapa != null
+                    ? (mapa[valor >>> 6] & (1L << valor)) != 0
+                    : Arrays.binarySearch(arreglo, 0, cantidad, valor) >= 0;
+        }
+
+        int volcar(int alto, int[] destino, int desde) {
+            if (mapa == null) {
+                for (int i = 0; i < cantidad; i++) {
+                    destino[desde++] = alto | arreglo[i];
+                }
+                return desde;
+            }
+            for (int i = 0; i < PALABRAS; i++) {
+                long palabra = mapa[i];
+                while (palabra != 0) {
+                    destino[desde++] = alto | (i << 6) | Long.numberOfTrailingZeros(palabra);
+                    palabra &= palabra - 1;
+                }
+            }
+            return desde;
+        }
+
+        Bloque copiar() {
+            Bloque copia = new Bloque();
+            copia.cantidad = cantidad;
+            if (mapa != null) {
+                copia.mapa = mapa.clone();
+                copia.arreglo = null;
+            } else {
+                copia.arreglo = Arrays.copyOf(arreglo, Math.max(cantidad, 1));
+            }
+            return copia;
+        }
+
+        static Bloque union(Bloque a, Bloque b) {
+            Bloque resultado = new Bloque();
+            if (a.mapa == null && b.mapa == null && a.cantidad + b.cantidad <= MAXIMO_EN_ARREGLO) {
+                char[] unidos = new char[a.cantidad + b.cantidad];
+                int i = 0;
+                int j = 0;
+                int n = 0;
+                while (i < a.cantidad || j < b.cantidad) {
+                    if (j == b.cantidad || (i < a.cantidad && a.arreglo[i] < b.arreglo[j])) {
+                        unidos[n++] = a.arreglo[i++];
+                    } else if (i == a.cantidad || b.arreglo[j] < a.arreglo[i]) {
+                        unidos[n++] = b.arreglo[j++];
+                    } else {
+                        unidos[n++] = a.arreglo[i++];
+                        j++;
+                    }
+                }
+                resultado.arreglo = unidos;
+                resultado.cantidad = n;
+                return resultado;
+            }
+            long[] mapa = a.comoMapa();
+            long[] otro = b.comoMapa();
+            for (int i = 0; i < PALABRAS; i++) {
+                mapa[i] |= otro[i];
+            }
+            resultado.conMapa(mapa);
+            return resultado;
+        }
+
+        static Bloque interseccion(Bloque a, Bloque b) {
+            Bloque resultado = new Bloque();
+            if (a.mapa != null && b.mapa != null) {
+                long[] mapa = a.mapa.clone();
+                for (int i = 0; i < PALABRAS; i++) {
+                    mapa[i] &= b.mapa[i];
+                }
+                resultado.conMapa(mapa);
+                return resultado;
+            }
+            // Alguno es arreglo: se recorre el arreglo y se pregunta al otro.
+            Bloque chico = a.mapa == null ? a : b;
+            Bloque grande = chico == a ? b : a;
+            char[] comunes = new char[chico.cantidad];
+            int n = 0;
+            for (int i = 0; i < chico.cantidad; i++) {
+                if (grande.contiene(chico.arreglo[i])) {
+                    comunes[n++] = chico.arreglo[i];
+                }
+            }
+            resultado.arreglo = comunes;
+            resultado.cantidad = n;
+            return resultado;
+        }
+
+        private long[] comoMapa() {
+            if (mapa != null) {
+                return mapa.clone();
+            }
+            long[] nuevo = new long[PALABRAS];
+            for (int i = 0; i < cantidad; i++) {
+                nuevo[arreglo[i] >>> 6] |= 1L << arreglo[i];
+            }
+            return nuevo;
+        }
+
+        private void conMapa(long[] bits) {
+            int total = 0;
+            for (long palabra : bits) {
+                total += Long.bitCount(palabra);
+            }
+            mapa = bits;
+            arreglo = null;
+            cantidad = total;
+            if (cantidad <= MAXIMO_EN_ARREGLO) {
+                aArreglo();
+            }
+        }
+
+        private void aMapa() {
+            mapa = comoMapa();
+            arreglo = null;
+        }
+
+        private void aArreglo() {
+            char[] valores = new char[Math.max(cantidad, 4)];
+            int n = 0;
+            for (int i = 0; i < PALABRAS; i++) {
+                long palabra = mapa[i];
+                while (palabra != 0) {
+                    valores[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(palabra));
+                    palabra &= palabra - 1;
+                }
+            }
+            arreglo = valores;
+            mapa = null;
+        }
+    }
+}
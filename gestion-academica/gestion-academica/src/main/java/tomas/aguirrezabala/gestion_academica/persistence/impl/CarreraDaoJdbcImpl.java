@@ -0,0 +1,118 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
+
+@Repository
+@Profile("jdbc")
+public class CarreraDaoJdbcImpl implements CarreraDao {
+
+    private static final String SELECCIONAR = "SELECT id, nombre, duracion_anios, version FROM carrera";
+
+    private final TablaJdbc carreras = new TablaJdbc("carrera", "nombre", "duracion_anios");
+    private final VinculoJdbc materias = new VinculoJdbc("carrera_materia", "carrera_id", "materia_id", "materia");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MateriaDaoJdbcImpl materiaDao;
+
+    @Override
+    @Transactional
+    public Carrera guardar(Carrera carrera) {
+        try {
+            long id = carreras.guardar(jdbc, carrera, carrera.getNombre(), carrera.getDuracionAnios());
+            carrera.setId(id);
+        } catch (DuplicateKeyException e) {
+            throw new EntidadDuplicadaException("Carrera", "nombre", carrera.getNombre());
+        }
+        materias.reemplazar(jdbc, carrera.getId(), carrera.getMaterias() != null
+                ? carrera.getMaterias().stream().map(Materia::getId).toList()
+                : List.of());
+        return carrera;
+    }
+
+    @Override
+    public Optional<Carrera> buscarPorId(Long carreraId) {
+        if (carreraId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE id = ?", carreraId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Carrera> buscarPorNombre(String nombre) {
+        if (nombre == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE nombre = ?", nombre).stream().findFirst();
+    }
+
+    @Override
+    public boolean existePorMateriaId(Long materiaId) {
+        return materias.existeDestino(jdbc, materiaId);
+    }
+
+    @Override
+    public List<Carrera> buscarAll() {
+        return buscar(SELECCIONAR + " ORDER BY id");
+    }
+
+    @Override
+    public List<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return buscar(SELECCIONAR + TablaJdbc.pagina("id", orden),
+                TablaJdbc.parametrosDePagina(despuesDeId, limite, orden));
+    }
+
+    @Override
+    public Stream<Carrera> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Carrera::getId);
+    }
+
+    @Override
+    @Transactional
+    public void borrarPorId(Long carreraId) {
+        carreras.borrar(jdbc, carreraId);
+    }
+
+    private List<Carrera> buscar(String sql, Object... parametros) {
+        List<Carrera> encontradas = jdbc.query(sql, (fila, numero) -> TablaJdbc.conVersion(
+                new Carrera(fila.getLong("id"), fila.getString("nombre"), fila.getObject("duracion_anios", Integer.class)),
+                fila), parametros);
+        if (encontradas.isEmpty()) {
+            return encontradas;
+        }
+        Map<Long, List<Long>> materiaIdsPorCarrera = materias.buscar(jdbc,
+                encontradas.stream().map(Carrera::getId).toList());
+        Map<Long, Materia> materiasPorId = materiaDao.buscarPorIds(
+                materiaIdsPorCarrera.values().stream().flatMap(List::stream).toList());
+        for (Carrera carrera : encontradas) {
+            List<Materia> suyas = new ArrayList<>();
+            for (Long materiaId : materiaIdsPorCarrera.getOrDefault(carrera.getId(), List.of())) {
+                Materia materia = materiasPorId.get(materiaId);
+                if (materia != null) {
+                    suyas.add(materia);
+                }
+            }
+            carrera.setMaterias(suyas);
+        }
+        return encontradas;
+    }
+}
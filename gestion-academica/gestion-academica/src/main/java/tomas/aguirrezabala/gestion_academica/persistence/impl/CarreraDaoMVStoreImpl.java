@@ -0,0 +1,183 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+@Repository
+@Profile("mvstore")
+public class CarreraDaoMVStoreImpl implements CarreraDao {
+
+    static final MapaMVStore<Carrera> CARRERAS = new MapaMVStore<>("carrera", new CodificadorCarrera());
+    private static final IndiceMVStore<String> POR_NOMBRE = new IndiceMVStore<>("carrera.nombre",
+            StringDataType.INSTANCE);
+    /** Materia -> carreras que la incluyen; sólo las materias que existían al guardar. */
+    static final IndiceMVStore<Long> POR_MATERIA = new IndiceMVStore<>("carrera.materia", LongDataType.INSTANCE);
+
+    @Autowired
+    private BaseMVStore base;
+
+    @Autowired
+    private MateriaDaoMVStoreImpl materiaDao;
+
+    @Override
+    public Carrera guardar(Carrera carrera) {
+        Long idOriginal = carrera.getId();
+        Long versionOriginal = carrera.getVersion();
+        carrera.setId(base.asignarId(CARRERAS.nombre(), idOriginal));
+        try {
+            base.escribir(transaccion -> {
+                Carrera anterior = CARRERAS.bloquear(transaccion, carrera.getId());
+                carrera.setVersion(Versiones.siguiente(carrera, anterior));
+                POR_NOMBRE.reservar(transaccion, anterior != null ? anterior.getNombre() : null, carrera.getNombre(),
+                        carrera.getId(), "Carrera", "nombre");
+                List<Long> materias = MateriaDaoMVStoreImpl.MATERIAS.bloquearExistentes(transaccion,
+                        materiaIds(carrera));
+                POR_MATERIA.mover(transaccion, materiaIds(anterior), materias, carrera.getId());
+                CARRERAS.escribir(transaccion, carrera);
+                return carrera;
+            });
+        } catch (RuntimeException e) {
+            carrera.setId(idOriginal);
+            carrera.setVersion(versionOriginal);
+            throw e;
+        }
+        return carrera;
+    }
+
+    @Override
+    public Optional<Carrera> buscarPorId(Long carreraId) {
+        return base.leer(transaccion -> Optional.ofNullable(CARRERAS.leer(transaccion, carreraId))
+                .map(carrera -> completar(transaccion, List.of(carrera)).get(0)));
+    }
+
+    @Override
+    public Optional<Carrera> buscarPorNombre(String nombre) {
+        return base.leer(transaccion -> {
+            long[] ids = POR_NOMBRE.buscar(transaccion, nombre);
+            return ids.length > 0
+                    ? Optional.ofNullable(CARRERAS.leer(transaccion, ids[0]))
+                            .map(carrera -> completar(transaccion, List.of(carrera)).get(0))
+                    : Optional.<Carrera>empty();
+        });
+    }
+
+    @Override
+    public boolean existePorMateriaId(Long materiaId) {
+        return base.leer(transaccion -> POR_MATERIA.existe(transaccion, materiaId));
+    }
+
+    @Override
+    public List<Carrera> buscarAll() {
+        return base.leer(transaccion -> completar(transaccion, CARRERAS.leerTodos(transaccion)));
+    }
+
+    @Override
+    public List<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return base.leer(transaccion -> completar(transaccion,
+                CARRERAS.leerPagina(transaccion, despuesDeId, limite, orden)));
+    }
+
+    @Override
+    public Stream<Carrera> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Carrera::getId);
+    }
+
+    @Override
+    public void borrarPorId(Long carreraId) {
+        base.escribir(transaccion -> {
+            Carrera anterior = CARRERAS.bloquear(transaccion, carreraId);
+            if (anterior != null) {
+                POR_NOMBRE.quitar(transaccion, anterior.getNombre(), carreraId);
+                POR_MATERIA.mover(transaccion, materiaIds(anterior), List.of(), carreraId);
+                CARRERAS.borrar(transaccion, carreraId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Carrera sin sus materias, como la ven sus alumnos.
+     */
+    static Carrera leerSinMaterias(Transaction transaccion, Long carreraId) {
+        Carrera carrera = CARRERAS.leer(transaccion, carreraId);
+        if (carrera != null) {
+            carrera.setMaterias(new ArrayList<>());
+        }
+        return carrera;
+    }
+
+    /**
+     * Las materias de todas las carreras se leen juntas.
+     */
+    private List<Carrera> completar(Transaction transaccion, List<Carrera> carreras) {
+        Map<Long, Materia> materias = materiaDao.leerVarios(transaccion,
+                carreras.stream().flatMap(carrera -> materiaIds(carrera).stream()).toList());
+        for (Carrera carrera : carreras) {
+            List<Materia> suyas = new ArrayList<>();
+            for (Long materiaId : materiaIds(carrera)) {
+                Materia materia = materias.get(materiaId);
+                if (materia != null) {
+                    suyas.add(materia);
+                }
+            }
+            carrera.setMaterias(suyas);
+        }
+        return carreras;
+    }
+
+    private static List<Long> materiaIds(Carrera carrera) {
+        return carrera != null && carrera.getMaterias() != null
+                ? carrera.getMaterias().stream().map(Materia::getId).toList()
+                : List.of();
+    }
+
+    private static final class CodificadorCarrera implements Codificador<Carrera> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Carrera carrera) throws IOException {
+            salida.writeLong(carrera.getId());
+            escribirTexto(salida, carrera.getNombre());
+            escribirEntero(salida, carrera.getDuracionAnios());
+            escribirIds(salida, materiaIds(carrera));
+            escribirVersion(salida, carrera);
+        }
+
+        @Override
+        public Carrera leer(DataInputStream entrada) throws IOException {
+            Carrera carrera = new Carrera(entrada.readLong(), leerTexto(entrada), leerEntero(entrada));
+            List<Materia> materias = new ArrayList<>();
+            for (Long materiaId : leerIds(entrada)) {
+                materias.add(new Materia(materiaId, null, null, null));
+            }
+            carrera.setMaterias(materias);
+            return leerVersion(entrada, carrera);
+        }
+    }
+}
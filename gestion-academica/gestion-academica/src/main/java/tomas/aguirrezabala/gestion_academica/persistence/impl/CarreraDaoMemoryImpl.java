@@ -1,45 +1,83 @@
 package tomas.aguirrezabala.gestion_academica.persistence.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import jakarta.annotation.PostConstruct;
+
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
 
 @Repository
+@Profile("!jdbc & !mvstore")
 public class CarreraDaoMemoryImpl implements CarreraDao {
     
-    private final Map<Long, Carrera> carreras = new HashMap<>();
-    private final AtomicLong ultimoId = new AtomicLong(0);
+    private final AlmacenEnMemoria<Carrera> carreras = new AlmacenEnMemoria<>(Carrera::getId, Carrera::setId);
+    private final IndiceUnico<Carrera, String> porNombre = carreras.agregarIndiceUnico(Carrera::getNombre, "Carrera", "nombre");
+    private final Referencia<Carrera> referenciasAMaterias = carreras.agregarReferencias(
+            carrera -> carrera.getMaterias() != null 
+                    ? carrera.getMaterias().stream().map(Materia::getId).toList() 
+                    : List.of(), 
+            "Materia");
+    
+    @Autowired
+    private MateriaDaoMemoryImpl materiaDao;
+    
+    @PostConstruct
+    void vincularReferencias() {
+        referenciasAMaterias.vincular(materiaDao.almacen(), false, 
+                "No se puede eliminar la materia porque pertenece a una carrera");
+    }
+    
+    AlmacenEnMemoria<Carrera> almacen() {
+        return carreras;
+    }
     
     @Override
     public Carrera guardar(Carrera carrera) {
-        if (carrera.getId() == null) {
-            carrera.setId(ultimoId.incrementAndGet());
-        }
-        carreras.put(carrera.getId(), carrera);
-        return carrera;
+        return carreras.guardar(carrera);
     }
     
     @Override
     public Optional<Carrera> buscarPorId(Long carreraId) {
-        return Optional.ofNullable(carreras.get(carreraId));
+        return carreras.buscarPorId(carreraId);
+    }
+    
+    @Override
+    public Optional<Carrera> buscarPorNombre(String nombre) {
+        return carreras.buscarPorClaveUnica(porNombre, nombre);
+    }
+    
+    @Override
+    public boolean existePorMateriaId(Long materiaId) {
+        return referenciasAMaterias.contar(materiaId) > 0;
     }
     
     @Override
     public List<Carrera> buscarAll() {
-        return new ArrayList<>(carreras.values());
+        return carreras.buscarTodos();
+    }
+    
+    @Override
+    public List<Carrera> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return carreras.buscarPagina(despuesDeId, limite, orden);
+    }
+    
+    @Override
+    public Stream<Carrera> recorrer() {
+        return carreras.recorrer();
     }
     
     @Override
     public void borrarPorId(Long carreraId) {
-        carreras.remove(carreraId);
+        carreras.borrarPorId(carreraId);
     }
 
 }
\ No newline at end of file
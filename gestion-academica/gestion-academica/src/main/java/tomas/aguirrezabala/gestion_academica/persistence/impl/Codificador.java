@@ -0,0 +1,88 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * Formato binario de una entidad (bitácora, instantánea y mapas del MVStore). Las
+ * entidades relacionadas se escriben sólo por id.
+ */
+interface Codificador<T> {
+
+    void escribir(DataOutputStream salida, T entidad) throws IOException;
+
+    T leer(DataInputStream entrada) throws IOException;
+
+    static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    static void escribirEntero(DataOutputStream salida, Integer valor) throws IOException {
+        salida.writeBoolean(valor != null);
+        if (valor != null) {
+            salida.writeInt(valor);
+        }
+    }
+
+    static Integer leerEntero(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readInt() : null;
+    }
+
+    static void escribirId(DataOutputStream salida, Entidad entidad) throws IOException {
+        Long id = entidad != null ? entidad.getId() : null;
+        salida.writeBoolean(id != null);
+        if (id != null) {
+            salida.writeLong(id);
+        }
+    }
+
+    static Long leerId(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readLong() : null;
+    }
+
+    static void escribirIds(DataOutputStream salida, List<Long> ids) throws IOException {
+        List<Long> presentes = ids != null ? ids.stream().filter(id -> id != null).toList() : List.of();
+        salida.writeInt(presentes.size());
+        for (Long id : presentes) {
+            salida.writeLong(id);
+        }
+    }
+
+    static List<Long> leerIds(DataInputStream entrada) throws IOException {
+        int cantidad = entrada.readInt();
+        List<Long> ids = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ids.add(entrada.readLong());
+        }
+        return ids;
+    }
+
+    static void escribirVersion(DataOutputStream salida, Entidad entidad) throws IOException {
+        Long version = entidad.getVersion();
+        salida.writeLong(version != null ? version : 0);
+    }
+
+    /**
+     * Va al final de cada entidad: los registros escritos antes de que hubiera versiones
+     * terminan antes y la entidad queda sin versión.
+     */
+    static <E extends Entidad> E leerVersion(DataInputStream entrada, E entidad) throws IOException {
+        if (entrada.available() >= Long.BYTES) {
+            long version = entrada.readLong();
+            entidad.setVersion(version != 0 ? version : null);
+        }
+        return entidad;
+    }
+}
@@ -0,0 +1,72 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import tomas.aguirrezabala.gestion_academica.particion.Particiones;
+
+/**
+ * Le da a cada almacén en memoria su {@link SecuenciaPorBloques} según
+ * {@code gestion-academica.ids.*}: varias instancias con el mismo {@code nodos} y distinto
+ * {@code nodo} nunca generan el mismo id.
+ * Con el particionado activo esas propiedades no se usan: materias, carreras y profesores
+ * se replican aplicando las mismas escrituras en el mismo orden, así que todos los nodos
+ * necesitan la misma secuencia, y alumnos y asignaturas toman sólo los ids propios del nodo.
+ * Las asignaturas piden los ids con la fila ya tomada, así que usan bloques de 1: los ids
+ * nuevos quedan en el orden de sus filas y la columna de ids de {@link AsignaturasColumnares}
+ * sigue ordenada.
+ */
+@Component
+@Profile("!jdbc & !mvstore")
+public class ConfiguracionDeIds {
+
+    @Value("${gestion-academica.ids.nodo:0}")
+    private int nodo;
+
+    @Value("${gestion-academica.ids.nodos:1}")
+    private int nodos;
+
+    @Value("${gestion-academica.ids.bloque:1}")
+    private int bloque;
+
+    @Autowired
+    private ProfesorDaoMemoryImpl profesorDao;
+
+    @Autowired
+    private MateriaDaoMemoryImpl materiaDao;
+
+    @Autowired
+    private CarreraDaoMemoryImpl carreraDao;
+
+    @Autowired
+    private AlumnoDaoMemoryImpl alumnoDao;
+
+    @Autowired
+    private AsignaturaDaoMemoryImpl asignaturaDao;
+
+    @Autowired
+    private Particiones particiones;
+
+    @PostConstruct
+    void configurar() {
+        if (particiones.activas()) {
+            for (AlmacenPersistible<?> almacen : List.of(profesorDao.almacen(), materiaDao.almacen(), carreraDao.almacen())) {
+                almacen.usarIds(new SecuenciaPorBloques());
+            }
+            alumnoDao.almacen().usarIds(new IdsPropios(new SecuenciaPorBloques(0, 1, bloque), particiones::esLocal));
+            asignaturaDao.almacen().usarIds(new IdsPropios(new SecuenciaPorBloques(0, 1, 1), particiones::esLocal));
+            return;
+        }
+        List<AlmacenPersistible<?>> almacenes = List.of(profesorDao.almacen(), materiaDao.almacen(),
+                carreraDao.almacen(), alumnoDao.almacen());
+        for (AlmacenPersistible<?> almacen : almacenes) {
+            almacen.usarIds(new SecuenciaPorBloques(nodo, nodos, bloque));
+        }
+        asignaturaDao.almacen().usarIds(new SecuenciaPorBloques(nodo, nodos, 1));
+    }
+}
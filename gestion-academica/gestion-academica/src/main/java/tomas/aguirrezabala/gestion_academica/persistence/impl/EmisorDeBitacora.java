@@ -0,0 +1,194 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Lado líder de las réplicas de lectura. Escucha en {@code gestion-academica.replicacion.puerto};
+ * cada réplica se conecta, manda la posición de la bitácora desde la que le falta y recibe
+ * los registros tal como están en el archivo, primero los viejos y después cada lote apenas
+ * es durable. Sólo se manda lo que ya se sincronizó a disco, así una réplica nunca ve algo
+ * que el líder podría perder al caerse. Las posiciones son las de la bitácora y no cambian
+ * al compactarla: una réplica conectada sigue leyendo el archivo viejo hasta su final y pasa
+ * al nuevo, pero una que pide una posición ya compactada no se puede atender.
+ */
+@Component
+@Profile("!jdbc & !mvstore")
+public class EmisorDeBitacora {
+
+    private static final Logger log = LoggerFactory.getLogger(EmisorDeBitacora.class);
+
+    private static final Duration ESPERA = Duration.ofSeconds(1);
+
+    /** -1: no es líder; 0: cualquier puerto libre. */
+    @Value("${gestion-academica.replicacion.puerto:-1}")
+    private int puerto;
+
+    @Autowired
+    private BitacoraDeDaos bitacoraDeDaos;
+
+    private ServerSocket servidor;
+    private final Set<Socket> replicas = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        if (puerto < 0) {
+            return;
+        }
+        if (bitacoraDeDaos.bitacora() == null) {
+            throw new IllegalStateException(
+                    "Para ser líder de réplicas hace falta la bitácora (gestion-academica.bitacora.archivo o el perfil persistente)");
+        }
+        servidor = new ServerSocket(puerto);
+        Thread aceptar = new Thread(this::aceptar, "emisor-bitacora");
+        aceptar.setDaemon(true);
+        aceptar.start();
+        log.info("Líder de réplicas en el puerto {}", servidor.getLocalPort());
+    }
+
+    @PreDestroy
+    void cerrar() throws IOException {
+        if (servidor == null) {
+            return;
+        }
+        servidor.close();
+        for (Socket replica : replicas) {
+            replica.close();
+        }
+    }
+
+    public boolean activo() {
+        return servidor != null;
+    }
+
+    /** Puerto en el que escucha, útil cuando se configuró 0. */
+    public int puerto() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Hasta dónde la bitácora es durable: cubre toda escritura ya confirmada y nunca apunta
+     * más allá del archivo. Es el token que una lectura en una réplica puede pedir para ver
+     * las escrituras propias (en modo ASINCRONO la última puede no estar cubierta todavía).
+     */
+    public long posicion() {
+        return bitacoraDeDaos.bitacora().durable();
+    }
+
+    private void aceptar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket replica = servidor.accept();
+                replicas.add(replica);
+                Thread enviar = new Thread(() -> enviar(replica), "emisor-bitacora-" + replica.getRemoteSocketAddress());
+                enviar.setDaemon(true);
+                enviar.start();
+            } catch (IOException e) {
+                if (!servidor.isClosed()) {
+                    log.warn("No se pudo aceptar una réplica", e);
+                }
+            }
+        }
+    }
+
+    private void enviar(Socket replica) {
+        Bitacora bitacora = bitacoraDeDaos.bitacora();
+        Tramo tramo = null;
+        try (replica) {
+            replica.setTcpNoDelay(true);
+            long posicion = new DataInputStream(replica.getInputStream()).readLong();
+            tramo = Tramo.abrir(bitacora.archivo());
+            if (posicion < tramo.base() || posicion > bitacora.durable()) {
+                log.error("La réplica {} pidió la posición {} y la bitácora va de {} a {}{}",
+                        replica.getRemoteSocketAddress(), posicion, tramo.base(), bitacora.durable(),
+                        posicion < tramo.base() ? " (lo anterior se compactó)" : "");
+                return;
+            }
+            log.info("Réplica {} conectada desde la posición {}", replica.getRemoteSocketAddress(), posicion);
+            OutputStream salida = replica.getOutputStream();
+            WritableByteChannel canal = Channels.newChannel(salida);
+            while (bitacora.abierta()) {
+                long durable = bitacora.esperarDurable(posicion, ESPERA);
+                // El archivo sólo crece por registros enteros: lo durable termina en un borde.
+                while (posicion < durable) {
+                    long hasta = Math.min(durable, tramo.fin());
+                    if (posicion < hasta) {
+                        posicion += tramo.canal().transferTo(posicion - tramo.base() + Bitacora.ENCABEZADO,
+                                hasta - posicion, canal);
+                        continue;
+                    }
+                    // Se compactó: lo que falta está en el archivo nuevo, que empieza antes de acá.
+                    tramo.close();
+                    tramo = Tramo.abrir(bitacora.archivo());
+                    if (posicion < tramo.base()) {
+                        log.error("La bitácora se compactó hasta {} antes de mandarle a la réplica {} desde {}",
+                                tramo.base(), replica.getRemoteSocketAddress(), posicion);
+                        return;
+                    }
+                }
+                salida.flush();
+            }
+        } catch (SocketException e) {
+            log.info("Réplica {} desconectada", replica.getRemoteSocketAddress());
+        } catch (IOException e) {
+            log.warn("Se cortó el envío de la bitácora a {}", replica.getRemoteSocketAddress(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            replicas.remove(replica);
+            if (tramo != null) {
+                try {
+                    tramo.close();
+                } catch (IOException e) {
+                    log.debug("No se pudo cerrar la bitácora de {}", replica.getRemoteSocketAddress(), e);
+                }
+            }
+        }
+    }
+
+    /** El archivo de la bitácora tal como estaba al abrirlo y la posición de su primer registro. */
+    private record Tramo(FileChannel canal, long base) implements Closeable {
+
+        static Tramo abrir(Path archivo) throws IOException {
+            FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ);
+            try {
+                return new Tramo(canal, Bitacora.leerBase(canal, archivo));
+            } catch (IOException e) {
+                canal.close();
+                throw e;
+            }
+        }
+
+        long fin() throws IOException {
+            return base + canal.size() - Bitacora.ENCABEZADO;
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+}
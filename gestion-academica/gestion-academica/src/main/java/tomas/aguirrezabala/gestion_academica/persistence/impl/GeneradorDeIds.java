@@ -0,0 +1,20 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+/**
+ * De dónde saca un almacén en memoria los ids de las entidades nuevas.
+ */
+public interface GeneradorDeIds {
+
+    long siguiente();
+
+    /**
+     * Ningún id entregado después de esto será menor o igual a {@code id}: se llama con
+     * los ids explícitos (bitácora, instantánea) para no volver a entregarlos.
+     */
+    void avanzarHasta(long id);
+
+    /**
+     * Mayor id que pudo haberse entregado; es lo que se guarda en la instantánea.
+     */
+    long ultimo();
+}
@@ -0,0 +1,38 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Filtra otro generador y entrega sólo los ids que cumplen {@code propio}: con el
+ * particionado, cada nodo crea alumnos y asignaturas con ids que el anillo le asigna a él,
+ * así el id alcanza para saber dónde vive la entidad.
+ */
+final class IdsPropios implements GeneradorDeIds {
+
+    private final GeneradorDeIds base;
+    private final LongPredicate propio;
+
+    IdsPropios(GeneradorDeIds base, LongPredicate propio) {
+        this.base = base;
+        this.propio = propio;
+    }
+
+    @Override
+    public long siguiente() {
+        long id = base.siguiente();
+        while (!propio.test(id)) {
+            id = base.siguiente();
+        }
+        return id;
+    }
+
+    @Override
+    public void avanzarHasta(long id) {
+        base.avanzarHasta(id);
+    }
+
+    @Override
+    public long ultimo() {
+        return base.ultimo();
+    }
+}
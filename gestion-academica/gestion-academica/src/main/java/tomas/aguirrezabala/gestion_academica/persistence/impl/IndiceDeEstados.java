@@ -0,0 +1,305 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+
+/**
+ * Qué alumnos tienen cada estado en cada materia, como {@link BitsComprimidos} sobre un
+ * ordinal denso de alumno (el orden en que el índice vio a cada uno). Como un alumno
+ * tiene a lo sumo una asignatura por materia, un bit por materia y estado alcanza. Los
+ * bits de cada materia se protegen con su propio lock, no con uno del índice entero.
+ * <p>
+ * Al revés, cada alumno tiene las materias que cumple como correlativas (aprobadas o
+ * regulares) en bits sobre un ordinal denso de materia, y cada materia sus correlativas
+ * con la misma numeración: verificar una inscripción es un AND palabra por palabra.
+ * Las dos listas de bits guardan sólo las palabras no vacías, como pares (índice, bits)
+ * ordenados por índice, porque un alumno cumple pocas materias de todas las que hay.
+ * Nunca se modifican después de publicarlas, así que se leen sin lock. Las correlativas
+ * de una materia se compilan en la primera consulta después de guardarla.
+ * Los ordinales no se reutilizan.
+ */
+final class IndiceDeEstados {
+
+    private static final EstadoAsignatura[] ESTADOS = EstadoAsignatura.values();
+    private static final long[] NINGUNA = new long[0];
+
+    private final MapaLong<EstadosDeMateria> porMateria = new MapaLong<>();
+    private final MapaLong<Integer> ordinalDe = new MapaLong<>();
+    /** Por ordinal de alumno; se reemplaza al crecer, con el lock {@code altas} tomado. */
+    private volatile long[] alumnoDe = new long[1024];
+    private int ordinales;
+    private final Object altas = new Object();
+    private final MapaLong<long[]> cumplidas = new MapaLong<>();
+    private final MapaLong<Integer> ordinalDeMateria = new MapaLong<>();
+    private final AtomicInteger ordinalesDeMateria = new AtomicInteger();
+    private final MapaLong<Correlativas> correlativasDe = new MapaLong<>();
+
+    void agregar(long alumnoId, long materiaId, EstadoAsignatura estado) {
+        if (alumnoId == 0 || materiaId == 0 || estado == null) {
+            return;
+        }
+        int alumno = ordinal(alumnoId);
+        EstadosDeMateria estados = porMateria.calcular(materiaId,
+                (clave, actual) -> actual != null ? actual : new EstadosDeMateria());
+        synchronized (estados) {
+            estados.bits(estado, true).agregar(alumno);
+        }
+        if (estado.cumpleCorrelatividad()) {
+            int materia = ordinalDeMateria(materiaId);
+            cumplidas.calcular(alumnoId, (clave, actual) -> conBit(actual, materia, true));
+        }
+    }
+
+    void quitar(long alumnoId, long materiaId, EstadoAsignatura estado) {
+        if (alumnoId == 0 || materiaId == 0 || estado == null) {
+            return;
+        }
+        Integer ordinal = ordinalDe.buscar(alumnoId);
+        EstadosDeMateria estados = porMateria.buscar(materiaId);
+        if (ordinal != null && estados != null) {
+            synchronized (estados) {
+                BitsComprimidos bits = estados.bits(estado, false);
+                if (bits != null) {
+                    bits.quitar(ordinal);
+                }
+            }
+        }
+        Integer materia = ordinalDeMateria.buscar(materiaId);
+        if (materia != null && estado.cumpleCorrelatividad()) {
+            cumplidas.calcularSiPresente(alumnoId, (clave, actual) -> conBit(actual, materia, false));
+        }
+    }
+
+    int contar(long materiaId, EstadoAsignatura estado) {
+        EstadosDeMateria estados = porMateria.buscar(materiaId);
+        if (estados == null || estado == null) {
+            return 0;
+        }
+        synchronized (estados) {
+            BitsComprimidos bits = estados.bits(estado, false);
+            return bits != null ? bits.cantidad() : 0;
+        }
+    }
+
+    /**
+     * Alumnos con ese estado en alguna de las materias, o en todas si {@code enTodas},
+     * ordenados por id. Toma el lock de cada materia sólo mientras la combina.
+     */
+    long[] alumnos(Collection<Long> materiaIds, EstadoAsignatura estado, boolean enTodas) {
+        BitsComprimidos resultado = null;
+        for (Long materiaId : new LinkedHashSet<>(materiaIds)) {
+            EstadosDeMateria estados = materiaId != null && estado != null ? porMateria.buscar(materiaId) : null;
+            BitsComprimidos combinado = null;
+            if (estados != null) {
+                synchronized (estados) {
+                    BitsComprimidos bits = estados.bits(estado, false);
+                    if (bits != null) {
+                        // o() e y() devuelven uno nuevo: la primera se copia para no compartirla.
+                        combinado = resultado == null ? bits.o(new BitsComprimidos())
+                                : enTodas ? resultado.y(bits) : resultado.o(bits);
+                    }
+                }
+            }
+            if (combinado == null) {
+                if (enTodas) {
+                    return new long[0];
+                }
+                continue;
+            }
+            resultado = combinado;
+        }
+        if (resultado == null) {
+            return new long[0];
+        }
+        int[] ordinales = resultado.valores();
+        long[] alumnoDe = this.alumnoDe;
+        long[] alumnos = new long[ordinales.length];
+        for (int i = 0; i < ordinales.length; i++) {
+            alumnos[i] = alumnoDe[ordinales[i]];
+        }
+        Arrays.sort(alumnos);
+        return alumnos;
+    }
+
+    /**
+     * La materia cambió o se borró: lo compilado de sus correlativas deja de valer.
+     */
+    void olvidarCorrelativas(long materiaId) {
+        correlativasDe.quitar(materiaId);
+    }
+
+    /**
+     * Las correlativas que el alumno no tiene aprobadas ni regulares, ordenadas por id. No
+     * toma locks: si lo compilado no son las correlativas que se pasan, las compila y lo
+     * reemplaza.
+     */
+    long[] correlativasSinCumplir(long alumnoId, long materiaId, List<Long> correlativaIds) {
+        Correlativas correlativas = correlativasDe.buscar(materiaId);
+        if (correlativas == null || !correlativas.son(correlativaIds)) {
+            correlativas = compilar(correlativaIds);
+            correlativasDe.poner(materiaId, correlativas);
+        }
+        long[] tiene = cumplidas.buscar(alumnoId);
+        if (tiene == null) {
+            tiene = NINGUNA;
+        }
+        long[] pide = correlativas.bits();
+        long[] faltan = new long[correlativas.ids().length];
+        int cantidad = 0;
+        int enOrden = 0;
+        int j = 0;
+        for (int i = 0; i < pide.length; i += 2) {
+            while (j < tiene.length && tiene[j] < pide[i]) {
+                j += 2;
+            }
+            long palabra = pide[i + 1];
+            long sinCumplir = palabra & ~(j < tiene.length && tiene[j] == pide[i] ? tiene[j + 1] : 0);
+            while (palabra != 0) {
+                long bit = palabra & -palabra;
+                if ((sinCumplir & bit) != 0) {
+                    faltan[cantidad++] = correlativas.porBit()[enOrden];
+                }
+                enOrden++;
+                palabra &= palabra - 1;
+            }
+        }
+        long[] resultado = Arrays.copyOf(faltan, cantidad);
+        Arrays.sort(resultado);
+        return resultado;
+    }
+
+    /**
+     * Las materias sin ordinal reciben uno: si quedaran afuera, lo compilado dejaría de
+     * valer cuando alguien la cumpla por primera vez.
+     */
+    private Correlativas compilar(List<Long> correlativaIds) {
+        long[] ids = distintasOrdenadas(correlativaIds);
+        long[] bits = NINGUNA;
+        long[] ordinalYId = new long[ids.length * 2];
+        int conOrdinal = 0;
+        for (long id : ids) {
+            int ordinal = ordinalDeMateria(id);
+            bits = conBit(bits, ordinal, true);
+            ordinalYId[conOrdinal * 2] = ordinal;
+            ordinalYId[conOrdinal * 2 + 1] = id;
+            conOrdinal++;
+        }
+        // Los ids en el orden de sus bits, para traducir sin otra tabla.
+        Integer[] orden = new Integer[conOrdinal];
+        for (int i = 0; i < conOrdinal; i++) {
+            orden[i] = i;
+        }
+        Arrays.sort(orden, (a, b) -> Long.compare(ordinalYId[a * 2], ordinalYId[b * 2]));
+        long[] porBit = new long[conOrdinal];
+        for (int i = 0; i < conOrdinal; i++) {
+            porBit[i] = ordinalYId[orden[i] * 2 + 1];
+        }
+        return new Correlativas(ids, bits, porBit);
+    }
+
+    private static long[] distintasOrdenadas(List<Long> ids) {
+        return ids.stream().filter(id -> id != null && id != 0).mapToLong(Long::longValue).distinct().sorted().toArray();
+    }
+
+    /**
+     * Una lista de pares (índice de palabra, bits) con un bit prendido o apagado. Siempre
+     * devuelve una lista nueva (o la misma si no cambia nada), porque la anterior puede estar
+     * leyéndose; null si queda vacía.
+     */
+    private static long[] conBit(long[] pares, int ordinal, boolean prender) {
+        long indice = ordinal >>> 6;
+        long bit = 1L << ordinal;
+        long[] lista = pares != null ? pares : NINGUNA;
+        int i = 0;
+        while (i < lista.length && lista[i] < indice) {
+            i += 2;
+        }
+        if (i < lista.length && lista[i] == indice) {
+            long palabra = prender ? lista[i + 1] | bit : lista[i + 1] & ~bit;
+            if (palabra == lista[i + 1]) {
+                return pares;
+            }
+            if (palabra != 0) {
+                long[] copia = lista.clone();
+                copia[i + 1] = palabra;
+                return copia;
+            }
+            if (lista.length == 2) {
+                return null;
+            }
+            long[] sinPar = new long[lista.length - 2];
+            System.arraycopy(lista, 0, sinPar, 0, i);
+            System.arraycopy(lista, i + 2, sinPar, i, lista.length - i - 2);
+            return sinPar;
+        }
+        if (!prender) {
+            return pares;
+        }
+        long[] conPar = new long[lista.length + 2];
+        System.arraycopy(lista, 0, conPar, 0, i);
+        conPar[i] = indice;
+        conPar[i + 1] = bit;
+        System.arraycopy(lista, i, conPar, i + 2, lista.length - i);
+        return conPar;
+    }
+
+    private int ordinalDeMateria(long materiaId) {
+        Integer ordinal = ordinalDeMateria.buscar(materiaId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return ordinalDeMateria.calcular(materiaId,
+                (clave, actual) -> actual != null ? actual : ordinalesDeMateria.getAndIncrement());
+    }
+
+    private int ordinal(long alumnoId) {
+        Integer ordinal = ordinalDe.buscar(alumnoId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (altas) {
+            ordinal = ordinalDe.buscar(alumnoId);
+            if (ordinal != null) {
+                return ordinal;
+            }
+            long[] alumnoDe = this.alumnoDe;
+            if (ordinales == alumnoDe.length) {
+                alumnoDe = Arrays.copyOf(alumnoDe, ordinales * 2);
+            }
+            alumnoDe[ordinales] = alumnoId;
+            this.alumnoDe = alumnoDe;
+            ordinalDe.poner(alumnoId, ordinales);
+            return ordinales++;
+        }
+    }
+
+    /** Los bits de cada estado en una materia; la instancia es también su lock. */
+    private static final class EstadosDeMateria {
+
+        private final BitsComprimidos[] porEstado = new BitsComprimidos[ESTADOS.length];
+
+        BitsComprimidos bits(EstadoAsignatura estado, boolean crear) {
+            if (porEstado[estado.ordinal()] == null && crear) {
+                porEstado[estado.ordinal()] = new BitsComprimidos();
+            }
+            return porEstado[estado.ordinal()];
+        }
+    }
+
+    /**
+     * Las correlativas de una materia tal como se compilaron: los ids ordenados, para saber
+     * si cambiaron, sus bits y los ids en el orden de los bits.
+     */
+    private record Correlativas(long[] ids, long[] bits, long[] porBit) {
+
+        /** Compara como conjuntos: el orden y los repetidos de la lista no importan. */
+        boolean son(List<Long> otras) {
+            return otras != null && Arrays.equals(ids, distintasOrdenadas(otras));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.mvstore.type.DataType;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+
+/**
+ * Índice clave -> ids guardado como otro mapa del MVStore, con los ids de cada clave
+ * juntos en un arreglo ordenado. Se actualiza en la misma transacción que la entidad
+ * y la clave se bloquea antes de reescribir su arreglo, así dos altas concurrentes
+ * no se pisan.
+ */
+final class IndiceMVStore<K> {
+
+    private static final long[] VACIO = new long[0];
+
+    private final String nombre;
+    private final DataType<K> tipoClave;
+
+    IndiceMVStore(String nombre, DataType<K> tipoClave) {
+        this.nombre = nombre;
+        this.tipoClave = tipoClave;
+    }
+
+    long[] buscar(Transaction transaccion, K clave) {
+        return clave != null ? decodificar(abrir(transaccion).get(clave)) : VACIO;
+    }
+
+    boolean existe(Transaction transaccion, K clave) {
+        return clave != null && abrir(transaccion).containsKey(clave);
+    }
+
+    void agregar(Transaction transaccion, K clave, long id) {
+        if (clave == null) {
+            return;
+        }
+        TransactionMap<K, byte[]> mapa = abrir(transaccion);
+        long[] ids = decodificar(mapa.lock(clave));
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion >= 0) {
+            return;
+        }
+        posicion = -posicion - 1;
+        long[] nuevos = new long[ids.length + 1];
+        System.arraycopy(ids, 0, nuevos, 0, posicion);
+        nuevos[posicion] = id;
+        System.arraycopy(ids, posicion, nuevos, posicion + 1, ids.length - posicion);
+        mapa.put(clave, codificar(nuevos));
+    }
+
+    void quitar(Transaction transaccion, K clave, long id) {
+        if (clave == null) {
+            return;
+        }
+        TransactionMap<K, byte[]> mapa = abrir(transaccion);
+        long[] ids = decodificar(mapa.lock(clave));
+        int posicion = Arrays.binarySearch(ids, id);
+        if (posicion < 0) {
+            return;
+        }
+        if (ids.length == 1) {
+            mapa.remove(clave);
+            return;
+        }
+        long[] nuevos = new long[ids.length - 1];
+        System.arraycopy(ids, 0, nuevos, 0, posicion);
+        System.arraycopy(ids, posicion + 1, nuevos, posicion, ids.length - posicion - 1);
+        mapa.put(clave, codificar(nuevos));
+    }
+
+    /**
+     * Pasa {@code id} de la clave anterior a la nueva si cambió.
+     */
+    void mover(Transaction transaccion, K anterior, K nueva, long id) {
+        if (!Objects.equals(anterior, nueva)) {
+            quitar(transaccion, anterior, id);
+            agregar(transaccion, nueva, id);
+        }
+    }
+
+    /**
+     * Igual que {@link #mover} para entidades que apuntan a varias claves a la vez. Las
+     * nuevas se agregan todas (agregar no repite), por si alguna no estaba indexada.
+     */
+    void mover(Transaction transaccion, Collection<K> anteriores, Collection<K> nuevas, long id) {
+        Set<K> quitadas = new LinkedHashSet<>(anteriores);
+        quitadas.removeAll(nuevas);
+        for (K clave : quitadas) {
+            quitar(transaccion, clave, id);
+        }
+        for (K clave : new LinkedHashSet<>(nuevas)) {
+            agregar(transaccion, clave, id);
+        }
+    }
+
+    /**
+     * Índice único: toma la clave para {@code id} o falla si ya es de otro.
+     */
+    void reservar(Transaction transaccion, K clave, long id, String entidad, String campo) {
+        if (clave == null) {
+            return;
+        }
+        TransactionMap<K, byte[]> mapa = abrir(transaccion);
+        long[] ids = decodificar(mapa.lock(clave));
+        if (ids.length > 0 && (ids.length > 1 || ids[0] != id)) {
+            throw new EntidadDuplicadaException(entidad, campo, clave.toString());
+        }
+        mapa.put(clave, codificar(new long[] { id }));
+    }
+
+    /**
+     * Pasa la clave única de {@code id} de la anterior a la nueva si cambió.
+     */
+    void reservar(Transaction transaccion, K anterior, K nueva, long id, String entidad, String campo) {
+        if (!Objects.equals(anterior, nueva)) {
+            reservar(transaccion, nueva, id, entidad, campo);
+            quitar(transaccion, anterior, id);
+        }
+    }
+
+    private TransactionMap<K, byte[]> abrir(Transaction transaccion) {
+        return transaccion.openMap(nombre, tipoClave, ByteArrayDataType.INSTANCE);
+    }
+
+    private static long[] decodificar(byte[] datos) {
+        if (datos == null) {
+            return VACIO;
+        }
+        long[] ids = new long[datos.length / Long.BYTES];
+        ByteBuffer.wrap(datos).asLongBuffer().get(ids);
+        return ids;
+    }
+
+    private static byte[] codificar(long[] ids) {
+        ByteBuffer datos = ByteBuffer.allocate(ids.length * Long.BYTES);
+        datos.asLongBuffer().put(ids);
+        return datos.array();
+    }
+}
@@ -0,0 +1,70 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+
+/**
+ * Restricción de unicidad clave -> id. La clave se reserva con putIfAbsent antes de
+ * publicar la entidad, así dos altas concurrentes con la misma clave no pueden
+ * pasar ambas.
+ */
+public class IndiceUnico<T, K> {
+
+    private final Function<T, K> obtenerClave;
+    private final String entidad;
+    private final String campo;
+    private final ConcurrentHashMap<K, Long> idPorClave = new ConcurrentHashMap<>();
+
+    IndiceUnico(Function<T, K> obtenerClave, String entidad, String campo) {
+        this.obtenerClave = obtenerClave;
+        this.entidad = entidad;
+        this.campo = campo;
+    }
+
+    public K claveDe(T entidad) {
+        return entidad != null ? obtenerClave.apply(entidad) : null;
+    }
+
+    public Long buscar(K clave) {
+        return clave != null ? idPorClave.get(clave) : null;
+    }
+
+    void reservar(Long id, T entidad) {
+        K clave = claveDe(entidad);
+        if (clave == null) {
+            return;
+        }
+        Long duenio = idPorClave.putIfAbsent(clave, id);
+        if (duenio != null && !duenio.equals(id)) {
+            throw new EntidadDuplicadaException(this.entidad, campo, clave.toString());
+        }
+    }
+
+    /**
+     * Deshace una reserva que no llegó a confirmarse. {@code anterior} es la versión
+     * guardada del mismo id (o null): si ya tenía esa clave, la clave sigue siendo suya.
+     */
+    void cancelarReserva(Long id, T anterior, T entidad) {
+        K clave = claveDe(entidad);
+        if (clave != null && !clave.equals(claveDe(anterior))) {
+            idPorClave.remove(clave, id);
+        }
+    }
+
+    void confirmar(Long id, T anterior, T entidad) {
+        K vieja = claveDe(anterior);
+        if (vieja != null && !Objects.equals(vieja, claveDe(entidad))) {
+            idPorClave.remove(vieja, id);
+        }
+    }
+
+    void quitar(Long id, T anterior) {
+        K vieja = claveDe(anterior);
+        if (vieja != null) {
+            idPorClave.remove(vieja, id);
+        }
+    }
+}
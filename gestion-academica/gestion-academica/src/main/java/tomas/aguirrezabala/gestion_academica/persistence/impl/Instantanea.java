@@ -0,0 +1,99 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Vista inmutable de un almacén en memoria: un mapa persistente por segmento de
+ * {@link MapaLong}. Cada segmento se publica por separado, así que la vista es la de
+ * cada segmento en el momento de leerlo; los recorridos mezclan los segmentos por id.
+ */
+public final class Instantanea<V> implements Iterable<V> {
+
+    private final MapaPersistente<V>[] segmentos;
+
+    Instantanea(MapaPersistente<V>[] segmentos) {
+        this.segmentos = segmentos;
+    }
+
+    public V buscar(long clave) {
+        return segmentos[MapaLong.segmentoDe(clave)].buscar(clave);
+    }
+
+    public int tamanio() {
+        int tamanio = 0;
+        for (MapaPersistente<V> segmento : segmentos) {
+            tamanio += segmento.tamanio();
+        }
+        return tamanio;
+    }
+
+    public List<V> valores() {
+        List<V> valores = new ArrayList<>(tamanio());
+        for (V valor : this) {
+            valores.add(valor);
+        }
+        return valores;
+    }
+
+    /**
+     * Como {@link MapaPersistente#pagina}: cada segmento baja una vez hasta el cursor y la
+     * mezcla sólo avanza lo que entra en la página.
+     */
+    public List<V> pagina(Long despuesDe, int limite, boolean descendente) {
+        List<V> pagina = new ArrayList<>(Math.min(limite, 64));
+        Iterator<V> mezcla = mezclar(despuesDe, descendente);
+        while (pagina.size() < limite && mezcla.hasNext()) {
+            pagina.add(mezcla.next());
+        }
+        return pagina;
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return mezclar(null, false);
+    }
+
+    @Override
+    public Spliterator<V> spliterator() {
+        return Spliterators.spliterator(iterator(), tamanio(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    private Iterator<V> mezclar(Long despuesDe, boolean descendente) {
+        Comparator<MapaPersistente.Cursor<V>> porClave = Comparator.comparingLong(MapaPersistente.Cursor::clave);
+        PriorityQueue<MapaPersistente.Cursor<V>> cursores = new PriorityQueue<>(segmentos.length,
+                descendente ? porClave.reversed() : porClave);
+        for (MapaPersistente<V> segmento : segmentos) {
+            MapaPersistente.Cursor<V> cursor = segmento.cursor(despuesDe, descendente);
+            if (cursor.avanzar()) {
+                cursores.add(cursor);
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !cursores.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                MapaPersistente.Cursor<V> cursor = cursores.poll();
+                if (cursor == null) {
+                    throw new NoSuchElementException();
+                }
+                V valor = cursor.valor();
+                if (cursor.avanzar()) {
+                    cursores.add(cursor);
+                }
+                return valor;
+            }
+        };
+    }
+}
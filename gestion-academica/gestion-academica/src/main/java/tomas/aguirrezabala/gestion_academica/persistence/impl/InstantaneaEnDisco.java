@@ -0,0 +1,186 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * Volcado binario de varios almacenes junto con la posición de la bitácora hasta la que
+ * llegan. Formato: cabecera, una sección por almacén (nombre, último id, cantidad y
+ * entidades en orden de id), un índice nombre -> desplazamiento y un CRC32 final.
+ * Se escribe en un temporal que reemplaza al anterior de forma atómica y se lee mapeado
+ * en memoria.
+ */
+final class InstantaneaEnDisco {
+
+    private static final int MAGIA = 0x47414931;
+    private static final int VERSION = 2;
+    private static final int COLA = Integer.BYTES * 2;
+
+    private InstantaneaEnDisco() {
+    }
+
+    static void escribir(Path archivo, long posicionBitacora, List<Seccion<?>> secciones) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        if (directorio != null) {
+            Files.createDirectories(directorio);
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (FileOutputStream archivoSalida = new FileOutputStream(temporal.toFile())) {
+            CRC32 crc = new CRC32();
+            DataOutputStream salida = new DataOutputStream(
+                    new BufferedOutputStream(new CheckedOutputStream(archivoSalida, crc), 1 << 16));
+            salida.writeInt(MAGIA);
+            salida.writeInt(VERSION);
+            salida.writeLong(posicionBitacora);
+            Map<String, Integer> desplazamientos = new LinkedHashMap<>();
+            for (Seccion<?> seccion : secciones) {
+                desplazamientos.put(seccion.nombre(), salida.size());
+                seccion.escribir(salida);
+            }
+            int desplazamientoIndice = salida.size();
+            salida.writeInt(desplazamientos.size());
+            for (Map.Entry<String, Integer> entrada : desplazamientos.entrySet()) {
+                salida.writeUTF(entrada.getKey());
+                salida.writeInt(entrada.getValue());
+            }
+            salida.writeInt(desplazamientoIndice);
+            salida.flush();
+            // El CRC no se incluye a sí mismo: se escribe directo al archivo.
+            new DataOutputStream(archivoSalida).writeInt((int) crc.getValue());
+            archivoSalida.getChannel().force(true);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Devuelve null si no hay instantánea o si está incompleta o corrupta; en ese caso
+     * hay que reproducir la bitácora entera.
+     */
+    static Lectura leer(Path archivo) throws IOException {
+        if (!Files.exists(archivo)) {
+            return null;
+        }
+        MappedByteBuffer mapa;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamanio = canal.size();
+            if (tamanio > Integer.MAX_VALUE) {
+                throw new IOException("La instantánea " + archivo + " supera los 2 GB que se pueden mapear");
+            }
+            if (tamanio < Integer.BYTES * 2 + Long.BYTES + COLA) {
+                return null;
+            }
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanio);
+        }
+        int finDatos = mapa.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(mapa.duplicate().limit(finDatos));
+        if ((int) crc.getValue() != mapa.getInt(finDatos) || mapa.getInt(0) != MAGIA || mapa.getInt(Integer.BYTES) != VERSION) {
+            return null;
+        }
+        long posicionBitacora = mapa.getLong(Integer.BYTES * 2);
+        DataInputStream indice = entradaDesde(mapa, mapa.getInt(finDatos - Integer.BYTES));
+        int cantidad = indice.readInt();
+        Map<String, Integer> desplazamientos = new HashMap<>();
+        for (int i = 0; i < cantidad; i++) {
+            desplazamientos.put(indice.readUTF(), indice.readInt());
+        }
+        return new Lectura(mapa, posicionBitacora, desplazamientos);
+    }
+
+    private static DataInputStream entradaDesde(ByteBuffer mapa, int desplazamiento) {
+        return new DataInputStream(new EntradaDeBuffer(mapa.duplicate().position(desplazamiento)));
+    }
+
+    record Seccion<T extends Entidad>(String nombre, AlmacenPersistible.Captura<T> captura, Codificador<T> codificador) {
+
+        void escribir(DataOutputStream salida) throws IOException {
+            salida.writeUTF(nombre);
+            salida.writeLong(captura.ultimoId());
+            salida.writeInt(captura.cantidad());
+            for (T entidad : captura.entidades()) {
+                codificador.escribir(salida, entidad);
+            }
+        }
+    }
+
+    record SeccionLeida(long ultimoId, int cantidad, DataInputStream entrada) {
+    }
+
+    static final class Lectura {
+
+        private final ByteBuffer mapa;
+        private final long posicionBitacora;
+        private final Map<String, Integer> desplazamientos;
+
+        private Lectura(ByteBuffer mapa, long posicionBitacora, Map<String, Integer> desplazamientos) {
+            this.mapa = mapa;
+            this.posicionBitacora = posicionBitacora;
+            this.desplazamientos = desplazamientos;
+        }
+
+        long posicionBitacora() {
+            return posicionBitacora;
+        }
+
+        /**
+         * Cada llamada devuelve una lectura nueva desde el principio de la sección.
+         */
+        SeccionLeida seccion(String nombre) throws IOException {
+            Integer desplazamiento = desplazamientos.get(nombre);
+            if (desplazamiento == null) {
+                return null;
+            }
+            DataInputStream entrada = entradaDesde(mapa, desplazamiento);
+            entrada.readUTF();
+            return new SeccionLeida(entrada.readLong(), entrada.readInt(), entrada);
+        }
+    }
+
+    private static final class EntradaDeBuffer extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        EntradaDeBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int desde, int cantidad) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int leidos = Math.min(cantidad, buffer.remaining());
+            buffer.get(destino, desde, leidos);
+            return leidos;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Mapa concurrente long -> valor con direccionamiento abierto: las claves van en un
+ * long[] y los valores en un Object[], sin Long ni nodo por entrada.
+ * Está partido en segmentos con su propio lock, así las escrituras sólo se serializan
+ * dentro de un segmento; las lecturas no bloquean. Los cálculos corren con el lock del
+ * segmento tomado, como en ConcurrentHashMap.compute, y no deben modificar este mapa.
+ */
+public final class MapaLong<V> {
+
+    static final int SEGMENTOS = 32;
+    private static final int CAPACIDAD_INICIAL = 8;
+    /** Marca de una entrada borrada: la clave sigue en su lugar para no cortar el sondeo. */
+    private static final Object BORRADO = new Object();
+    private static final VarHandle VALORES = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Segmento[] segmentos = new Segmento[SEGMENTOS];
+
+    @FunctionalInterface
+    public interface Calculo<V> {
+
+        /**
+         * Recibe el valor actual (null si no hay) y devuelve el nuevo; null lo quita.
+         */
+        V aplicar(long clave, V actual);
+    }
+
+    public MapaLong() {
+        for (int i = 0; i < SEGMENTOS; i++) {
+            segmentos[i] = new Segmento();
+        }
+    }
+
+    public V buscar(long clave) {
+        long hash = mezclar(clave);
+        return valor(segmento(hash).tabla.buscar(clave, hash));
+    }
+
+    public boolean contiene(long clave) {
+        return buscar(clave) != null;
+    }
+
+    public V calcular(long clave, Calculo<V> calculo) {
+        long hash = mezclar(clave);
+        return segmento(hash).calcular(clave, hash, calculo, false);
+    }
+
+    public V calcularSiPresente(long clave, Calculo<V> calculo) {
+        long hash = mezclar(clave);
+        return segmento(hash).calcular(clave, hash, calculo, true);
+    }
+
+    /**
+     * Devuelve el valor anterior.
+     */
+    public V poner(long clave, V valor) {
+        Object[] anterior = new Object[1];
+        calcular(clave, (k, actual) -> {
+            anterior[0] = actual;
+            return valor;
+        });
+        return valor(anterior[0]);
+    }
+
+    public V quitar(long clave) {
+        Object[] anterior = new Object[1];
+        calcularSiPresente(clave, (k, actual) -> {
+            anterior[0] = actual;
+            return null;
+        });
+        return valor(anterior[0]);
+    }
+
+    public int tamanio() {
+        int tamanio = 0;
+        for (Segmento segmento : segmentos) {
+            tamanio += segmento.tamanio;
+        }
+        return tamanio;
+    }
+
+    public boolean vacio() {
+        for (Segmento segmento : segmentos) {
+            if (segmento.tamanio > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Índice del segmento que guarda la clave: quien escriba dentro de un cálculo sobre
+     * esa clave tiene tomado el lock de ese segmento.
+     */
+    static int segmentoDe(long clave) {
+        return (int) (mezclar(clave) >>> 59);
+    }
+
+    private Segmento segmento(long hash) {
+        return segmentos[(int) (hash >>> 59)];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V valor(Object valor) {
+        return valor == BORRADO ? null : (V) valor;
+    }
+
+    private static long mezclar(long clave) {
+        long hash = clave * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    private static final class Segmento {
+
+        volatile Tabla tabla = new Tabla(CAPACIDAD_INICIAL);
+        volatile int tamanio;
+        /** Ocupadas más borradas: es lo que alarga los sondeos. */
+        private int usadas;
+
+        synchronized <V> V calcular(long clave, long hash, Calculo<V> calculo, boolean siPresente) {
+            Tabla tabla = this.tabla;
+            int posicion = tabla.posicion(clave, hash);
+            Object actual = posicion >= 0 ? VALORES.getAcquire(tabla.valores, posicion) : null;
+            V anterior = valor(actual);
+            if (anterior == null && siPresente) {
+                return null;
+            }
+            V nuevo = calculo.aplicar(clave, anterior);
+            if (nuevo == null) {
+                if (anterior != null) {
+                    VALORES.setRelease(tabla.valores, posicion, BORRADO);
+                    tamanio = tamanio - 1;
+                }
+                return null;
+            }
+            if (anterior != null || actual == BORRADO) {
+                VALORES.setRelease(tabla.valores, posicion, nuevo);
+                if (anterior == null) {
+                    tamanio = tamanio + 1;
+                }
+                return nuevo;
+            }
+            if ((usadas + 1) * 4 > tabla.claves.length * 3) {
+                tabla = rehacer(tabla);
+            }
+            int libre = tabla.libre(hash);
+            tabla.claves[libre] = clave;
+            // La clave queda escrita antes que el valor que la publica.
+            VALORES.setRelease(tabla.valores, libre, nuevo);
+            usadas++;
+            tamanio = tamanio + 1;
+            return nuevo;
+        }
+
+        /**
+         * Tabla nueva sin las entradas borradas y con lugar para crecer; se publica
+         * recién cuando está completa.
+         */
+        private Tabla rehacer(Tabla vieja) {
+            int capacidad = CAPACIDAD_INICIAL;
+            while (capacidad < (tamanio + 1) * 2) {
+                capacidad *= 2;
+            }
+            Tabla nueva = new Tabla(capacidad);
+            for (int i = 0; i < vieja.claves.length; i++) {
+                Object valor = vieja.valores[i];
+                if (valor != null && valor != BORRADO) {
+                    long clave = vieja.claves[i];
+                    int libre = nueva.libre(mezclar(clave));
+                    nueva.claves[libre] = clave;
+                    nueva.valores[libre] = valor;
+                }
+            }
+            usadas = tamanio;
+            tabla = nueva;
+            return nueva;
+        }
+    }
+
+    private static final class Tabla {
+
+        final long[] claves;
+        /** Null: nunca usada; BORRADO: la clave fue quitada. */
+        final Object[] valores;
+        final int mascara;
+
+        Tabla(int capacidad) {
+            claves = new long[capacidad];
+            valores = new Object[capacidad];
+            mascara = capacidad - 1;
+        }
+
+        /**
+         * Sondeo lineal sin lock: el valor se lee antes que la clave, así una clave
+         * vista siempre es la que publicó ese valor.
+         */
+        Object buscar(long clave, long hash) {
+            for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+                Object valor = VALORES.getAcquire(valores, i);
+                if (valor == null) {
+                    return null;
+                }
+                if (claves[i] == clave) {
+                    return valor;
+                }
+            }
+        }
+
+        /**
+         * Lugar de la clave (vigente o borrada), o -1. Sólo con el lock del segmento.
+         */
+        int posicion(long clave, long hash) {
+            for (int i = (int) hash & mascara; ; i = (i + 1) & mascara) {
+                Object valor = valores[i];
+                if (valor == null) {
+                    return -1;
+                }
+                if (claves[i] == clave) {
+                    return i;
+                }
+            }
+        }
+
+        int libre(long hash) {
+            int i = (int) hash & mascara;
+            while (valores[i] != null) {
+                i = (i + 1) & mascara;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.tx.TransactionMap;
+import org.h2.mvstore.type.ByteArrayDataType;
+import org.h2.mvstore.type.LongDataType;
+
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+
+/**
+ * Entidades de un tipo en un mapa id -> bytes del MVStore, codificadas con un
+ * {@link Codificador}. La clave es el id, así que el mapa ya está ordenado por id
+ * y las relaciones vuelven sólo con el id: las completa el DAO.
+ */
+final class MapaMVStore<T extends Entidad> {
+
+    private final String nombre;
+    private final Codificador<T> codificador;
+
+    MapaMVStore(String nombre, Codificador<T> codificador) {
+        this.nombre = nombre;
+        this.codificador = codificador;
+    }
+
+    String nombre() {
+        return nombre;
+    }
+
+    T leer(Transaction transaccion, Long id) {
+        return id != null ? decodificar(abrir(transaccion).get(id)) : null;
+    }
+
+    /**
+     * Como {@link #leer} pero además bloquea la fila hasta el fin de la transacción:
+     * así se toma una entidad que se va a modificar, o el destino de una referencia
+     * para que nadie lo borre mientras tanto.
+     */
+    T bloquear(Transaction transaccion, Long id) {
+        return id != null ? decodificar(abrir(transaccion).lock(id)) : null;
+    }
+
+    /**
+     * Bloquea las filas de {@code ids} que existen y devuelve sus ids, en el orden dado.
+     */
+    List<Long> bloquearExistentes(Transaction transaccion, Collection<Long> ids) {
+        TransactionMap<Long, byte[]> mapa = abrir(transaccion);
+        List<Long> existentes = new ArrayList<>();
+        for (Long id : ids) {
+            if (id != null && !existentes.contains(id) && mapa.lock(id) != null) {
+                existentes.add(id);
+            }
+        }
+        return existentes;
+    }
+
+    Map<Long, T> leerVarios(Transaction transaccion, Collection<Long> ids) {
+        TransactionMap<Long, byte[]> mapa = abrir(transaccion);
+        Map<Long, T> porId = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id != null && !porId.containsKey(id)) {
+                T entidad = decodificar(mapa.get(id));
+                if (entidad != null) {
+                    porId.put(id, entidad);
+                }
+            }
+        }
+        return porId;
+    }
+
+    List<T> leerTodos(Transaction transaccion) {
+        List<T> todas = new ArrayList<>();
+        for (byte[] datos : abrir(transaccion).values()) {
+            todas.add(decodificar(datos));
+        }
+        return todas;
+    }
+
+    /**
+     * Hasta {@code limite} entidades con id posterior al cursor en el orden pedido: el
+     * recorrido arranca en el cursor del árbol, no desde el principio.
+     */
+    List<T> leerPagina(Transaction transaccion, Long despuesDeId, int limite, Orden orden) {
+        TransactionMap<Long, byte[]> mapa = abrir(transaccion);
+        boolean descendente = orden == Orden.DESCENDENTE;
+        Long desde = null;
+        if (despuesDeId != null) {
+            desde = descendente ? mapa.lowerKey(despuesDeId) : mapa.higherKey(despuesDeId);
+            if (desde == null) {
+                return new ArrayList<>();
+            }
+        }
+        List<T> pagina = new ArrayList<>();
+        Iterator<Map.Entry<Long, byte[]>> entradas = mapa.entryIterator(desde, null, descendente);
+        while (pagina.size() < limite && entradas.hasNext()) {
+            pagina.add(decodificar(entradas.next().getValue()));
+        }
+        return pagina;
+    }
+
+    void escribir(Transaction transaccion, T entidad) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(bytes)) {
+            codificador.escribir(salida, entidad);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        abrir(transaccion).put(entidad.getId(), bytes.toByteArray());
+    }
+
+    void borrar(Transaction transaccion, Long id) {
+        abrir(transaccion).remove(id);
+    }
+
+    private TransactionMap<Long, byte[]> abrir(Transaction transaccion) {
+        return transaccion.openMap(nombre, LongDataType.INSTANCE, ByteArrayDataType.INSTANCE);
+    }
+
+    private T decodificar(byte[] datos) {
+        if (datos == null) {
+            return null;
+        }
+        try {
+            return codificador.leer(new DataInputStream(new ByteArrayInputStream(datos)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Mapa id -> valor inmutable (árbol AVL persistente). Cada modificación devuelve un
+ * mapa nuevo que comparte con el anterior todos los nodos que no cambiaron, así
+ * tomar una instantánea es leer una referencia y recorrerla nunca ve escrituras
+ * posteriores.
+ */
+public final class MapaPersistente<V> implements Iterable<V> {
+
+    private static final MapaPersistente<?> VACIO = new MapaPersistente<>(null);
+
+    private final Nodo<V> raiz;
+
+    private MapaPersistente(Nodo<V> raiz) {
+        this.raiz = raiz;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> MapaPersistente<V> vacio() {
+        return (MapaPersistente<V>) VACIO;
+    }
+
+    /**
+     * Arma el mapa de una vez a partir de claves estrictamente crecientes (p. ej. al
+     * cargar una instantánea), sin pasar por n inserciones.
+     */
+    public static <V> MapaPersistente<V> desdeOrdenados(long[] claves, List<V> valores) {
+        if (claves.length != valores.size()) {
+            throw new IllegalArgumentException("Hay " + claves.length + " claves para " + valores.size() + " valores");
+        }
+        for (int i = 1; i < claves.length; i++) {
+            if (claves[i - 1] >= claves[i]) {
+                throw new IllegalArgumentException("Las claves deben estar ordenadas y sin repetir");
+            }
+        }
+        return new MapaPersistente<>(construir(claves, valores, 0, claves.length - 1));
+    }
+
+    public V buscar(long clave) {
+        Nodo<V> nodo = raiz;
+        while (nodo != null) {
+            if (clave < nodo.clave) {
+                nodo = nodo.izquierdo;
+            } else if (clave > nodo.clave) {
+                nodo = nodo.derecho;
+            } else {
+                return nodo.valor;
+            }
+        }
+        return null;
+    }
+
+    public MapaPersistente<V> con(long clave, V valor) {
+        return new MapaPersistente<>(insertar(raiz, clave, valor));
+    }
+
+    public MapaPersistente<V> sin(long clave) {
+        Nodo<V> nuevaRaiz = quitar(raiz, clave);
+        return nuevaRaiz == raiz ? this : new MapaPersistente<>(nuevaRaiz);
+    }
+
+    public int tamanio() {
+        return tamanio(raiz);
+    }
+
+    public boolean estaVacio() {
+        return raiz == null;
+    }
+
+    public List<V> valores() {
+        List<V> valores = new ArrayList<>(tamanio());
+        for (V valor : this) {
+            valores.add(valor);
+        }
+        return valores;
+    }
+
+    /**
+     * Hasta {@code limite} valores con clave estrictamente posterior a {@code despuesDe}
+     * (todas si es null) en el sentido pedido. Baja una sola vez hasta el cursor, así
+     * cuesta O(log n + limite) sin importar el tamaño del mapa.
+     */
+    public List<V> pagina(Long despuesDe, int limite, boolean descendente) {
+        List<V> pagina = new ArrayList<>(Math.min(limite, tamanio()));
+        Cursor<V> cursor = cursor(despuesDe, descendente);
+        while (pagina.size() < limite && cursor.avanzar()) {
+            pagina.add(cursor.valor());
+        }
+        return pagina;
+    }
+
+    /**
+     * Cursor perezoso sobre las claves estrictamente posteriores a {@code despuesDe} (todas
+     * si es null) en el sentido pedido: baja una vez hasta el cursor y después cada paso
+     * cuesta O(1) amortizado.
+     */
+    Cursor<V> cursor(Long despuesDe, boolean descendente) {
+        return new Cursor<>(raiz, despuesDe, descendente);
+    }
+
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private final Deque<Nodo<V>> pendientes = new ArrayDeque<>();
+
+            {
+                apilarIzquierda(raiz);
+            }
+
+            private void apilarIzquierda(Nodo<V> nodo) {
+                while (nodo != null) {
+                    pendientes.push(nodo);
+                    nodo = nodo.izquierdo;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !pendientes.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                if (pendientes.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Nodo<V> nodo = pendientes.pop();
+                apilarIzquierda(nodo.derecho);
+                return nodo.valor;
+            }
+        };
+    }
+
+    /**
+     * Recorrido que se puede partir para un stream paralelo: cada mitad es un rango de
+     * subárboles consecutivos, así que se conserva el orden por clave y el tamaño exacto.
+     */
+    @Override
+    public Spliterator<V> spliterator() {
+        ArrayDeque<Pieza<V>> piezas = new ArrayDeque<>();
+        if (raiz != null) {
+            piezas.add(new Pieza<>(raiz, false));
+        }
+        return new Recorrido<>(piezas, tamanio());
+    }
+
+    private static <V> Nodo<V> construir(long[] claves, List<V> valores, int desde, int hasta) {
+        if (desde > hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        return new Nodo<>(claves[medio], valores.get(medio),
+                construir(claves, valores, desde, medio - 1), construir(claves, valores, medio + 1, hasta));
+    }
+
+    private static <V> Nodo<V> insertar(Nodo<V> nodo, long clave, V valor) {
+        if (nodo == null) {
+            return new Nodo<>(clave, valor, null, null);
+        }
+        if (clave < nodo.clave) {
+            return balancear(nodo.clave, nodo.valor, insertar(nodo.izquierdo, clave, valor), nodo.derecho);
+        }
+        if (clave > nodo.clave) {
+            return balancear(nodo.clave, nodo.valor, nodo.izquierdo, insertar(nodo.derecho, clave, valor));
+        }
+        return new Nodo<>(clave, valor, nodo.izquierdo, nodo.derecho);
+    }
+
+    private static <V> Nodo<V> quitar(Nodo<V> nodo, long clave) {
+        if (nodo == null) {
+            return null;
+        }
+        if (clave < nodo.clave) {
+            Nodo<V> izquierdo = quitar(nodo.izquierdo, clave);
+            return izquierdo == nodo.izquierdo ? nodo : balancear(nodo.clave, nodo.valor, izquierdo, nodo.derecho);
+        }
+        if (clave > nodo.clave) {
+            Nodo<V> derecho = quitar(nodo.derecho, clave);
+            return derecho == nodo.derecho ? nodo : balancear(nodo.clave, nodo.valor, nodo.izquierdo, derecho);
+        }
+        if (nodo.izquierdo == null) {
+            return nodo.derecho;
+        }
+        if (nodo.derecho == null) {
+            return nodo.izquierdo;
+        }
+        Nodo<V> sucesor = nodo.derecho;
+        while (sucesor.izquierdo != null) {
+            sucesor = sucesor.izquierdo;
+        }
+        return balancear(sucesor.clave, sucesor.valor, nodo.izquierdo, quitar(nodo.derecho, sucesor.clave));
+    }
+
+    private static <V> Nodo<V> balancear(long clave, V valor, Nodo<V> izquierdo, Nodo<V> derecho) {
+        int diferencia = altura(izquierdo) - altura(derecho);
+        if (diferencia > 1) {
+            if (altura(izquierdo.izquierdo) < altura(izquierdo.derecho)) {
+                izquierdo = rotarIzquierda(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo, izquierdo.derecho);
+            }
+            return rotarDerecha(clave, valor, izquierdo, derecho);
+        }
+        if (diferencia < -1) {
+            if (altura(derecho.derecho) < altura(derecho.izquierdo)) {
+                derecho = rotarDerecha(derecho.clave, derecho.valor, derecho.izquierdo, derecho.derecho);
+            }
+            return rotarIzquierda(clave, valor, izquierdo, derecho);
+        }
+        return new Nodo<>(clave, valor, izquierdo, derecho);
+    }
+
+    private static <V> Nodo<V> rotarDerecha(long clave, V valor, Nodo<V> izquierdo, Nodo<V> derecho) {
+        return new Nodo<>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo,
+                new Nodo<>(clave, valor, izquierdo.derecho, derecho));
+    }
+
+    private static <V> Nodo<V> rotarIzquierda(long clave, V valor, Nodo<V> izquierdo, Nodo<V> derecho) {
+        return new Nodo<>(derecho.clave, derecho.valor,
+                new Nodo<>(clave, valor, izquierdo, derecho.izquierdo), derecho.derecho);
+    }
+
+    private static int altura(Nodo<?> nodo) {
+        return nodo != null ? nodo.altura : 0;
+    }
+
+    private static int tamanio(Nodo<?> nodo) {
+        return nodo != null ? nodo.tamanio : 0;
+    }
+
+    static final class Cursor<V> {
+
+        private final Deque<Nodo<V>> pendientes = new ArrayDeque<>();
+        private final boolean descendente;
+        private Nodo<V> actual;
+
+        private Cursor(Nodo<V> raiz, Long despuesDe, boolean descendente) {
+            this.descendente = descendente;
+            Nodo<V> nodo = raiz;
+            while (nodo != null) {
+                boolean sirve = despuesDe == null
+                        || (descendente ? nodo.clave < despuesDe : nodo.clave > despuesDe);
+                if (sirve) {
+                    pendientes.push(nodo);
+                    nodo = descendente ? nodo.derecho : nodo.izquierdo;
+                } else {
+                    nodo = descendente ? nodo.izquierdo : nodo.derecho;
+                }
+            }
+        }
+
+        boolean avanzar() {
+            if (pendientes.isEmpty()) {
+                actual = null;
+                return false;
+            }
+            actual = pendientes.pop();
+            for (Nodo<V> siguiente = descendente ? actual.izquierdo : actual.derecho; siguiente != null;
+                    siguiente = descendente ? siguiente.derecho : siguiente.izquierdo) {
+                pendientes.push(siguiente);
+            }
+            return true;
+        }
+
+        long clave() {
+            return actual.clave;
+        }
+
+        V valor() {
+            return actual.valor;
+        }
+    }
+
+    /**
+     * Un subárbol entero o sólo el valor de su raíz.
+     */
+    private record Pieza<V>(Nodo<V> nodo, boolean soloRaiz) {
+
+        int tamanio() {
+            return soloRaiz ? 1 : nodo.tamanio;
+        }
+    }
+
+    private static final class Recorrido<V> implements Spliterator<V> {
+
+        private final ArrayDeque<Pieza<V>> piezas;
+        private long restantes;
+
+        Recorrido(ArrayDeque<Pieza<V>> piezas, long restantes) {
+            this.piezas = piezas;
+            this.restantes = restantes;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super V> accion) {
+            while (!piezas.isEmpty()) {
+                Pieza<V> pieza = piezas.pollFirst();
+                if (pieza.tamanio() == 1) {
+                    restantes--;
+                    accion.accept(pieza.nodo().valor);
+                    return true;
+                }
+                abrir(pieza);
+            }
+            return false;
+        }
+
+        @Override
+        public Spliterator<V> trySplit() {
+            if (piezas.size() == 1 && piezas.peekFirst().tamanio() > 1) {
+                abrir(piezas.pollFirst());
+            }
+            if (piezas.size() < 2) {
+                return null;
+            }
+            ArrayDeque<Pieza<V>> prefijo = new ArrayDeque<>();
+            long tomados = 0;
+            do {
+                Pieza<V> pieza = piezas.pollFirst();
+                prefijo.addLast(pieza);
+                tomados += pieza.tamanio();
+            } while (piezas.size() > 1 && tomados + piezas.peekFirst().tamanio() <= restantes / 2);
+            restantes -= tomados;
+            return new Recorrido<>(prefijo, tomados);
+        }
+
+        @Override
+        public long estimateSize() {
+            return restantes;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+
+        private void abrir(Pieza<V> pieza) {
+            Nodo<V> nodo = pieza.nodo();
+            if (nodo.derecho != null) {
+                piezas.addFirst(new Pieza<>(nodo.derecho, false));
+            }
+            piezas.addFirst(new Pieza<>(nodo, true));
+            if (nodo.izquierdo != null) {
+                piezas.addFirst(new Pieza<>(nodo.izquierdo, false));
+            }
+        }
+    }
+
+    private static final class Nodo<V> {
+        final long clave;
+        final V valor;
+        final Nodo<V> izquierdo;
+        final Nodo<V> derecho;
+        final int altura;
+        final int tamanio;
+
+        Nodo(long clave, V valor, Nodo<V> izquierdo, Nodo<V> derecho) {
+            this.clave = clave;
+            this.valor = valor;
+            this.izquierdo = izquierdo;
+            this.derecho = derecho;
+            this.altura = Math.max(altura(izquierdo), altura(derecho)) + 1;
+            this.tamanio = tamanio(izquierdo) + tamanio(derecho) + 1;
+        }
+    }
+}
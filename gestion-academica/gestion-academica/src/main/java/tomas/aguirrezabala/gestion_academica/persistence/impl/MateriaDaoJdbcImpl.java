@@ -0,0 +1,158 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+
+@Repository
+@Profile("jdbc")
+public class MateriaDaoJdbcImpl implements MateriaDao {
+
+    private static final String SELECCIONAR = "SELECT m.id, m.nombre, m.anio, m.cuatrimestre, m.version, "
+            + "p.id AS profesor_id, p.nombre AS profesor_nombre, p.apellido AS profesor_apellido, p.titulo AS profesor_titulo "
+            + "FROM materia m LEFT JOIN profesor p ON p.id = m.profesor_id";
+
+    private final TablaJdbc materias = new TablaJdbc("materia", "nombre", "anio", "cuatrimestre", "profesor_id");
+    private final VinculoJdbc correlativas = new VinculoJdbc("materia_correlativa", "materia_id", "correlativa_id", "materia");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Override
+    @Transactional
+    public Materia guardar(Materia materia) {
+        Long profesorId = materia.getProfesor() != null ? materia.getProfesor().getId() : null;
+        try {
+            long id = materias.guardar(jdbc, materia, materia.getNombre(), materia.getAnio(),
+                    materia.getCuatrimestre(), profesorId);
+            materia.setId(id);
+        } catch (DuplicateKeyException e) {
+            throw new EntidadDuplicadaException("Materia", "nombre", materia.getNombre());
+        } catch (DataIntegrityViolationException e) {
+            throw new EntidadNoEncontradaException("Profesor", profesorId);
+        }
+        correlativas.reemplazar(jdbc, materia.getId(), materia.getCorrelatividades());
+        return materia;
+    }
+
+    @Override
+    public Optional<Materia> buscarPorId(Long materiaId) {
+        if (materiaId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE m.id = ?", materiaId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Materia> buscarPorNombre(String nombre) {
+        if (nombre == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE m.nombre = ?", nombre).stream().findFirst();
+    }
+
+    @Override
+    public boolean existePorCorrelativaId(Long correlativaId) {
+        return correlativas.existeDestino(jdbc, correlativaId);
+    }
+
+    @Override
+    public List<Materia> buscarAll() {
+        return buscar(SELECCIONAR + " ORDER BY m.id");
+    }
+
+    @Override
+    public List<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return buscar(SELECCIONAR + TablaJdbc.pagina("m.id", orden),
+                TablaJdbc.parametrosDePagina(despuesDeId, limite, orden));
+    }
+
+    @Override
+    public Stream<Materia> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Materia::getId);
+    }
+
+    /**
+     * Materias con sus correlatividades en dos consultas, para las listas de carreras,
+     * profesores y asignaturas. Los ids que no existen no aparecen en el resultado.
+     */
+    Map<Long, Materia> buscarPorIds(Collection<Long> materiaIds) {
+        Map<Long, Materia> porId = new LinkedHashMap<>();
+        if (materiaIds.isEmpty()) {
+            return porId;
+        }
+        for (Materia materia : buscar(SELECCIONAR + " WHERE m.id = ANY(?)", (Object) TablaJdbc.ids(materiaIds))) {
+            porId.put(materia.getId(), materia);
+        }
+        return porId;
+    }
+
+    @Override
+    @Transactional
+    public void borrarPorId(Long materiaId) {
+        try {
+            materias.borrar(jdbc, materiaId);
+        } catch (DataIntegrityViolationException e) {
+            if (existePorCorrelativaId(materiaId)) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque es correlativa de otras materias");
+            }
+            if (Boolean.TRUE.equals(jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM carrera_materia WHERE materia_id = ?)", Boolean.class, materiaId))) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque pertenece a una carrera");
+            }
+            if (Boolean.TRUE.equals(jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM asignatura WHERE materia_id = ?)", Boolean.class, materiaId))) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque tiene alumnos inscriptos");
+            }
+            throw e;
+        }
+    }
+
+    private List<Materia> buscar(String sql, Object... parametros) {
+        List<Materia> encontradas = jdbc.query(sql, (fila, numero) -> leer(fila), parametros);
+        if (encontradas.isEmpty()) {
+            return encontradas;
+        }
+        List<Long> ids = new ArrayList<>(encontradas.size());
+        for (Materia materia : encontradas) {
+            ids.add(materia.getId());
+        }
+        Map<Long, List<Long>> correlativasPorMateria = correlativas.buscar(jdbc, ids);
+        for (Materia materia : encontradas) {
+            materia.setCorrelatividades(correlativasPorMateria.getOrDefault(materia.getId(), new ArrayList<>()));
+        }
+        return encontradas;
+    }
+
+    private static Materia leer(ResultSet fila) throws SQLException {
+        Long profesorId = fila.getObject("profesor_id", Long.class);
+        Profesor profesor = profesorId != null
+                ? new Profesor(profesorId, fila.getString("profesor_nombre"), fila.getString("profesor_apellido"),
+                        fila.getString("profesor_titulo"))
+                : null;
+        return TablaJdbc.conVersion(new Materia(fila.getLong("id"), fila.getString("nombre"),
+                fila.getObject("anio", Integer.class), fila.getObject("cuatrimestre", Integer.class), profesor), fila);
+    }
+}
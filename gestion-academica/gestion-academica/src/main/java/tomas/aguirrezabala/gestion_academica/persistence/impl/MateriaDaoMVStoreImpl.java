@@ -0,0 +1,195 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.type.LongDataType;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerEntero;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerId;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+@Repository
+@Profile("mvstore")
+public class MateriaDaoMVStoreImpl implements MateriaDao {
+
+    static final MapaMVStore<Materia> MATERIAS = new MapaMVStore<>("materia", new CodificadorMateria());
+    private static final IndiceMVStore<String> POR_NOMBRE = new IndiceMVStore<>("materia.nombre",
+            StringDataType.INSTANCE);
+    /** Correlativa -> materias que la piden; sólo las correlativas que existían al guardar. */
+    private static final IndiceMVStore<Long> POR_CORRELATIVA = new IndiceMVStore<>("materia.correlativa",
+            LongDataType.INSTANCE);
+
+    @Autowired
+    private BaseMVStore base;
+
+    @Override
+    public Materia guardar(Materia materia) {
+        Long idOriginal = materia.getId();
+        Long versionOriginal = materia.getVersion();
+        materia.setId(base.asignarId(MATERIAS.nombre(), idOriginal));
+        try {
+            base.escribir(transaccion -> {
+                Materia anterior = MATERIAS.bloquear(transaccion, materia.getId());
+                materia.setVersion(Versiones.siguiente(materia, anterior));
+                POR_NOMBRE.reservar(transaccion, anterior != null ? anterior.getNombre() : null, materia.getNombre(),
+                        materia.getId(), "Materia", "nombre");
+                List<Long> correlativas = materia.getCorrelatividades() != null
+                        ? MATERIAS.bloquearExistentes(transaccion, materia.getCorrelatividades())
+                        : List.of();
+                POR_CORRELATIVA.mover(transaccion, anterior != null ? anterior.getCorrelatividades() : List.of(),
+                        correlativas, materia.getId());
+                MATERIAS.escribir(transaccion, materia);
+                return materia;
+            });
+        } catch (RuntimeException e) {
+            materia.setId(idOriginal);
+            materia.setVersion(versionOriginal);
+            throw e;
+        }
+        return materia;
+    }
+
+    @Override
+    public Optional<Materia> buscarPorId(Long materiaId) {
+        return base.leer(transaccion -> Optional.ofNullable(MATERIAS.leer(transaccion, materiaId))
+                .map(materia -> completar(transaccion, materia, new HashMap<>())));
+    }
+
+    @Override
+    public Optional<Materia> buscarPorNombre(String nombre) {
+        return base.leer(transaccion -> {
+            long[] ids = POR_NOMBRE.buscar(transaccion, nombre);
+            return ids.length > 0
+                    ? Optional.ofNullable(MATERIAS.leer(transaccion, ids[0]))
+                            .map(materia -> completar(transaccion, materia, new HashMap<>()))
+                    : Optional.<Materia>empty();
+        });
+    }
+
+    @Override
+    public boolean existePorCorrelativaId(Long correlativaId) {
+        return base.leer(transaccion -> POR_CORRELATIVA.existe(transaccion, correlativaId));
+    }
+
+    @Override
+    public List<Materia> buscarAll() {
+        return base.leer(transaccion -> completar(transaccion, MATERIAS.leerTodos(transaccion)));
+    }
+
+    @Override
+    public List<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return base.leer(transaccion -> completar(transaccion,
+                MATERIAS.leerPagina(transaccion, despuesDeId, limite, orden)));
+    }
+
+    @Override
+    public Stream<Materia> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Materia::getId);
+    }
+
+    @Override
+    public void borrarPorId(Long materiaId) {
+        base.escribir(transaccion -> {
+            Materia anterior = MATERIAS.bloquear(transaccion, materiaId);
+            if (anterior == null) {
+                return null;
+            }
+            if (POR_CORRELATIVA.existe(transaccion, materiaId)) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque es correlativa de otras materias");
+            }
+            if (CarreraDaoMVStoreImpl.POR_MATERIA.existe(transaccion, materiaId)) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque pertenece a una carrera");
+            }
+            if (AsignaturaDaoMVStoreImpl.POR_MATERIA.existe(transaccion, materiaId)) {
+                throw new ReglaNegocioException("No se puede eliminar la materia porque tiene alumnos inscriptos");
+            }
+            POR_NOMBRE.quitar(transaccion, anterior.getNombre(), materiaId);
+            POR_CORRELATIVA.mover(transaccion, anterior.getCorrelatividades(), List.of(), materiaId);
+            MATERIAS.borrar(transaccion, materiaId);
+            return null;
+        });
+    }
+
+    /**
+     * Materias completas dentro de una lectura de otro DAO (carreras, profesores,
+     * asignaturas). Los ids que no existen no aparecen en el resultado.
+     */
+    Map<Long, Materia> leerVarios(Transaction transaccion, Collection<Long> materiaIds) {
+        Map<Long, Materia> porId = MATERIAS.leerVarios(transaccion, materiaIds);
+        Map<Long, Profesor> profesores = new HashMap<>();
+        for (Materia materia : porId.values()) {
+            completar(transaccion, materia, profesores);
+        }
+        return porId;
+    }
+
+    private static List<Materia> completar(Transaction transaccion, List<Materia> materias) {
+        Map<Long, Profesor> profesores = new HashMap<>();
+        for (Materia materia : materias) {
+            completar(transaccion, materia, profesores);
+        }
+        return materias;
+    }
+
+    /**
+     * El profesor vuelve sin sus materias; se lee una sola vez por lectura.
+     */
+    private static Materia completar(Transaction transaccion, Materia materia, Map<Long, Profesor> profesores) {
+        if (materia.getProfesor() != null) {
+            materia.setProfesor(profesores.computeIfAbsent(materia.getProfesor().getId(),
+                    profesorId -> ProfesorDaoMVStoreImpl.leerSinMaterias(transaccion, profesorId)));
+        }
+        return materia;
+    }
+
+    private static final class CodificadorMateria implements Codificador<Materia> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Materia materia) throws IOException {
+            salida.writeLong(materia.getId());
+            escribirTexto(salida, materia.getNombre());
+            escribirEntero(salida, materia.getAnio());
+            escribirEntero(salida, materia.getCuatrimestre());
+            escribirId(salida, materia.getProfesor());
+            escribirIds(salida, materia.getCorrelatividades());
+            escribirVersion(salida, materia);
+        }
+
+        @Override
+        public Materia leer(DataInputStream entrada) throws IOException {
+            Materia materia = new Materia(entrada.readLong(), leerTexto(entrada), leerEntero(entrada), leerEntero(entrada));
+            Long profesorId = leerId(entrada);
+            if (profesorId != null) {
+                materia.setProfesor(new Profesor(profesorId, null, null, null));
+            }
+            materia.setCorrelatividades(leerIds(entrada));
+            return leerVersion(entrada, materia);
+        }
+    }
+}
@@ -1,45 +1,73 @@
 package tomas.aguirrezabala.gestion_academica.persistence.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
 
 
 @Repository
+@Profile("!jdbc & !mvstore")
 public class MateriaDaoMemoryImpl implements MateriaDao {
     
-    private final Map<Long, Materia> materias = new HashMap<>();
-    private final AtomicLong ultimoId = new AtomicLong(0);
+    private final AlmacenEnMemoria<Materia> materias = new AlmacenEnMemoria<>(Materia::getId, Materia::setId);
+    private final IndiceUnico<Materia, String> porNombre = materias.agregarIndiceUnico(Materia::getNombre, "Materia", "nombre");
+    private final Referencia<Materia> referenciasACorrelativas = materias.agregarReferencias(
+            Materia::getCorrelatividades, "Materia correlativa");
+    
+    public MateriaDaoMemoryImpl() {
+        materias.compartirTexto(Materia::getNombre, Materia::setNombre);
+        referenciasACorrelativas.vincular(materias, false, 
+                "No se puede eliminar la materia porque es correlativa de otras materias");
+    }
+    
+    AlmacenEnMemoria<Materia> almacen() {
+        return materias;
+    }
     
     @Override
     public Materia guardar(Materia materia) {
-        if (materia.getId() == null) {
-            materia.setId(ultimoId.incrementAndGet());
-        }
-        materias.put(materia.getId(), materia);
-        return materia;
+        return materias.guardar(materia);
     }
     
     @Override
     public Optional<Materia> buscarPorId(Long materiaId) {
-        return Optional.ofNullable(materias.get(materiaId));
+        return materias.buscarPorId(materiaId);
+    }
+    
+    @Override
+    public Optional<Materia> buscarPorNombre(String nombre) {
+        return materias.buscarPorClaveUnica(porNombre, nombre);
+    }
+    
+    @Override
+    public boolean existePorCorrelativaId(Long correlativaId) {
+        return referenciasACorrelativas.contar(correlativaId) > 0;
     }
     
     @Override
     public List<Materia> buscarAll() {
-        return new ArrayList<>(materias.values());
+        return materias.buscarTodos();
+    }
+    
+    @Override
+    public List<Materia> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return materias.buscarPagina(despuesDeId, limite, orden);
+    }
+    
+    @Override
+    public Stream<Materia> recorrer() {
+        return materias.recorrer();
     }
     
     @Override
     public void borrarPorId(Long materiaId) {
-        materias.remove(materiaId);
+        materias.borrarPorId(materiaId);
     }
 }
\ No newline at end of file
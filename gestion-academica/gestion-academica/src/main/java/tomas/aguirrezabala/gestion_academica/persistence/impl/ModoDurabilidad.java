@@ -0,0 +1,13 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+/**
+ * Cuándo se considera durable una escritura de la {@link Bitacora}.
+ */
+public enum ModoDurabilidad {
+    /** Cada operación se escribe y se fuerza a disco antes de devolver. */
+    SINCRONO,
+    /** Las operaciones concurrentes se agrupan en un único fsync; quien escribe espera a ese fsync. */
+    GRUPO,
+    /** Se devuelve sin esperar; un hilo escribe y fuerza a disco en segundo plano. */
+    ASINCRONO
+}
@@ -0,0 +1,114 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
+
+@Repository
+@Profile("jdbc")
+public class ProfesorDaoJdbcImpl implements ProfesorDao {
+
+    private static final String SELECCIONAR = "SELECT id, nombre, apellido, titulo, version FROM profesor";
+
+    private final TablaJdbc profesores = new TablaJdbc("profesor", "nombre", "apellido", "titulo");
+    private final VinculoJdbc materias = new VinculoJdbc("profesor_materia", "profesor_id", "materia_id", "materia");
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MateriaDaoJdbcImpl materiaDao;
+
+    @Override
+    @Transactional
+    public Profesor guardar(Profesor profesor) {
+        try {
+            long id = profesores.guardar(jdbc, profesor, profesor.getNombre(), profesor.getApellido(),
+                    profesor.getTitulo());
+            profesor.setId(id);
+        } catch (DuplicateKeyException e) {
+            throw new EntidadDuplicadaException("Profesor", "nombre y apellido",
+                    profesor.getNombre() + " " + profesor.getApellido());
+        }
+        materias.reemplazar(jdbc, profesor.getId(), profesor.getMaterias() != null
+                ? profesor.getMaterias().stream().map(Materia::getId).toList()
+                : List.of());
+        return profesor;
+    }
+
+    @Override
+    public Optional<Profesor> buscarPorId(Long profesorId) {
+        if (profesorId == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE id = ?", profesorId).stream().findFirst();
+    }
+
+    @Override
+    public Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido) {
+        if (nombre == null || apellido == null) {
+            return Optional.empty();
+        }
+        return buscar(SELECCIONAR + " WHERE nombre = ? AND apellido = ?", nombre, apellido).stream().findFirst();
+    }
+
+    @Override
+    public List<Profesor> buscarAll() {
+        return buscar(SELECCIONAR + " ORDER BY id");
+    }
+
+    @Override
+    public List<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return buscar(SELECCIONAR + TablaJdbc.pagina("id", orden),
+                TablaJdbc.parametrosDePagina(despuesDeId, limite, orden));
+    }
+
+    @Override
+    public Stream<Profesor> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Profesor::getId);
+    }
+
+    @Override
+    @Transactional
+    public void borrarPorId(Long profesorId) {
+        profesores.borrar(jdbc, profesorId);
+    }
+
+    private List<Profesor> buscar(String sql, Object... parametros) {
+        List<Profesor> encontrados = jdbc.query(sql, (fila, numero) -> TablaJdbc.conVersion(new Profesor(fila.getLong("id"),
+                fila.getString("nombre"), fila.getString("apellido"), fila.getString("titulo")), fila), parametros);
+        if (encontrados.isEmpty()) {
+            return encontrados;
+        }
+        Map<Long, List<Long>> materiaIdsPorProfesor = materias.buscar(jdbc,
+                encontrados.stream().map(Profesor::getId).toList());
+        Map<Long, Materia> materiasPorId = materiaDao.buscarPorIds(
+                materiaIdsPorProfesor.values().stream().flatMap(List::stream).toList());
+        for (Profesor profesor : encontrados) {
+            List<Materia> suyas = new ArrayList<>();
+            for (Long materiaId : materiaIdsPorProfesor.getOrDefault(profesor.getId(), List.of())) {
+                Materia materia = materiasPorId.get(materiaId);
+                if (materia != null) {
+                    suyas.add(materia);
+                }
+            }
+            profesor.setMaterias(suyas);
+        }
+        return encontrados;
+    }
+}
@@ -0,0 +1,182 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.h2.mvstore.tx.Transaction;
+import org.h2.mvstore.type.StringDataType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
+
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.escribirVersion;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerIds;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerTexto;
+import static tomas.aguirrezabala.gestion_academica.persistence.impl.Codificador.leerVersion;
+
+@Repository
+@Profile("mvstore")
+public class ProfesorDaoMVStoreImpl implements ProfesorDao {
+
+    static final MapaMVStore<Profesor> PROFESORES = new MapaMVStore<>("profesor", new CodificadorProfesor());
+    private static final IndiceMVStore<String> POR_NOMBRE_Y_APELLIDO = new IndiceMVStore<>(
+            "profesor.nombre_apellido", StringDataType.INSTANCE);
+
+    @Autowired
+    private BaseMVStore base;
+
+    @Autowired
+    private MateriaDaoMVStoreImpl materiaDao;
+
+    @Override
+    public Profesor guardar(Profesor profesor) {
+        Long idOriginal = profesor.getId();
+        Long versionOriginal = profesor.getVersion();
+        profesor.setId(base.asignarId(PROFESORES.nombre(), idOriginal));
+        try {
+            base.escribir(transaccion -> {
+                Profesor anterior = PROFESORES.bloquear(transaccion, profesor.getId());
+                profesor.setVersion(Versiones.siguiente(profesor, anterior));
+                POR_NOMBRE_Y_APELLIDO.reservar(transaccion, claveDe(anterior), claveDe(profesor), profesor.getId(),
+                        "Profesor", "nombre y apellido");
+                PROFESORES.escribir(transaccion, profesor);
+                return profesor;
+            });
+        } catch (RuntimeException e) {
+            profesor.setId(idOriginal);
+            profesor.setVersion(versionOriginal);
+            throw e;
+        }
+        return profesor;
+    }
+
+    @Override
+    public Optional<Profesor> buscarPorId(Long profesorId) {
+        return base.leer(transaccion -> Optional.ofNullable(PROFESORES.leer(transaccion, profesorId))
+                .map(profesor -> completar(transaccion, profesor)));
+    }
+
+    @Override
+    public Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido) {
+        if (nombre == null || apellido == null) {
+            return Optional.empty();
+        }
+        return base.leer(transaccion -> {
+            long[] ids = POR_NOMBRE_Y_APELLIDO.buscar(transaccion, nombre + '\0' + apellido);
+            return ids.length > 0
+                    ? Optional.ofNullable(PROFESORES.leer(transaccion, ids[0])).map(profesor -> completar(transaccion, profesor))
+                    : Optional.<Profesor>empty();
+        });
+    }
+
+    @Override
+    public List<Profesor> buscarAll() {
+        return base.leer(transaccion -> completar(transaccion, PROFESORES.leerTodos(transaccion)));
+    }
+
+    @Override
+    public List<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return base.leer(transaccion -> completar(transaccion,
+                PROFESORES.leerPagina(transaccion, despuesDeId, limite, orden)));
+    }
+
+    @Override
+    public Stream<Profesor> recorrer() {
+        return RecorridoPaginado.stream(this::buscarPagina, Profesor::getId);
+    }
+
+    @Override
+    public void borrarPorId(Long profesorId) {
+        base.escribir(transaccion -> {
+            Profesor anterior = PROFESORES.bloquear(transaccion, profesorId);
+            if (anterior != null) {
+                POR_NOMBRE_Y_APELLIDO.quitar(transaccion, claveDe(anterior), profesorId);
+                PROFESORES.borrar(transaccion, profesorId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Profesor sin sus materias, como lo ven las materias que dicta.
+     */
+    static Profesor leerSinMaterias(Transaction transaccion, Long profesorId) {
+        Profesor profesor = PROFESORES.leer(transaccion, profesorId);
+        if (profesor != null) {
+            profesor.setMaterias(new ArrayList<>());
+        }
+        return profesor;
+    }
+
+    private List<Profesor> completar(Transaction transaccion, List<Profesor> profesores) {
+        Map<Long, Materia> materias = materiaDao.leerVarios(transaccion,
+                profesores.stream().flatMap(profesor -> profesor.getMaterias().stream()).map(Materia::getId).toList());
+        for (Profesor profesor : profesores) {
+            profesor.setMaterias(resolver(profesor.getMaterias(), materias));
+        }
+        return profesores;
+    }
+
+    private Profesor completar(Transaction transaccion, Profesor profesor) {
+        Map<Long, Materia> materias = materiaDao.leerVarios(transaccion,
+                profesor.getMaterias().stream().map(Materia::getId).toList());
+        profesor.setMaterias(resolver(profesor.getMaterias(), materias));
+        return profesor;
+    }
+
+    private static List<Materia> resolver(List<Materia> soloIds, Map<Long, Materia> materias) {
+        List<Materia> resueltas = new ArrayList<>(soloIds.size());
+        for (Materia materia : soloIds) {
+            Materia resuelta = materias.get(materia.getId());
+            if (resuelta != null) {
+                resueltas.add(resuelta);
+            }
+        }
+        return resueltas;
+    }
+
+    private static String claveDe(Profesor profesor) {
+        return profesor != null && profesor.getNombre() != null && profesor.getApellido() != null
+                ? profesor.getNombre() + '\0' + profesor.getApellido()
+                : null;
+    }
+
+    private static final class CodificadorProfesor implements Codificador<Profesor> {
+
+        @Override
+        public void escribir(DataOutputStream salida, Profesor profesor) throws IOException {
+            salida.writeLong(profesor.getId());
+            escribirTexto(salida, profesor.getNombre());
+            escribirTexto(salida, profesor.getApellido());
+            escribirTexto(salida, profesor.getTitulo());
+            escribirIds(salida, profesor.getMaterias() != null
+                    ? profesor.getMaterias().stream().map(Materia::getId).toList()
+                    : null);
+            escribirVersion(salida, profesor);
+        }
+
+        @Override
+        public Profesor leer(DataInputStream entrada) throws IOException {
+            Profesor profesor = new Profesor(entrada.readLong(), leerTexto(entrada), leerTexto(entrada), leerTexto(entrada));
+            List<Materia> materias = new ArrayList<>();
+            for (Long materiaId : leerIds(entrada)) {
+                materias.add(new Materia(materiaId, null, null, null));
+            }
+            profesor.setMaterias(materias);
+            return leerVersion(entrada, profesor);
+        }
+    }
+}
@@ -1,45 +1,84 @@
 package tomas.aguirrezabala.gestion_academica.persistence.impl;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
+import tomas.aguirrezabala.gestion_academica.model.Orden;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
 
 @Repository
+@Profile("!jdbc & !mvstore")
 public class ProfesorDaoMemoryImpl implements ProfesorDao {
     
-    private final Map<Long, Profesor> profesores = new HashMap<>();
-    private final AtomicLong ultimoId = new AtomicLong(0);
+    private final AlmacenEnMemoria<Profesor> profesores = new AlmacenEnMemoria<>(Profesor::getId, Profesor::setId);
+    private final IndiceUnico<Profesor, NombreYApellido> porNombreYApellido = profesores.agregarIndiceUnico(
+            NombreYApellido::de, "Profesor", "nombre y apellido");
+
+    public ProfesorDaoMemoryImpl() {
+        profesores.compartirTexto(Profesor::getNombre, Profesor::setNombre);
+        profesores.compartirTexto(Profesor::getApellido, Profesor::setApellido);
+        profesores.compartirTexto(Profesor::getTitulo, Profesor::setTitulo);
+    }
+    
+    AlmacenEnMemoria<Profesor> almacen() {
+        return profesores;
+    }
     
     @Override
     public Profesor guardar(Profesor profesor) {
-        if (profesor.getId() == null) {
-            profesor.setId( ultimoId.incrementAndGet());
-        }
-        profesores.put(profesor.getId(), profesor);
-        return profesor;
+        return profesores.guardar(profesor);
     }
     
     @Override
     public Optional<Profesor> buscarPorId(Long profesorId) {
-        return Optional.ofNullable(profesores.get(profesorId));
+        return profesores.buscarPorId(profesorId);
+    }
+    
+    @Override
+    public Optional<Profesor> buscarPorNombreYApellido(String nombre, String apellido) {
+        if (nombre == null || apellido == null) {
+            return Optional.empty();
+        }
+        return profesores.buscarPorClaveUnica(porNombreYApellido, new NombreYApellido(nombre, apellido));
     }
     
     @Override
     public List<Profesor> buscarAll() {
-        return new ArrayList<>(profesores.values());
+        return profesores.buscarTodos();
     }
     
     @Override
-    public void borrarPorId(Long profesorId) {
-        profesores.remove(profesorId);
+    public List<Profesor> buscarPagina(Long despuesDeId, int limite, Orden orden) {
+        return profesores.buscarPagina(despuesDeId, limite, orden);
+    }
+    
+    @Override
+    public Stream<Profesor> recorrer() {
+        return profesores.recorrer();
     }
     
+    @Override
+    public void borrarPorId(Long profesorId) {
+        profesores.borrarPorId(profesorId);
+    }
+
+    private record NombreYApellido(String nombre, String apellido) {
+
+        static NombreYApellido de(Profesor profesor) {
+            if (profesor.getNombre() == null || profesor.getApellido() == null) {
+                return null;
+            }
+            return new NombreYApellido(profesor.getNombre(), profesor.getApellido());
+        }
+
+        @Override
+        public String toString() {
+            return nombre + " " + apellido;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Lado réplica: con {@code gestion-academica.replicacion.lider} ({@code host:puerto}) se
+ * conecta al {@link EmisorDeBitacora} del líder y aplica a los almacenes en memoria cada
+ * registro que recibe, en orden. Si la conexión se corta vuelve a conectarse y pide desde
+ * la última posición aplicada. La réplica arranca vacía y recibe la bitácora completa.
+ */
+@Component
+@Profile("!jdbc & !mvstore")
+public class ReceptorDeBitacora {
+
+    private static final Logger log = LoggerFactory.getLogger(ReceptorDeBitacora.class);
+
+    private static final Duration REINTENTO = Duration.ofSeconds(1);
+
+    @Value("${gestion-academica.replicacion.lider:}")
+    private String lider;
+
+    @Autowired
+    private BitacoraDeDaos bitacoraDeDaos;
+
+    private final Object avance = new Object();
+    /** Posición de la bitácora del líder hasta la que ya se aplicó todo. */
+    private long aplicada;
+    private volatile boolean corriendo;
+    private volatile Socket conexion;
+    private Thread receptor;
+
+    @PostConstruct
+    void iniciar() {
+        if (lider == null || lider.isBlank()) {
+            return;
+        }
+        int separador = lider.lastIndexOf(':');
+        if (separador < 1) {
+            throw new IllegalStateException("gestion-academica.replicacion.lider debe ser host:puerto: " + lider);
+        }
+        InetSocketAddress direccion = new InetSocketAddress(lider.substring(0, separador),
+                Integer.parseInt(lider.substring(separador + 1).trim()));
+        corriendo = true;
+        receptor = new Thread(() -> recibir(direccion), "receptor-bitacora");
+        receptor.setDaemon(true);
+        receptor.start();
+    }
+
+    @PreDestroy
+    void cerrar() throws IOException {
+        if (receptor == null) {
+            return;
+        }
+        corriendo = false;
+        Socket actual = conexion;
+        if (actual != null) {
+            actual.close();
+        }
+        receptor.interrupt();
+    }
+
+    public boolean activo() {
+        return receptor != null;
+    }
+
+    public long aplicada() {
+        synchronized (avance) {
+            return aplicada;
+        }
+    }
+
+    /**
+     * Espera a que la réplica haya aplicado la bitácora del líder al menos hasta
+     * {@code posicion}; devuelve false si no llegó a tiempo.
+     */
+    public boolean esperarHasta(long posicion, Duration espera) throws InterruptedException {
+        synchronized (avance) {
+            long limite = System.nanoTime() + espera.toNanos();
+            long restante;
+            while (aplicada < posicion && (restante = limite - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(avance, restante);
+            }
+            return aplicada >= posicion;
+        }
+    }
+
+    private void recibir(InetSocketAddress direccion) {
+        while (corriendo) {
+            try (Socket socket = new Socket()) {
+                conexion = socket;
+                socket.connect(direccion, (int) REINTENTO.toMillis() * 5);
+                DataOutputStream salida = new DataOutputStream(socket.getOutputStream());
+                salida.writeLong(aplicada());
+                salida.flush();
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                log.info("Réplica conectada a {} desde la posición {}", direccion, aplicada());
+                while (corriendo) {
+                    int longitud = entrada.readInt();
+                    int crc = entrada.readInt();
+                    byte[] datos = new byte[longitud];
+                    entrada.readFully(datos);
+                    if (Bitacora.crc32(datos) != crc) {
+                        throw new IOException("Registro corrupto en la posición " + aplicada());
+                    }
+                    bitacoraDeDaos.aplicar(datos);
+                    synchronized (avance) {
+                        aplicada += Bitacora.CABECERA + longitud;
+                        avance.notifyAll();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (corriendo) {
+                    log.warn("Se cortó la bitácora de {} en la posición {}: {}", direccion, aplicada(), e.toString());
+                }
+            } finally {
+                conexion = null;
+            }
+            try {
+                Thread.sleep(REINTENTO.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+
+/**
+ * Stream perezoso sobre {@code buscarPagina} de un DAO: trae una página por id recién
+ * cuando se terminó la anterior, así un anyMatch o un findFirst sólo leen lo que
+ * necesitan. Cada página es una lectura consistente y el cursor por id garantiza que
+ * no se repitan ni salteen filas que existían durante todo el recorrido.
+ */
+final class RecorridoPaginado<T> implements Iterator<T> {
+
+    static final int TAMANIO_PAGINA = 256;
+
+    /**
+     * Trae hasta {@code limite} filas con id posterior a {@code despuesDeId}, en orden.
+     */
+    @FunctionalInterface
+    interface LectorDePaginas<T> {
+        List<T> leer(Long despuesDeId, int limite, Orden orden);
+    }
+
+    private final LectorDePaginas<T> lector;
+    private final Function<T, Long> obtenerId;
+    private List<T> pagina = List.of();
+    private int posicion;
+    private Long cursor;
+    private boolean ultima;
+
+    private RecorridoPaginado(LectorDePaginas<T> lector, Function<T, Long> obtenerId) {
+        this.lector = lector;
+        this.obtenerId = obtenerId;
+    }
+
+    /**
+     * Los lotes que arma el spliterator al partir permiten recorrerlo en paralelo.
+     */
+    static <T> Stream<T> stream(LectorDePaginas<T> lector, Function<T, Long> obtenerId) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new RecorridoPaginado<>(lector, obtenerId),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.DISTINCT), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (posicion < pagina.size()) {
+            return true;
+        }
+        if (ultima) {
+            return false;
+        }
+        pagina = lector.leer(cursor, TAMANIO_PAGINA, Orden.ASCENDENTE);
+        posicion = 0;
+        ultima = pagina.size() < TAMANIO_PAGINA;
+        if (!pagina.isEmpty()) {
+            cursor = obtenerId.apply(pagina.get(pagina.size() - 1));
+        }
+        return !pagina.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return pagina.get(posicion++);
+    }
+}
@@ -0,0 +1,114 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+
+/**
+ * Contador de referencias salientes de un almacén hacia otro (asignatura -> materia,
+ * materia -> correlativa, ...). Una vez vinculada, cada referencia se toma con el
+ * lock de la entidad destino, así el destino no puede borrarse mientras alguien
+ * lo esté referenciando.
+ */
+public class Referencia<T> {
+
+    private final Function<T, Collection<Long>> obtenerIds;
+    private final String entidadDestino;
+    private final MapaLong<Integer> cantidadPorDestino = new MapaLong<>();
+    private volatile AlmacenEnMemoria<?> destino;
+    private volatile boolean obligatoria;
+
+    Referencia(Function<T, Collection<Long>> obtenerIds, String entidadDestino) {
+        this.obtenerIds = obtenerIds;
+        this.entidadDestino = entidadDestino;
+    }
+
+    /**
+     * Obligatoria: guardar falla si el destino no existe. Si no, las referencias
+     * a ids inexistentes simplemente no se cuentan.
+     */
+    public void vincular(AlmacenEnMemoria<?> destino, boolean obligatoria, String mensajeAlBorrar) {
+        this.obligatoria = obligatoria;
+        this.destino = destino;
+        destino.agregarGuardaDeBorrado(this, mensajeAlBorrar);
+    }
+
+    public int contar(Long destinoId) {
+        Integer cantidad = destinoId != null ? cantidadPorDestino.buscar(destinoId) : null;
+        return cantidad != null ? cantidad : 0;
+    }
+
+    List<Long> retener(T entidad) {
+        List<Long> retenidos = new ArrayList<>();
+        Collection<Long> ids = obtenerIds.apply(entidad);
+        if (ids == null) {
+            return retenidos;
+        }
+        try {
+            for (Long destinoId : ids) {
+                if (destinoId == null) {
+                    continue;
+                }
+                AlmacenEnMemoria<?> almacenDestino = destino;
+                if (almacenDestino == null) {
+                    incrementar(destinoId);
+                    retenidos.add(destinoId);
+                } else if (almacenDestino.retener(destinoId, this)) {
+                    retenidos.add(destinoId);
+                } else if (obligatoria) {
+                    throw new EntidadNoEncontradaException(entidadDestino, destinoId);
+                }
+            }
+        } catch (RuntimeException e) {
+            liberar(retenidos);
+            throw e;
+        }
+        return retenidos;
+    }
+
+    /**
+     * Carga masiva: cuenta sólo los destinos que ya están en el almacén vinculado,
+     * sin exigir los obligatorios (la cola de la bitácora termina de ajustarlos).
+     */
+    void cargar(T entidad) {
+        Collection<Long> ids = obtenerIds.apply(entidad);
+        if (ids == null) {
+            return;
+        }
+        AlmacenEnMemoria<?> almacenDestino = destino;
+        for (Long destinoId : ids) {
+            if (destinoId != null && (almacenDestino == null || almacenDestino.contiene(destinoId))) {
+                incrementar(destinoId);
+            }
+        }
+    }
+
+    /**
+     * Suelta lo que retenía la versión reemplazada o borrada. Alcanza con volver a leer
+     * sus ids: un destino que no existía cuando se guardó no tiene contador, y como los
+     * ids no se reutilizan tampoco lo va a tener después.
+     */
+    void soltar(T versionAnterior) {
+        if (versionAnterior != null) {
+            liberar(obtenerIds.apply(versionAnterior));
+        }
+    }
+
+    void incrementar(Long destinoId) {
+        cantidadPorDestino.calcular(destinoId, (clave, cantidad) -> cantidad != null ? cantidad + 1 : 1);
+    }
+
+    void liberar(Collection<Long> destinoIds) {
+        if (destinoIds == null) {
+            return;
+        }
+        for (Long destinoId : destinoIds) {
+            if (destinoId != null) {
+                cantidadPorDestino.calcularSiPresente(destinoId, (clave, cantidad) -> cantidad > 1 ? cantidad - 1 : null);
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids intercalados entre nodos y repartidos por bloques entre hilos (hi/lo).
+ * El k-ésimo id del nodo es {@code k * nodos + nodo + 1}, así cada instancia usa su propia
+ * clase de resto y no hace falta coordinarlas; con un solo nodo los ids son 1, 2, 3...
+ * Cada hilo se lleva {@code bloque} valores de k del contador compartido y los entrega sin
+ * tocarlo, de modo que una carga masiva casi no compite por él. Con bloques mayores a 1 los
+ * ids de hilos distintos quedan sólo aproximadamente en orden de llegada, y un bloque sin
+ * terminar deja un hueco.
+ */
+public final class SecuenciaPorBloques implements GeneradorDeIds {
+
+    private final int nodo;
+    private final int nodos;
+    private final int bloque;
+    /** Próximo k que nadie se llevó. */
+    private final AtomicLong proximo = new AtomicLong();
+    /** Los k menores a este quedaron por debajo de un id explícito y no se entregan. */
+    private volatile long piso;
+    /** Bloque del hilo: {siguiente k, fin exclusivo}. */
+    private final ThreadLocal<long[]> reservado = ThreadLocal.withInitial(() -> new long[2]);
+
+    public SecuenciaPorBloques() {
+        this(0, 1, 1);
+    }
+
+    public SecuenciaPorBloques(int nodo, int nodos, int bloque) {
+        if (nodos < 1 || nodo < 0 || nodo >= nodos) {
+            throw new IllegalArgumentException("El nodo debe estar entre 0 y " + (nodos - 1) + ": " + nodo);
+        }
+        if (bloque < 1) {
+            throw new IllegalArgumentException("El bloque de ids debe ser al menos 1: " + bloque);
+        }
+        this.nodo = nodo;
+        this.nodos = nodos;
+        this.bloque = bloque;
+    }
+
+    @Override
+    public long siguiente() {
+        if (bloque == 1) {
+            return id(proximo.getAndIncrement());
+        }
+        long[] rango = reservado.get();
+        long k = Math.max(rango[0], piso);
+        if (k >= rango[1]) {
+            k = proximo.getAndAdd(bloque);
+            rango[1] = k + bloque;
+        }
+        rango[0] = k + 1;
+        return id(k);
+    }
+
+    @Override
+    public void avanzarHasta(long id) {
+        long k = Math.floorDiv(id - nodo - 1, nodos) + 1;
+        if (k > piso) {
+            synchronized (this) {
+                piso = Math.max(piso, k);
+            }
+        }
+        proximo.accumulateAndGet(k, Math::max);
+    }
+
+    @Override
+    public long ultimo() {
+        long k = proximo.get();
+        return k > 0 ? id(k - 1) : 0;
+    }
+
+    private long id(long k) {
+        return k * nodos + nodo + 1;
+    }
+}
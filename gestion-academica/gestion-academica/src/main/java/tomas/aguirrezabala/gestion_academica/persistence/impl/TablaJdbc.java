@@ -0,0 +1,166 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+
+/**
+ * Alta, modificación y baja de las filas de una tabla con id de identidad, compartido
+ * por los DAOs JDBC. Las sentencias se arman una sola vez: con el mismo texto SQL H2
+ * reutiliza el comando ya preparado en cada conexión.
+ * Cada tabla tiene una columna {@code version} que las altas dejan en 1 y cada UPDATE
+ * avanza en la misma sentencia.
+ */
+final class TablaJdbc {
+
+    private final String entidad;
+    private final String insertar;
+    private final String insertarConId;
+    private final String actualizar;
+    private final String actualizarVersion;
+    private final String leerVersion;
+    private final String borrar;
+
+    TablaJdbc(String tabla, String... columnas) {
+        String lista = String.join(", ", columnas);
+        String marcadores = String.join(", ", Arrays.stream(columnas).map(columna -> "?").toList());
+        this.entidad = Character.toUpperCase(tabla.charAt(0)) + tabla.substring(1);
+        this.insertar = "INSERT INTO " + tabla + " (" + lista + ") VALUES (" + marcadores + ")";
+        this.insertarConId = "INSERT INTO " + tabla + " (" + lista + ", id) VALUES (" + marcadores + ", ?)";
+        String update = "UPDATE " + tabla + " SET "
+                + String.join(", ", Arrays.stream(columnas).map(columna -> columna + " = ?").toList())
+                + ", version = version + 1 WHERE id = ?";
+        // FINAL TABLE devuelve la versión que dejó el UPDATE sin una segunda lectura.
+        this.actualizar = "SELECT version FROM FINAL TABLE (" + update + ")";
+        this.actualizarVersion = "SELECT version FROM FINAL TABLE (" + update + " AND version = ?)";
+        this.leerVersion = "SELECT version FROM " + tabla + " WHERE id = ?";
+        this.borrar = "DELETE FROM " + tabla + " WHERE id = ?";
+    }
+
+    /**
+     * Inserta la fila si no tiene id (o si el id no existe) y si no la actualiza; le
+     * deja a la entidad su nueva versión y devuelve el id. Si la entidad trae versión
+     * el UPDATE sólo toca la fila que sigue en esa versión, así comparar y avanzar es
+     * una sola sentencia; si no la encuentra sale ConflictoDeVersionException. Una
+     * restricción única violada sale como DuplicateKeyException.
+     */
+    long guardar(JdbcTemplate jdbc, Entidad entidad, Object... valores) {
+        Long id = entidad.getId();
+        Long esperada = entidad.getVersion();
+        if (id == null) {
+            long generado = insertar(jdbc, valores);
+            entidad.setVersion(1L);
+            return generado;
+        }
+        Object[] conId = Arrays.copyOf(valores, valores.length + 1);
+        conId[valores.length] = id;
+        while (true) {
+            List<Long> versiones = esperada != null
+                    ? jdbc.queryForList(actualizarVersion, Long.class, conVersion(conId, esperada))
+                    : jdbc.queryForList(actualizar, Long.class, conId);
+            if (!versiones.isEmpty()) {
+                entidad.setVersion(versiones.get(0));
+                return id;
+            }
+            if (esperada != null) {
+                List<Long> actual = jdbc.queryForList(leerVersion, Long.class, id);
+                throw new ConflictoDeVersionException(this.entidad, id, esperada,
+                        actual.isEmpty() ? null : actual.get(0));
+            }
+            try {
+                jdbc.update(insertarConId, conId);
+                entidad.setVersion(1L);
+                return id;
+            } catch (DuplicateKeyException e) {
+                // Otro hilo insertó el mismo id entre el UPDATE y el INSERT: ahora se actualiza.
+                if (!esClavePrimaria(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Para armar la entidad leída de una fila que incluye la columna {@code version}.
+     */
+    static <E extends Entidad> E conVersion(E entidad, ResultSet fila) throws SQLException {
+        entidad.setVersion(fila.getLong("version"));
+        return entidad;
+    }
+
+    private static Object[] conVersion(Object[] conId, long version) {
+        Object[] parametros = Arrays.copyOf(conId, conId.length + 1);
+        parametros[conId.length] = version;
+        return parametros;
+    }
+
+    boolean borrar(JdbcTemplate jdbc, Long id) {
+        return id != null && jdbc.update(borrar, id) > 0;
+    }
+
+    private long insertar(JdbcTemplate jdbc, Object[] valores) {
+        while (true) {
+            KeyHolder clave = new GeneratedKeyHolder();
+            try {
+                jdbc.update(conexion -> {
+                    PreparedStatement sentencia = conexion.prepareStatement(insertar, Statement.RETURN_GENERATED_KEYS);
+                    for (int i = 0; i < valores.length; i++) {
+                        sentencia.setObject(i + 1, valores[i]);
+                    }
+                    return sentencia;
+                }, clave);
+                return Objects.requireNonNull(clave.getKey(), "La base no devolvió el id generado").longValue();
+            } catch (DuplicateKeyException e) {
+                // Un alta con id explícito no mueve la identidad; si el id generado ya
+                // está ocupado se pide el siguiente, igual que el almacén en memoria.
+                if (!esClavePrimaria(e)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static boolean esClavePrimaria(DuplicateKeyException e) {
+        String mensaje = e.getMostSpecificCause().getMessage();
+        return mensaje != null && mensaje.contains("PRIMARY KEY ON");
+    }
+
+    /**
+     * Parámetro para {@code = ANY(?)}: el texto SQL no cambia con la cantidad de ids,
+     * así que un solo comando preparado sirve para cualquier conjunto.
+     */
+    static Long[] ids(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().toArray(Long[]::new);
+    }
+
+    /**
+     * Condición y orden de una página por id, para agregar al SELECT. Sin cursor se usa
+     * el extremo del rango, así la primera página comparte el comando preparado.
+     */
+    static String pagina(String columnaId, Orden orden) {
+        return orden == Orden.DESCENDENTE
+                ? " WHERE " + columnaId + " < ? ORDER BY " + columnaId + " DESC LIMIT ?"
+                : " WHERE " + columnaId + " > ? ORDER BY " + columnaId + " LIMIT ?";
+    }
+
+    static Object[] parametrosDePagina(Long despuesDeId, int limite, Orden orden) {
+        if (despuesDeId == null) {
+            despuesDeId = orden == Orden.DESCENDENTE ? Long.MAX_VALUE : Long.MIN_VALUE;
+        }
+        return new Object[] { despuesDeId, limite };
+    }
+}
@@ -0,0 +1,48 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Pool de los textos que se repiten entre entidades en memoria (nombres, apellidos,
+ * títulos): cada valor queda una sola vez en el heap. Las entradas son débiles, así que
+ * un texto que ya no usa ninguna entidad se libera. Está repartido en partes para que
+ * las altas concurrentes no compitan por un único lock.
+ */
+final class TextosCompartidos {
+
+    private static final int PARTES = 16;
+
+    @SuppressWarnings("unchecked")
+    private static final Map<String, WeakReference<String>>[] partes = new Map[PARTES];
+
+    static {
+        for (int i = 0; i < PARTES; i++) {
+            partes[i] = new WeakHashMap<>();
+        }
+    }
+
+    private TextosCompartidos() {
+    }
+
+    /**
+     * La instancia compartida igual a {@code texto}; si no había, pasa a serlo esta.
+     */
+    static String compartir(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        int hash = texto.hashCode();
+        Map<String, WeakReference<String>> parte = partes[(hash ^ (hash >>> 16)) & (PARTES - 1)];
+        synchronized (parte) {
+            WeakReference<String> referencia = parte.get(texto);
+            String compartido = referencia != null ? referencia.get() : null;
+            if (compartido != null) {
+                return compartido;
+            }
+            parte.put(texto, new WeakReference<>(texto));
+            return texto;
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Tramos viejos de {@link AsignaturasColumnares}. Un tramo son {@code filasPorTramo} filas
+ * consecutivas; como las filas se dan en orden de alta, cada tramo es un período de
+ * inscripciones. Los tramos que quedan atrás de los {@code tramosCalientes} más nuevos se
+ * escriben en un segmento inmutable en disco y salen de la memoria; de cada uno sólo queda
+ * qué alumnos tiene. Se leen al pedirlos y los últimos {@code enMemoria} quedan cargados.
+ * Modificar una fila fría escribe el segmento de nuevo con otro nombre.
+ * Los segmentos son una copia derivada: la bitácora y la instantánea siguen teniendo todo,
+ * así que al arrancar se borran los que hubiera y se vuelven a armar. Van en su propio
+ * subdirectorio {@value #SUBDIRECTORIO} del directorio configurado, y al arrancar sólo se
+ * borran ahí los archivos con el nombre que les da {@link #escribir}.
+ */
+final class TramosFrios {
+
+    private static final int MAGIA = 0x47414655;
+    private static final String EXTENSION = ".tramo";
+    static final String SUBDIRECTORIO = "tramos-asignaturas";
+
+    private final Path directorio;
+    private final int filasPorTramo;
+    private final int tramosCalientes;
+    private final int enMemoria;
+    private final AtomicLong generacion = new AtomicLong();
+    /** Por número de tramo, desde el 0; se reemplaza entero al cambiar. */
+    private volatile Segmento[] segmentos = new Segmento[0];
+    private final Map<Path, Tramo> cargados;
+
+    TramosFrios(Path directorio, int filasPorTramo, int tramosCalientes, int enMemoria) {
+        if (filasPorTramo < 1 || tramosCalientes < 1 || enMemoria < 1) {
+            throw new IllegalArgumentException("Los tramos necesitan al menos una fila, un tramo caliente y uno en memoria");
+        }
+        this.directorio = directorio.resolve(SUBDIRECTORIO);
+        this.filasPorTramo = filasPorTramo;
+        this.tramosCalientes = tramosCalientes;
+        this.enMemoria = enMemoria;
+        this.cargados = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Path, Tramo> masViejo) {
+                return size() > TramosFrios.this.enMemoria;
+            }
+        };
+        try {
+            Files.createDirectories(this.directorio);
+            try (DirectoryStream<Path> viejos = Files.newDirectoryStream(this.directorio,
+                    "tramo-*-*" + EXTENSION + "{,.tmp}")) {
+                for (Path viejo : viejos) {
+                    Files.delete(viejo);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    int filasPorTramo() {
+        return filasPorTramo;
+    }
+
+    Segmento[] segmentos() {
+        return segmentos;
+    }
+
+    /**
+     * Cuántos tramos, desde el 0, deberían estar en disco si hay {@code filas} filas asignadas.
+     */
+    int tramosAArchivar(int filas) {
+        if (filas < 1) {
+            return 0;
+        }
+        int ultimoTramo = (filas - 1) / filasPorTramo;
+        return Math.max(0, ultimoTramo + 1 - tramosCalientes);
+    }
+
+    Segmento segmentoDe(int fila) {
+        return segmentos[fila / filasPorTramo];
+    }
+
+    /**
+     * Escribe el tramo en un segmento nuevo y lo deja cargado; todavía no lo publica.
+     */
+    Segmento escribir(int numero, Tramo tramo) {
+        Path archivo = directorio.resolve("tramo-" + numero + "-" + generacion.incrementAndGet() + EXTENSION);
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try {
+            try (FileOutputStream archivoSalida = new FileOutputStream(temporal.toFile())) {
+                CRC32 crc = new CRC32();
+                DataOutputStream salida = new DataOutputStream(
+                        new BufferedOutputStream(new CheckedOutputStream(archivoSalida, crc), 1 << 16));
+                tramo.escribir(salida);
+                salida.flush();
+                new DataOutputStream(archivoSalida).writeInt((int) crc.getValue());
+            }
+            Files.move(temporal, archivo, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el tramo " + archivo, e);
+        }
+        synchronized (cargados) {
+            cargados.put(archivo, tramo);
+        }
+        return new Segmento(numero, archivo, tramo.alumnos(), tramo.ocupadas(), tramo.id[tramo.filas() - 1]);
+    }
+
+    /**
+     * Agrega o reemplaza segmentos. Se llama dentro del cambio que los hace visibles.
+     */
+    synchronized void publicar(Segmento... nuevos) {
+        int largo = segmentos.length;
+        for (Segmento nuevo : nuevos) {
+            largo = Math.max(largo, nuevo.numero() + 1);
+        }
+        Segmento[] publicados = Arrays.copyOf(segmentos, largo);
+        for (Segmento nuevo : nuevos) {
+            publicados[nuevo.numero()] = nuevo;
+        }
+        segmentos = publicados;
+    }
+
+    /**
+     * Reemplaza un segmento si sigue siendo el publicado; false si otra escritura ya lo cambió.
+     */
+    synchronized boolean reemplazar(Segmento viejo, Segmento nuevo) {
+        if (segmentos[viejo.numero()] != viejo) {
+            return false;
+        }
+        publicar(nuevo);
+        return true;
+    }
+
+    /**
+     * Borra un segmento reemplazado. Una instantánea que ya lo abrió lo sigue leyendo.
+     */
+    void descartar(Segmento viejo) {
+        synchronized (cargados) {
+            cargados.remove(viejo.archivo());
+        }
+        try {
+            Files.deleteIfExists(viejo.archivo());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Tramo tramo(Segmento segmento) {
+        synchronized (cargados) {
+            Tramo cargado = cargados.get(segmento.archivo());
+            if (cargado != null) {
+                return cargado;
+            }
+        }
+        // Se lee sin el lock: dos lecturas simultáneas del mismo segmento dan lo mismo.
+        Tramo leido;
+        try (InputStream entrada = Files.newInputStream(segmento.archivo())) {
+            leido = leer(entrada);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el tramo " + segmento.archivo(), e);
+        }
+        synchronized (cargados) {
+            cargados.put(segmento.archivo(), leido);
+        }
+        return leido;
+    }
+
+    int cargados() {
+        synchronized (cargados) {
+            return cargados.size();
+        }
+    }
+
+    static Tramo leer(InputStream archivo) throws IOException {
+        byte[] datos = archivo.readAllBytes();
+        if (datos.length < Integer.BYTES * 2) {
+            throw new IOException("Tramo incompleto");
+        }
+        int largo = datos.length - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(datos, 0, largo);
+        if (ByteBuffer.wrap(datos, largo, Integer.BYTES).getInt() != (int) crc.getValue()) {
+            throw new IOException("Tramo corrupto");
+        }
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(datos, 0, largo));
+        if (entrada.readInt() != MAGIA) {
+            throw new IOException("No es un tramo de asignaturas");
+        }
+        return Tramo.leer(entrada);
+    }
+
+    /**
+     * {@code ultimoValor} es el de la columna de ids en la última fila: alcanza para saber
+     * en qué segmento buscar un id sin leerlo.
+     */
+    record Segmento(int numero, Path archivo, long[] alumnos, int ocupadas, long ultimoValor) {
+
+        boolean tieneAlumno(long alumnoId) {
+            return Arrays.binarySearch(alumnos, alumnoId) >= 0;
+        }
+    }
+
+    /**
+     * Las columnas de un tramo, de sólo lectura, con un índice de sus filas por alumno.
+     */
+    static final class Tramo {
+
+        final int desde;
+        final long[] id;
+        final long[] alumno;
+        final long[] materia;
+        final byte[] estado;
+        final short[] nota;
+        final int[] version;
+        /** Filas ocupadas (relativas al tramo) ordenadas por alumno y después por fila. */
+        private final int[] porAlumno;
+
+        Tramo(int desde, long[] id, long[] alumno, long[] materia, byte[] estado, short[] nota, int[] version) {
+            this.desde = desde;
+            this.id = id;
+            this.alumno = alumno;
+            this.materia = materia;
+            this.estado = estado;
+            this.nota = nota;
+            this.version = version;
+            this.porAlumno = IntStream.range(0, estado.length)
+                    .filter(i -> estado[i] != AsignaturasColumnares.LIBRE && alumno[i] != 0)
+                    .boxed()
+                    .sorted((a, b) -> alumno[a] != alumno[b] ? Long.compare(alumno[a], alumno[b]) : Integer.compare(a, b))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+
+        int filas() {
+            return estado.length;
+        }
+
+        int ocupadas() {
+            int ocupadas = 0;
+            for (byte codigo : estado) {
+                if (codigo != AsignaturasColumnares.LIBRE) {
+                    ocupadas++;
+                }
+            }
+            return ocupadas;
+        }
+
+        long[] alumnos() {
+            return Arrays.stream(porAlumno).mapToLong(i -> alumno[i]).distinct().toArray();
+        }
+
+        /**
+         * Filas absolutas del alumno en este tramo, en orden.
+         */
+        int[] filasDe(long alumnoId) {
+            int desdeIndice = primeraPosicion(alumnoId);
+            int hasta = desdeIndice;
+            while (hasta < porAlumno.length && alumno[porAlumno[hasta]] == alumnoId) {
+                hasta++;
+            }
+            int[] filas = new int[hasta - desdeIndice];
+            for (int i = 0; i < filas.length; i++) {
+                filas[i] = desde + porAlumno[desdeIndice + i];
+            }
+            return filas;
+        }
+
+        boolean mismasFilas(Tramo otro) {
+            return desde == otro.desde && Arrays.equals(id, otro.id) && Arrays.equals(alumno, otro.alumno)
+                    && Arrays.equals(materia, otro.materia) && Arrays.equals(estado, otro.estado)
+                    && Arrays.equals(nota, otro.nota) && Arrays.equals(version, otro.version);
+        }
+
+        /**
+         * Copia con una fila reemplazada (estado LIBRE para borrarla).
+         */
+        Tramo con(int fila, long alumnoId, long materiaId, byte codigoEstado, short codigoNota, int numeroVersion) {
+            int i = fila - desde;
+            long[] alumnos = alumno.clone();
+            long[] materias = materia.clone();
+            byte[] estados = estado.clone();
+            short[] notas = nota.clone();
+            int[] versiones = version.clone();
+            alumnos[i] = alumnoId;
+            materias[i] = materiaId;
+            estados[i] = codigoEstado;
+            notas[i] = codigoNota;
+            versiones[i] = numeroVersion;
+            return new Tramo(desde, id, alumnos, materias, estados, notas, versiones);
+        }
+
+        private int primeraPosicion(long alumnoId) {
+            int bajo = 0;
+            int alto = porAlumno.length;
+            while (bajo < alto) {
+                int medio = (bajo + alto) >>> 1;
+                if (alumno[porAlumno[medio]] < alumnoId) {
+                    bajo = medio + 1;
+                } else {
+                    alto = medio;
+                }
+            }
+            return bajo;
+        }
+
+        void escribir(DataOutputStream salida) throws IOException {
+            salida.writeInt(MAGIA);
+            salida.writeInt(desde);
+            salida.writeInt(filas());
+            for (long valor : id) {
+                salida.writeLong(valor);
+            }
+            for (long valor : alumno) {
+                salida.writeLong(valor);
+            }
+            for (long valor : materia) {
+                salida.writeLong(valor);
+            }
+            salida.write(estado);
+            for (short valor : nota) {
+                salida.writeShort(valor);
+            }
+            for (int valor : version) {
+                salida.writeInt(valor);
+            }
+        }
+
+        static Tramo leer(DataInputStream entrada) throws IOException {
+            int desde = entrada.readInt();
+            int filas = entrada.readInt();
+            long[] id = new long[filas];
+            long[] alumno = new long[filas];
+            long[] materia = new long[filas];
+            byte[] estado = new byte[filas];
+            short[] nota = new short[filas];
+            int[] version = new int[filas];
+            for (int i = 0; i < filas; i++) {
+                id[i] = entrada.readLong();
+            }
+            for (int i = 0; i < filas; i++) {
+                alumno[i] = entrada.readLong();
+            }
+            for (int i = 0; i < filas; i++) {
+                materia[i] = entrada.readLong();
+            }
+            entrada.readFully(estado);
+            for (int i = 0; i < filas; i++) {
+                nota[i] = entrada.readShort();
+            }
+            for (int i = 0; i < filas; i++) {
+                version[i] = entrada.readInt();
+            }
+            return new Tramo(desde, id, alumno, materia, estado, nota, version);
+        }
+    }
+}
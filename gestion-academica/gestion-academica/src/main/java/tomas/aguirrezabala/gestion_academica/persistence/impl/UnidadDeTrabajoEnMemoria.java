@@ -0,0 +1,80 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
+
+/**
+ * Unidad de trabajo con locks de lectura/escritura del proceso, repartidos en franjas por
+ * tipo e id de entidad. Las franjas se toman siempre en orden ascendente, así dos unidades
+ * no pueden esperarse en círculo; las claves compartidas no se bloquean entre sí, de modo
+ * que muchas inscripciones a la misma materia sólo compiten por el lock de cada alumno.
+ * La usan los DAOs en memoria y los de MVStore, que viven en este mismo proceso.
+ */
+@Component
+@Profile("!jdbc")
+public class UnidadDeTrabajoEnMemoria implements UnidadDeTrabajo {
+
+    private static final int FRANJAS = 1024;
+
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[FRANJAS];
+    /** Franjas que tiene tomadas la unidad en curso del hilo (true si en exclusiva). */
+    private final ThreadLocal<Map<Integer, Boolean>> tomadas = new ThreadLocal<>();
+
+    public UnidadDeTrabajoEnMemoria() {
+        for (int i = 0; i < FRANJAS; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @Override
+    public <R> R ejecutar(Alcance alcance, Supplier<R> operacion) {
+        Map<Integer, Boolean> franjas = new TreeMap<>();
+        for (Alcance.Clave clave : alcance.claves()) {
+            franjas.merge(franja(clave), clave.exclusiva(), Boolean::logicalOr);
+        }
+
+        Map<Integer, Boolean> externas = tomadas.get();
+        if (externas != null) {
+            // Anidada: corre dentro de la de afuera, que ya tiene que cubrirla.
+            franjas.forEach((franja, exclusiva) -> {
+                Boolean tomada = externas.get(franja);
+                if (tomada == null || (exclusiva && !tomada)) {
+                    throw new IllegalStateException("Una unidad de trabajo anidada no puede ampliar el alcance de la que la contiene");
+                }
+            });
+            return operacion.get();
+        }
+
+        Lock[] adquiridos = new Lock[franjas.size()];
+        int cantidad = 0;
+        try {
+            for (Map.Entry<Integer, Boolean> franja : franjas.entrySet()) {
+                ReentrantReadWriteLock lock = locks[franja.getKey()];
+                Lock elegido = franja.getValue() ? lock.writeLock() : lock.readLock();
+                elegido.lock();
+                adquiridos[cantidad++] = elegido;
+            }
+            tomadas.set(franjas);
+            return operacion.get();
+        } finally {
+            tomadas.remove();
+            while (cantidad > 0) {
+                adquiridos[--cantidad].unlock();
+            }
+        }
+    }
+
+    private static int franja(Alcance.Clave clave) {
+        long hash = (clave.id() ^ ((long) clave.tipo().getName().hashCode() << 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (FRANJAS - 1);
+    }
+}
@@ -0,0 +1,47 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
+
+/**
+ * Unidad de trabajo del perfil "jdbc": una transacción en la que primero se bloquean con
+ * SELECT ... FOR UPDATE, en orden de tabla e id, las filas del alcance exclusivo. Las
+ * claves compartidas no se bloquean: H2 no tiene FOR SHARE y las claves foráneas ya
+ * impiden borrar lo que otra transacción está referenciando.
+ */
+@Component
+@Profile("jdbc")
+public class UnidadDeTrabajoJdbc implements UnidadDeTrabajo {
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transacciones;
+
+    @Override
+    public <R> R ejecutar(Alcance alcance, Supplier<R> operacion) {
+        return new TransactionTemplate(transacciones).execute(estado -> {
+            alcance.claves().stream()
+                    .filter(Alcance.Clave::exclusiva)
+                    .sorted(Comparator.comparing((Alcance.Clave clave) -> clave.tipo().getSimpleName())
+                            .thenComparingLong(Alcance.Clave::id))
+                    .distinct()
+                    .forEach(clave -> jdbc.queryForList("SELECT id FROM "
+                            + clave.tipo().getSimpleName().toLowerCase(Locale.ROOT) + " WHERE id = ? FOR UPDATE",
+                            Long.class, clave.id()));
+            return operacion.get();
+        });
+    }
+}
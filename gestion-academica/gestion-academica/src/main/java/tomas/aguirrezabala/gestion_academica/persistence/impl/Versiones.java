@@ -0,0 +1,27 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.model.Entidad;
+
+/**
+ * Control optimista de versiones de los DAOs en memoria y MVStore; los JDBC lo hacen
+ * en el UPDATE (ver {@link TablaJdbc}).
+ */
+final class Versiones {
+
+    private Versiones() {
+    }
+
+    /**
+     * Versión que queda al guardar {@code nueva} sobre {@code anterior} (null si no
+     * existía). Se llama con la clave ya tomada, así que comparar y avanzar es atómico.
+     */
+    static long siguiente(Entidad nueva, Entidad anterior) {
+        Long esperada = nueva.getVersion();
+        Long actual = anterior != null ? anterior.getVersion() : null;
+        if (esperada != null && !esperada.equals(actual)) {
+            throw new ConflictoDeVersionException(nueva.getClass().getSimpleName(), nueva.getId(), esperada, actual);
+        }
+        return actual != null ? actual + 1 : 1;
+    }
+}
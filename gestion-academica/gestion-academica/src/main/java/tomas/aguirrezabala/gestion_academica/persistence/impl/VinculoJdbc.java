@@ -0,0 +1,62 @@
+package tomas.aguirrezabala.gestion_academica.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Lista ordenada de ids guardada en una tabla intermedia (carrera -> materias,
+ * materia -> correlativas, ...). Se escribe en un solo lote y se lee para muchos
+ * dueños a la vez, nunca fila por fila.
+ */
+final class VinculoJdbc {
+
+    private final String borrar;
+    private final String insertar;
+    private final String buscar;
+    private final String existeDestino;
+
+    VinculoJdbc(String tabla, String columnaDuenio, String columnaDestino, String tablaDestino) {
+        this.borrar = "DELETE FROM " + tabla + " WHERE " + columnaDuenio + " = ?";
+        // Como en memoria, los ids que no existen en el destino no se guardan ni cuentan.
+        this.insertar = "INSERT INTO " + tabla + " (" + columnaDuenio + ", posicion, " + columnaDestino + ") "
+                + "SELECT ?, ?, id FROM " + tablaDestino + " WHERE id = ?";
+        this.buscar = "SELECT " + columnaDuenio + ", " + columnaDestino + " FROM " + tabla
+                + " WHERE " + columnaDuenio + " = ANY(?) ORDER BY " + columnaDuenio + ", posicion";
+        this.existeDestino = "SELECT EXISTS (SELECT 1 FROM " + tabla + " WHERE " + columnaDestino + " = ?)";
+    }
+
+    void reemplazar(JdbcTemplate jdbc, long duenioId, Collection<Long> destinoIds) {
+        jdbc.update(borrar, duenioId);
+        if (destinoIds == null || destinoIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> filas = new ArrayList<>(destinoIds.size());
+        int posicion = 0;
+        for (Long destinoId : destinoIds) {
+            if (destinoId != null) {
+                filas.add(new Object[] { duenioId, posicion++, destinoId });
+            }
+        }
+        jdbc.batchUpdate(insertar, filas);
+    }
+
+    Map<Long, List<Long>> buscar(JdbcTemplate jdbc, Collection<Long> duenioIds) {
+        Map<Long, List<Long>> destinosPorDuenio = new HashMap<>();
+        if (duenioIds.isEmpty()) {
+            return destinosPorDuenio;
+        }
+        jdbc.query(buscar, fila -> {
+            destinosPorDuenio.computeIfAbsent(fila.getLong(1), id -> new ArrayList<>()).add(fila.getLong(2));
+        }, (Object) TablaJdbc.ids(duenioIds));
+        return destinosPorDuenio;
+    }
+
+    boolean existeDestino(JdbcTemplate jdbc, Long destinoId) {
+        return destinoId != null && Boolean.TRUE.equals(jdbc.queryForObject(existeDestino, Boolean.class, destinoId));
+    }
+}
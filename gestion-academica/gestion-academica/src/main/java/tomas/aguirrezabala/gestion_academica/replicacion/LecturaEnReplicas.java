@@ -0,0 +1,118 @@
+package tomas.aguirrezabala.gestion_academica.replicacion;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import tomas.aguirrezabala.gestion_academica.controller.handler.CustomApiError;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.EmisorDeBitacora;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ReceptorDeBitacora;
+
+/**
+ * Token de lectura de las réplicas. En el líder cada escritura responde con
+ * {@link #POSICION}, la posición de la bitácora que la incluye. Una réplica que recibe
+ * ese encabezado espera hasta haberla aplicado antes de leer (como mucho
+ * {@code gestion-academica.replicacion.espera}; si no llega responde 503), así el cliente
+ * ve sus propias escrituras. Las réplicas son de sólo lectura: las escrituras van al líder.
+ */
+@Component
+public class LecturaEnReplicas extends OncePerRequestFilter {
+
+    public static final String POSICION = "X-Posicion-Bitacora";
+
+    @Autowired(required = false)
+    private EmisorDeBitacora emisor;
+
+    @Autowired(required = false)
+    private ReceptorDeBitacora receptor;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Value("${gestion-academica.replicacion.espera:2s}")
+    private Duration espera;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !esLider() && !esReplica();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean lectura = request.getMethod().equals("GET") || request.getMethod().equals("HEAD");
+        if (esReplica()) {
+            if (!lectura) {
+                rechazar(request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                        "Esta instancia es una réplica de sólo lectura: las escrituras van al líder");
+                return;
+            }
+            String token = request.getHeader(POSICION);
+            if (token != null) {
+                long posicion;
+                try {
+                    posicion = Long.parseLong(token.trim());
+                } catch (NumberFormatException e) {
+                    rechazar(request, response, HttpStatus.BAD_REQUEST,
+                            "El encabezado " + POSICION + " debe ser una posición de la bitácora");
+                    return;
+                }
+                if (!alcanzar(posicion)) {
+                    rechazar(request, response, HttpStatus.SERVICE_UNAVAILABLE,
+                            "La réplica todavía no aplicó la bitácora hasta la posición " + posicion);
+                    return;
+                }
+            }
+            response.setHeader(POSICION, String.valueOf(receptor.aplicada()));
+            chain.doFilter(request, response);
+            return;
+        }
+        if (lectura) {
+            chain.doFilter(request, response);
+            return;
+        }
+        // El encabezado tiene que ir después de la escritura y antes de mandar el cuerpo.
+        ContentCachingResponseWrapper escritura = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, escritura);
+        escritura.setHeader(POSICION, String.valueOf(emisor.posicion()));
+        escritura.copyBodyToResponse();
+    }
+
+    private boolean alcanzar(long posicion) {
+        try {
+            return receptor.esperarHasta(posicion, espera);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean esLider() {
+        return emisor != null && emisor.activo();
+    }
+
+    private boolean esReplica() {
+        return receptor != null && receptor.activo();
+    }
+
+    private void rechazar(HttpServletRequest request, HttpServletResponse response, HttpStatus estado, String mensaje)
+            throws IOException {
+        response.setStatus(estado.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        json.writeValue(response.getOutputStream(),
+                new CustomApiError(estado.value(), estado.getReasonPhrase(), mensaje, request.getRequestURI()));
+    }
+}
@@ -0,0 +1,83 @@
+-- Esquema de los DAOs JDBC (perfil "jdbc").
+-- Las listas de las entidades se guardan en tablas intermedias con su posición para
+-- conservar el orden; cada clave foránea que se consulta tiene su índice.
+-- version es el control optimista: arranca en 1 y cada UPDATE la avanza.
+
+CREATE TABLE IF NOT EXISTS profesor (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255),
+    apellido VARCHAR(255),
+    titulo VARCHAR(255),
+    version BIGINT DEFAULT 1 NOT NULL,
+    CONSTRAINT uk_profesor_nombre_apellido UNIQUE (nombre, apellido)
+);
+
+CREATE TABLE IF NOT EXISTS materia (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255),
+    anio INT,
+    cuatrimestre INT,
+    profesor_id BIGINT REFERENCES profesor (id) ON DELETE SET NULL,
+    version BIGINT DEFAULT 1 NOT NULL,
+    CONSTRAINT uk_materia_nombre UNIQUE (nombre)
+);
+CREATE INDEX IF NOT EXISTS ix_materia_profesor ON materia (profesor_id);
+
+CREATE TABLE IF NOT EXISTS materia_correlativa (
+    materia_id BIGINT NOT NULL REFERENCES materia (id) ON DELETE CASCADE,
+    posicion INT NOT NULL,
+    correlativa_id BIGINT NOT NULL REFERENCES materia (id),
+    PRIMARY KEY (materia_id, posicion)
+);
+CREATE INDEX IF NOT EXISTS ix_materia_correlativa_correlativa ON materia_correlativa (correlativa_id);
+
+CREATE TABLE IF NOT EXISTS profesor_materia (
+    profesor_id BIGINT NOT NULL REFERENCES profesor (id) ON DELETE CASCADE,
+    posicion INT NOT NULL,
+    materia_id BIGINT NOT NULL REFERENCES materia (id) ON DELETE CASCADE,
+    PRIMARY KEY (profesor_id, posicion)
+);
+CREATE INDEX IF NOT EXISTS ix_profesor_materia_materia ON profesor_materia (materia_id);
+
+CREATE TABLE IF NOT EXISTS carrera (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255),
+    duracion_anios INT,
+    version BIGINT DEFAULT 1 NOT NULL,
+    CONSTRAINT uk_carrera_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE IF NOT EXISTS carrera_materia (
+    carrera_id BIGINT NOT NULL REFERENCES carrera (id) ON DELETE CASCADE,
+    posicion INT NOT NULL,
+    materia_id BIGINT NOT NULL REFERENCES materia (id),
+    PRIMARY KEY (carrera_id, posicion)
+);
+CREATE INDEX IF NOT EXISTS ix_carrera_materia_materia ON carrera_materia (materia_id);
+
+CREATE TABLE IF NOT EXISTS alumno (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255),
+    apellido VARCHAR(255),
+    dni VARCHAR(255),
+    carrera_id BIGINT REFERENCES carrera (id) ON DELETE SET NULL,
+    version BIGINT DEFAULT 1 NOT NULL,
+    CONSTRAINT uk_alumno_dni UNIQUE (dni)
+);
+CREATE INDEX IF NOT EXISTS ix_alumno_carrera ON alumno (carrera_id);
+
+-- uk_asignatura_alumno_materia empieza por alumno_id, así que sirve tanto para
+-- buscarPorAlumnoIdYMateriaId como para buscarPorAlumnoId(s).
+CREATE TABLE IF NOT EXISTS asignatura (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    alumno_id BIGINT REFERENCES alumno (id),
+    materia_id BIGINT REFERENCES materia (id),
+    estado VARCHAR(20),
+    nota DOUBLE PRECISION,
+    version BIGINT DEFAULT 1 NOT NULL,
+    CONSTRAINT uk_asignatura_alumno_materia UNIQUE (alumno_id, materia_id)
+);
+-- Por materia y estado, con el alumno incluido: los conteos y listados por estado no
+-- leen la tabla. También cubre existePorMateriaId, así que reemplaza al de materia_id.
+DROP INDEX IF EXISTS ix_asignatura_materia;
+CREATE INDEX IF NOT EXISTS ix_asignatura_materia_estado ON asignatura (materia_id, estado, alumno_id);
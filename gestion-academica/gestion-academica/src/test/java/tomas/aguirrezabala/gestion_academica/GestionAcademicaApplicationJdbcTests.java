@@ -0,0 +1,46 @@
+package tomas.aguirrezabala.gestion_academica;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoJdbcImpl;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:gestion-academica-jdbc")
+@ActiveProfiles("jdbc")
+class GestionAcademicaApplicationJdbcTests {
+
+	@Autowired
+	private ProfesorDao profesorDao;
+
+	@Autowired
+	private MateriaDao materiaDao;
+
+	@Test
+	void contextLoads_conLosDaosJdbc() {
+		assertTrue(profesorDao instanceof ProfesorDaoJdbcImpl);
+
+		Materia materia = materiaDao.guardar(new Materia(null, "Programación I", 1, 1));
+		Profesor profesor = new Profesor(null, "Juan", "Perez", "Ingeniero");
+		profesor.setMaterias(new ArrayList<>(List.of(materia)));
+		profesorDao.guardar(profesor);
+
+		assertEquals(List.of("Programación I"), profesorDao.buscarPorId(profesor.getId()).orElseThrow()
+				.getMaterias().stream().map(Materia::getNombre).toList());
+		assertThrows(EntidadDuplicadaException.class,
+				() -> materiaDao.guardar(new Materia(null, "Programación I", 2, 2)));
+	}
+
+}
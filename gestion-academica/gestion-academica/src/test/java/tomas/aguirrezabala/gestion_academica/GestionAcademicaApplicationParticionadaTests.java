@@ -0,0 +1,242 @@
+package tomas.aguirrezabala.gestion_academica;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
+
+/**
+ * Tres instancias en puertos locales con el particionado activo, hablando por HTTP.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class GestionAcademicaApplicationParticionadaTests {
+
+	private static final int NODOS = 3;
+	private static final Pattern SIGUIENTE = Pattern.compile("<([^>]+)>; rel=\"next\"");
+
+	private static final List<ConfigurableApplicationContext> nodos = new ArrayList<>();
+	private static final List<String> urls = new ArrayList<>();
+	private static final HttpClient http = HttpClient.newHttpClient();
+	private static final ObjectMapper json = new ObjectMapper();
+
+	@BeforeAll
+	static void levantarNodos() throws IOException {
+		for (int i = 0; i < NODOS; i++) {
+			try (ServerSocket libre = new ServerSocket(0)) {
+				urls.add("http://localhost:" + libre.getLocalPort());
+			}
+		}
+		for (int i = 0; i < NODOS; i++) {
+			nodos.add(new SpringApplicationBuilder(GestionAcademicaApplication.class).run(
+					"--server.port=" + URI.create(urls.get(i)).getPort(),
+					"--spring.datasource.url=jdbc:h2:mem:nodo" + i,
+					"--gestion-academica.bitacora.archivo=",
+					"--gestion-academica.particion.nodos=" + String.join(",", urls),
+					"--gestion-academica.particion.nodo=" + i));
+		}
+	}
+
+	@AfterAll
+	static void bajarNodos() {
+		nodos.forEach(ConfigurableApplicationContext::close);
+	}
+
+	@Test
+	void materias_debenReplicarseEnTodosLosNodos_aunqueSeCreenEnUnoCualquiera() throws Exception {
+		HttpResponse<String> creada = enviar(2, "POST", "/materia",
+				"{\"nombre\":\"Física I\",\"anio\":1,\"cuatrimestre\":1}");
+		assertEquals(201, creada.statusCode());
+		long id = json.readTree(creada.body()).path("id").asLong();
+
+		for (int nodo = 0; nodo < NODOS; nodo++) {
+			HttpResponse<String> leida = enviar(nodo, "GET", "/materia/" + id, null);
+			assertEquals(200, leida.statusCode());
+			assertEquals("Física I", json.readTree(leida.body()).path("nombre").asText());
+			assertEquals(creada.headers().firstValue("ETag"), leida.headers().firstValue("ETag"));
+		}
+	}
+
+	@Test
+	void alumnos_debenVivirEnUnSoloNodo_yLeerseDesdeCualquiera() throws Exception {
+		Set<Integer> duenios = new HashSet<>();
+		for (int i = 0; i < 12; i++) {
+			long id = crearAlumno(i % NODOS, "lectura-" + i);
+			List<Integer> conElAlumno = IntStream.range(0, NODOS)
+					.filter(nodo -> nodos.get(nodo).getBean(AlumnoDao.class).buscarPorId(id).isPresent())
+					.boxed().toList();
+			assertEquals(1, conElAlumno.size());
+			duenios.addAll(conElAlumno);
+
+			for (int nodo = 0; nodo < NODOS; nodo++) {
+				HttpResponse<String> leido = enviar(nodo, "GET", "/alumno/" + id, null);
+				assertEquals(200, leido.statusCode());
+				assertEquals("lectura-" + i, json.readTree(leido.body()).path("dni").asText());
+				assertEquals(200, enviar(nodo, "GET", "/alumno/dni/lectura-" + i, null).statusCode());
+			}
+		}
+		assertTrue(duenios.size() > 1);
+		assertEquals(404, enviar(1, "GET", "/alumno/dni/nadie", null).statusCode());
+	}
+
+	@Test
+	void inscribirEnMateria_debeFuncionar_desdeUnNodoQueNoEsElDuenio() throws Exception {
+		long materiaId = json.readTree(enviar(0, "POST", "/materia",
+				"{\"nombre\":\"Química\",\"anio\":1,\"cuatrimestre\":2}").body()).path("id").asLong();
+		long alumnoId = crearAlumno(0, "inscripto");
+		int duenio = IntStream.range(0, NODOS)
+				.filter(nodo -> nodos.get(nodo).getBean(AlumnoDao.class).buscarPorId(alumnoId).isPresent())
+				.findFirst().orElseThrow();
+		int otro = (duenio + 1) % NODOS;
+
+		HttpResponse<String> inscripcion = enviar(otro, "POST", "/alumno/" + alumnoId + "/materia/" + materiaId, null);
+		assertEquals(201, inscripcion.statusCode());
+		long asignaturaId = json.readTree(inscripcion.body()).path("id").asLong();
+
+		for (int nodo = 0; nodo < NODOS; nodo++) {
+			assertEquals(1, json.readTree(enviar(nodo, "GET", "/alumno/" + alumnoId + "/asignaturas", null).body()).size());
+			assertEquals(200, enviar(nodo, "GET", "/asignatura/" + asignaturaId, null).statusCode());
+		}
+	}
+
+	@Test
+	void listarTodos_debeJuntarLosAlumnosDeTodosLosNodos_yPaginarPorId() throws Exception {
+		for (int i = 0; i < 9; i++) {
+			crearAlumno(i % NODOS, "listado-" + i);
+		}
+		List<Long> todos = ids(enviar(1, "GET", "/alumno?all=true", null).body());
+		assertTrue(todos.size() >= 9);
+		assertEquals(todos.stream().sorted().toList(), todos);
+
+		List<Long> paginados = new ArrayList<>();
+		String pagina = urls.get(2) + "/alumno?limit=4";
+		while (pagina != null) {
+			HttpResponse<String> respuesta = http.send(HttpRequest.newBuilder(URI.create(pagina)).build(),
+					HttpResponse.BodyHandlers.ofString());
+			assertEquals(200, respuesta.statusCode());
+			List<Long> elementos = ids(respuesta.body());
+			assertTrue(elementos.size() <= 4);
+			paginados.addAll(elementos);
+			pagina = respuesta.headers().firstValue("Link").map(link -> {
+				Matcher siguiente = SIGUIENTE.matcher(link);
+				return siguiente.find() ? siguiente.group(1) : null;
+			}).orElse(null);
+		}
+		assertEquals(todos, paginados);
+
+		List<Long> descendentes = ids(enviar(0, "GET", "/alumno?limit=3&sort=-id", null).body());
+		assertEquals(List.of(todos.get(todos.size() - 1), todos.get(todos.size() - 2), todos.get(todos.size() - 3)),
+				descendentes);
+		assertEquals(400, enviar(0, "GET", "/alumno?limit=0", null).statusCode());
+	}
+
+	@Test
+	void alumnosPorEstado_debeSumarYJuntarLosDeTodosLosNodos() throws Exception {
+		long materiaId = json.readTree(enviar(1, "POST", "/materia",
+				"{\"nombre\":\"Física\",\"anio\":1,\"cuatrimestre\":1}").body()).path("id").asLong();
+		List<Long> inscriptos = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			long alumnoId = crearAlumno(i % NODOS, "estado-" + i);
+			assertEquals(201, enviar(i % NODOS, "POST", "/alumno/" + alumnoId + "/materia/" + materiaId, null).statusCode());
+			inscriptos.add(alumnoId);
+		}
+
+		for (int nodo = 0; nodo < NODOS; nodo++) {
+			HttpResponse<String> cantidad = enviar(nodo, "GET",
+					"/materia/" + materiaId + "/alumnos/cantidad?estado=CURSANDO", null);
+			assertEquals(200, cantidad.statusCode());
+			assertEquals(6, json.readTree(cantidad.body()).path("cantidad").asLong());
+			assertEquals(inscriptos.stream().sorted().toList(), ids(enviar(nodo, "GET",
+					"/materia/alumnos?estado=CURSANDO&materias=" + materiaId, null).body()));
+		}
+		assertEquals(404, enviar(2, "GET", "/materia/999999/alumnos?estado=CURSANDO", null).statusCode());
+	}
+
+	@Test
+	void borrarMateria_debeRechazarseEnTodosLosNodos_cuandoTieneInscriptosEnOtroNodo() throws Exception {
+		long materiaId = json.readTree(enviar(0, "POST", "/materia",
+				"{\"nombre\":\"Biología\",\"anio\":1,\"cuatrimestre\":1}").body()).path("id").asLong();
+		long alumnoId = 0;
+		for (int i = 0; alumnoId == 0; i++) {
+			long creado = crearAlumno(1, "biologia-" + i);
+			if (!nodos.get(0).getBean(AlumnoDao.class).buscarPorId(creado).isPresent()) {
+				alumnoId = creado;
+			}
+		}
+		assertEquals(201, enviar(1, "POST", "/alumno/" + alumnoId + "/materia/" + materiaId, null).statusCode());
+
+		HttpResponse<String> borrado = enviar(1, "DELETE", "/materia/" + materiaId, null);
+
+		assertEquals(400, borrado.statusCode());
+		assertTrue(borrado.body().contains("alumnos inscriptos"));
+		for (int nodo = 0; nodo < NODOS; nodo++) {
+			assertEquals(200, enviar(nodo, "GET", "/materia/" + materiaId, null).statusCode());
+		}
+	}
+
+	/** Último: el nodo que queda desincronizado ya no atiende. */
+	@Test
+	@Order(Integer.MAX_VALUE)
+	void nodo_debeDejarDeAtender_cuandoRepiteUnaEscrituraConOtroResultadoQueElNodo0() throws Exception {
+		HttpRequest repeticion = HttpRequest.newBuilder(URI.create(urls.get(2) + "/materia/999999"))
+				.DELETE()
+				.header("X-Gestion-Reenviado", "0")
+				.header("X-Gestion-Estado-Esperado", "204")
+				.build();
+
+		assertEquals(404, http.send(repeticion, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+		assertEquals(503, enviar(2, "GET", "/materia", null).statusCode());
+		assertEquals(200, enviar(1, "GET", "/materia", null).statusCode());
+	}
+
+	private static long crearAlumno(int nodo, String dni) throws Exception {
+		HttpResponse<String> creado = enviar(nodo, "POST", "/alumno",
+				"{\"nombre\":\"Ana\",\"apellido\":\"Gómez\",\"dni\":\"" + dni + "\"}");
+		assertEquals(201, creado.statusCode());
+		return json.readTree(creado.body()).path("id").asLong();
+	}
+
+	private static List<Long> ids(String cuerpo) throws IOException {
+		List<Long> ids = new ArrayList<>();
+		for (JsonNode fila : json.readTree(cuerpo)) {
+			ids.add(fila.path("id").asLong());
+		}
+		return ids;
+	}
+
+	private static HttpResponse<String> enviar(int nodo, String metodo, String ruta, String cuerpo) throws Exception {
+		HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create(urls.get(nodo) + ruta))
+				.method(metodo, cuerpo == null
+						? HttpRequest.BodyPublishers.noBody()
+						: HttpRequest.BodyPublishers.ofString(cuerpo));
+		if (cuerpo != null) {
+			pedido.header("Content-Type", "application/json");
+		}
+		return http.send(pedido.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
@@ -0,0 +1,145 @@
+package tomas.aguirrezabala.gestion_academica;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.EmisorDeBitacora;
+
+/**
+ * Un líder y una réplica de lectura en puertos locales, unidos por la bitácora.
+ */
+class GestionAcademicaApplicationReplicadaTests {
+
+	private static final String POSICION = "X-Posicion-Bitacora";
+
+	@TempDir
+	static Path directorio;
+
+	private static ConfigurableApplicationContext lider;
+	private static ConfigurableApplicationContext replica;
+	private static String urlLider;
+	private static String urlReplica;
+	private static long alumnoPrevio;
+	private static final HttpClient http = HttpClient.newHttpClient();
+	private static final ObjectMapper json = new ObjectMapper();
+
+	@BeforeAll
+	static void levantar() throws Exception {
+		int puertoLider = puertoLibre();
+		urlLider = "http://localhost:" + puertoLider;
+		lider = new SpringApplicationBuilder(GestionAcademicaApplication.class).run(
+				"--server.port=" + puertoLider,
+				"--spring.datasource.url=jdbc:h2:mem:lider",
+				"--gestion-academica.bitacora.archivo=" + directorio.resolve("lider.bitacora"),
+				"--gestion-academica.instantanea.intervalo=0",
+				"--gestion-academica.replicacion.puerto=0");
+
+		// Lo escrito antes de que exista la réplica también tiene que llegarle.
+		alumnoPrevio = json.readTree(enviar(urlLider, "POST", "/alumno",
+				"{\"nombre\":\"Ana\",\"apellido\":\"Previa\",\"dni\":\"1000\"}", null).body()).path("id").asLong();
+
+		int puertoReplica = puertoLibre();
+		urlReplica = "http://localhost:" + puertoReplica;
+		replica = new SpringApplicationBuilder(GestionAcademicaApplication.class).run(
+				"--server.port=" + puertoReplica,
+				"--spring.datasource.url=jdbc:h2:mem:replica",
+				"--gestion-academica.bitacora.archivo=",
+				"--gestion-academica.replicacion.lider=localhost:" + lider.getBean(EmisorDeBitacora.class).puerto(),
+				"--gestion-academica.replicacion.espera=5s");
+	}
+
+	@AfterAll
+	static void bajar() {
+		if (replica != null) {
+			replica.close();
+		}
+		if (lider != null) {
+			lider.close();
+		}
+	}
+
+	@Test
+	void leer_debeVerLaEscrituraPropia_cuandoPasaElTokenDelLider() throws Exception {
+		HttpResponse<String> materia = enviar(urlLider, "POST", "/materia",
+				"{\"nombre\":\"Análisis I\",\"anio\":1,\"cuatrimestre\":1}", null);
+		assertEquals(201, materia.statusCode());
+		long materiaId = json.readTree(materia.body()).path("id").asLong();
+		HttpResponse<String> alumno = enviar(urlLider, "POST", "/alumno",
+				"{\"nombre\":\"Luis\",\"apellido\":\"Réplica\",\"dni\":\"2000\"}", null);
+		long alumnoId = json.readTree(alumno.body()).path("id").asLong();
+		HttpResponse<String> inscripcion = enviar(urlLider, "POST", "/alumno/" + alumnoId + "/materia/" + materiaId,
+				null, null);
+		assertEquals(201, inscripcion.statusCode());
+		String token = inscripcion.headers().firstValue(POSICION).orElseThrow();
+		assertTrue(Long.parseLong(token) > Long.parseLong(materia.headers().firstValue(POSICION).orElseThrow()));
+
+		HttpResponse<String> asignaturas = enviar(urlReplica, "GET", "/alumno/" + alumnoId + "/asignaturas", null, token);
+
+		assertEquals(200, asignaturas.statusCode());
+		assertEquals(1, json.readTree(asignaturas.body()).size());
+		assertEquals("Análisis I", json.readTree(asignaturas.body()).get(0).path("materia").path("nombre").asText());
+		assertTrue(Long.parseLong(asignaturas.headers().firstValue(POSICION).orElseThrow()) >= Long.parseLong(token));
+		assertEquals(200, enviar(urlReplica, "GET", "/materia/" + materiaId, null, token).statusCode());
+	}
+
+	@Test
+	void replica_debeRecibirLoEscritoAntesDeConectarse() throws Exception {
+		long token = Long.parseLong(enviar(urlLider, "PUT", "/alumno/" + alumnoPrevio,
+				"{\"nombre\":\"Ana\",\"apellido\":\"Actualizada\",\"dni\":\"1000\"}", null)
+				.headers().firstValue(POSICION).orElseThrow());
+
+		HttpResponse<String> leido = enviar(urlReplica, "GET", "/alumno/dni/1000", null, String.valueOf(token));
+
+		assertEquals(200, leido.statusCode());
+		assertEquals("Actualizada", json.readTree(leido.body()).path("apellido").asText());
+	}
+
+	@Test
+	void replica_debeRechazarEscrituras_yTokensQueNoAlcanza() throws Exception {
+		assertEquals(503, enviar(urlReplica, "POST", "/materia",
+				"{\"nombre\":\"Prohibida\",\"anio\":1,\"cuatrimestre\":1}", null).statusCode());
+		assertEquals(400, enviar(urlReplica, "GET", "/materia", null, "mañana").statusCode());
+
+		HttpResponse<String> futura = enviar(urlReplica, "GET", "/materia", null, String.valueOf(Long.MAX_VALUE));
+
+		assertEquals(503, futura.statusCode());
+		assertEquals(503, json.readTree(futura.body()).path("status").asInt());
+	}
+
+	private static int puertoLibre() throws IOException {
+		try (ServerSocket libre = new ServerSocket(0)) {
+			return libre.getLocalPort();
+		}
+	}
+
+	private static HttpResponse<String> enviar(String url, String metodo, String ruta, String cuerpo, String token)
+			throws Exception {
+		HttpRequest.Builder pedido = HttpRequest.newBuilder(URI.create(url + ruta))
+				.method(metodo, cuerpo == null
+						? HttpRequest.BodyPublishers.noBody()
+						: HttpRequest.BodyPublishers.ofString(cuerpo));
+		if (cuerpo != null) {
+			pedido.header("Content-Type", "application/json");
+		}
+		if (token != null) {
+			pedido.header(POSICION, token);
+		}
+		return http.send(pedido.build(), HttpResponse.BodyHandlers.ofString());
+	}
+}
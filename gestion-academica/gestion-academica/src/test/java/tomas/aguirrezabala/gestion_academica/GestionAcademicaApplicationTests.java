@@ -3,7 +3,7 @@ package tomas.aguirrezabala.gestion_academica;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "gestion-academica.bitacora.archivo=")
 class GestionAcademicaApplicationTests {
 
 	@Test
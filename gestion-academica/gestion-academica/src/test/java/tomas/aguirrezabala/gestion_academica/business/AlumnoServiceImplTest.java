@@ -7,14 +7,17 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,10 +31,14 @@ import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AlumnoDto;
 import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.UnidadDeTrabajoEnMemoria;
 
 public class AlumnoServiceImplTest {
 
@@ -44,6 +51,9 @@ public class AlumnoServiceImplTest {
     @Mock
     private MateriaDao materiaDao;
     
+    @Spy
+    private UnidadDeTrabajo unidadDeTrabajo = new UnidadDeTrabajoEnMemoria();
+
     @InjectMocks
     private AlumnoServiceImpl alumnoService;
     
@@ -99,9 +109,7 @@ public class AlumnoServiceImplTest {
         alumnoEsperado.setApellido("Aguirrezabala");
         alumnoEsperado.setDni("87654321");
 
-        List<Alumno> alumnosExistentes = new ArrayList<>();
-        
-        when(alumnoDao.buscarTodos()).thenReturn(alumnosExistentes);
+        when(alumnoDao.buscarPorDni(anyString())).thenReturn(Optional.empty());
         when(alumnoDao.guardar(any(Alumno.class))).thenReturn(alumnoEsperado);
         
         Alumno resultado = alumnoService.guardar(alumnoDto);
@@ -112,7 +120,7 @@ public class AlumnoServiceImplTest {
         assertEquals("Aguirrezabala", resultado.getApellido(), "El apellido del alumno debe ser correcto");
         assertEquals("87654321", resultado.getDni(), "El DNI del alumno debe ser correcto");
         
-        verify(alumnoDao).buscarTodos();
+        verify(alumnoDao).buscarPorDni(anyString());
         verify(alumnoDao).guardar(any(Alumno.class));
     }
     
@@ -130,9 +138,7 @@ public class AlumnoServiceImplTest {
         alumnoExistente.setApellido("bbbb");
         alumnoExistente.setDni("12345678");
         
-        List<Alumno> alumnosExistentes = Arrays.asList(alumnoExistente);
-        
-        when(alumnoDao.buscarTodos()).thenReturn(alumnosExistentes);
+        when(alumnoDao.buscarPorDni("12345678")).thenReturn(Optional.of(alumnoExistente));
         
         EntidadDuplicadaException excepcion = assertThrows(
             EntidadDuplicadaException.class,
@@ -145,10 +151,51 @@ public class AlumnoServiceImplTest {
         assertTrue(excepcion.getMessage().contains("12345678"), 
                 "El mensaje debería contener el valor del DNI duplicado");
         
-        verify(alumnoDao).buscarTodos();
+        verify(alumnoDao).buscarPorDni(anyString());
+        verify(alumnoDao, never()).guardar(any(Alumno.class));
+    }
+    
+    @Test
+    void guardar_debeRechazarActualizacion_cuandoDniPerteneceAOtroAlumno() {
+
+        AlumnoDto alumnoDto = new AlumnoDto();
+        alumnoDto.setId(2L);
+        alumnoDto.setNombre("Tomas");
+        alumnoDto.setApellido("Aguirrezabala");
+        alumnoDto.setDni("12345678");
+
+        Alumno otroAlumno = new Alumno();
+        otroAlumno.setId(1L);
+        otroAlumno.setDni("12345678");
+
+        when(alumnoDao.buscarPorDni("12345678")).thenReturn(Optional.of(otroAlumno));
+
+        assertThrows(EntidadDuplicadaException.class, () -> alumnoService.guardar(alumnoDto));
         verify(alumnoDao, never()).guardar(any(Alumno.class));
     }
     
+    @Test
+    void guardar_debePermitirActualizacion_cuandoElDniEsDelMismoAlumno() {
+
+        AlumnoDto alumnoDto = new AlumnoDto();
+        alumnoDto.setId(1L);
+        alumnoDto.setNombre("Tomas");
+        alumnoDto.setApellido("Aguirrezabala");
+        alumnoDto.setDni("12345678");
+
+        Alumno alumnoExistente = new Alumno();
+        alumnoExistente.setId(1L);
+        alumnoExistente.setDni("12345678");
+
+        when(alumnoDao.buscarPorDni("12345678")).thenReturn(Optional.of(alumnoExistente));
+        when(alumnoDao.guardar(any(Alumno.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Alumno resultado = alumnoService.guardar(alumnoDto);
+
+        assertEquals(1L, resultado.getId());
+        verify(alumnoDao).guardar(any(Alumno.class));
+    }
+    
     @Test
     void guardar_debeActualizarAlumno_cuandoIdExistente() throws EntidadDuplicadaException {
         
@@ -190,12 +237,12 @@ public class AlumnoServiceImplTest {
     
     when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
     
-    when(asignaturaDao.buscarPorAlumnoId(alumnoId)).thenReturn(new ArrayList<>());
+    when(asignaturaDao.existePorAlumnoId(alumnoId)).thenReturn(false);
     
     alumnoService.eliminarPorId(alumnoId);
     
     verify(alumnoDao).buscarPorId(alumnoId);
-    verify(asignaturaDao).buscarPorAlumnoId(alumnoId);
+    verify(asignaturaDao).existePorAlumnoId(alumnoId);
     verify(alumnoDao).borrarPorId(alumnoId);
 }
 @Test
@@ -209,10 +256,7 @@ void eliminarPorId_debeFallar_cuandoTieneAsignaturas() {
     
     when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
     
-    List<Asignatura> asignaturas = new ArrayList<>();
-    asignaturas.add(new Asignatura()); 
-    
-    when(asignaturaDao.buscarPorAlumnoId(alumnoId)).thenReturn(asignaturas);
+    when(asignaturaDao.existePorAlumnoId(alumnoId)).thenReturn(true);
     
     ReglaNegocioException exception = assertThrows(
         ReglaNegocioException.class,
@@ -224,7 +268,7 @@ void eliminarPorId_debeFallar_cuandoTieneAsignaturas() {
               "El mensaje debe indicar que tiene asignaturas asociadas");
     
     verify(alumnoDao).buscarPorId(alumnoId);
-    verify(asignaturaDao).buscarPorAlumnoId(alumnoId);
+    verify(asignaturaDao).existePorAlumnoId(alumnoId);
 
     verify(alumnoDao, never()).borrarPorId(alumnoId);
 }
@@ -322,6 +366,7 @@ void inscribirEnMateria_debeInscribirAlumno_cuandoDatosValidos()
     when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
     when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
     when(asignaturaDao.buscarPorAlumnoIdYMateriaId(alumnoId, materiaId)).thenReturn(Optional.empty());
+    when(asignaturaDao.buscarCorrelativasSinCumplir(alumnoId, materia)).thenReturn(List.of());
     
     Asignatura asignaturaCreada = new Asignatura();
     asignaturaCreada.setId(1L);
@@ -345,6 +390,36 @@ void inscribirEnMateria_debeInscribirAlumno_cuandoDatosValidos()
     verify(asignaturaDao).guardar(any(Asignatura.class));
 }
 
+@Test
+void inscribirEnMateria_debeFallarNombrandoTodasLasCorrelativas_cuandoFaltanVarias() {
+
+    Long alumnoId = 1L;
+    Long materiaId = 4L;
+
+    Alumno alumno = new Alumno();
+    alumno.setId(alumnoId);
+
+    Materia materia = new Materia(materiaId, "Programación III", 2, 1);
+    materia.setCorrelatividades(Arrays.asList(2L, 3L));
+
+    when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
+    when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
+    when(materiaDao.buscarPorId(2L)).thenReturn(Optional.of(new Materia(2L, "Programación I", 1, 1)));
+    when(materiaDao.buscarPorId(3L)).thenReturn(Optional.of(new Materia(3L, "Programación II", 1, 2)));
+    when(asignaturaDao.buscarPorAlumnoIdYMateriaId(alumnoId, materiaId)).thenReturn(Optional.empty());
+    when(asignaturaDao.buscarCorrelativasSinCumplir(alumnoId, materia)).thenReturn(List.of(2L, 3L));
+
+    ReglaNegocioException exception = assertThrows(
+        ReglaNegocioException.class,
+        () -> alumnoService.inscribirEnMateria(alumnoId, materiaId)
+    );
+
+    assertEquals("No se puede inscribir en Programación III porque no cumple con las correlatividades "
+            + "Programación I, Programación II", exception.getMessage());
+    verify(asignaturaDao, never()).buscarPorAlumnoId(anyLong());
+    verify(asignaturaDao, never()).guardar(any(Asignatura.class));
+}
+
 @Test
 void inscribirEnMateria_debeFallar_cuandoAlumnoNoExiste() {
 
@@ -437,4 +512,21 @@ void inscribirEnMateria_debeFallar_cuandoYaEstaInscrito() {
     verify(asignaturaDao).buscarPorAlumnoIdYMateriaId(alumnoId, materiaId);
     verify(asignaturaDao, never()).guardar(any(Asignatura.class));
 }
-}
\ No newline at end of file
+
+    @Test
+    void buscarPagina_debeDevolverCursor_cuandoElDaoTraeUnaFilaDeMas() {
+        Alumno alumno1 = new Alumno(1L, "Tomas", "Aguirrezabala", "12345678", null);
+        Alumno alumno2 = new Alumno(2L, "Juan", "Perez", "87654321", null);
+        Alumno alumno3 = new Alumno(3L, "Ana", "Lopez", "11111111", null);
+        when(alumnoDao.buscarPagina(null, 3, Orden.ASCENDENTE)).thenReturn(List.of(alumno1, alumno2, alumno3));
+        when(alumnoDao.buscarPagina(2L, 3, Orden.ASCENDENTE)).thenReturn(List.of(alumno3));
+
+        Pagina<Alumno> primera = alumnoService.buscarPagina(null, 2, Orden.ASCENDENTE);
+        Pagina<Alumno> ultima = alumnoService.buscarPagina(primera.siguiente(), 2, Orden.ASCENDENTE);
+
+        assertEquals(List.of(alumno1, alumno2), primera.elementos());
+        assertEquals(2L, primera.siguiente());
+        assertEquals(List.of(alumno3), ultima.elementos());
+        assertNull(ultima.siguiente());
+    }
+}
@@ -3,6 +3,7 @@ package tomas.aguirrezabala.gestion_academica.business;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -13,9 +14,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
@@ -23,14 +27,18 @@ import org.mockito.MockitoAnnotations;
 import tomas.aguirrezabala.gestion_academica.business.impl.AsignaturaServiceImpl;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.dto.AsignaturaDto;
+import tomas.aguirrezabala.gestion_academica.persistence.Alcance;
 import tomas.aguirrezabala.gestion_academica.persistence.AlumnoDao;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.UnidadDeTrabajoEnMemoria;
 
 public class AsignaturaServiceImplTest {
     
@@ -43,6 +51,9 @@ public class AsignaturaServiceImplTest {
     @Mock
     private MateriaDao materiaDao;
     
+    @Spy
+    private UnidadDeTrabajo unidadDeTrabajo = new UnidadDeTrabajoEnMemoria();
+
     @InjectMocks
     private AsignaturaServiceImpl asignaturaService;
     
@@ -74,6 +85,7 @@ public class AsignaturaServiceImplTest {
         when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
         when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
         when(asignaturaDao.buscarPorAlumnoIdYMateriaId(alumnoId, materiaId)).thenReturn(Optional.empty());
+        when(asignaturaDao.buscarCorrelativasSinCumplir(alumnoId, materia)).thenReturn(List.of());
 
         Asignatura asignaturaGuardada = new Asignatura();
         asignaturaGuardada.setId(1L);
@@ -160,6 +172,21 @@ public class AsignaturaServiceImplTest {
         verify(asignaturaDao, never()).guardar(any(Asignatura.class));
     }
     
+    @Test
+    void guardar_debeFallar_cuandoLaNotaNoEntraEnCentesimos() {
+
+        for (double nota : new double[] {7.125, 400.0, -327.68, Double.NaN}) {
+            AsignaturaDto asignaturaDto = new AsignaturaDto();
+            asignaturaDto.setAlumnoId(1L);
+            asignaturaDto.setMateriaId(1L);
+            asignaturaDto.setNota(nota);
+
+            assertThrows(ReglaNegocioException.class, () -> asignaturaService.guardar(asignaturaDto));
+        }
+
+        verify(asignaturaDao, never()).guardar(any(Asignatura.class));
+    }
+    
     @Test
     void guardar_debeFallar_cuandoAsignaturaDuplicada() {
 
@@ -255,7 +282,8 @@ public class AsignaturaServiceImplTest {
         
         verify(alumnoDao).buscarPorId(alumnoId);
         verify(materiaDao).buscarPorId(materiaId);
-        verify(asignaturaDao).buscarPorId(asignaturaId);
+        // Una vez para saber qué alumnos tomar y otra con los locks tomados.
+        verify(asignaturaDao, times(2)).buscarPorId(asignaturaId);
         verify(asignaturaDao, never()).buscarPorAlumnoIdYMateriaId(anyLong(), anyLong());
         verify(asignaturaDao).guardar(any(Asignatura.class));
     }
@@ -283,6 +311,7 @@ public class AsignaturaServiceImplTest {
         when(alumnoDao.buscarPorId(alumnoId)).thenReturn(Optional.of(alumno));
         when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
         when(asignaturaDao.buscarPorAlumnoIdYMateriaId(alumnoId, materiaId)).thenReturn(Optional.empty());
+        when(asignaturaDao.buscarCorrelativasSinCumplir(alumnoId, materia)).thenReturn(List.of());
 
         Asignatura asignaturaGuardada = new Asignatura();
         asignaturaGuardada.setId(3L);
@@ -338,7 +367,7 @@ public class AsignaturaServiceImplTest {
         
         verify(alumnoDao).buscarPorId(alumnoId);
         verify(materiaDao).buscarPorId(materiaId);
-        verify(asignaturaDao).buscarPorId(asignaturaId);
+        verify(asignaturaDao, times(2)).buscarPorId(asignaturaId);
         verify(asignaturaDao, never()).guardar(any(Asignatura.class));
     }
 
@@ -489,10 +518,56 @@ void eliminarPorId_debeEliminarAsignatura_cuandoExiste() throws EntidadNoEncontr
 
     asignaturaService.eliminarPorId(asignaturaId);
 
-    verify(asignaturaDao).buscarPorId(asignaturaId);
+    verify(asignaturaDao, times(2)).buscarPorId(asignaturaId);
     verify(asignaturaDao).borrarPorId(asignaturaId);
 }
 
+@Test
+void eliminarPorId_debeTomarElAlumnoNuevo_cuandoLaMovieronAntesDelLock() {
+
+    Materia materia = new Materia(5L, "Programación I", 1, 1);
+    Asignatura deAna = new Asignatura(7L, materia, new Alumno(1L, "Ana", "Perez", "1", null), EstadoAsignatura.CURSANDO, null);
+    Asignatura deJuan = new Asignatura(7L, materia, new Alumno(2L, "Juan", "Gomez", "2", null), EstadoAsignatura.CURSANDO, null);
+    // La primera lectura todavía es de Ana; con el lock de Ana tomado ya es de Juan.
+    when(asignaturaDao.buscarPorId(7L)).thenReturn(Optional.of(deAna), Optional.of(deJuan));
+
+    asignaturaService.eliminarPorId(7L);
+
+    ArgumentCaptor<Alcance> alcances = ArgumentCaptor.forClass(Alcance.class);
+    verify(unidadDeTrabajo, times(2)).ejecutar(alcances.capture(), any(Supplier.class));
+    assertEquals(List.of(new Alcance.Clave(Asignatura.class, 7L, true), new Alcance.Clave(Alumno.class, 1L, true)),
+            alcances.getAllValues().get(0).claves());
+    assertEquals(List.of(new Alcance.Clave(Asignatura.class, 7L, true), new Alcance.Clave(Alumno.class, 2L, true)),
+            alcances.getAllValues().get(1).claves());
+    verify(asignaturaDao).borrarPorId(7L);
+}
+
+@Test
+void guardar_debeTomarLosDosAlumnos_cuandoLaAsignaturaCambiaDeAlumno() {
+
+    Alumno ana = new Alumno(1L, "Ana", "Perez", "1", null);
+    Alumno juan = new Alumno(2L, "Juan", "Gomez", "2", null);
+    Materia materia = new Materia(5L, "Programación I", 1, 1);
+    AsignaturaDto asignaturaDto = new AsignaturaDto();
+    asignaturaDto.setId(7L);
+    asignaturaDto.setAlumnoId(2L);
+    asignaturaDto.setMateriaId(5L);
+    asignaturaDto.setEstado(EstadoAsignatura.CURSANDO);
+
+    when(asignaturaDao.buscarPorId(7L)).thenReturn(Optional.of(new Asignatura(7L, materia, ana, EstadoAsignatura.CURSANDO, null)));
+    when(alumnoDao.buscarPorId(2L)).thenReturn(Optional.of(juan));
+    when(materiaDao.buscarPorId(5L)).thenReturn(Optional.of(materia));
+    when(asignaturaDao.guardar(any(Asignatura.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+    Asignatura resultado = asignaturaService.guardar(asignaturaDto);
+
+    assertEquals(2L, resultado.getAlumno().getId());
+    ArgumentCaptor<Alcance> alcance = ArgumentCaptor.forClass(Alcance.class);
+    verify(unidadDeTrabajo).ejecutar(alcance.capture(), any(Supplier.class));
+    assertTrue(alcance.getValue().claves().containsAll(List.of(
+            new Alcance.Clave(Alumno.class, 1L, true), new Alcance.Clave(Alumno.class, 2L, true))));
+}
+
 @Test
 void eliminarPorId_debeFallar_cuandoNoExiste() {
 
@@ -513,4 +588,33 @@ void eliminarPorId_debeFallar_cuandoNoExiste() {
     verify(asignaturaDao, never()).borrarPorId(anyLong());
 }
 
-}
\ No newline at end of file
+@Test
+void buscarAlumnosPorEstado_debeDevolverLosAlumnosDelDao_enElOrdenDeSusIds() {
+
+    Alumno ana = new Alumno(3L, "Ana", "Perez", "3", null);
+    Alumno luis = new Alumno(8L, "Luis", "Gomez", "8", null);
+    when(materiaDao.buscarPorId(1L)).thenReturn(Optional.of(new Materia(1L, "Programación I", 1, 1)));
+    when(materiaDao.buscarPorId(2L)).thenReturn(Optional.of(new Materia(2L, "Base de Datos", 1, 2)));
+    when(asignaturaDao.buscarAlumnoIdsPorEstado(List.of(1L, 2L), EstadoAsignatura.REGULAR, true))
+            .thenReturn(List.of(3L, 5L, 8L));
+    when(alumnoDao.buscarPorId(3L)).thenReturn(Optional.of(ana));
+    when(alumnoDao.buscarPorId(5L)).thenReturn(Optional.empty());
+    when(alumnoDao.buscarPorId(8L)).thenReturn(Optional.of(luis));
+
+    List<Alumno> alumnos = asignaturaService.buscarAlumnosPorEstado(List.of(1L, 2L), EstadoAsignatura.REGULAR, true);
+
+    assertEquals(List.of(ana, luis), alumnos);
+}
+
+@Test
+void contarPorMateriaYEstado_debeFallar_cuandoLaMateriaNoExiste() {
+
+    when(materiaDao.buscarPorId(9L)).thenReturn(Optional.empty());
+
+    assertThrows(EntidadNoEncontradaException.class,
+            () -> asignaturaService.contarPorMateriaYEstado(9L, EstadoAsignatura.APROBADO));
+
+    verify(asignaturaDao, never()).contarPorMateriaIdYEstado(anyLong(), any());
+}
+
+}
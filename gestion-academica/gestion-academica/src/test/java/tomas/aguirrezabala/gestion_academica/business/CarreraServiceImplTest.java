@@ -14,6 +14,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -52,7 +53,7 @@ public class CarreraServiceImplTest {
         carreraDto.setNombre("Tecnicatura Universitaria en Programación");
         carreraDto.setDuracionAnios(6); 
 
-        when(carreraDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(carreraDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         
         Carrera carreraCreada = new Carrera();
         carreraCreada.setId(1L);
@@ -69,7 +70,7 @@ public class CarreraServiceImplTest {
         assertEquals("Tecnicatura Universitaria en Programación", resultado.getNombre());
         assertEquals(6, resultado.getDuracionAnios());
         
-        verify(carreraDao).buscarAll();
+        verify(carreraDao).buscarPorNombre(anyString());
         verify(carreraDao).guardar(any(Carrera.class));
     }
     
@@ -85,8 +86,7 @@ public class CarreraServiceImplTest {
         carreraExistente.setNombre("Tecnicatura Universitaria en Programación");
         carreraExistente.setDuracionAnios(8);
 
-        List<Carrera> carrerasExistentes = Arrays.asList(carreraExistente);
-        when(carreraDao.buscarAll()).thenReturn(carrerasExistentes);
+        when(carreraDao.buscarPorNombre("Tecnicatura Universitaria en Programación")).thenReturn(Optional.of(carreraExistente));
 
         EntidadDuplicadaException exception = assertThrows(
             EntidadDuplicadaException.class,
@@ -97,7 +97,7 @@ public class CarreraServiceImplTest {
         assertTrue(exception.getMessage().contains("nombre"));
         assertTrue(exception.getMessage().contains("Tecnicatura Universitaria en Programación"));
 
-        verify(carreraDao).buscarAll();
+        verify(carreraDao).buscarPorNombre(anyString());
         verify(carreraDao, never()).guardar(any(Carrera.class));
     }
     
@@ -119,7 +119,7 @@ public class CarreraServiceImplTest {
         materia2.setId(2L);
         materia2.setNombre("Base de Datos");
 
-        when(carreraDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(carreraDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         when(materiaDao.buscarPorId(1L)).thenReturn(Optional.of(materia1));
         when(materiaDao.buscarPorId(2L)).thenReturn(Optional.of(materia2));
         
@@ -140,7 +140,7 @@ public class CarreraServiceImplTest {
         assertEquals("Programación I", resultado.getMaterias().get(0).getNombre());
         assertEquals("Base de Datos", resultado.getMaterias().get(1).getNombre());
         
-        verify(carreraDao).buscarAll();
+        verify(carreraDao).buscarPorNombre(anyString());
         verify(materiaDao).buscarPorId(1L);
         verify(materiaDao).buscarPorId(2L);
         verify(carreraDao).guardar(any(Carrera.class));
@@ -160,7 +160,7 @@ public class CarreraServiceImplTest {
         materia1.setId(1L);
         materia1.setNombre("Programación I");
 
-        when(carreraDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(carreraDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         when(materiaDao.buscarPorId(1L)).thenReturn(Optional.of(materia1));
         when(materiaDao.buscarPorId(999L)).thenReturn(Optional.empty());
         
@@ -178,7 +178,7 @@ public class CarreraServiceImplTest {
         assertEquals(1, resultado.getMaterias().size(), "Solo debería tener una materia válida");
         assertEquals("Programación I", resultado.getMaterias().get(0).getNombre());
         
-        verify(carreraDao).buscarAll();
+        verify(carreraDao).buscarPorNombre(anyString());
         verify(materiaDao).buscarPorId(1L);
         verify(materiaDao).buscarPorId(999L);
         verify(carreraDao).guardar(any(Carrera.class));
@@ -220,7 +220,7 @@ public class CarreraServiceImplTest {
         carreraDto.setDuracionAnios(6);
 
         
-        when(carreraDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(carreraDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         
         Carrera carreraCreada = new Carrera();
         carreraCreada.setId(1L);
@@ -237,7 +237,7 @@ public class CarreraServiceImplTest {
         assertEquals("Tecnicatura Universitaria en Programación", resultado.getNombre());
         assertTrue(resultado.getMaterias().isEmpty(), "La lista de materias debería estar vacía");
         
-        verify(carreraDao).buscarAll();
+        verify(carreraDao).buscarPorNombre(anyString());
         verify(carreraDao).guardar(any(Carrera.class));
         verify(materiaDao, never()).buscarPorId(anyLong()); 
     }
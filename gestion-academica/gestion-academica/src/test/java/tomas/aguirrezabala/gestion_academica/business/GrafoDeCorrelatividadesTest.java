@@ -0,0 +1,223 @@
+package tomas.aguirrezabala.gestion_academica.business;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.business.impl.GrafoDeCorrelatividades;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class GrafoDeCorrelatividadesTest {
+
+    @Test
+    void guardar_debeRechazarLosMismosCiclosQueUnRecorridoCompleto() {
+        Random azar = new Random(24);
+        Map<Long, List<Long>> esperado = new HashMap<>();
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> esperado.entrySet().stream()
+                .map(e -> materia(e.getKey(), e.getValue())));
+        int rechazadas = 0;
+
+        for (int i = 0; i < 5_000; i++) {
+            long materiaId = 1 + azar.nextInt(60);
+            if (azar.nextInt(10) == 0) {
+                // Sólo se borra una materia de la que no depende ninguna, como en el servicio.
+                if (esperado.values().stream().noneMatch(c -> c.contains(materiaId))) {
+                    esperado.remove(materiaId);
+                    grafo.quitar(materiaId);
+                }
+                continue;
+            }
+            List<Long> correlativas = new ArrayList<>();
+            for (int j = azar.nextInt(4); j > 0; j--) {
+                correlativas.add(1L + azar.nextInt(60));
+            }
+            boolean ciclo = correlativas.stream().anyMatch(c -> llega(esperado, c, materiaId, new HashSet<>()));
+
+            if (ciclo) {
+                rechazadas++;
+                assertThrows(ReglaNegocioException.class,
+                        () -> grafo.guardar(materiaId, correlativas, () -> materia(materiaId, correlativas)));
+            } else {
+                grafo.guardar(materiaId, correlativas, () -> materia(materiaId, correlativas));
+                esperado.put(materiaId, correlativas);
+                for (Long correlativaId : correlativas) {
+                    esperado.putIfAbsent(correlativaId, new ArrayList<>());
+                }
+            }
+        }
+
+        assertTrue(rechazadas > 100, "La prueba debería cruzarse con ciclos: " + rechazadas);
+    }
+
+    @Test
+    void guardar_debeDejarElGrafoComoEstaba_cuandoFallaElGuardado() {
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> List.of(
+                materia(1L, List.of()), materia(2L, List.of(1L)), materia(3L, List.of())).stream());
+
+        assertThrows(IllegalStateException.class, () -> grafo.guardar(1L, List.of(3L), () -> {
+            throw new IllegalStateException("sin espacio");
+        }));
+        grafo.guardar(3L, List.of(1L), () -> materia(3L, List.of(1L)));
+
+        assertThrows(ReglaNegocioException.class, () -> grafo.guardar(1L, List.of(2L), () -> materia(1L, List.of(2L))));
+    }
+
+    @Test
+    void guardar_debeSumarLaMateriaNueva_conElIdQueLeDioElGuardado() {
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> List.of(materia(1L, List.of())).stream());
+        Materia guardada = materia(7L, List.of(1L));
+
+        assertSame(guardada, grafo.guardar(null, List.of(1L), () -> guardada));
+
+        assertThrows(ReglaNegocioException.class, () -> grafo.guardar(1L, List.of(7L), () -> materia(1L, List.of(7L))));
+    }
+
+    @Test
+    void quitar_debeDejarReusarElLugar_sinArrastrarLasCorrelativas() {
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> List.of(
+                materia(1L, List.of()), materia(2L, List.of(1L))).stream());
+        grafo.guardar(3L, List.of(2L), () -> materia(3L, List.of(2L)));
+
+        for (long id = 10; id < 1_000; id++) {
+            long nueva = id;
+            grafo.guardar(nueva, List.of(3L), () -> materia(nueva, List.of(3L)));
+            grafo.quitar(nueva);
+        }
+        grafo.quitar(3L);
+        grafo.guardar(4L, List.of(), () -> materia(4L, List.of()));
+
+        grafo.guardar(1L, List.of(4L), () -> materia(1L, List.of(4L)));
+        assertThrows(ReglaNegocioException.class, () -> grafo.guardar(4L, List.of(2L), () -> materia(4L, List.of(2L))));
+    }
+
+    @Test
+    void carga_debeIgnorarUnCicloGuardadoAntes() {
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> Arrays.asList(
+                materia(1L, List.of(2L)), materia(2L, List.of(1L))).stream());
+
+        Materia guardada = grafo.guardar(3L, List.of(1L, 2L), () -> materia(3L, List.of(1L, 2L)));
+
+        assertEquals(3L, guardada.getId());
+    }
+
+    /**
+     * Diez planes de 500 materias en cadena (cada una pide la anterior). Compara el recorrido
+     * recursivo que se usaba antes con el grafo: correlativas que ya respetan el orden, otras
+     * que obligan a reordenar una cadena entera y ciclos que se rechazan.
+     */
+    @Test
+    @Tag("benchmark")
+    void guardar_debeVerificarCiclosSinRecorrerLasCadenas_conCincoMilMaterias() {
+        int cadenas = 10;
+        int largo = 500;
+        Map<Long, List<Long>> correlativas = new HashMap<>();
+        for (int c = 0; c < cadenas; c++) {
+            for (int k = 0; k < largo; k++) {
+                long id = id(c, k, largo);
+                correlativas.put(id, k == 0 ? new ArrayList<>() : new ArrayList<>(List.of(id - 1)));
+            }
+        }
+        GrafoDeCorrelatividades grafo = new GrafoDeCorrelatividades(() -> correlativas.entrySet().stream()
+                .map(e -> materia(e.getKey(), e.getValue())));
+
+        System.out.println("caso\tus/arista (grafo)\tus/arista (recursivo)");
+        long inicio = System.nanoTime();
+        grafo.guardar(id(0, 0, largo), List.of(), () -> null);
+        System.out.printf("carga\t%.2f%n", (System.nanoTime() - inicio) / 1e3 / (cadenas * largo));
+
+        double enOrden = 0;
+        double enOrdenRecursivo = 0;
+        for (int vuelta = 0; vuelta < 3; vuelta++) {
+            // La última de cada cadena como correlativa de una materia sin correlativas de la siguiente.
+            enOrden = medir(cadenas - 1, c -> grafo.guardar(id(c + 1, largo / 2, largo),
+                    List.of(id(c + 1, largo / 2 - 1, largo), id(c, largo - 1, largo)), () -> null));
+            enOrdenRecursivo = medir(cadenas - 1, c -> {
+                assertFalse(recursivoDeAntes(correlativas, id(c, largo - 1, largo), id(c + 1, largo / 2, largo), new ArrayList<>()));
+            });
+        }
+        System.out.printf("en orden\t%.2f\t%.2f%n", enOrden, enOrdenRecursivo);
+
+        // Con las cadenas sueltas otra vez, el comienzo de cada una pasa a pedir el final de la siguiente.
+        GrafoDeCorrelatividades alReves = new GrafoDeCorrelatividades(() -> correlativas.entrySet().stream()
+                .map(e -> materia(e.getKey(), e.getValue())));
+        alReves.guardar(id(0, 0, largo), List.of(), () -> null);
+        double reordenando = medir(cadenas - 1, c -> alReves.guardar(id(c, 0, largo),
+                List.of(id(c + 1, largo - 1, largo)), () -> null));
+        System.out.printf("reordenando\t%.2f%n", reordenando);
+
+        double ciclos = medir(cadenas, c -> assertThrows(ReglaNegocioException.class,
+                () -> alReves.guardar(id(c, 0, largo), List.of(id(c, largo - 1, largo)), () -> null)));
+        double ciclosRecursivo = medir(cadenas, c -> assertTrue(
+                recursivoDeAntes(correlativas, id(c, largo - 1, largo), id(c, 0, largo), new ArrayList<>())));
+        System.out.printf("ciclo\t%.2f\t%.2f%n", ciclos, ciclosRecursivo);
+
+        assertTrue(enOrden < enOrdenRecursivo, "Una arista que respeta el orden no debería recorrer la cadena");
+    }
+
+    private static double medir(int veces, IntConsumer caso) {
+        long inicio = System.nanoTime();
+        for (int i = 0; i < veces; i++) {
+            caso.accept(i);
+        }
+        return (System.nanoTime() - inicio) / 1e3 / veces;
+    }
+
+    private static long id(int cadena, int posicion, int largo) {
+        return 1L + (long) cadena * largo + posicion;
+    }
+
+    /**
+     * El recorrido que hacía antes el servicio: si {@code desde} o alguna de sus correlativas,
+     * a cualquier profundidad, es {@code buscada}.
+     */
+    private static boolean recursivoDeAntes(Map<Long, List<Long>> correlativas, Long desde, Long buscada, List<Long> visitadas) {
+        if (visitadas.contains(desde) || desde.equals(buscada)) {
+            return true;
+        }
+        visitadas.add(desde);
+        for (Long correlativaId : Optional.ofNullable(correlativas.get(desde)).orElse(List.of())) {
+            if (recursivoDeAntes(correlativas, correlativaId, buscada, new ArrayList<>(visitadas))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean llega(Map<Long, List<Long>> correlativas, Long desde, Long buscada, Set<Long> visitadas) {
+        if (desde.equals(buscada)) {
+            return true;
+        }
+        if (!visitadas.add(desde)) {
+            return false;
+        }
+        for (Long correlativaId : correlativas.getOrDefault(desde, List.of())) {
+            if (llega(correlativas, correlativaId, buscada, visitadas)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Materia materia(Long id, List<Long> correlativas) {
+        Materia materia = new Materia(id, "Materia " + id, 1, 1);
+        materia.setCorrelatividades(new ArrayList<>(correlativas));
+        return materia;
+    }
+
+}
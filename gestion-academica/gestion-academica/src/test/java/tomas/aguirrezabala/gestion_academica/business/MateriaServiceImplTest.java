@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -14,8 +15,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -30,8 +33,11 @@ import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.model.dto.MateriaDto;
 import tomas.aguirrezabala.gestion_academica.persistence.AsignaturaDao;
+import tomas.aguirrezabala.gestion_academica.persistence.CarreraDao;
 import tomas.aguirrezabala.gestion_academica.persistence.MateriaDao;
 import tomas.aguirrezabala.gestion_academica.persistence.ProfesorDao;
+import tomas.aguirrezabala.gestion_academica.persistence.UnidadDeTrabajo;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.UnidadDeTrabajoEnMemoria;
 
 public class MateriaServiceImplTest {
 
@@ -44,6 +50,12 @@ public class MateriaServiceImplTest {
     @Mock
     private AsignaturaDao asignaturaDao;
     
+    @Mock
+    private CarreraDao carreraDao;
+    
+    @Spy
+    private UnidadDeTrabajo unidadDeTrabajo = new UnidadDeTrabajoEnMemoria();
+
     @InjectMocks
     private MateriaServiceImpl materiaService;
     
@@ -59,7 +71,7 @@ public class MateriaServiceImplTest {
         materiaDto.setAnio(1);
         materiaDto.setCuatrimestre(1);
         
-        when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
         
         Materia materiaGuardada = new Materia();
         materiaGuardada.setId(1L);
@@ -78,7 +90,7 @@ public class MateriaServiceImplTest {
         assertEquals(1, resultado.getAnio());
         assertEquals(1, resultado.getCuatrimestre());
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(materiaDao).guardar(any(Materia.class));
     }
     
@@ -93,8 +105,7 @@ public class MateriaServiceImplTest {
         materiaExistente.setId(1L);
         materiaExistente.setNombre("Programación I");
         
-        List<Materia> materias = Arrays.asList(materiaExistente);
-        when(materiaDao.buscarAll()).thenReturn(materias);
+        when(materiaDao.buscarPorNombre("Programación I")).thenReturn(Optional.of(materiaExistente));
 
         Exception exception = assertThrows(EntidadDuplicadaException.class, () -> {
             materiaService.guardar(materiaDto);
@@ -103,7 +114,7 @@ public class MateriaServiceImplTest {
         assertTrue(exception.getMessage().contains("nombre"));
         assertTrue(exception.getMessage().contains("Programación I"));
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(materiaDao, never()).guardar(any(Materia.class));
     }
     
@@ -117,7 +128,7 @@ public class MateriaServiceImplTest {
         materiaDto.setCuatrimestre(2);
         materiaDto.setProfesorId(profesorId);
 
-        when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
 
         Profesor profesor = new Profesor();
         profesor.setId(profesorId);
@@ -143,7 +154,7 @@ public class MateriaServiceImplTest {
         assertEquals(profesorId, resultado.getProfesor().getId());
         assertEquals("Tomas", resultado.getProfesor().getNombre());
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(profesorDao).buscarPorId(profesorId);
         verify(materiaDao).guardar(any(Materia.class));
     }
@@ -159,7 +170,7 @@ public class MateriaServiceImplTest {
         materiaDto.setCuatrimestre(1);
         materiaDto.setProfesorId(profesorId);
         
-        when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
 
         when(profesorDao.buscarPorId(profesorId)).thenReturn(Optional.empty());
 
@@ -170,7 +181,7 @@ public class MateriaServiceImplTest {
         assertTrue(exception.getMessage().contains("Profesor"));
         assertTrue(exception.getMessage().contains(profesorId.toString()));
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(profesorDao).buscarPorId(profesorId);
         verify(materiaDao, never()).guardar(any(Materia.class));
     }
@@ -185,7 +196,7 @@ public class MateriaServiceImplTest {
         List<Long> correlatividades = Arrays.asList(1L, 2L);
         materiaDto.setCorrelatividades(correlatividades);
 
-        when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
 
         Materia correlativa1 = new Materia();
         correlativa1.setId(1L);
@@ -215,7 +226,7 @@ public class MateriaServiceImplTest {
         assertTrue(resultado.getCorrelatividades().contains(1L));
         assertTrue(resultado.getCorrelatividades().contains(2L));
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(materiaDao).buscarPorId(1L);
         verify(materiaDao).buscarPorId(2L);
         verify(materiaDao).guardar(any(Materia.class));
@@ -231,7 +242,7 @@ public class MateriaServiceImplTest {
         List<Long> correlatividades = Arrays.asList(1L, 999L);
         materiaDto.setCorrelatividades(correlatividades);
 
-        when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
 
         Materia correlativa1 = new Materia();
         correlativa1.setId(1L);
@@ -247,12 +258,35 @@ public class MateriaServiceImplTest {
         assertTrue(exception.getMessage().contains("correlativa"));
         assertTrue(exception.getMessage().contains("999"));
         
-        verify(materiaDao).buscarAll();
+        verify(materiaDao).buscarPorNombre(anyString());
         verify(materiaDao).buscarPorId(1L);
         verify(materiaDao).buscarPorId(999L);
         verify(materiaDao, never()).guardar(any(Materia.class));
     }
 
+    @Test
+    void guardar_debeFallar_cuandoLaCorrelativaCreaUnCiclo() {
+        MateriaDto materiaDto = new MateriaDto();
+        materiaDto.setId(1L);
+        materiaDto.setNombre("Programación I");
+        materiaDto.setCorrelatividades(Arrays.asList(2L));
+
+        Materia materia = new Materia(1L, "Programación I", 1, 1);
+        Materia materiaAvanzada = new Materia(2L, "Programación II", 2, 1);
+        materiaAvanzada.setCorrelatividades(Arrays.asList(1L));
+
+        when(materiaDao.buscarPorNombre(anyString())).thenReturn(Optional.empty());
+        when(materiaDao.buscarPorId(2L)).thenReturn(Optional.of(materiaAvanzada));
+        when(materiaDao.recorrer()).thenReturn(Stream.of(materia, materiaAvanzada));
+
+        Exception exception = assertThrows(ReglaNegocioException.class, () -> {
+            materiaService.guardar(materiaDto);
+        });
+
+        assertTrue(exception.getMessage().contains("ciclo"));
+        verify(materiaDao, never()).guardar(any(Materia.class));
+    }
+
 @Test
 void buscarPorId_debeRetornarMateria_cuandoExiste() {
     Long materiaId = 1L;
@@ -350,15 +384,19 @@ void eliminarPorId_debeEliminarMateria_cuandoNoTieneDependencias() throws Entida
 
     when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
 
-    when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+    when(materiaDao.existePorCorrelativaId(materiaId)).thenReturn(false);
 
     when(asignaturaDao.existePorMateriaId(materiaId)).thenReturn(false);
 
+    when(carreraDao.existePorMateriaId(materiaId)).thenReturn(false);
+
     materiaService.eliminarPorId(materiaId);
 
     verify(materiaDao).buscarPorId(materiaId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).existePorCorrelativaId(materiaId);
+    verify(materiaDao, never()).recorrer();
     verify(asignaturaDao).existePorMateriaId(materiaId);
+    verify(carreraDao).existePorMateriaId(materiaId);
     verify(materiaDao).borrarPorId(materiaId);
 }
 
@@ -376,7 +414,8 @@ void eliminarPorId_debeFallar_cuandoEsCorrelativaDeOtraMateria() {
     materiaAvanzada.setCorrelatividades(Arrays.asList(materiaId));
 
     when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
-    when(materiaDao.buscarAll()).thenReturn(Arrays.asList(materia, materiaAvanzada));
+    when(materiaDao.existePorCorrelativaId(materiaId)).thenReturn(true);
+    when(materiaDao.recorrer()).thenReturn(Stream.of(materia, materiaAvanzada));
 
     ReglaNegocioException exception = assertThrows(
         ReglaNegocioException.class,
@@ -388,7 +427,7 @@ void eliminarPorId_debeFallar_cuandoEsCorrelativaDeOtraMateria() {
     assertTrue(exception.getMessage().contains("Programación II"));
     
     verify(materiaDao).buscarPorId(materiaId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
     verify(materiaDao, never()).borrarPorId(materiaId);
 }
 
@@ -402,7 +441,7 @@ void eliminarPorId_debeFallar_cuandoTieneAlumnosInscriptos() {
 
     when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
 
-    when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+    when(materiaDao.existePorCorrelativaId(materiaId)).thenReturn(false);
 
     when(asignaturaDao.existePorMateriaId(materiaId)).thenReturn(true);
 
@@ -415,11 +454,36 @@ void eliminarPorId_debeFallar_cuandoTieneAlumnosInscriptos() {
     assertTrue(exception.getMessage().contains("alumnos inscriptos"));
     
     verify(materiaDao).buscarPorId(materiaId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).existePorCorrelativaId(materiaId);
     verify(asignaturaDao).existePorMateriaId(materiaId);
     verify(materiaDao, never()).borrarPorId(materiaId);
 }
 
+@Test
+void eliminarPorId_debeFallar_cuandoPerteneceAUnaCarrera() {
+    Long materiaId = 1L;
+
+    Materia materia = new Materia();
+    materia.setId(materiaId);
+    materia.setNombre("Programación I");
+
+    when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
+    when(materiaDao.existePorCorrelativaId(materiaId)).thenReturn(false);
+    when(asignaturaDao.existePorMateriaId(materiaId)).thenReturn(false);
+    when(carreraDao.existePorMateriaId(materiaId)).thenReturn(true);
+
+    ReglaNegocioException exception = assertThrows(
+        ReglaNegocioException.class,
+        () -> materiaService.eliminarPorId(materiaId),
+        "Debería lanzar una excepción por pertenecer a una carrera"
+    );
+    
+    assertTrue(exception.getMessage().contains("carrera"));
+    
+    verify(carreraDao).existePorMateriaId(materiaId);
+    verify(materiaDao, never()).borrarPorId(materiaId);
+}
+
 @Test
 void eliminarPorId_debeFallar_cuandoMateriaNoExiste() {
     Long materiaId = 999L;
@@ -436,7 +500,7 @@ void eliminarPorId_debeFallar_cuandoMateriaNoExiste() {
     assertTrue(exception.getMessage().contains(materiaId.toString()));
     
     verify(materiaDao).buscarPorId(materiaId);
-    verify(materiaDao, never()).buscarAll();
+    verify(materiaDao, never()).recorrer();
     verify(asignaturaDao, never()).existePorMateriaId(anyLong());
     verify(materiaDao, never()).borrarPorId(materiaId);
 }
@@ -542,7 +606,7 @@ void crearConCorrelatividades_debeFallar_cuandoCreaUnCiclo() {
     correlativa1.setCorrelatividades(Arrays.asList(materiaId));
 
     when(materiaDao.buscarPorId(1L)).thenReturn(Optional.of(correlativa1));
-    when(materiaDao.buscarPorId(materiaId)).thenReturn(Optional.of(materia));
+    when(materiaDao.recorrer()).thenReturn(Stream.of(correlativa1, materia));
 
     ReglaNegocioException exception = assertThrows(
         ReglaNegocioException.class,
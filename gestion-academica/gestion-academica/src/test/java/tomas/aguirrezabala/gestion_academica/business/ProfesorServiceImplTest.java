@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -14,6 +15,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
@@ -54,7 +56,7 @@ public class ProfesorServiceImplTest {
         profesorDto.setApellido("Aguirrezabala");
         profesorDto.setTitulo("Tecnico Universitario en Programacion");
 
-        when(profesorDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(profesorDao.buscarPorNombreYApellido(anyString(), anyString())).thenReturn(Optional.empty());
 
         Profesor profesorGuardado = new Profesor();
         profesorGuardado.setId(1L);
@@ -72,7 +74,7 @@ public class ProfesorServiceImplTest {
         assertEquals("Aguirrezabala", resultado.getApellido());
         assertEquals("Tecnico Universitario en Programacion", resultado.getTitulo());
         
-        verify(profesorDao).buscarAll();
+        verify(profesorDao).buscarPorNombreYApellido(anyString(), anyString());
         verify(profesorDao).guardar(any(Profesor.class));
     }
     
@@ -86,7 +88,7 @@ public class ProfesorServiceImplTest {
         List<Long> materiasIds = Arrays.asList(1L, 2L);
         profesorDto.setMateriasIds(materiasIds);
 
-        when(profesorDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(profesorDao.buscarPorNombreYApellido(anyString(), anyString())).thenReturn(Optional.empty());
 
         Materia materia1 = new Materia();
         materia1.setId(1L);
@@ -123,7 +125,7 @@ public class ProfesorServiceImplTest {
         assertEquals(2L, resultado.getMaterias().get(1).getId());
         assertEquals("Base de Datos", resultado.getMaterias().get(1).getNombre());
         
-        verify(profesorDao).buscarAll();
+        verify(profesorDao).buscarPorNombreYApellido(anyString(), anyString());
         verify(materiaDao).buscarPorId(1L);
         verify(materiaDao).buscarPorId(2L);
         verify(profesorDao).guardar(any(Profesor.class));
@@ -143,8 +145,7 @@ public class ProfesorServiceImplTest {
         profesorExistente.setApellido("Aguirrezabala");
         profesorExistente.setTitulo("Tecnico Universitario en Programacion II");
         
-        List<Profesor> profesoresExistentes = Arrays.asList(profesorExistente);
-        when(profesorDao.buscarAll()).thenReturn(profesoresExistentes);
+        when(profesorDao.buscarPorNombreYApellido("Tomas", "Aguirrezabala")).thenReturn(Optional.of(profesorExistente));
 
         EntidadDuplicadaException exception = assertThrows(
             EntidadDuplicadaException.class,
@@ -155,7 +156,7 @@ public class ProfesorServiceImplTest {
         assertTrue(exception.getMessage().contains("nombre y apellido"));
         assertTrue(exception.getMessage().contains("Tomas Aguirrezabala"));
         
-        verify(profesorDao).buscarAll();
+        verify(profesorDao).buscarPorNombreYApellido(anyString(), anyString());
         verify(profesorDao, never()).guardar(any(Profesor.class));
     }
     
@@ -199,7 +200,7 @@ public class ProfesorServiceImplTest {
         List<Long> materiasIds = Arrays.asList(1L, 999L);
         profesorDto.setMateriasIds(materiasIds);
 
-        when(profesorDao.buscarAll()).thenReturn(new ArrayList<>());
+        when(profesorDao.buscarPorNombreYApellido(anyString(), anyString())).thenReturn(Optional.empty());
 
         Materia materia1 = new Materia();
         materia1.setId(1L);
@@ -334,12 +335,12 @@ void eliminarPorId_debeEliminarProfesor_cuandoNoTieneMaterias() throws EntidadNo
     
     when(profesorDao.buscarPorId(profesorId)).thenReturn(Optional.of(profesor));
 
-    when(materiaDao.buscarAll()).thenReturn(new ArrayList<>());
+    when(materiaDao.recorrer()).thenReturn(Stream.empty());
 
     profesorService.eliminarPorId(profesorId);
 
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
     verify(profesorDao).borrarPorId(profesorId);
 }
 
@@ -414,7 +415,7 @@ void eliminarPorId_debeFallar_cuandoTieneMateriasDesdeBD() {
     profesorReferencia.setId(profesorId);
     materia.setProfesor(profesorReferencia);
     
-    when(materiaDao.buscarAll()).thenReturn(Arrays.asList(materia));
+    when(materiaDao.recorrer()).thenReturn(Stream.of(materia));
 
     ReglaNegocioException exception = assertThrows(
         ReglaNegocioException.class,
@@ -426,7 +427,7 @@ void eliminarPorId_debeFallar_cuandoTieneMateriasDesdeBD() {
     assertTrue(exception.getMessage().contains("Base de Datos"));
     
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
     verify(profesorDao, never()).borrarPorId(anyLong());
 }
 
@@ -467,7 +468,7 @@ void obtenerMateriasOrdenadas_debeRetornarMateriasOrdenadas_cuandoProfesorExiste
 
     materia2.setProfesor(profesorReferencia);
 
-    when(materiaDao.buscarAll()).thenReturn(Arrays.asList(materia1, materia2, materia3, materia4));
+    when(materiaDao.recorrer()).thenReturn(Stream.of(materia1, materia2, materia3, materia4));
 
     List<Materia> resultado = profesorService.obtenerMateriasOrdenadas(profesorId);
 
@@ -480,7 +481,7 @@ void obtenerMateriasOrdenadas_debeRetornarMateriasOrdenadas_cuandoProfesorExiste
     assertEquals("Programación I", resultado.get(3).getNombre());
     
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
 }
 
 @Test
@@ -501,7 +502,7 @@ void obtenerMateriasOrdenadas_debeRetornarListaVacia_cuandoProfesorSinMaterias()
     materiasEnBD.add(crearMateriaConProfesor(1L, "Programación I", 3L)); // otro profesor
     materiasEnBD.add(crearMateriaConProfesor(2L, "Base de Datos", 3L));   // otro profesor
     
-    when(materiaDao.buscarAll()).thenReturn(materiasEnBD);
+    when(materiaDao.recorrer()).thenReturn(materiasEnBD.stream());
 
     List<Materia> resultado = profesorService.obtenerMateriasOrdenadas(profesorId);
 
@@ -509,7 +510,7 @@ void obtenerMateriasOrdenadas_debeRetornarListaVacia_cuandoProfesorSinMaterias()
     assertTrue(resultado.isEmpty(), "La lista debería estar vacía");
     
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
 }
 
 @Test
@@ -529,7 +530,7 @@ void obtenerMateriasOrdenadas_debeFallar_cuandoProfesorNoExiste() {
     assertTrue(exception.getMessage().contains(profesorId.toString()));
     
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao, never()).buscarAll();
+    verify(materiaDao, never()).recorrer();
 }
 
 @Test
@@ -560,7 +561,7 @@ void obtenerMateriasOrdenadas_noDebeDuplicarMaterias_cuandoExistenEnAmbosLados()
     materia1.setProfesor(profesorReferencia);
     materia2.setProfesor(profesorReferencia);
     
-    when(materiaDao.buscarAll()).thenReturn(Arrays.asList(materia1, materia2));
+    when(materiaDao.recorrer()).thenReturn(Stream.of(materia1, materia2));
 
     List<Materia> resultado = profesorService.obtenerMateriasOrdenadas(profesorId);
 
@@ -571,7 +572,7 @@ void obtenerMateriasOrdenadas_noDebeDuplicarMaterias_cuandoExistenEnAmbosLados()
     assertEquals("Programación I", resultado.get(1).getNombre());
     
     verify(profesorDao).buscarPorId(profesorId);
-    verify(materiaDao).buscarAll();
+    verify(materiaDao).recorrer();
 }
 
 private Materia crearMateriaConProfesor(Long materiaId, String nombreMateria, Long profesorId) {
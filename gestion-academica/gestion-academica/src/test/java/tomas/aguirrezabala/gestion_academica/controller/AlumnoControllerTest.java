@@ -11,20 +11,24 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -41,6 +45,8 @@ import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Pagina;
 import tomas.aguirrezabala.gestion_academica.model.dto.AlumnoDto;
 
 public class AlumnoControllerTest {
@@ -79,7 +85,7 @@ public class AlumnoControllerTest {
 
         when(alumnoService.buscarTodos()).thenReturn(alumnos);
 
-        mockMvc.perform(get("/alumno")
+        mockMvc.perform(get("/alumno").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
@@ -100,7 +106,7 @@ public class AlumnoControllerTest {
 
         when(alumnoService.buscarTodos()).thenReturn(Collections.emptyList());
 
-        mockMvc.perform(get("/alumno")
+        mockMvc.perform(get("/alumno").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
@@ -108,6 +114,55 @@ public class AlumnoControllerTest {
         verify(alumnoService, times(1)).buscarTodos();
     }
     
+    @Test
+    void listarTodos_debeRetornarPrimeraPaginaConLink_cuandoHayMasAlumnos() throws Exception {
+
+        Alumno alumno1 = new Alumno(1L, "Tomas", "Aguirrezabala", "12345678", null);
+        Alumno alumno2 = new Alumno(2L, "Juan", "Perez", "87654321", null);
+
+        when(alumnoService.buscarPagina(null, 2, Orden.ASCENDENTE))
+                .thenReturn(new Pagina<>(List.of(alumno1, alumno2), 2L));
+
+        mockMvc.perform(get("/alumno?limit=2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(header().string(HttpHeaders.LINK,
+                        "<http://localhost/alumno?limit=2&after=2>; rel=\"next\""));
+
+        verify(alumnoService, never()).buscarTodos();
+    }
+
+    @Test
+    void listarTodos_debeUsarLimitePorDefectoYNoAgregarLink_cuandoEsLaUltimaPagina() throws Exception {
+
+        Alumno alumno = new Alumno(7L, "Tomas", "Aguirrezabala", "12345678", null);
+
+        when(alumnoService.buscarPagina(5L, 50, Orden.DESCENDENTE))
+                .thenReturn(new Pagina<>(List.of(alumno), null));
+
+        mockMvc.perform(get("/alumno").param("after", "5").param("sort", "-id")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(HttpHeaders.LINK));
+    }
+
+    @Test
+    void listarTodos_debeRetornarBadRequest_cuandoLosParametrosDePaginaNoSonValidos() throws Exception {
+
+        mockMvc.perform(get("/alumno").param("sort", "nombre"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.mensaje", is("El parámetro sort sólo admite id o -id")));
+        mockMvc.perform(get("/alumno").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/alumno").param("limit", "501"))
+                .andExpect(status().isBadRequest());
+
+        verify(alumnoService, never()).buscarPagina(any(), anyInt(), any());
+    }
+    
     @Test
     void buscarPorId_debeRetornarAlumno_cuandoExiste() throws Exception {
 
@@ -149,6 +204,36 @@ public class AlumnoControllerTest {
         verify(alumnoService, times(1)).buscarPorId(idInexistente);
     }
     
+    @Test
+    void buscarPorDni_debeRetornarAlumno_cuandoExiste() throws Exception {
+
+        Alumno alumno = new Alumno(1L, "Tomas", "Aguirrezabala", "12345678", null);
+
+        when(alumnoService.buscarPorDni("12345678")).thenReturn(Optional.of(alumno));
+
+        mockMvc.perform(get("/alumno/dni/{dni}", "12345678")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.dni", is("12345678")));
+
+        verify(alumnoService, times(1)).buscarPorDni("12345678");
+    }
+    
+    @Test
+    void buscarPorDni_debeLanzarExcepcion_cuandoNoExiste() throws Exception {
+
+        when(alumnoService.buscarPorDni("99999999")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/alumno/dni/{dni}", "99999999")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.mensaje", is("Alumno con DNI 99999999 no encontrado/a")));
+
+        verify(alumnoService, times(1)).buscarPorDni("99999999");
+    }
+    
     @Test
     void crear_debeRetornarAlumnoCreado_cuandoDatosValidos() throws Exception {
 
@@ -517,7 +602,7 @@ void cambiarEstadoAsignatura_debeRetornarAsignaturaActualizada_cuandoDatosValido
     asignaturaActualizada.setEstado(nuevoEstado);
     asignaturaActualizada.setNota(8.0);
 
-    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado))
+    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado, null))
         .thenReturn(asignaturaActualizada);
 
     mockMvc.perform(put("/alumno/{idAlumno}/asignatura/{idAsignatura}", idAlumno, idAsignatura)
@@ -530,7 +615,7 @@ void cambiarEstadoAsignatura_debeRetornarAsignaturaActualizada_cuandoDatosValido
             .andExpect(jsonPath("$.materia.id", is(3)))
             .andExpect(jsonPath("$.nota", is(8.0)));
 
-    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado);
+    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado, null);
 }
 
 @Test
@@ -540,7 +625,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAlumnoNoExiste() throws E
     Long idAsignatura = 2L;
     EstadoAsignatura nuevoEstado = EstadoAsignatura.APROBADO;
 
-    when(alumnoService.cambiarEstadoAsignatura(idAlumnoInexistente, idAsignatura, nuevoEstado))
+    when(alumnoService.cambiarEstadoAsignatura(idAlumnoInexistente, idAsignatura, nuevoEstado, null))
         .thenThrow(new EntidadNoEncontradaException("Alumno", idAlumnoInexistente));
 
     mockMvc.perform(put("/alumno/{idAlumno}/asignatura/{idAsignatura}", idAlumnoInexistente, idAsignatura)
@@ -551,7 +636,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAlumnoNoExiste() throws E
             .andExpect(jsonPath("$.error", is("Not Found")))
             .andExpect(jsonPath("$.mensaje").exists());
 
-    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumnoInexistente, idAsignatura, nuevoEstado);
+    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumnoInexistente, idAsignatura, nuevoEstado, null);
 }
 
 @Test
@@ -561,7 +646,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAsignaturaNoExiste() thro
     Long idAsignaturaInexistente = 999L;
     EstadoAsignatura nuevoEstado = EstadoAsignatura.APROBADO;
 
-    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignaturaInexistente, nuevoEstado))
+    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignaturaInexistente, nuevoEstado, null))
         .thenThrow(new EntidadNoEncontradaException("Asignatura", idAsignaturaInexistente));
 
     mockMvc.perform(put("/alumno/{idAlumno}/asignatura/{idAsignatura}", idAlumno, idAsignaturaInexistente)
@@ -572,7 +657,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAsignaturaNoExiste() thro
             .andExpect(jsonPath("$.error", is("Not Found")))
             .andExpect(jsonPath("$.mensaje").exists());
 
-    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignaturaInexistente, nuevoEstado);
+    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignaturaInexistente, nuevoEstado, null);
 }
 
 @Test
@@ -582,7 +667,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAsignaturaNoPertenece() t
     Long idAsignatura = 2L;
     EstadoAsignatura nuevoEstado = EstadoAsignatura.APROBADO;
 
-    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado))
+    when(alumnoService.cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado, null))
         .thenThrow(new ReglaNegocioException("La asignatura no pertenece al alumno especificado"));
 
     mockMvc.perform(put("/alumno/{idAlumno}/asignatura/{idAsignatura}", idAlumno, idAsignatura)
@@ -593,7 +678,7 @@ void cambiarEstadoAsignatura_debeLanzarExcepcion_cuandoAsignaturaNoPertenece() t
             .andExpect(jsonPath("$.error", is("Bad Request")))
             .andExpect(jsonPath("$.mensaje").value("La asignatura no pertenece al alumno especificado"));
 
-    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado);
+    verify(alumnoService, times(1)).cambiarEstadoAsignatura(idAlumno, idAsignatura, nuevoEstado, null);
 }
 
 @Test
@@ -10,6 +10,7 @@ import static org.hamcrest.Matchers.is;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.doNothing;
@@ -18,12 +19,14 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -32,8 +35,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import tomas.aguirrezabala.gestion_academica.business.AsignaturaService;
 import tomas.aguirrezabala.gestion_academica.controller.handler.CustomResponseEntityExceptionHandler;
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
@@ -90,7 +95,7 @@ public class AsignaturaControllerTest {
 
         when(asignaturaService.buscarTodas()).thenReturn(asignaturas);
 
-        mockMvc.perform(get("/asignatura")
+        mockMvc.perform(get("/asignatura").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
@@ -111,7 +116,7 @@ public class AsignaturaControllerTest {
 
         when(asignaturaService.buscarTodas()).thenReturn(Collections.emptyList());
 
-        mockMvc.perform(get("/asignatura")
+        mockMvc.perform(get("/asignatura").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
@@ -151,6 +156,19 @@ public class AsignaturaControllerTest {
         verify(asignaturaService, times(1)).buscarPorId(idBuscado);
     }
     
+    @Test
+    void buscarPorId_debeDevolverLaVersionEnElETag() throws Exception {
+
+        Asignatura asignatura = new Asignatura(1L, new Materia(), new Alumno(), EstadoAsignatura.CURSANDO);
+        asignatura.setVersion(3L);
+
+        when(asignaturaService.buscarPorId(1L)).thenReturn(Optional.of(asignatura));
+
+        mockMvc.perform(get("/asignatura/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+    }
+    
     @Test
     void buscarPorId_debeLanzarExcepcion_cuandoNoExiste() throws Exception {
 
@@ -458,6 +476,29 @@ public class AsignaturaControllerTest {
         verify(asignaturaService, times(1)).guardar(any(AsignaturaDto.class));
     }
     
+    @Test
+    void actualizarNota_debeRetornarBadRequest_cuandoLaNotaTieneMasDeDosDecimales() throws Exception {
+
+        Long idAsignatura = 1L;
+        Double nuevaNota = 7.125;
+
+        Asignatura asignatura = new Asignatura(idAsignatura, new Materia(), new Alumno(), EstadoAsignatura.REGULAR);
+        String mensaje = "La nota 7.125 no es válida: admite hasta dos decimales y hasta 327,67 en valor absoluto";
+
+        when(asignaturaService.buscarPorId(idAsignatura)).thenReturn(Optional.of(asignatura));
+        when(asignaturaService.guardar(any(AsignaturaDto.class))).thenThrow(new ReglaNegocioException(mensaje));
+
+        mockMvc.perform(put("/asignatura/{id}/nota", idAsignatura)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevaNota)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.error", is("Bad Request")))
+                .andExpect(jsonPath("$.mensaje").value(mensaje));
+
+        verify(asignaturaService, times(1)).guardar(argThat(dto -> nuevaNota.equals(dto.getNota())));
+    }
+
     @Test
     void actualizarNota_debeLanzarExcepcion_cuandoAsignaturaNoExiste() throws Exception {
 
@@ -477,4 +518,38 @@ public class AsignaturaControllerTest {
         verify(asignaturaService, times(1)).buscarPorId(idInexistente);
         verify(asignaturaService, times(0)).guardar(any(AsignaturaDto.class));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void actualizarNota_debeRetornarConflicto_cuandoElIfMatchQuedoViejo() throws Exception {
+
+        Asignatura asignatura = new Asignatura(1L, new Materia(), new Alumno(), EstadoAsignatura.REGULAR);
+        asignatura.setVersion(4L);
+
+        when(asignaturaService.buscarPorId(1L)).thenReturn(Optional.of(asignatura));
+        when(asignaturaService.guardar(argThat(dto -> Long.valueOf(3L).equals(dto.getVersion()))))
+                .thenThrow(new ConflictoDeVersionException("Asignatura", 1L, 3L, 4L));
+
+        mockMvc.perform(put("/asignatura/{id}/nota", 1L)
+                .header(HttpHeaders.IF_MATCH, "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(8.5)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status", is(409)))
+                .andExpect(jsonPath("$.mensaje").exists());
+    }
+
+    @Test
+    void actualizarNota_debeRetornarBadRequest_cuandoElIfMatchNoEsUnaVersion() throws Exception {
+
+        Asignatura asignatura = new Asignatura(1L, new Materia(), new Alumno(), EstadoAsignatura.REGULAR);
+        when(asignaturaService.buscarPorId(1L)).thenReturn(Optional.of(asignatura));
+
+        mockMvc.perform(put("/asignatura/{id}/nota", 1L)
+                .header(HttpHeaders.IF_MATCH, "abc")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(8.5)))
+                .andExpect(status().isBadRequest());
+
+        verify(asignaturaService, times(0)).guardar(any(AsignaturaDto.class));
+    }
+}
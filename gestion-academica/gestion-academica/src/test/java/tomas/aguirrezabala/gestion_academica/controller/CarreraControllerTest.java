@@ -73,7 +73,7 @@ public class CarreraControllerTest {
 
         when(carreraService.buscarTodas()).thenReturn(carreras);
 
-        mockMvc.perform(get("/carrera")
+        mockMvc.perform(get("/carrera").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
@@ -92,7 +92,7 @@ public class CarreraControllerTest {
 
         when(carreraService.buscarTodas()).thenReturn(Collections.emptyList());
 
-        mockMvc.perform(get("/carrera")
+        mockMvc.perform(get("/carrera").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
@@ -150,6 +150,36 @@ public class CarreraControllerTest {
 
         verify(carreraService, times(1)).buscarPorId(idInexistente);
     }
+    
+    @Test
+    void buscarPorNombre_debeRetornarCarrera_cuandoExiste() throws Exception {
+
+        Carrera carrera = new Carrera(1L, "Ingeniería Informática", 5);
+
+        when(carreraService.buscarPorNombre("Ingeniería Informática")).thenReturn(Optional.of(carrera));
+
+        mockMvc.perform(get("/carrera/nombre/{nombre}", "Ingeniería Informática")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.nombre", is("Ingeniería Informática")));
+
+        verify(carreraService, times(1)).buscarPorNombre("Ingeniería Informática");
+    }
+    
+    @Test
+    void buscarPorNombre_debeLanzarExcepcion_cuandoNoExiste() throws Exception {
+
+        when(carreraService.buscarPorNombre("Inexistente")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/carrera/nombre/{nombre}", "Inexistente")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.mensaje").exists());
+
+        verify(carreraService, times(1)).buscarPorNombre("Inexistente");
+    }
 
     @Test
     void crear_debeRetornarCarreraCreada_cuandoDatosValidos() throws Exception {
@@ -31,11 +31,15 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import tomas.aguirrezabala.gestion_academica.business.AsignaturaService;
 import tomas.aguirrezabala.gestion_academica.business.MateriaService;
 import tomas.aguirrezabala.gestion_academica.controller.handler.CustomResponseEntityExceptionHandler;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
 import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.CantidadPorEstado;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.model.dto.MateriaDto;
@@ -45,6 +49,9 @@ public class MateriaControllerTest {
     @Mock
     private MateriaService materiaService;
     
+    @Mock
+    private AsignaturaService asignaturaService;
+    
     @InjectMocks
     private MateriaController materiaController;
     
@@ -75,7 +82,7 @@ public class MateriaControllerTest {
 
         when(materiaService.buscarTodas()).thenReturn(materias);
 
-        mockMvc.perform(get("/materia")
+        mockMvc.perform(get("/materia").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
@@ -99,7 +106,7 @@ public class MateriaControllerTest {
         when(materiaService.buscarTodas()).thenReturn(Collections.emptyList());
         
 
-        mockMvc.perform(get("/materia")
+        mockMvc.perform(get("/materia").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
@@ -152,6 +159,36 @@ public class MateriaControllerTest {
         verify(materiaService, times(1)).buscarPorId(idInexistente);
     }
     
+    @Test
+    void buscarPorNombre_debeRetornarMateria_cuandoExiste() throws Exception {
+
+        Materia materia = new Materia(1L, "Programación I", 1, 1, null);
+
+        when(materiaService.buscarPorNombre("Programación I")).thenReturn(Optional.of(materia));
+
+        mockMvc.perform(get("/materia/nombre/{nombre}", "Programación I")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.nombre", is("Programación I")));
+
+        verify(materiaService, times(1)).buscarPorNombre("Programación I");
+    }
+    
+    @Test
+    void buscarPorNombre_debeLanzarExcepcion_cuandoNoExiste() throws Exception {
+
+        when(materiaService.buscarPorNombre("Inexistente")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/materia/nombre/{nombre}", "Inexistente")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.mensaje").exists());
+
+        verify(materiaService, times(1)).buscarPorNombre("Inexistente");
+    }
+    
     @Test
     void crear_debeRetornarMateriaCreada_cuandoDatosValidos() throws Exception {
 
@@ -508,4 +545,41 @@ public class MateriaControllerTest {
         verify(materiaService, times(1)).buscarPorId(idMateria);
         verify(materiaService, times(1)).crearConCorrelatividades(any(Materia.class), anyList());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void cantidadPorEstado_debeRetornarLaCantidad_cuandoLaMateriaExiste() throws Exception {
+
+        when(asignaturaService.contarPorMateriaYEstado(1L, EstadoAsignatura.REGULAR))
+            .thenReturn(new CantidadPorEstado(1L, EstadoAsignatura.REGULAR, 42));
+
+        mockMvc.perform(get("/materia/{id}/alumnos/cantidad", 1L).param("estado", "REGULAR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.materiaId", is(1)))
+                .andExpect(jsonPath("$.estado", is("REGULAR")))
+                .andExpect(jsonPath("$.cantidad", is(42)));
+    }
+    
+    @Test
+    void alumnosPorEstadoEnMaterias_debeRetornarLosAlumnos_cuandoSePidenEnTodas() throws Exception {
+
+        when(asignaturaService.buscarAlumnosPorEstado(List.of(1L, 2L), EstadoAsignatura.APROBADO, true))
+            .thenReturn(List.of(new Alumno(5L, "Ana", "Perez", "5", null)));
+
+        mockMvc.perform(get("/materia/alumnos")
+                .param("materias", "1,2")
+                .param("estado", "APROBADO")
+                .param("todas", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(5)));
+    }
+    
+    @Test
+    void alumnosPorEstado_debeLanzarExcepcion_cuandoElEstadoNoExiste() throws Exception {
+
+        mockMvc.perform(get("/materia/{id}/alumnos", 1L).param("estado", "LIBRE"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)))
+                .andExpect(jsonPath("$.mensaje").exists());
+    }
+}
@@ -75,7 +75,7 @@ public class ProfesorControllerTest {
 
         when(profesorService.buscarTodos()).thenReturn(profesores);
 
-        mockMvc.perform(get("/profesor")
+        mockMvc.perform(get("/profesor").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
@@ -96,7 +96,7 @@ public class ProfesorControllerTest {
 
         when(profesorService.buscarTodos()).thenReturn(Collections.emptyList());
 
-        mockMvc.perform(get("/profesor")
+        mockMvc.perform(get("/profesor").param("all", "true")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
@@ -156,6 +156,36 @@ public class ProfesorControllerTest {
         verify(profesorService, times(1)).buscarPorId(idInexistente);
     }
     
+    @Test
+    void buscarPorNombreYApellido_debeRetornarProfesor_cuandoExiste() throws Exception {
+
+        Profesor profesor = new Profesor(1L, "Juan", "Pérez", "Licenciado en Informática");
+
+        when(profesorService.buscarPorNombreYApellido("Juan", "Pérez")).thenReturn(Optional.of(profesor));
+
+        mockMvc.perform(get("/profesor/nombre/{nombre}/apellido/{apellido}", "Juan", "Pérez")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(1)))
+                .andExpect(jsonPath("$.apellido", is("Pérez")));
+
+        verify(profesorService, times(1)).buscarPorNombreYApellido("Juan", "Pérez");
+    }
+    
+    @Test
+    void buscarPorNombreYApellido_debeLanzarExcepcion_cuandoNoExiste() throws Exception {
+
+        when(profesorService.buscarPorNombreYApellido("Juan", "Gómez")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/profesor/nombre/{nombre}/apellido/{apellido}", "Juan", "Gómez")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status", is(404)))
+                .andExpect(jsonPath("$.mensaje", is("Profesor con nombre y apellido Juan Gómez no encontrado/a")));
+
+        verify(profesorService, times(1)).buscarPorNombreYApellido("Juan", "Gómez");
+    }
+    
     @Test
     void crear_debeRetornarProfesorCreado_cuandoDatosValidos() throws Exception {
 
@@ -0,0 +1,50 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+public class AnilloDeNodosTest {
+
+    private static final int CLAVES = 100_000;
+
+    @Test
+    void duenio_debeRepartirIdsConsecutivosParejoEntreLosNodos() {
+        AnilloDeNodos anillo = new AnilloDeNodos(4, 128);
+
+        int[] porNodo = new int[4];
+        for (long id = 1; id <= CLAVES; id++) {
+            porNodo[anillo.duenio(id)]++;
+        }
+
+        for (int cantidad : porNodo) {
+            assertTrue(Math.abs(cantidad - CLAVES / 4) < CLAVES / 4 * 0.2, "reparto desparejo: " + cantidad);
+        }
+    }
+
+    @Test
+    void duenio_debeMoverSoloLasClavesDelNodoNuevo_cuandoSeAgregaUnNodo() {
+        AnilloDeNodos tres = new AnilloDeNodos(3, 128);
+        AnilloDeNodos cuatro = new AnilloDeNodos(4, 128);
+
+        int movidas = 0;
+        for (long id = 1; id <= CLAVES; id++) {
+            int antes = tres.duenio(id);
+            int despues = cuatro.duenio(id);
+            if (antes != despues) {
+                assertEquals(3, despues);
+                movidas++;
+            }
+        }
+
+        assertTrue(movidas > CLAVES / 4 * 0.8 && movidas < CLAVES / 4 * 1.2, "movidas: " + movidas);
+    }
+
+    @Test
+    void duenio_debeSerElMismoEnAnillosIguales_yRechazarAnillosVacios() {
+        assertEquals(new AnilloDeNodos(5, 64).duenio("30111222"), new AnilloDeNodos(5, 64).duenio("30111222"));
+        assertEquals(0, new AnilloDeNodos(1, 1).duenio(42L));
+        assertThrows(IllegalArgumentException.class, () -> new AnilloDeNodos(0, 128));
+    }
+}
@@ -0,0 +1,68 @@
+package tomas.aguirrezabala.gestion_academica.particion;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.Test;
+
+public class ReplicadorTest {
+
+    @Test
+    void encolar_debeRepetirEnOrdenYReintentar_cuandoUnNodoNoResponde() throws Exception {
+        AtomicInteger fallas = new AtomicInteger(3);
+        List<String> recibidos = Collections.synchronizedList(new ArrayList<>());
+        Replicador<String> replicador = new Replicador<>(2, (nodo, pedido) -> {
+            if (pedido.equals("a") && fallas.getAndDecrement() > 0) {
+                throw new ConnectException("caído");
+            }
+            recibidos.add(pedido);
+            return 200;
+        }, Duration.ofMillis(10));
+
+        try {
+            List<CompletableFuture<Integer>> primera = replicador.encolar(Arrays.asList(null, "a"));
+            List<CompletableFuture<Integer>> segunda = replicador.encolar(Arrays.asList(null, "b"));
+
+            assertEquals(1, primera.size());
+            assertEquals(200, segunda.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals(200, primera.get(0).get());
+            assertEquals(List.of("a", "b"), recibidos);
+        } finally {
+            replicador.cerrar();
+        }
+    }
+
+    @Test
+    void encolar_noDebeEsperarLaRed() throws Exception {
+        CompletableFuture<Void> liberar = new CompletableFuture<>();
+        Replicador<String> replicador = new Replicador<>(3, (nodo, pedido) -> {
+            try {
+                liberar.get();
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+            return nodo == 1 ? 200 : 409;
+        }, Duration.ofMillis(10));
+
+        try {
+            List<CompletableFuture<Integer>> respuestas = replicador.encolar(Arrays.asList(null, "a", "a"));
+
+            assertFalse(respuestas.get(0).isDone());
+            liberar.complete(null);
+            assertEquals(200, respuestas.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals(409, respuestas.get(1).get(5, TimeUnit.SECONDS));
+        } finally {
+            replicador.cerrar();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlmacenEnMemoria;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.Instantanea;
+
+public class AlmacenEnMemoriaTest {
+
+    private AlmacenEnMemoria<Profesor> almacen;
+
+    @BeforeEach
+    void setUp() {
+        almacen = new AlmacenEnMemoria<>(Profesor::getId, Profesor::setId);
+    }
+
+    @Test
+    void guardar_debeAsignarIdsUnicos_cuandoVariosHilosInsertanALaVez() throws Exception {
+        int hilos = 8;
+        int insercionesPorHilo = 2_000;
+
+        List<Long> ids = ejecutarEnParalelo(hilos, () -> {
+            List<Long> propios = new ArrayList<>();
+            for (int i = 0; i < insercionesPorHilo; i++) {
+                propios.add(almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo")).getId());
+            }
+            return propios;
+        });
+
+        Set<Long> idsUnicos = new HashSet<>(ids);
+        assertEquals(hilos * insercionesPorHilo, idsUnicos.size());
+        assertEquals(hilos * insercionesPorHilo, almacen.cantidad());
+        assertEquals(hilos * insercionesPorHilo, almacen.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeRechazarLaEscritura_cuandoLaVersionLeidaQuedoVieja() {
+        Profesor profesor = almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo"));
+        Profesor primera = almacen.buscarPorId(profesor.getId()).get().copiar();
+        Profesor segunda = almacen.buscarPorId(profesor.getId()).get().copiar();
+        primera.setTitulo("Primera");
+        segunda.setTitulo("Segunda");
+
+        almacen.guardar(primera);
+
+        assertEquals(1L, profesor.getVersion());
+        assertEquals(2L, primera.getVersion());
+        assertThrows(ConflictoDeVersionException.class, () -> almacen.guardar(segunda));
+        assertEquals(1L, segunda.getVersion());
+        assertEquals("Primera", almacen.buscarPorId(profesor.getId()).get().getTitulo());
+        segunda.setVersion(null);
+        assertEquals(3L, almacen.guardar(segunda).getVersion());
+    }
+
+    @Test
+    void guardar_debeDejarElCambioHecho_cuandoFallaUnOyente() {
+        almacen.avisarCambios((id, version) -> {
+            throw new IllegalStateException("Oyente roto");
+        });
+        Profesor profesor = new Profesor(null, "Nombre", "Apellido", "Titulo");
+
+        assertThrows(IllegalStateException.class, () -> almacen.guardar(profesor));
+
+        assertEquals(1L, profesor.getVersion());
+        assertEquals(1L, almacen.buscarPorId(profesor.getId()).get().getVersion());
+        assertEquals(1, almacen.buscarTodos().size());
+        assertThrows(IllegalStateException.class, () -> almacen.borrarPorId(profesor.getId()));
+        assertTrue(almacen.buscarPorId(profesor.getId()).isEmpty());
+        assertEquals(0, almacen.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_noDebePerderModificaciones_cuandoVariosHilosReintentanAnteUnConflicto() throws Exception {
+        Long id = almacen.guardar(new Profesor(null, "Nombre", "Apellido", "0")).getId();
+        int hilos = 8;
+        int incrementosPorHilo = 200;
+
+        ejecutarEnParalelo(hilos, () -> {
+            for (int i = 0; i < incrementosPorHilo; i++) {
+                while (true) {
+                    Profesor copia = almacen.buscarPorId(id).get().copiar();
+                    copia.setTitulo(String.valueOf(Integer.parseInt(copia.getTitulo()) + 1));
+                    try {
+                        almacen.guardar(copia);
+                        break;
+                    } catch (ConflictoDeVersionException e) {
+                        // Otro hilo guardó primero: se vuelve a leer.
+                    }
+                }
+            }
+            return List.of();
+        });
+
+        Profesor resultado = almacen.buscarPorId(id).get();
+        assertEquals(String.valueOf(hilos * incrementosPorHilo), resultado.getTitulo());
+        assertEquals(hilos * incrementosPorHilo + 1L, resultado.getVersion());
+    }
+
+    @Test
+    void buscarTodos_noDebeFallar_cuandoSeEscribeEnParalelo() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo"));
+        }
+
+        List<Long> resultados = ejecutarEnParalelo(4, () -> {
+            List<Long> vistos = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                if (ThreadLocalRandom.current().nextBoolean()) {
+                    long id = ThreadLocalRandom.current().nextLong(1, 1_000);
+                    almacen.borrarPorId(id);
+                    almacen.guardar(new Profesor(id, "Nombre", "Apellido", "Titulo"));
+                } else {
+                    vistos.add((long) almacen.buscarTodos().size());
+                }
+            }
+            return vistos;
+        });
+
+        assertTrue(resultados.stream().allMatch(cantidad -> cantidad <= 1_000));
+        assertEquals(1_000, almacen.cantidad());
+    }
+
+    @Test
+    void borrarPorId_debeIgnorarIdNulo() {
+        almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo"));
+
+        almacen.borrarPorId(null);
+
+        assertEquals(1, almacen.cantidad());
+        assertFalse(almacen.buscarPorId(null).isPresent());
+    }
+
+    @Test
+    void buscarPorId_debeDevolverUnaVersionDeSoloLectura() {
+        Profesor profesor = almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo"));
+        profesor.setNombre("Modificado");
+
+        Profesor leido = almacen.buscarPorId(profesor.getId()).get();
+
+        assertEquals("Nombre", leido.getNombre());
+        assertThrows(UnsupportedOperationException.class, () -> leido.setNombre("Otro"));
+        assertThrows(UnsupportedOperationException.class, () -> leido.getMaterias().add(null));
+    }
+
+    @Test
+    void instantanea_noDebeVerEscriturasPosteriores() {
+        Profesor profesor = almacen.guardar(new Profesor(null, "Nombre", "Apellido", "Titulo"));
+        Instantanea<Profesor> antes = almacen.instantanea();
+
+        Profesor copia = almacen.buscarPorId(profesor.getId()).get().copiar();
+        copia.setNombre("Modificado");
+        almacen.guardar(copia);
+        almacen.guardar(new Profesor(null, "Otro", "Apellido", "Titulo"));
+
+        assertEquals(1, antes.tamanio());
+        assertEquals("Nombre", antes.buscar(profesor.getId()).getNombre());
+        assertEquals(2, almacen.instantanea().tamanio());
+        assertEquals("Modificado", almacen.instantanea().buscar(profesor.getId()).getNombre());
+    }
+
+    @Test
+    void recorrer_debeLeerLaInstantaneaDelComienzo_cuandoSeEscribeMientrasSeRecorre() {
+        for (int i = 0; i < 100; i++) {
+            almacen.guardar(new Profesor(null, "Nombre " + i, "Apellido", "Titulo"));
+        }
+
+        Iterator<Profesor> recorrido = almacen.recorrer().iterator();
+        recorrido.next();
+        almacen.borrarPorId(50L);
+        almacen.guardar(new Profesor(null, "Nuevo", "Apellido", "Titulo"));
+
+        int vistos = 1;
+        while (recorrido.hasNext()) {
+            recorrido.next();
+            vistos++;
+        }
+        assertEquals(100, vistos);
+        assertEquals(100, almacen.recorrer().count());
+        assertTrue(almacen.recorrer().anyMatch(profesor -> "Nuevo".equals(profesor.getNombre())));
+    }
+
+    @Test
+    void buscarPagina_debeMezclarLosSegmentosPorId_enLosDosSentidos() {
+        for (int i = 0; i < 300; i++) {
+            almacen.guardar(new Profesor(null, "Nombre " + i, "Apellido", "Titulo"));
+        }
+        almacen.borrarPorId(120L);
+
+        List<Long> ascendente = almacen.buscarPagina(100L, 40, Orden.ASCENDENTE).stream().map(Profesor::getId).toList();
+        List<Long> descendente = almacen.buscarPagina(100L, 3, Orden.DESCENDENTE).stream().map(Profesor::getId).toList();
+
+        assertEquals(40, ascendente.size());
+        assertEquals(101L, ascendente.get(0));
+        assertFalse(ascendente.contains(120L));
+        assertEquals(141L, ascendente.get(39));
+        assertEquals(List.of(99L, 98L, 97L), descendente);
+        assertEquals(299, almacen.recorrer().count());
+        assertEquals(almacen.buscarTodos().stream().map(Profesor::getId).sorted().toList(),
+                almacen.buscarTodos().stream().map(Profesor::getId).toList());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void rendimiento_debeEscalar_conLaCantidadDeHilos() throws Exception {
+        int maxHilos = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int operacionesPorHilo = 500_000;
+        for (long id = 1; id <= 10_000; id++) {
+            almacen.guardar(new Profesor(id, "Nombre", "Apellido", "Titulo"));
+        }
+
+        Callable<List<Long>> mezclaDeOperaciones = () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < operacionesPorHilo; i++) {
+                long id = random.nextLong(1, 10_001);
+                if (i % 10 == 0) {
+                    almacen.guardar(new Profesor(id, "Nombre", "Apellido", "Titulo"));
+                } else {
+                    almacen.buscarPorId(id);
+                }
+            }
+            return List.of();
+        };
+        ejecutarEnParalelo(maxHilos, mezclaDeOperaciones);
+
+        System.out.println("hilos\toperaciones/s");
+        for (int hilos = 1; hilos <= maxHilos; hilos *= 2) {
+            long inicio = System.nanoTime();
+            ejecutarEnParalelo(hilos, mezclaDeOperaciones);
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("%d\t%.0f%n", hilos, hilos * operacionesPorHilo / segundos);
+        }
+
+        assertEquals(10_000, almacen.cantidad());
+    }
+
+    private List<Long> ejecutarEnParalelo(int hilos, Callable<List<Long>> tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarea.call();
+                }));
+            }
+            largada.countDown();
+
+            List<Long> resultado = new ArrayList<>();
+            for (Future<List<Long>> futuro : futuros) {
+                resultado.addAll(futuro.get(60, TimeUnit.SECONDS));
+            }
+            return resultado;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class AlumnoDaoJdbcImplTest {
+
+    private DaosJdbc daos;
+    private Carrera carrera;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosJdbc();
+        carrera = daos.carreras.guardar(new Carrera(null, "Técnico Universitario en Programación", 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void unidadDeTrabajo_debeDeshacerTodasLasEscrituras_cuandoLaOperacionFalla() {
+
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+
+        assertThrows(ReglaNegocioException.class, () -> daos.unidadDeTrabajo.ejecutar(
+                Alcance.escribe(Alumno.class, alumno.getId()).yLee(Materia.class, materia.getId()), () -> {
+                    daos.asignaturas.guardar(new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+                    alumno.setNombre("Otro");
+                    daos.alumnos.guardar(alumno);
+                    throw new ReglaNegocioException("falla a mitad de camino");
+                }));
+
+        assertEquals("Tomas", daos.alumnos.buscarPorId(alumno.getId()).orElseThrow().getNombre());
+        assertTrue(daos.asignaturas.buscarPorAlumnoId(alumno.getId()).isEmpty());
+    }
+
+    @Test
+    void guardar_debeAsignarId_cuandoAlumnoNuevo() {
+
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        assertNotNull(alumno.getId());
+        Alumno recuperado = daos.alumnos.buscarPorId(alumno.getId()).orElseThrow();
+        assertEquals("Tomas", recuperado.getNombre());
+        assertEquals(carrera.getId(), recuperado.getCarrera().getId());
+        assertEquals("Técnico Universitario en Programación", recuperado.getCarrera().getNombre());
+    }
+
+    @Test
+    void guardar_debeActualizar_cuandoAlumnoExistente() {
+
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        alumno.setNombre("Tomas Actualizado");
+        alumno.setCarrera(null);
+        daos.alumnos.guardar(alumno);
+
+        Alumno recuperado = daos.alumnos.buscarPorId(alumno.getId()).orElseThrow();
+        assertEquals("Tomas Actualizado", recuperado.getNombre());
+        assertNull(recuperado.getCarrera());
+        assertEquals(1, daos.alumnos.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoDniDuplicado() {
+
+        daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        assertThrows(EntidadDuplicadaException.class,
+                () -> daos.alumnos.guardar(new Alumno(null, "Otro", "Alumno", "12345678", carrera)));
+        assertEquals(1, daos.alumnos.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoCarreraNoExiste() {
+
+        assertThrows(EntidadNoEncontradaException.class, () -> daos.alumnos.guardar(
+                new Alumno(null, "Tomas", "Aguirrezabala", "12345678", new Carrera(99L, "Inexistente", 1))));
+    }
+
+    @Test
+    void guardar_noDebeReusarUnIdExplicito_alGenerarElSiguiente() {
+
+        daos.alumnos.guardar(new Alumno(1L, "Uno", "Explicito", "1", null));
+        Alumno generado = daos.alumnos.guardar(new Alumno(null, "Dos", "Generado", "2", null));
+
+        assertNotEquals(1L, generado.getId());
+        assertEquals(2, daos.alumnos.buscarTodos().size());
+    }
+
+    @Test
+    void buscarPorDni_debeRetornarAlumno_cuandoExiste() {
+
+        daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        Optional<Alumno> resultado = daos.alumnos.buscarPorDni("12345678");
+
+        assertTrue(resultado.isPresent());
+        assertEquals("Tomas", resultado.get().getNombre());
+        assertTrue(daos.alumnos.buscarPorDni("00000000").isEmpty());
+    }
+
+    @Test
+    void buscarTodos_debeCargarLasAsignaturasDeCadaAlumno() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno1 = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+        Alumno alumno2 = daos.alumnos.guardar(new Alumno(null, "Ana", "Perez", "2", carrera));
+        daos.asignaturas.guardar(new Asignatura(null, materia, alumno1, EstadoAsignatura.CURSANDO));
+
+        List<Alumno> todos = daos.alumnos.buscarTodos();
+
+        assertEquals(2, todos.size());
+        assertEquals(alumno1.getId(), todos.get(0).getId());
+        assertEquals(1, todos.get(0).getAsignaturas().size());
+        assertEquals("Programación I", todos.get(0).getAsignaturas().get(0).getMateria().getNombre());
+        assertEquals(alumno2.getId(), todos.get(1).getId());
+        assertTrue(todos.get(1).getAsignaturas().isEmpty());
+    }
+
+    @Test
+    void borrarPorId_debeLanzarExcepcion_cuandoTieneAsignaturas() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+        daos.asignaturas.guardar(new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+
+        assertThrows(ReglaNegocioException.class, () -> daos.alumnos.borrarPorId(alumno.getId()));
+        assertTrue(daos.alumnos.buscarPorId(alumno.getId()).isPresent());
+    }
+
+    @Test
+    void borrarPorId_debeEliminarAlumno_cuandoNoTieneAsignaturas() {
+
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+
+        daos.alumnos.borrarPorId(alumno.getId());
+
+        assertTrue(daos.alumnos.buscarPorId(alumno.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,124 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class AlumnoDaoMVStoreImplTest {
+
+    private DaosMVStore daos;
+    private Carrera carrera;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosMVStore();
+        carrera = daos.carreras.guardar(new Carrera(null, "Técnico Universitario en Programación", 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeAsignarId_yCargarCarrera() {
+
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        assertNotNull(alumno.getId());
+        Alumno recuperado = daos.alumnos.buscarPorDni("12345678").orElseThrow();
+        assertEquals("Tomas", recuperado.getNombre());
+        assertEquals("Técnico Universitario en Programación", recuperado.getCarrera().getNombre());
+        assertTrue(daos.alumnos.buscarPorDni("00000000").isEmpty());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoDniDuplicado() {
+
+        daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+
+        assertThrows(EntidadDuplicadaException.class,
+                () -> daos.alumnos.guardar(new Alumno(null, "Ana", "Perez", "1", carrera)));
+        assertEquals(1, daos.alumnos.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_noDebeReusarUnIdExplicito_alGenerarElSiguiente() {
+
+        daos.alumnos.guardar(new Alumno(1L, "Uno", "Explicito", "1", null));
+        Alumno generado = daos.alumnos.guardar(new Alumno(null, "Dos", "Generado", "2", null));
+
+        assertNotEquals(1L, generado.getId());
+        assertEquals(2, daos.alumnos.buscarTodos().size());
+    }
+
+    @Test
+    void buscarTodos_debeCargarLasAsignaturasDeCadaAlumno() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno1 = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+        Alumno alumno2 = daos.alumnos.guardar(new Alumno(null, "Ana", "Perez", "2", carrera));
+        daos.asignaturas.guardar(new Asignatura(null, materia, alumno1, EstadoAsignatura.CURSANDO));
+
+        List<Alumno> todos = daos.alumnos.buscarTodos();
+
+        assertEquals(2, todos.size());
+        assertEquals(alumno1.getId(), todos.get(0).getId());
+        assertEquals("Programación I", todos.get(0).getAsignaturas().get(0).getMateria().getNombre());
+        assertEquals(alumno2.getId(), todos.get(1).getId());
+        assertTrue(todos.get(1).getAsignaturas().isEmpty());
+    }
+
+    @Test
+    void borrarPorId_debeLanzarExcepcion_cuandoTieneAsignaturas() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+
+        assertThrows(ReglaNegocioException.class, () -> daos.alumnos.borrarPorId(alumno.getId()));
+        assertTrue(daos.alumnos.buscarPorId(alumno.getId()).isPresent());
+
+        daos.asignaturas.borrarPorId(asignatura.getId());
+        daos.alumnos.borrarPorId(alumno.getId());
+        assertTrue(daos.alumnos.buscarPorId(alumno.getId()).isEmpty());
+        daos.alumnos.guardar(new Alumno(null, "Otro", "Alumno", "1", null));
+    }
+
+    @Test
+    void reabrir_debeConservarEntidadesIndicesYSecuencias(@TempDir Path directorio) {
+
+        Path archivo = directorio.resolve("gestion-academica.mv");
+        try (DaosMVStore enDisco = new DaosMVStore(archivo)) {
+            Carrera guardada = enDisco.carreras.guardar(new Carrera(null, "Programación", 2));
+            enDisco.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", guardada));
+        }
+
+        try (DaosMVStore reabierto = new DaosMVStore(archivo)) {
+            Alumno recuperado = reabierto.alumnos.buscarPorDni("1").orElseThrow();
+            assertEquals("Programación", recuperado.getCarrera().getNombre());
+            assertThrows(EntidadDuplicadaException.class,
+                    () -> reabierto.alumnos.guardar(new Alumno(null, "Ana", "Perez", "1", null)));
+            Alumno otro = reabierto.alumnos.guardar(new Alumno(null, "Ana", "Perez", "2", null));
+            assertNotEquals(recuperado.getId(), otro.getId());
+        }
+    }
+}
@@ -3,25 +3,36 @@ package tomas.aguirrezabala.gestion_academica.persistence;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoMemoryImpl;
 
 public class AlumnoDaoMemoryImplTest {
     
@@ -161,17 +172,71 @@ public class AlumnoDaoMemoryImplTest {
         Alumno alumnoGuardado1 = alumnoDao.guardar(alumno1);
         Alumno alumnoGuardado2 = alumnoDao.guardar(alumno2);
 
-        when(asignaturaDaoMock.buscarPorAlumnoId(alumnoGuardado1.getId())).thenReturn(new ArrayList<>());
-        when(asignaturaDaoMock.buscarPorAlumnoId(alumnoGuardado2.getId())).thenReturn(new ArrayList<>());
+        Asignatura asignatura = new Asignatura(1L, new Materia(1L, "Programación I", 1, 1), alumnoGuardado1, EstadoAsignatura.CURSANDO);
+        when(asignaturaDaoMock.buscarPorAlumnoIds(anyCollection()))
+                .thenReturn(Map.of(alumnoGuardado1.getId(), List.of(asignatura)));
 
         List<Alumno> alumnos = alumnoDao.buscarTodos();
         
         assertEquals(2, alumnos.size());
+        Alumno recuperado1 = alumnos.stream().filter(a -> a.getId().equals(alumnoGuardado1.getId())).findFirst().get();
+        Alumno recuperado2 = alumnos.stream().filter(a -> a.getId().equals(alumnoGuardado2.getId())).findFirst().get();
+        assertEquals(1, recuperado1.getAsignaturas().size());
+        assertTrue(recuperado2.getAsignaturas().isEmpty());
 
-        verify(asignaturaDaoMock).buscarPorAlumnoId(alumnoGuardado1.getId());
-        verify(asignaturaDaoMock).buscarPorAlumnoId(alumnoGuardado2.getId());
+        verify(asignaturaDaoMock, times(1)).buscarPorAlumnoIds(anyCollection());
+        verify(asignaturaDaoMock, never()).buscarPorAlumnoId(anyLong());
     }
     
+    @Test
+    @Tag("benchmark")
+    void buscarTodos_debeEscalarLinealmente_conLaCantidadDeAlumnos() {
+
+        System.out.println("alumnos\tms\tus/alumno");
+        double usPorAlumnoInicial = 0;
+        double usPorAlumnoFinal = 0;
+        for (int cantidad : new int[] {5_000, 10_000, 20_000, 40_000}) {
+            AlumnoDaoMemoryImpl dao = new AlumnoDaoMemoryImpl();
+            AsignaturaDaoMemoryImpl asignaturas = new AsignaturaDaoMemoryImpl();
+            ReflectionTestUtils.setField(dao, "asignaturaDao", asignaturas);
+            for (int i = 0; i < cantidad; i++) {
+                Alumno alumno = dao.guardar(new Alumno(null, "Nombre", "Apellido", String.valueOf(i), carrera));
+                for (long materiaId = 1; materiaId <= 5; materiaId++) {
+                    asignaturas.guardar(new Asignatura(null, new Materia(materiaId, "Materia", 1, 1), alumno, EstadoAsignatura.CURSANDO));
+                }
+            }
+            dao.buscarTodos();
+
+            long inicio = System.nanoTime();
+            List<Alumno> todos = dao.buscarTodos();
+            double milisegundos = (System.nanoTime() - inicio) / 1e6;
+            double usPorAlumno = milisegundos * 1000 / cantidad;
+            System.out.printf("%d\t%.1f\t%.2f%n", cantidad, milisegundos, usPorAlumno);
+
+            assertEquals(cantidad, todos.size());
+            if (usPorAlumnoInicial == 0) {
+                usPorAlumnoInicial = usPorAlumno;
+            }
+            usPorAlumnoFinal = usPorAlumno;
+        }
+
+        assertTrue(usPorAlumnoFinal < usPorAlumnoInicial * 4, "El costo por alumno no debería crecer con el total");
+    }
+    
+    @Test
+    void guardar_debeCompartirNombreYApellido_cuandoSeRepitenEntreAlumnos() {
+        when(asignaturaDaoMock.buscarPorAlumnoId(anyLong())).thenReturn(new ArrayList<>());
+        Alumno primero = alumnoDao.guardar(new Alumno(null, new String("María"), new String("García"), "1", carrera));
+        Alumno segundo = alumnoDao.guardar(new Alumno(null, new String("María"), new String("García"), "2", carrera));
+
+        Alumno guardadoPrimero = alumnoDao.buscarPorId(primero.getId()).orElseThrow();
+        Alumno guardadoSegundo = alumnoDao.buscarPorId(segundo.getId()).orElseThrow();
+
+        assertSame(guardadoPrimero.getNombre(), guardadoSegundo.getNombre());
+        assertSame(guardadoPrimero.getApellido(), guardadoSegundo.getApellido());
+        assertEquals("García", guardadoSegundo.getApellido());
+    }
+
     @Test
     void borrarPorId_debeEliminarAlumno_cuandoExisteId() {
 
@@ -210,4 +275,56 @@ public class AlumnoDaoMemoryImplTest {
 
         assertEquals(cantidadAntes, alumnoDao.buscarTodos().size());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void buscarPorDni_debeRetornarAlumno_cuandoExisteDni() {
+
+        Alumno alumno = new Alumno();
+        alumno.setNombre("Tomas");
+        alumno.setApellido("Aguirrezabala");
+        alumno.setDni("12345678");
+        Alumno alumnoGuardado = alumnoDao.guardar(alumno);
+
+        when(asignaturaDaoMock.buscarPorAlumnoId(alumnoGuardado.getId())).thenReturn(new ArrayList<>());
+
+        Optional<Alumno> resultado = alumnoDao.buscarPorDni("12345678");
+
+        assertTrue(resultado.isPresent());
+        assertEquals(alumnoGuardado.getId(), resultado.get().getId());
+        assertFalse(alumnoDao.buscarPorDni("87654321").isPresent());
+        verify(asignaturaDaoMock).buscarPorAlumnoId(alumnoGuardado.getId());
+    }
+    
+    @Test
+    void guardar_debeRechazarAlumno_cuandoDniDuplicado() {
+
+        Alumno alumno = new Alumno();
+        alumno.setNombre("Tomas");
+        alumno.setApellido("Aguirrezabala");
+        alumno.setDni("12345678");
+        alumnoDao.guardar(alumno);
+
+        Alumno otro = new Alumno();
+        otro.setNombre("Juan");
+        otro.setApellido("Perez");
+        otro.setDni("12345678");
+
+        assertThrows(EntidadDuplicadaException.class, () -> alumnoDao.guardar(otro));
+        assertNull(otro.getId());
+        assertEquals(1, alumnoDao.buscarTodos().size());
+    }
+    
+    @Test
+    void guardar_debeLiberarDni_cuandoSeBorraAlumno() {
+
+        Alumno alumno = new Alumno();
+        alumno.setDni("12345678");
+        Alumno alumnoGuardado = alumnoDao.guardar(alumno);
+        alumnoDao.borrarPorId(alumnoGuardado.getId());
+
+        Alumno otro = new Alumno();
+        otro.setDni("12345678");
+
+        assertNotNull(alumnoDao.guardar(otro).getId());
+    }
+}
@@ -0,0 +1,172 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class AsignaturaDaoJdbcImplTest {
+
+    private DaosJdbc daos;
+    private Alumno alumno1, alumno2;
+    private Materia materia1, materia2;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosJdbc();
+        alumno1 = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", null));
+        alumno2 = daos.alumnos.guardar(new Alumno(null, "Ana", "Perez", "2", null));
+        materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        materia2 = new Materia(null, "Programación II", 1, 2);
+        materia2.setCorrelatividades(List.of(materia1.getId()));
+        daos.materias.guardar(materia2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeAsignarId_yCargarMateriaYAlumno() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia2, alumno1, EstadoAsignatura.APROBADO, 8.5));
+
+        assertNotNull(asignatura.getId());
+        Asignatura recuperada = daos.asignaturas.buscarPorId(asignatura.getId()).orElseThrow();
+        assertEquals(EstadoAsignatura.APROBADO, recuperada.getEstado());
+        assertEquals(8.5, recuperada.getNota());
+        assertEquals("Tomas", recuperada.getAlumno().getNombre());
+        assertEquals("Programación II", recuperada.getMateria().getNombre());
+        assertEquals(List.of(materia1.getId()), recuperada.getMateria().getCorrelatividades());
+    }
+
+    @Test
+    void guardar_debeActualizarEstadoYNota_cuandoAsignaturaExistente() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        asignatura.setEstado(EstadoAsignatura.REGULAR);
+        asignatura.setNota(6.0);
+        daos.asignaturas.guardar(asignatura);
+
+        Asignatura recuperada = daos.asignaturas.buscarPorId(asignatura.getId()).orElseThrow();
+        assertEquals(EstadoAsignatura.REGULAR, recuperada.getEstado());
+        assertEquals(6.0, recuperada.getNota());
+        assertEquals(1, daos.asignaturas.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoAlumnoYMateriaRepetidos() {
+
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        assertThrows(EntidadDuplicadaException.class, () -> daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO)));
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoAlumnoOMateriaNoExisten() {
+
+        EntidadNoEncontradaException sinAlumno = assertThrows(EntidadNoEncontradaException.class,
+                () -> daos.asignaturas.guardar(new Asignatura(null, materia1,
+                        new Alumno(99L, "No", "Existe", "9", null), EstadoAsignatura.CURSANDO)));
+        EntidadNoEncontradaException sinMateria = assertThrows(EntidadNoEncontradaException.class,
+                () -> daos.asignaturas.guardar(new Asignatura(null, new Materia(99L, "No existe", 1, 1),
+                        alumno1, EstadoAsignatura.CURSANDO)));
+
+        assertTrue(sinAlumno.getMessage().contains("Alumno"));
+        assertTrue(sinMateria.getMessage().contains("Materia"));
+        assertTrue(daos.asignaturas.buscarTodos().isEmpty());
+    }
+
+    @Test
+    void buscarPorAlumnoIdYMateriaId_debeRetornarLaInscripcion() {
+
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        Optional<Asignatura> encontrada = daos.asignaturas.buscarPorAlumnoIdYMateriaId(alumno1.getId(), materia1.getId());
+
+        assertTrue(encontrada.isPresent());
+        assertTrue(daos.asignaturas.buscarPorAlumnoIdYMateriaId(alumno2.getId(), materia1.getId()).isEmpty());
+        assertTrue(daos.asignaturas.buscarPorAlumnoIdYMateriaId(null, materia1.getId()).isEmpty());
+    }
+
+    @Test
+    void buscarPorAlumnoIds_debeAgruparPorAlumno() {
+
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno2, EstadoAsignatura.CURSANDO));
+
+        Map<Long, List<Asignatura>> porAlumno = daos.asignaturas.buscarPorAlumnoIds(
+                List.of(alumno1.getId(), alumno2.getId(), 99L));
+
+        assertEquals(2, porAlumno.size());
+        assertEquals(2, porAlumno.get(alumno1.getId()).size());
+        assertEquals(1, porAlumno.get(alumno2.getId()).size());
+        assertEquals(2, daos.asignaturas.buscarPorAlumnoId(alumno1.getId()).size());
+    }
+
+    @Test
+    void contarYBuscarAlumnosPorEstado_debenFiltrarPorMateriaYEstado() {
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno2, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno2, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+
+        assertEquals(2, daos.asignaturas.contarPorMateriaIdYEstado(materia1.getId(), EstadoAsignatura.APROBADO));
+        assertEquals(0, daos.asignaturas.contarPorMateriaIdYEstado(materia1.getId(), EstadoAsignatura.REGULAR));
+        assertEquals(List.of(alumno1.getId(), alumno2.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia1.getId(), materia2.getId()), EstadoAsignatura.APROBADO, false));
+        assertEquals(List.of(alumno2.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia1.getId(), materia2.getId()), EstadoAsignatura.APROBADO, true));
+        assertEquals(List.of(alumno1.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia2.getId()), EstadoAsignatura.CURSANDO, true));
+    }
+
+    @Test
+    void buscarCorrelativasSinCumplir_debeAceptarAprobadasYRegulares() {
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.REGULAR));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno2, EstadoAsignatura.APROBADO));
+        Materia avanzada = new Materia(materia2.getId() + 100, "Programación Avanzada", 3, 1);
+        avanzada.setCorrelatividades(List.of(materia2.getId(), materia1.getId()));
+
+        assertEquals(List.of(materia2.getId()), daos.asignaturas.buscarCorrelativasSinCumplir(alumno1.getId(), avanzada));
+        assertEquals(List.of(materia1.getId()), daos.asignaturas.buscarCorrelativasSinCumplir(alumno2.getId(), avanzada));
+    }
+
+    @Test
+    void existePorMateriaIdYAlumnoId_debenReflejarLasInscripciones() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        assertTrue(daos.asignaturas.existePorMateriaId(materia1.getId()));
+        assertTrue(daos.asignaturas.existePorAlumnoId(alumno1.getId()));
+        assertFalse(daos.asignaturas.existePorMateriaId(materia2.getId()));
+
+        daos.asignaturas.borrarPorId(asignatura.getId());
+
+        assertFalse(daos.asignaturas.existePorMateriaId(materia1.getId()));
+        assertFalse(daos.asignaturas.existePorAlumnoId(alumno1.getId()));
+    }
+}
@@ -0,0 +1,167 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class AsignaturaDaoMVStoreImplTest {
+
+    private DaosMVStore daos;
+    private Alumno alumno1, alumno2;
+    private Materia materia1, materia2;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosMVStore();
+        alumno1 = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", null));
+        alumno2 = daos.alumnos.guardar(new Alumno(null, "Ana", "Perez", "2", null));
+        materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        materia2 = new Materia(null, "Programación II", 1, 2);
+        materia2.setCorrelatividades(List.of(materia1.getId()));
+        daos.materias.guardar(materia2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeAsignarId_yCargarMateriaYAlumno() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia2, alumno1, EstadoAsignatura.APROBADO, 8.5));
+
+        assertNotNull(asignatura.getId());
+        Asignatura recuperada = daos.asignaturas.buscarPorId(asignatura.getId()).orElseThrow();
+        assertEquals(EstadoAsignatura.APROBADO, recuperada.getEstado());
+        assertEquals(8.5, recuperada.getNota());
+        assertEquals("Tomas", recuperada.getAlumno().getNombre());
+        assertEquals("Programación II", recuperada.getMateria().getNombre());
+        assertEquals(List.of(materia1.getId()), recuperada.getMateria().getCorrelatividades());
+    }
+
+    @Test
+    void guardar_debeMoverLosIndices_cuandoCambiaLaMateria() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        asignatura.setMateria(materia2);
+        asignatura.setNota(6.0);
+        daos.asignaturas.guardar(asignatura);
+
+        assertFalse(daos.asignaturas.existePorMateriaId(materia1.getId()));
+        assertTrue(daos.asignaturas.existePorMateriaId(materia2.getId()));
+        assertTrue(daos.asignaturas.buscarPorAlumnoIdYMateriaId(alumno1.getId(), materia1.getId()).isEmpty());
+        assertEquals(6.0, daos.asignaturas.buscarPorAlumnoIdYMateriaId(alumno1.getId(), materia2.getId())
+                .orElseThrow().getNota());
+        assertEquals(1, daos.asignaturas.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoAlumnoYMateriaRepetidos() {
+
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        EntidadDuplicadaException error = assertThrows(EntidadDuplicadaException.class, () -> daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO)));
+
+        assertTrue(error.getMessage().contains("Alumno ID: " + alumno1.getId()));
+        assertEquals(1, daos.asignaturas.buscarPorAlumnoId(alumno1.getId()).size());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoAlumnoOMateriaNoExisten() {
+
+        Asignatura sinAlumno = new Asignatura(null, materia1, new Alumno(99L, "No", "Existe", "9", null),
+                EstadoAsignatura.CURSANDO);
+        EntidadNoEncontradaException errorAlumno = assertThrows(EntidadNoEncontradaException.class,
+                () -> daos.asignaturas.guardar(sinAlumno));
+        EntidadNoEncontradaException errorMateria = assertThrows(EntidadNoEncontradaException.class,
+                () -> daos.asignaturas.guardar(new Asignatura(null, new Materia(99L, "No existe", 1, 1),
+                        alumno1, EstadoAsignatura.CURSANDO)));
+
+        assertTrue(errorAlumno.getMessage().contains("Alumno"));
+        assertTrue(errorMateria.getMessage().contains("Materia"));
+        assertNull(sinAlumno.getId());
+        assertTrue(daos.asignaturas.buscarTodos().isEmpty());
+        assertFalse(daos.asignaturas.existePorMateriaId(materia1.getId()));
+    }
+
+    @Test
+    void buscarPorAlumnoIds_debeAgruparPorAlumno() {
+
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno2, EstadoAsignatura.CURSANDO));
+
+        Map<Long, List<Asignatura>> porAlumno = daos.asignaturas.buscarPorAlumnoIds(
+                List.of(alumno1.getId(), alumno2.getId(), 99L));
+
+        assertEquals(2, porAlumno.size());
+        assertEquals(2, porAlumno.get(alumno1.getId()).size());
+        assertEquals(1, porAlumno.get(alumno2.getId()).size());
+        assertEquals(2, daos.asignaturas.buscarPorAlumnoId(alumno1.getId()).size());
+    }
+
+    @Test
+    void contarYBuscarAlumnosPorEstado_debenFiltrarPorMateriaYEstado() {
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno2, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno2, EstadoAsignatura.APROBADO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+
+        assertEquals(2, daos.asignaturas.contarPorMateriaIdYEstado(materia1.getId(), EstadoAsignatura.APROBADO));
+        assertEquals(0, daos.asignaturas.contarPorMateriaIdYEstado(materia1.getId(), EstadoAsignatura.REGULAR));
+        assertEquals(List.of(alumno1.getId(), alumno2.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia1.getId(), materia2.getId()), EstadoAsignatura.APROBADO, false));
+        assertEquals(List.of(alumno2.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia1.getId(), materia2.getId()), EstadoAsignatura.APROBADO, true));
+        assertEquals(List.of(alumno1.getId()), daos.asignaturas.buscarAlumnoIdsPorEstado(
+                List.of(materia2.getId()), EstadoAsignatura.CURSANDO, true));
+    }
+
+    @Test
+    void buscarCorrelativasSinCumplir_debeAceptarAprobadasYRegulares() {
+        daos.asignaturas.guardar(new Asignatura(null, materia1, alumno1, EstadoAsignatura.REGULAR));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno1, EstadoAsignatura.CURSANDO));
+        daos.asignaturas.guardar(new Asignatura(null, materia2, alumno2, EstadoAsignatura.APROBADO));
+        Materia avanzada = new Materia(materia2.getId() + 100, "Programación Avanzada", 3, 1);
+        avanzada.setCorrelatividades(List.of(materia2.getId(), materia1.getId()));
+
+        assertEquals(List.of(materia2.getId()), daos.asignaturas.buscarCorrelativasSinCumplir(alumno1.getId(), avanzada));
+        assertEquals(List.of(materia1.getId()), daos.asignaturas.buscarCorrelativasSinCumplir(alumno2.getId(), avanzada));
+    }
+
+    @Test
+    void existePorMateriaIdYAlumnoId_debenReflejarLasInscripciones() {
+
+        Asignatura asignatura = daos.asignaturas.guardar(
+                new Asignatura(null, materia1, alumno1, EstadoAsignatura.CURSANDO));
+
+        assertTrue(daos.asignaturas.existePorMateriaId(materia1.getId()));
+        assertTrue(daos.asignaturas.existePorAlumnoId(alumno1.getId()));
+
+        daos.asignaturas.borrarPorId(asignatura.getId());
+
+        assertFalse(daos.asignaturas.existePorMateriaId(materia1.getId()));
+        assertFalse(daos.asignaturas.existePorAlumnoId(alumno1.getId()));
+    }
+}
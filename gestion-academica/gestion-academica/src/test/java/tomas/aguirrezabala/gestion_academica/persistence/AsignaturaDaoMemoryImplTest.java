@@ -1,25 +1,42 @@
 package tomas.aguirrezabala.gestion_academica.persistence;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadNoEncontradaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Alumno;
 import tomas.aguirrezabala.gestion_academica.model.Asignatura;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
 import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMemoryImpl;
 import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoMemoryImpl;
 
 public class AsignaturaDaoMemoryImplTest {
     
     private AsignaturaDaoMemoryImpl asignaturaDao;
+    private AlumnoDaoMemoryImpl alumnoDao;
+    private MateriaDaoMemoryImpl materiaDao;
     private Carrera carrera;
     private Alumno alumno;
     private Materia materia1, materia2;
@@ -182,6 +199,67 @@ public class AsignaturaDaoMemoryImplTest {
         assertTrue(asignaturaDao.buscarPorAlumnoId(999L).isEmpty());
     }
     
+    @Test
+    void buscarPorAlumnoIds_debeAgruparAsignaturasPorAlumno() {
+
+        Alumno otroAlumno = new Alumno(2L, "Juan", "Pérez", "87654321", carrera);
+        asignaturaDao.guardar(new Asignatura(null, materia1, alumno, EstadoAsignatura.CURSANDO));
+        asignaturaDao.guardar(new Asignatura(null, materia2, alumno, EstadoAsignatura.APROBADO));
+        asignaturaDao.guardar(new Asignatura(null, materia1, otroAlumno, EstadoAsignatura.CURSANDO));
+
+        Map<Long, List<Asignatura>> resultado = asignaturaDao.buscarPorAlumnoIds(List.of(1L, 2L, 3L));
+
+        assertEquals(2, resultado.get(1L).size());
+        assertEquals(1, resultado.get(2L).size());
+        assertFalse(resultado.containsKey(3L));
+    }
+    
+    @Test
+    void buscarPorAlumnoId_debeMoverAsignatura_cuandoSeGuardaConOtroAlumno() {
+
+        Alumno otroAlumno = new Alumno();
+        otroAlumno.setId(2L);
+        otroAlumno.setNombre("Juan");
+        otroAlumno.setApellido("Pérez");
+
+        Asignatura asignatura = new Asignatura();
+        asignatura.setAlumno(alumno);
+        asignatura.setMateria(materia1);
+        asignatura.setEstado(EstadoAsignatura.CURSANDO);
+        Asignatura asignaturaGuardada = asignaturaDao.guardar(asignatura);
+
+        asignaturaGuardada.setAlumno(otroAlumno);
+        asignaturaDao.guardar(asignaturaGuardada);
+
+        assertTrue(asignaturaDao.buscarPorAlumnoId(alumno.getId()).isEmpty());
+        List<Asignatura> asignaturasDelOtro = asignaturaDao.buscarPorAlumnoId(otroAlumno.getId());
+        assertEquals(1, asignaturasDelOtro.size());
+        assertEquals(asignaturaGuardada.getId(), asignaturasDelOtro.get(0).getId());
+    }
+    
+    @Test
+    void buscarPorAlumnoId_noDebeRetornarAsignatura_cuandoFueBorrada() {
+
+        Asignatura asignatura1 = new Asignatura();
+        asignatura1.setAlumno(alumno);
+        asignatura1.setMateria(materia1);
+        asignatura1.setEstado(EstadoAsignatura.CURSANDO);
+        
+        Asignatura asignatura2 = new Asignatura();
+        asignatura2.setAlumno(alumno);
+        asignatura2.setMateria(materia2);
+        asignatura2.setEstado(EstadoAsignatura.REGULAR);
+        
+        asignaturaDao.guardar(asignatura1);
+        asignaturaDao.guardar(asignatura2);
+
+        asignaturaDao.borrarPorId(asignatura1.getId());
+
+        List<Asignatura> asignaturas = asignaturaDao.buscarPorAlumnoId(alumno.getId());
+        assertEquals(1, asignaturas.size());
+        assertEquals(asignatura2.getId(), asignaturas.get(0).getId());
+    }
+    
     @Test
     void buscarPorAlumnoIdYMateriaId_debeRetornarAsignatura_cuandoExiste() {
 
@@ -205,6 +283,79 @@ public class AsignaturaDaoMemoryImplTest {
         assertFalse(asignaturaDao.buscarPorAlumnoIdYMateriaId(alumno.getId(), 999L).isPresent());
     }
     
+    @Test
+    void guardar_debeRechazarAsignatura_cuandoYaExisteParaElMismoAlumnoYMateria() {
+
+        Asignatura asignatura = new Asignatura();
+        asignatura.setAlumno(alumno);
+        asignatura.setMateria(materia1);
+        asignatura.setEstado(EstadoAsignatura.CURSANDO);
+        asignaturaDao.guardar(asignatura);
+
+        Asignatura duplicada = new Asignatura();
+        duplicada.setAlumno(alumno);
+        duplicada.setMateria(materia1);
+        duplicada.setEstado(EstadoAsignatura.CURSANDO);
+
+        assertThrows(EntidadDuplicadaException.class, () -> asignaturaDao.guardar(duplicada));
+
+        assertNull(duplicada.getId());
+        assertEquals(1, asignaturaDao.buscarTodos().size());
+    }
+    
+    @Test
+    void guardar_debePermitirReinscripcion_cuandoSeBorroLaAsignaturaAnterior() {
+
+        Asignatura asignatura = new Asignatura();
+        asignatura.setAlumno(alumno);
+        asignatura.setMateria(materia1);
+        asignatura.setEstado(EstadoAsignatura.CURSANDO);
+        asignaturaDao.guardar(asignatura);
+        asignaturaDao.borrarPorId(asignatura.getId());
+
+        Asignatura nueva = new Asignatura();
+        nueva.setAlumno(alumno);
+        nueva.setMateria(materia1);
+        nueva.setEstado(EstadoAsignatura.CURSANDO);
+        asignaturaDao.guardar(nueva);
+
+        Optional<Asignatura> resultado = asignaturaDao.buscarPorAlumnoIdYMateriaId(alumno.getId(), materia1.getId());
+        assertTrue(resultado.isPresent());
+        assertEquals(nueva.getId(), resultado.get().getId());
+    }
+    
+    @Test
+    void guardar_debeCrearUnaSolaAsignatura_cuandoHayInscripcionesConcurrentes() throws Exception {
+
+        int hilos = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Boolean>> resultados = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            resultados.add(executor.submit(() -> {
+                largada.await();
+                try {
+                    asignaturaDao.guardar(new Asignatura(null, materia1, alumno, EstadoAsignatura.CURSANDO));
+                    return true;
+                } catch (EntidadDuplicadaException e) {
+                    return false;
+                }
+            }));
+        }
+        largada.countDown();
+
+        int exitosas = 0;
+        for (Future<Boolean> resultado : resultados) {
+            if (resultado.get(10, TimeUnit.SECONDS)) {
+                exitosas++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, exitosas);
+        assertEquals(1, asignaturaDao.buscarPorAlumnoId(alumno.getId()).size());
+    }
+    
     @Test
     void existePorMateriaId_debeRetornarTrue_cuandoExistenAsignaturasConMateria() {
 
@@ -222,4 +373,184 @@ public class AsignaturaDaoMemoryImplTest {
     void existePorMateriaId_debeRetornarFalse_cuandoNoExistenAsignaturasConMateria() {
         assertFalse(asignaturaDao.existePorMateriaId(999L));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void existePorAlumnoId_debeRetornarFalse_cuandoSeBorraLaUltimaAsignatura() {
+
+        Asignatura asignatura1 = asignaturaDao.guardar(new Asignatura(null, materia1, alumno, EstadoAsignatura.CURSANDO));
+        Asignatura asignatura2 = asignaturaDao.guardar(new Asignatura(null, materia2, alumno, EstadoAsignatura.CURSANDO));
+
+        asignaturaDao.borrarPorId(asignatura1.getId());
+        assertTrue(asignaturaDao.existePorAlumnoId(alumno.getId()));
+
+        asignaturaDao.borrarPorId(asignatura2.getId());
+        assertFalse(asignaturaDao.existePorAlumnoId(alumno.getId()));
+        assertFalse(asignaturaDao.existePorMateriaId(materia1.getId()));
+    }
+    
+    @Test
+    void guardar_debeRechazarAsignatura_cuandoLaMateriaNoExiste() {
+
+        vincularConDaosReales();
+        Alumno alumnoGuardado = alumnoDao.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+
+        Asignatura asignatura = new Asignatura(null, materia1, alumnoGuardado, EstadoAsignatura.CURSANDO);
+
+        assertThrows(EntidadNoEncontradaException.class, () -> asignaturaDao.guardar(asignatura));
+        assertNull(asignatura.getId());
+        assertFalse(asignaturaDao.existePorAlumnoId(alumnoGuardado.getId()));
+    }
+    
+    @Test
+    void borrarMateria_debeFallar_mientrasTengaAsignaturas() {
+
+        vincularConDaosReales();
+        Alumno alumnoGuardado = alumnoDao.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+        Materia materiaGuardada = materiaDao.guardar(new Materia(null, "Programación I", 1, 1));
+        Asignatura asignatura = asignaturaDao.guardar(
+                new Asignatura(null, materiaGuardada, alumnoGuardado, EstadoAsignatura.CURSANDO));
+
+        assertThrows(ReglaNegocioException.class, () -> materiaDao.borrarPorId(materiaGuardada.getId()));
+        assertThrows(ReglaNegocioException.class, () -> alumnoDao.borrarPorId(alumnoGuardado.getId()));
+        assertTrue(materiaDao.buscarPorId(materiaGuardada.getId()).isPresent());
+
+        asignaturaDao.borrarPorId(asignatura.getId());
+        materiaDao.borrarPorId(materiaGuardada.getId());
+
+        assertFalse(materiaDao.buscarPorId(materiaGuardada.getId()).isPresent());
+    }
+    
+    @Test
+    void borrarMateria_noDebeDejarAsignaturasHuerfanas_cuandoCompiteConUnaInscripcion() throws Exception {
+
+        vincularConDaosReales();
+        Alumno alumnoGuardado = alumnoDao.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 200; i++) {
+                Materia materia = materiaDao.guardar(new Materia(null, "Materia " + i, 1, 1));
+                CountDownLatch largada = new CountDownLatch(1);
+
+                Future<Boolean> inscripcion = executor.submit(() -> {
+                    largada.await();
+                    try {
+                        asignaturaDao.guardar(new Asignatura(null, materia, alumnoGuardado, EstadoAsignatura.CURSANDO));
+                        return true;
+                    } catch (EntidadNoEncontradaException e) {
+                        return false;
+                    }
+                });
+                Future<Boolean> borrado = executor.submit(() -> {
+                    largada.await();
+                    try {
+                        materiaDao.borrarPorId(materia.getId());
+                        return true;
+                    } catch (ReglaNegocioException e) {
+                        return false;
+                    }
+                });
+                largada.countDown();
+
+                boolean inscripto = inscripcion.get(10, TimeUnit.SECONDS);
+                boolean borrada = borrado.get(10, TimeUnit.SECONDS);
+
+                assertTrue(inscripto != borrada);
+                assertEquals(inscripto, materiaDao.buscarPorId(materia.getId()).isPresent());
+                assertEquals(inscripto, asignaturaDao.existePorMateriaId(materia.getId()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void contarYBuscarAlumnosPorEstado_debenSeguirLosCambiosDeEstadoYLosBorrados() {
+        Alumno otro = new Alumno(2L, "Ana", "Perez", "2", null);
+        Asignatura cursando = asignaturaDao.guardar(new Asignatura(null, materia1, alumno, EstadoAsignatura.CURSANDO));
+        asignaturaDao.guardar(new Asignatura(null, materia1, otro, EstadoAsignatura.REGULAR));
+        asignaturaDao.guardar(new Asignatura(null, materia2, otro, EstadoAsignatura.REGULAR));
+
+        assertEquals(1, asignaturaDao.contarPorMateriaIdYEstado(1L, EstadoAsignatura.CURSANDO));
+        assertEquals(1, asignaturaDao.contarPorMateriaIdYEstado(1L, EstadoAsignatura.REGULAR));
+
+        cursando.setEstado(EstadoAsignatura.REGULAR);
+        asignaturaDao.guardar(cursando);
+
+        assertEquals(0, asignaturaDao.contarPorMateriaIdYEstado(1L, EstadoAsignatura.CURSANDO));
+        assertEquals(2, asignaturaDao.contarPorMateriaIdYEstado(1L, EstadoAsignatura.REGULAR));
+        assertEquals(List.of(1L, 2L), asignaturaDao.buscarAlumnoIdsPorEstado(List.of(1L, 2L), EstadoAsignatura.REGULAR, false));
+        assertEquals(List.of(2L), asignaturaDao.buscarAlumnoIdsPorEstado(List.of(1L, 2L), EstadoAsignatura.REGULAR, true));
+        assertEquals(List.of(), asignaturaDao.buscarAlumnoIdsPorEstado(List.of(1L, 3L), EstadoAsignatura.REGULAR, true));
+
+        asignaturaDao.borrarPorId(cursando.getId());
+
+        assertEquals(1, asignaturaDao.contarPorMateriaIdYEstado(1L, EstadoAsignatura.REGULAR));
+        assertEquals(List.of(2L), asignaturaDao.buscarAlumnoIdsPorEstado(List.of(1L), EstadoAsignatura.REGULAR, false));
+    }
+
+    @Test
+    void buscarCorrelativasSinCumplir_debeSeguirLosCambiosDeEstadoYDeCorrelativas() {
+        Alumno otro = new Alumno(2L, "Ana", "Perez", "2", null);
+        // Correlativas repartidas en varias palabras de bits.
+        for (long materiaId = 3; materiaId <= 200; materiaId++) {
+            asignaturaDao.guardar(new Asignatura(null, new Materia(materiaId, "Materia " + materiaId, 1, 1), otro,
+                    EstadoAsignatura.APROBADO));
+        }
+        Asignatura primera = asignaturaDao.guardar(new Asignatura(null, materia1, alumno, EstadoAsignatura.APROBADO));
+        asignaturaDao.guardar(new Asignatura(null, new Materia(150L, "Materia 150", 1, 1), alumno, EstadoAsignatura.REGULAR));
+        Materia avanzada = new Materia(500L, "Programación Avanzada", 3, 1);
+        avanzada.setCorrelatividades(List.of(150L, 2L, 1L, 70L));
+
+        assertEquals(List.of(2L, 70L), asignaturaDao.buscarCorrelativasSinCumplir(1L, avanzada));
+        assertEquals(List.of(1L, 2L), asignaturaDao.buscarCorrelativasSinCumplir(2L, avanzada));
+
+        primera.setEstado(EstadoAsignatura.CURSANDO);
+        asignaturaDao.guardar(primera);
+        avanzada.setCorrelatividades(List.of(1L, 150L));
+
+        assertEquals(List.of(1L), asignaturaDao.buscarCorrelativasSinCumplir(1L, avanzada));
+
+        primera.setEstado(EstadoAsignatura.REGULAR);
+        primera = asignaturaDao.guardar(primera);
+
+        assertEquals(List.of(), asignaturaDao.buscarCorrelativasSinCumplir(1L, avanzada));
+
+        asignaturaDao.borrarPorId(primera.getId());
+
+        assertEquals(List.of(1L), asignaturaDao.buscarCorrelativasSinCumplir(1L, avanzada));
+        assertEquals(List.of(1L, 150L), asignaturaDao.buscarCorrelativasSinCumplir(99L, avanzada));
+    }
+
+    @Test
+    void buscarCorrelativasSinCumplir_debeUsarLasCorrelativasGuardadas_sinImportarElOrden() {
+        vincularConDaosReales();
+        Alumno alumnoGuardado = alumnoDao.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "12345678", carrera));
+        Materia primera = materiaDao.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia segunda = materiaDao.guardar(new Materia(null, "Base de Datos", 1, 2));
+        Materia avanzada = new Materia(null, "Programación Avanzada", 3, 1);
+        avanzada.setCorrelatividades(List.of(segunda.getId(), primera.getId()));
+        avanzada = materiaDao.guardar(avanzada);
+        asignaturaDao.guardar(new Asignatura(null, primera, alumnoGuardado, EstadoAsignatura.APROBADO));
+
+        Materia mismaEnOtroOrden = avanzada.copiar();
+        mismaEnOtroOrden.setCorrelatividades(List.of(primera.getId(), segunda.getId(), primera.getId()));
+
+        assertEquals(List.of(segunda.getId()), asignaturaDao.buscarCorrelativasSinCumplir(alumnoGuardado.getId(), avanzada));
+        assertEquals(List.of(segunda.getId()),
+                asignaturaDao.buscarCorrelativasSinCumplir(alumnoGuardado.getId(), mismaEnOtroOrden));
+
+        Materia cambiada = avanzada.copiar();
+        cambiada.setCorrelatividades(List.of(primera.getId()));
+        materiaDao.guardar(cambiada);
+
+        assertEquals(List.of(), asignaturaDao.buscarCorrelativasSinCumplir(alumnoGuardado.getId(), cambiada));
+    }
+
+    private void vincularConDaosReales() {
+        alumnoDao = new AlumnoDaoMemoryImpl();
+        materiaDao = new MateriaDaoMemoryImpl();
+        ReflectionTestUtils.setField(asignaturaDao, "alumnoDao", alumnoDao);
+        ReflectionTestUtils.setField(asignaturaDao, "materiaDao", materiaDao);
+        ReflectionTestUtils.invokeMethod(asignaturaDao, "vincularReferencias");
+    }
+}
@@ -0,0 +1,435 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturasColumnares;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.SecuenciaPorBloques;
+
+public class AsignaturasColumnaresTest {
+
+    private AsignaturasColumnares asignaturas;
+
+    @BeforeEach
+    void setUp() {
+        asignaturas = new AsignaturasColumnares();
+    }
+
+    @Test
+    void buscarPorId_debeDevolverLosMismosValores_cuandoSeGuardanEnColumnas() {
+        Asignatura guardada = asignaturas.guardar(asignatura(null, 7L, 3L, EstadoAsignatura.APROBADO, 8.75));
+        Asignatura sinNota = asignaturas.guardar(asignatura(null, 7L, 4L, null, null));
+
+        Asignatura recuperada = asignaturas.buscarPorId(guardada.getId()).orElseThrow();
+        assertEquals(7L, recuperada.getAlumno().getId());
+        assertEquals(3L, recuperada.getMateria().getId());
+        assertEquals(EstadoAsignatura.APROBADO, recuperada.getEstado());
+        assertEquals(8.75, recuperada.getNota());
+
+        Asignatura vacia = asignaturas.buscarPorId(sinNota.getId()).orElseThrow();
+        assertNull(vacia.getEstado());
+        assertNull(vacia.getNota());
+    }
+
+    @Test
+    void guardar_debeAvanzarLaVersion_yRechazarLaEscritura_cuandoQuedoVieja() {
+        Asignatura guardada = asignaturas.guardar(asignatura(null, 7L, 3L, EstadoAsignatura.CURSANDO, null));
+        Asignatura nota = asignaturas.buscarPorId(guardada.getId()).orElseThrow().copiar();
+        Asignatura estado = asignaturas.buscarPorId(guardada.getId()).orElseThrow().copiar();
+        nota.setNota(8.0);
+        estado.setEstado(EstadoAsignatura.REGULAR);
+
+        asignaturas.guardar(nota);
+
+        assertEquals(1L, guardada.getVersion());
+        assertEquals(2L, asignaturas.buscarPorId(guardada.getId()).orElseThrow().getVersion());
+        assertThrows(ConflictoDeVersionException.class, () -> asignaturas.guardar(estado));
+        Asignatura recuperada = asignaturas.buscarPorId(guardada.getId()).orElseThrow();
+        assertEquals(EstadoAsignatura.CURSANDO, recuperada.getEstado());
+        assertEquals(8.0, recuperada.getNota());
+
+        Asignatura restaurada = asignatura(guardada.getId(), 7L, 3L, EstadoAsignatura.APROBADO, 9.0);
+        restaurada.setVersion(40L);
+        asignaturas.restaurar(restaurada);
+        assertEquals(40L, asignaturas.buscarPorId(guardada.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void guardar_debeRechazarLaVersion_cuandoNoEntraEnLaColumna() {
+        Asignatura restaurada = asignatura(1L, 7L, 3L, EstadoAsignatura.CURSANDO, null);
+        restaurada.setVersion((long) Integer.MAX_VALUE);
+        asignaturas.restaurar(restaurada);
+        Asignatura siguiente = asignaturas.buscarPorId(1L).orElseThrow().copiar();
+        siguiente.setNota(6.0);
+
+        assertThrows(ReglaNegocioException.class, () -> asignaturas.guardar(siguiente));
+        Asignatura fuera = asignatura(2L, 7L, 4L, EstadoAsignatura.CURSANDO, null);
+        fuera.setVersion(Integer.MAX_VALUE + 1L);
+        assertThrows(ReglaNegocioException.class, () -> asignaturas.restaurar(fuera));
+
+        Asignatura recuperada = asignaturas.buscarPorId(1L).orElseThrow();
+        assertEquals((long) Integer.MAX_VALUE, recuperada.getVersion());
+        assertNull(recuperada.getNota());
+        assertTrue(asignaturas.buscarPorId(2L).isEmpty());
+    }
+
+    @Test
+    void guardar_noDebeGastarFilaNiId_cuandoSeRechazaElAlta() {
+        asignaturas.guardar(asignatura(null, 7L, 3L, EstadoAsignatura.CURSANDO, null));
+        int filas = asignaturas.filasEnMemoria();
+
+        for (int i = 0; i < 1500; i++) {
+            assertThrows(EntidadDuplicadaException.class,
+                    () -> asignaturas.guardar(asignatura(null, 7L, 3L, EstadoAsignatura.REGULAR, null)));
+            Asignatura conVersion = asignatura(null, 7L, 4L, EstadoAsignatura.CURSANDO, null);
+            conVersion.setVersion(3L);
+            assertThrows(ConflictoDeVersionException.class, () -> asignaturas.guardar(conVersion));
+        }
+
+        assertEquals(filas, asignaturas.filasEnMemoria());
+        assertEquals(2L, asignaturas.guardar(asignatura(null, 7L, 4L, EstadoAsignatura.CURSANDO, null)).getId());
+        assertEquals(2, asignaturas.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeRechazarNota_cuandoTieneMasDeDosDecimales() {
+        Asignatura asignatura = asignatura(null, 1L, 1L, EstadoAsignatura.REGULAR, 7.125);
+
+        assertThrows(ReglaNegocioException.class, () -> asignaturas.guardar(asignatura));
+        assertNull(asignatura.getId());
+        assertEquals(0, asignaturas.cantidad());
+        assertFalse(asignaturas.referenciasAAlumno().contar(1L) > 0);
+    }
+
+    @Test
+    void guardar_debeRechazarNota_cuandoNoEntraEnCentesimos() {
+        assertThrows(ReglaNegocioException.class,
+                () -> asignaturas.guardar(asignatura(null, 1L, 1L, EstadoAsignatura.REGULAR, 400.0)));
+        assertThrows(ReglaNegocioException.class,
+                () -> asignaturas.guardar(asignatura(null, 1L, 1L, EstadoAsignatura.REGULAR, -327.68)));
+
+        Asignatura limite = asignaturas.guardar(asignatura(null, 1L, 1L, EstadoAsignatura.REGULAR, 327.67));
+        assertEquals(327.67, asignaturas.buscarPorId(limite.getId()).orElseThrow().getNota());
+        assertEquals(1, asignaturas.cantidad());
+    }
+
+    @Test
+    void buscarPorAlumnoId_debeDevolverOrdenadasPorId_cuandoSeMuevenEntreAlumnos() {
+        Asignatura primera = asignaturas.guardar(asignatura(null, 1L, 1L, EstadoAsignatura.CURSANDO, null));
+        Asignatura segunda = asignaturas.guardar(asignatura(null, 2L, 2L, EstadoAsignatura.CURSANDO, null));
+        Asignatura tercera = asignaturas.guardar(asignatura(null, 1L, 3L, EstadoAsignatura.CURSANDO, null));
+
+        asignaturas.guardar(asignatura(segunda.getId(), 1L, 2L, EstadoAsignatura.REGULAR, 6.0));
+
+        assertEquals(List.of(primera.getId(), segunda.getId(), tercera.getId()),
+                asignaturas.buscarPorAlumnoId(1L).stream().map(Asignatura::getId).toList());
+        assertTrue(asignaturas.buscarPorAlumnoId(2L).isEmpty());
+
+        asignaturas.borrarPorId(segunda.getId());
+
+        assertEquals(List.of(primera.getId(), tercera.getId()),
+                asignaturas.buscarPorAlumnoId(1L).stream().map(Asignatura::getId).toList());
+        assertTrue(asignaturas.buscarPorAlumnoIdYMateriaId(1L, 2L).isEmpty());
+        assertEquals(2, asignaturas.buscarTodos().size());
+    }
+
+    @Test
+    void buscarPorAlumnoId_debeVerCadaAlumnoCompleto_cuandoSeEscribeEnParalelo() throws Exception {
+        int alumnos = 50;
+        int materias = 20;
+        for (long alumnoId = 1; alumnoId <= alumnos; alumnoId++) {
+            for (long materiaId = 1; materiaId <= materias; materiaId++) {
+                asignaturas.guardar(asignatura(null, alumnoId, materiaId, EstadoAsignatura.CURSANDO, null));
+            }
+        }
+
+        List<Integer> vistas = ejecutarEnParalelo(4, () -> {
+            List<Integer> tamanios = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                long alumnoId = 1 + i % alumnos;
+                if (i % 2 == 0) {
+                    // Borra y vuelve a guardar la de la materia 1: al alumno le falta a lo sumo esa.
+                    Long asignaturaId = alumnoId * materias - materias + 1;
+                    asignaturas.borrarPorId(asignaturaId);
+                    asignaturas.guardar(asignatura(asignaturaId, alumnoId, 1L, EstadoAsignatura.REGULAR, 7.5));
+                } else {
+                    tamanios.add(asignaturas.buscarPorAlumnoId(alumnoId).size());
+                }
+            }
+            return tamanios;
+        });
+
+        for (Integer tamanio : vistas) {
+            assertTrue(tamanio == materias || tamanio == materias - 1);
+        }
+        assertEquals(alumnos * materias, asignaturas.cantidad());
+        assertEquals(alumnos * materias, asignaturas.buscarTodos().size());
+    }
+
+    @Test
+    void guardar_debeAltasYModificarEnParalelo_mientrasSeArchivan(@TempDir Path directorio) throws Exception {
+        asignaturas.archivarEn(directorio, 50, 2, 2);
+        int hilos = 4;
+        int porHilo = 1_000;
+
+        List<Integer> vistas = ejecutarEnParalelo(hilos, () -> {
+            List<Integer> tamanios = new ArrayList<>();
+            long alumnoId = Thread.currentThread().getId();
+            List<Long> propias = new ArrayList<>();
+            for (long materiaId = 1; materiaId <= porHilo; materiaId++) {
+                propias.add(asignaturas.guardar(asignatura(null, alumnoId, materiaId, EstadoAsignatura.CURSANDO, null)).getId());
+                if (materiaId % 10 == 0) {
+                    // Una vieja, que para entonces puede estar en un tramo frío.
+                    Asignatura vieja = asignaturas.buscarPorId(propias.get((int) materiaId / 2)).orElseThrow().copiar();
+                    vieja.setNota(8.0);
+                    asignaturas.guardar(vieja);
+                    tamanios.add(asignaturas.buscarPorAlumnoId(alumnoId).size());
+                }
+            }
+            return tamanios;
+        });
+
+        for (int i = 0; i < vistas.size(); i++) {
+            assertEquals((i % (porHilo / 10) + 1) * 10, vistas.get(i));
+        }
+        assertEquals(hilos * porHilo, asignaturas.cantidad());
+        List<Asignatura> todas = asignaturas.buscarTodos();
+        assertEquals(hilos * porHilo, todas.size());
+        assertEquals(hilos * porHilo * 10 / 100, todas.stream().filter(a -> a.getNota() != null).count());
+        assertTrue(asignaturas.filasEnMemoria() < hilos * porHilo);
+    }
+
+    private static Asignatura asignatura(Long id, Long alumnoId, Long materiaId, EstadoAsignatura estado, Double nota) {
+        return new Asignatura(id, new Materia(materiaId, null, null, null),
+                new Alumno(alumnoId, null, null, null, null), estado, nota);
+    }
+
+    private List<Integer> ejecutarEnParalelo(int hilos, Callable<List<Integer>> tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<List<Integer>>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarea.call();
+                }));
+            }
+            largada.countDown();
+
+            List<Integer> resultado = new ArrayList<>();
+            for (Future<List<Integer>> futuro : futuros) {
+                resultado.addAll(futuro.get(60, TimeUnit.SECONDS));
+            }
+            return resultado;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void buscarPagina_debeSaltearFilasBorradas_enAmbosSentidos() {
+        for (long materiaId = 1; materiaId <= 10; materiaId++) {
+            asignaturas.guardar(asignatura(null, 1L, materiaId, EstadoAsignatura.CURSANDO, null));
+        }
+        asignaturas.borrarPorId(4L);
+        asignaturas.borrarPorId(5L);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(asignaturas.buscarPagina(null, 3, Orden.ASCENDENTE)));
+        assertEquals(List.of(6L, 7L, 8L), ids(asignaturas.buscarPagina(3L, 3, Orden.ASCENDENTE)));
+        assertEquals(List.of(), ids(asignaturas.buscarPagina(10L, 3, Orden.ASCENDENTE)));
+        assertEquals(List.of(10L, 9L), ids(asignaturas.buscarPagina(null, 2, Orden.DESCENDENTE)));
+        assertEquals(List.of(6L, 3L, 2L), ids(asignaturas.buscarPagina(7L, 3, Orden.DESCENDENTE)));
+        assertEquals(List.of(10L, 9L, 8L), ids(asignaturas.buscarPagina(Long.MAX_VALUE, 3, Orden.DESCENDENTE)));
+        assertEquals(List.of(), ids(asignaturas.buscarPagina(1L, 3, Orden.DESCENDENTE)));
+    }
+
+    @Test
+    void buscarPagina_debeRecorrerSoloLasFilasDelNodo_cuandoLosIdsSonIntercalados() {
+        asignaturas.usarIds(new SecuenciaPorBloques(2, 3, 1));
+        for (long materiaId = 1; materiaId <= 5; materiaId++) {
+            asignaturas.guardar(asignatura(null, 1L, materiaId, EstadoAsignatura.CURSANDO, null));
+        }
+
+        assertEquals(List.of(3L, 6L, 9L, 12L, 15L), ids(asignaturas.buscarTodos()));
+        assertEquals(List.of(9L, 12L), ids(asignaturas.buscarPagina(6L, 2, Orden.ASCENDENTE)));
+        assertEquals(List.of(15L, 12L), ids(asignaturas.buscarPagina(null, 2, Orden.DESCENDENTE)));
+        assertEquals(5, asignaturas.buscarPorAlumnoId(1L).size());
+    }
+
+    @Test
+    void archivarEn_debeLeerYModificarLosTramosFrios_comoLasFilasEnMemoria(@TempDir Path directorio) {
+        // Materia = id: el alumno id % 5 + 1 tiene una asignatura de cada cinco.
+        for (long id = 1; id <= 3000; id++) {
+            asignaturas.guardar(asignatura(null, id % 5 + 1, id, EstadoAsignatura.CURSANDO, null));
+        }
+        int filasAntes = asignaturas.filasEnMemoria();
+
+        asignaturas.archivarEn(directorio, 500, 1, 2);
+
+        assertTrue(asignaturas.filasEnMemoria() < filasAntes - 2000);
+        assertEquals(7L, asignaturas.buscarPorId(7L).orElseThrow().getMateria().getId());
+        assertEquals(3000, asignaturas.buscarTodos().size());
+        assertEquals(List.of(2499L, 2500L, 2501L, 2502L), ids(asignaturas.buscarPagina(2498L, 4, Orden.ASCENDENTE)));
+        assertEquals(List.of(2501L, 2500L, 2499L), ids(asignaturas.buscarPagina(2502L, 3, Orden.DESCENDENTE)));
+        List<Asignatura> delAlumno = asignaturas.buscarPorAlumnoId(2L);
+        assertEquals(600, delAlumno.size());
+        assertEquals(List.of(1L, 6L, 11L), ids(delAlumno.subList(0, 3)));
+        assertEquals(2996L, delAlumno.get(delAlumno.size() - 1).getId());
+        assertThrows(EntidadDuplicadaException.class,
+                () -> asignaturas.guardar(asignatura(null, 2L, 6L, EstadoAsignatura.CURSANDO, null)));
+
+        Asignatura fria = asignaturas.buscarPorId(6L).orElseThrow().copiar();
+        fria.setAlumno(new Alumno(9L, null, null, null, null));
+        fria.setNota(7.5);
+        asignaturas.guardar(fria);
+        asignaturas.borrarPorId(11L);
+
+        assertEquals(7.5, asignaturas.buscarPorId(6L).orElseThrow().getNota());
+        assertEquals(List.of(6L), ids(asignaturas.buscarPorAlumnoId(9L)));
+        assertEquals(List.of(1L, 16L), ids(asignaturas.buscarPorAlumnoId(2L).subList(0, 2)));
+        assertTrue(asignaturas.buscarPorId(11L).isEmpty());
+        assertEquals(2999, asignaturas.cantidad());
+        assertTrue(asignaturas.buscarPorAlumnoIdYMateriaId(2L, 6L).isEmpty());
+    }
+
+    @Test
+    void archivarEn_debeSeguirArchivando_yMantenerAcotadosLosTramosCargados(@TempDir Path directorio) {
+        asignaturas.archivarEn(directorio, 100, 2, 3);
+        for (long id = 1; id <= 2000; id++) {
+            asignaturas.guardar(asignatura(null, 1L, id, EstadoAsignatura.CURSANDO, null));
+        }
+
+        assertEquals(2000, asignaturas.buscarPorAlumnoId(1L).size());
+        assertEquals(2000, asignaturas.buscarTodos().size());
+        assertTrue(asignaturas.tramosCargados() <= 3);
+        assertTrue(asignaturas.filasEnMemoria() < 2000);
+        assertEquals(1999L, asignaturas.buscarPorAlumnoIdYMateriaId(1L, 1999L).orElseThrow().getId());
+    }
+
+    @Test
+    void buscarPorAlumnoIds_debeLeerLosTramosDeTodos_sinTocarOtrosArchivosDelDirectorio(@TempDir Path directorio)
+            throws Exception {
+        Path ajeno = Files.writeString(directorio.resolve("ajeno.tramo"), "no es nuestro");
+        asignaturas.archivarEn(directorio, 100, 1, 1);
+        // Cada alumno tiene una asignatura en cada tramo.
+        for (long id = 1; id <= 1000; id++) {
+            asignaturas.guardar(asignatura(null, id % 10 + 1, id, EstadoAsignatura.CURSANDO, null));
+        }
+
+        Map<Long, List<Asignatura>> porAlumno = asignaturas.buscarPorAlumnoIds(List.of(1L, 2L, 3L, 99L));
+
+        assertEquals(Set.of(1L, 2L, 3L), porAlumno.keySet());
+        assertEquals(100, porAlumno.get(2L).size());
+        assertEquals(List.of(1L, 11L, 21L), ids(porAlumno.get(2L).subList(0, 3)));
+        assertEquals(ids(asignaturas.buscarPorAlumnoId(3L)), ids(porAlumno.get(3L)));
+        assertTrue(asignaturas.tramosCargados() <= 1);
+        assertTrue(Files.exists(ajeno));
+    }
+
+    @Test
+    void contarPorMateriaYEstado_debeIncluirLasFilasFrias_yLasCargadas(@TempDir Path directorio) {
+        asignaturas.archivarEn(directorio, 1000, 1, 2);
+        // Alumno = id; las pares son de la materia 1 y una de cada tres está aprobada.
+        for (long id = 1; id <= 10_000; id++) {
+            asignaturas.guardar(asignatura(null, id, id % 2 == 0 ? 1L : 2L,
+                    id % 3 == 0 ? EstadoAsignatura.APROBADO : EstadoAsignatura.REGULAR, null));
+        }
+        assertEquals(1666, asignaturas.contarPorMateriaYEstado(1L, EstadoAsignatura.APROBADO));
+
+        Asignatura fria = asignaturas.buscarPorId(6L).orElseThrow().copiar();
+        fria.setEstado(EstadoAsignatura.REGULAR);
+        asignaturas.guardar(fria);
+        asignaturas.borrarPorId(12L);
+
+        assertEquals(1664, asignaturas.contarPorMateriaYEstado(1L, EstadoAsignatura.APROBADO));
+        assertEquals(3335, asignaturas.contarPorMateriaYEstado(1L, EstadoAsignatura.REGULAR));
+        List<Long> aprobados = asignaturas.alumnosPorEstado(List.of(1L, 2L), EstadoAsignatura.APROBADO, false);
+        assertEquals(3331, aprobados.size());
+        assertEquals(List.of(3L, 9L, 15L), aprobados.subList(0, 3));
+        assertTrue(asignaturas.alumnosPorEstado(List.of(1L, 2L), EstadoAsignatura.APROBADO, true).isEmpty());
+
+        AsignaturasColumnares cargadas = new AsignaturasColumnares();
+        cargadas.cargar(asignaturas.buscarTodos(), 10_000);
+
+        assertEquals(1664, cargadas.contarPorMateriaYEstado(1L, EstadoAsignatura.APROBADO));
+        assertEquals(aprobados, cargadas.alumnosPorEstado(List.of(2L, 1L), EstadoAsignatura.APROBADO, false));
+    }
+
+    @Test
+    void restaurar_debeUsarFilasSeguidas_cuandoLosIdsSonGrandesOLleganFueraDeOrden(@TempDir Path directorio) {
+        asignaturas.archivarEn(directorio, 100, 1, 2);
+        long base = 10_000_000_000L;
+        for (long k = 1; k <= 300; k++) {
+            asignaturas.restaurar(asignatura(base + k * 7, k % 3 + 1, k, EstadoAsignatura.CURSANDO, null));
+        }
+        // Como al reproducir una bitácora: ids menores a los que ya tienen fila.
+        asignaturas.restaurar(asignatura(5L, 1L, 1001L, EstadoAsignatura.CURSANDO, null));
+        asignaturas.restaurar(asignatura(3L, 1L, 1002L, EstadoAsignatura.CURSANDO, null));
+        asignaturas.restaurar(asignatura(base + 8, 1L, 1003L, EstadoAsignatura.CURSANDO, null));
+        for (long k = 301; k <= 500; k++) {
+            asignaturas.restaurar(asignatura(base + k * 7, k % 3 + 1, k, EstadoAsignatura.CURSANDO, null));
+        }
+
+        assertTrue(asignaturas.filasEnMemoria() < 2000);
+        assertEquals(503, asignaturas.cantidad());
+        assertEquals(1002L, asignaturas.buscarPorId(3L).orElseThrow().getMateria().getId());
+        assertEquals(250L, asignaturas.buscarPorId(base + 250 * 7).orElseThrow().getMateria().getId());
+        assertTrue(asignaturas.buscarPorId(base + 9).isEmpty());
+        assertTrue(asignaturas.buscarPorId(4L).isEmpty());
+        List<Long> todos = ids(asignaturas.buscarTodos());
+        assertEquals(503, todos.size());
+        assertEquals(todos.stream().sorted().toList(), todos);
+        assertEquals(List.of(3L, 5L, base + 7, base + 8), todos.subList(0, 4));
+        assertEquals(List.of(base + 8, base + 14), ids(asignaturas.buscarPagina(base + 7, 2, Orden.ASCENDENTE)));
+        assertEquals(List.of(base + 8, base + 7, 5L, 3L), ids(asignaturas.buscarPagina(base + 14, 5, Orden.DESCENDENTE)));
+        List<Long> delAlumno = ids(asignaturas.buscarPorAlumnoId(1L));
+        assertEquals(delAlumno.stream().sorted().toList(), delAlumno);
+        assertEquals(List.of(3L, 5L, base + 8), delAlumno.subList(0, 3));
+
+        Asignatura fria = asignaturas.buscarPorId(5L).orElseThrow().copiar();
+        fria.setNota(6.0);
+        asignaturas.guardar(fria);
+        asignaturas.borrarPorId(3L);
+        asignaturas.restaurar(asignatura(3L, 2L, 1004L, EstadoAsignatura.CURSANDO, null));
+
+        assertEquals(6.0, asignaturas.buscarPorId(5L).orElseThrow().getNota());
+        assertEquals(2L, asignaturas.buscarPorId(3L).orElseThrow().getAlumno().getId());
+        assertEquals(503, asignaturas.cantidad());
+        AsignaturasColumnares cargadas = new AsignaturasColumnares();
+        cargadas.cargar(asignaturas.buscarTodos(), 0);
+        assertEquals(todos, ids(cargadas.buscarTodos()));
+        assertEquals(base + 500 * 7 + 1, cargadas.guardar(asignatura(null, 9L, 1L, null, null)).getId());
+    }
+
+    private static List<Long> ids(List<Asignatura> pagina) {
+        return pagina.stream().map(Asignatura::getId).toList();
+    }
+}
@@ -0,0 +1,405 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.Bitacora;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.BitacoraDeDaos;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.CarreraDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ModoDurabilidad;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoMemoryImpl;
+
+public class BitacoraDeDaosTest {
+
+    @TempDir
+    Path directorio;
+
+    @ParameterizedTest
+    @EnumSource(ModoDurabilidad.class)
+    void iniciar_debeRecuperarElEstado_despuesDeReiniciar(ModoDurabilidad modo) throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, modo);
+        Profesor profesor = antes.profesores.guardar(new Profesor(null, "Ada", "Lovelace", "Matemática"));
+        Materia programacion = antes.materias.guardar(new Materia(null, "Programación I", 1, 1, profesor));
+        Materia algoritmos = new Materia(null, "Algoritmos", 1, 2, profesor);
+        algoritmos.setCorrelatividades(List.of(programacion.getId()));
+        antes.materias.guardar(algoritmos);
+        Carrera carrera = new Carrera(null, "Tecnicatura", 2);
+        carrera.setMaterias(List.of(programacion, algoritmos));
+        antes.carreras.guardar(carrera);
+        Alumno alumno = antes.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "40111222", carrera));
+        Alumno baja = antes.alumnos.guardar(new Alumno(null, "Baja", "Alumno", "40999888", null));
+        Asignatura asignatura = antes.asignaturas.guardar(
+                new Asignatura(null, programacion, alumno, EstadoAsignatura.APROBADO, 9.5));
+        antes.alumnos.borrarPorId(baja.getId());
+        antes.cerrar();
+
+        Daos despues = new Daos(archivo, modo);
+
+        assertEquals(1, despues.profesores.buscarAll().size());
+        assertEquals(2, despues.materias.buscarAll().size());
+        assertEquals(List.of(programacion.getId()),
+                despues.materias.buscarPorNombre("Algoritmos").get().getCorrelatividades());
+        assertEquals("Lovelace", despues.materias.buscarPorId(programacion.getId()).get().getProfesor().getApellido());
+        assertEquals(2, despues.carreras.buscarPorNombre("Tecnicatura").get().getMaterias().size());
+        assertEquals("Tecnicatura", despues.alumnos.buscarPorDni("40111222").get().getCarrera().getNombre());
+        assertFalse(despues.alumnos.buscarPorId(baja.getId()).isPresent());
+        Asignatura recuperada = despues.asignaturas.buscarPorId(asignatura.getId()).get();
+        assertEquals(EstadoAsignatura.APROBADO, recuperada.getEstado());
+        assertEquals(9.5, recuperada.getNota());
+        assertEquals(alumno.getId(), recuperada.getAlumno().getId());
+        assertTrue(despues.asignaturas.existePorMateriaId(programacion.getId()));
+        assertTrue(despues.materias.existePorCorrelativaId(programacion.getId()));
+        assertThrows(EntidadDuplicadaException.class,
+                () -> despues.alumnos.guardar(new Alumno(null, "Otro", "Alumno", "40111222", null)));
+        despues.cerrar();
+    }
+
+    @Test
+    void iniciar_noDebeReasignarIds_despuesDeReiniciar() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO);
+        Long ultimoId = null;
+        for (int i = 0; i < 5; i++) {
+            ultimoId = antes.profesores.guardar(new Profesor(null, "Nombre", "Apellido " + i, "Titulo")).getId();
+        }
+        antes.cerrar();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO);
+        Profesor nuevo = despues.profesores.guardar(new Profesor(null, "Nombre", "Nuevo", "Titulo"));
+
+        assertEquals(ultimoId + 1, nuevo.getId());
+        assertEquals(6, despues.profesores.buscarAll().size());
+        despues.cerrar();
+    }
+
+    @Test
+    void guardar_noDebeAnotarNada_cuandoLaOperacionFalla() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.SINCRONO);
+        antes.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "40111222", null));
+        assertThrows(EntidadDuplicadaException.class,
+                () -> antes.alumnos.guardar(new Alumno(null, "Otro", "Alumno", "40111222", null)));
+        antes.cerrar();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.SINCRONO);
+
+        assertEquals(1, despues.alumnos.buscarTodos().size());
+        despues.cerrar();
+    }
+
+    @Test
+    void iniciar_debeCargarLaInstantaneaYReproducirSoloLaCola() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO);
+        Materia materia = antes.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Profesor profesor = new Profesor(null, "Ada", "Lovelace", "Matemática");
+        profesor.setMaterias(List.of(materia));
+        antes.profesores.guardar(profesor);
+        Alumno alumno = antes.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "40111222", null));
+        antes.asignaturas.guardar(new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+        antes.tomarInstantanea();
+        long tamanioInstantanea = Files.size(directorio.resolve("gestion.bitacora.instantanea"));
+        Alumno despuesDeLaInstantanea = antes.alumnos.guardar(new Alumno(null, "Cola", "Alumno", "40999888", null));
+        antes.caer();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO);
+
+        assertTrue(tamanioInstantanea > 0);
+        assertEquals(2, despues.alumnos.buscarTodos().size());
+        assertTrue(despues.alumnos.buscarPorDni(despuesDeLaInstantanea.getDni()).isPresent());
+        assertEquals(1, despues.asignaturas.buscarPorAlumnoId(alumno.getId()).size());
+        assertTrue(despues.asignaturas.existePorMateriaId(materia.getId()));
+        assertEquals(List.of(materia.getId()), despues.profesores.buscarPorId(profesor.getId()).get()
+                .getMaterias().stream().map(Materia::getId).toList());
+        assertThrows(ReglaNegocioException.class, () -> despues.alumnos.borrarPorId(alumno.getId()));
+        despues.cerrar();
+    }
+
+    @Test
+    void iniciar_debeRearmarLosTramosFrios_desdeLaInstantaneaYLaCola() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Path frios = directorio.resolve("frios");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO, frios);
+        Alumno alumno = antes.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "40111222", null));
+        List<Long> inscriptas = new ArrayList<>();
+        for (int i = 1; i <= 9; i++) {
+            Materia materia = antes.materias.guardar(new Materia(null, "Materia " + i, 1, 1));
+            inscriptas.add(antes.asignaturas.guardar(
+                    new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO)).getId());
+        }
+        antes.tomarInstantanea();
+        Asignatura vieja = antes.asignaturas.buscarPorId(inscriptas.get(0)).orElseThrow().copiar();
+        vieja.setEstado(EstadoAsignatura.APROBADO);
+        vieja.setNota(9.0);
+        antes.asignaturas.guardar(vieja);
+        antes.caer();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO, frios);
+
+        assertEquals(inscriptas, despues.asignaturas.buscarPorAlumnoId(alumno.getId()).stream()
+                .map(Asignatura::getId).toList());
+        assertEquals(9.0, despues.asignaturas.buscarPorId(inscriptas.get(0)).orElseThrow().getNota());
+        assertThrows(ReglaNegocioException.class, () -> despues.alumnos.borrarPorId(alumno.getId()));
+        despues.tomarInstantanea();
+        despues.cerrar();
+
+        Daos otraVez = new Daos(archivo, ModoDurabilidad.GRUPO, frios);
+        assertEquals(9, otraVez.asignaturas.buscarTodos().size());
+        otraVez.cerrar();
+    }
+
+    @Test
+    void iniciar_debeConservarLasVersiones_deLaInstantaneaYDeLaCola() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO);
+        Materia materia = antes.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno = antes.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "40111222", null));
+        Asignatura asignatura = antes.asignaturas.guardar(
+                new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+        Materia renombrada = materia.copiar();
+        renombrada.setNombre("Programación 1");
+        antes.materias.guardar(renombrada);
+        antes.tomarInstantanea();
+        Asignatura regular = antes.asignaturas.buscarPorId(asignatura.getId()).get().copiar();
+        regular.setEstado(EstadoAsignatura.REGULAR);
+        antes.asignaturas.guardar(regular);
+        antes.caer();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO);
+
+        assertEquals(2L, despues.materias.buscarPorId(materia.getId()).get().getVersion());
+        assertEquals(1L, despues.alumnos.buscarPorId(alumno.getId()).get().getVersion());
+        Asignatura recuperada = despues.asignaturas.buscarPorId(asignatura.getId()).get();
+        assertEquals(2L, recuperada.getVersion());
+        Asignatura vieja = recuperada.copiar();
+        vieja.setVersion(1L);
+        assertThrows(ConflictoDeVersionException.class, () -> despues.asignaturas.guardar(vieja));
+        assertEquals(3L, despues.asignaturas.guardar(recuperada.copiar()).getVersion());
+        despues.cerrar();
+    }
+
+    @Test
+    void iniciar_noDebeReusarElIdMasAlto_cuandoSeBorroAntesDeLaInstantanea() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.SINCRONO);
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Uno", "Titulo"));
+        Profesor ultimo = antes.profesores.guardar(new Profesor(null, "Nombre", "Dos", "Titulo"));
+        antes.profesores.borrarPorId(ultimo.getId());
+        antes.cerrar();
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.SINCRONO);
+        Profesor nuevo = despues.profesores.guardar(new Profesor(null, "Nombre", "Tres", "Titulo"));
+
+        assertEquals(ultimo.getId() + 1, nuevo.getId());
+        despues.cerrar();
+    }
+
+    @Test
+    void iniciar_debeReproducirLaBitacoraEntera_cuandoLaInstantaneaEstaCorrupta() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO);
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Uno", "Titulo"));
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Dos", "Titulo"));
+        antes.cerrar();
+        Path instantanea = directorio.resolve("gestion.bitacora.instantanea");
+        byte[] contenido = Files.readAllBytes(instantanea);
+        contenido[contenido.length / 2] ^= 1;
+        Files.write(instantanea, contenido);
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO);
+
+        assertEquals(2, despues.profesores.buscarAll().size());
+        despues.cerrar();
+    }
+
+    @Test
+    void tomarInstantanea_debeCompactarLaBitacora_yArrancarDeLaAnterior_cuandoLaUltimaEstaCorrupta() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        Daos antes = new Daos(archivo, ModoDurabilidad.GRUPO);
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Uno", "Titulo"));
+        antes.tomarInstantanea();
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Dos", "Titulo"));
+        antes.tomarInstantanea();
+        antes.profesores.guardar(new Profesor(null, "Nombre", "Tres", "Titulo"));
+        long base = antes.bitacora().base();
+        antes.caer();
+        Path instantanea = directorio.resolve("gestion.bitacora.instantanea");
+        byte[] contenido = Files.readAllBytes(instantanea);
+        contenido[contenido.length / 2] ^= 1;
+        Files.write(instantanea, contenido);
+
+        Daos despues = new Daos(archivo, ModoDurabilidad.GRUPO);
+
+        assertTrue(base > 0);
+        assertEquals(3, despues.profesores.buscarAll().size());
+        despues.cerrar();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void rendimiento_arranqueDesdeInstantanea_conUnMillonDeAsignaturas() throws Exception {
+        Path archivo = directorio.resolve("gestion.bitacora");
+        int alumnos = 20_000;
+        int materias = 50;
+        generarInstantanea(archivo, alumnos, materias);
+        System.gc();
+
+        long inicio = System.nanoTime();
+        Daos despues = new Daos(archivo, ModoDurabilidad.ASINCRONO);
+        long milisegundos = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+
+        System.out.printf("Arranque con %,d asignaturas: %,d ms (instantánea de %,d bytes)%n",
+                despues.asignaturas.buscarTodos().size(), milisegundos,
+                Files.size(directorio.resolve("gestion.bitacora.instantanea")));
+        assertEquals(alumnos * materias, despues.asignaturas.buscarTodos().size());
+        despues.cerrar();
+    }
+
+    private void generarInstantanea(Path archivo, int alumnos, int materias) throws Exception {
+        Daos daos = new Daos(archivo, ModoDurabilidad.ASINCRONO);
+        List<Materia> guardadas = new ArrayList<>();
+        for (int m = 0; m < materias; m++) {
+            guardadas.add(daos.materias.guardar(new Materia(null, "Materia " + m, 1, 1)));
+        }
+        for (int a = 0; a < alumnos; a++) {
+            Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Nombre", "Apellido", "DNI" + a, null));
+            for (Materia materia : guardadas) {
+                daos.asignaturas.guardar(new Asignatura(null, materia, alumno, EstadoAsignatura.APROBADO, 8.0));
+            }
+        }
+        daos.cerrar();
+    }
+
+    @Test
+    @Tag("benchmark")
+    void rendimiento_escriturasDurables_frenteAMemoria() throws Exception {
+        int hilos = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int operacionesPorHilo = 2_000;
+
+        medirOperacionesPorSegundo(new Daos(null, ModoDurabilidad.GRUPO), hilos, operacionesPorHilo);
+        double enMemoria = medirOperacionesPorSegundo(new Daos(null, ModoDurabilidad.GRUPO), hilos, operacionesPorHilo);
+        System.out.printf("%-10s %,12.0f ops/s%n", "MEMORIA", enMemoria);
+        for (ModoDurabilidad modo : ModoDurabilidad.values()) {
+            Daos daos = new Daos(directorio.resolve(modo.name()), modo);
+            double conBitacora = medirOperacionesPorSegundo(daos, hilos, operacionesPorHilo);
+            daos.cerrar();
+            System.out.printf("%-10s %,12.0f ops/s (%.1fx)%n", modo, conBitacora, enMemoria / conBitacora);
+        }
+    }
+
+    private double medirOperacionesPorSegundo(Daos daos, int hilos, int operacionesPorHilo) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                futuros.add(ejecutor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < operacionesPorHilo; i++) {
+                        daos.profesores.guardar(new Profesor(null, "Nombre", "Apellido " + hilo + "-" + i, "Titulo"));
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get(5, TimeUnit.MINUTES);
+            }
+            return hilos * operacionesPorHilo / ((System.nanoTime() - inicio) / 1e9);
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    private static class Daos {
+        final ProfesorDaoMemoryImpl profesores = new ProfesorDaoMemoryImpl();
+        final MateriaDaoMemoryImpl materias = new MateriaDaoMemoryImpl();
+        final CarreraDaoMemoryImpl carreras = new CarreraDaoMemoryImpl();
+        final AlumnoDaoMemoryImpl alumnos = new AlumnoDaoMemoryImpl();
+        final AsignaturaDaoMemoryImpl asignaturas = new AsignaturaDaoMemoryImpl();
+        final BitacoraDeDaos bitacora = new BitacoraDeDaos();
+
+        Daos(Path archivo, ModoDurabilidad modo) {
+            this(archivo, modo, null);
+        }
+
+        Daos(Path archivo, ModoDurabilidad modo, Path frios) {
+            ReflectionTestUtils.setField(carreras, "materiaDao", materias);
+            if (frios != null) {
+                ReflectionTestUtils.setField(asignaturas, "archivoFrio", frios.toString());
+                ReflectionTestUtils.setField(asignaturas, "filasPorTramo", 2);
+                ReflectionTestUtils.setField(asignaturas, "tramosCalientes", 1);
+                ReflectionTestUtils.setField(asignaturas, "tramosEnCache", 1);
+            }
+            ReflectionTestUtils.invokeMethod(carreras, "vincularReferencias");
+            ReflectionTestUtils.setField(alumnos, "asignaturaDao", asignaturas);
+            ReflectionTestUtils.setField(asignaturas, "alumnoDao", alumnos);
+            ReflectionTestUtils.setField(asignaturas, "materiaDao", materias);
+            ReflectionTestUtils.invokeMethod(asignaturas, "vincularReferencias");
+
+            ReflectionTestUtils.setField(bitacora, "archivo", archivo != null ? archivo.toString() : "");
+            ReflectionTestUtils.setField(bitacora, "modo", modo);
+            ReflectionTestUtils.setField(bitacora, "ventana", Duration.ZERO);
+            ReflectionTestUtils.setField(bitacora, "archivoInstantanea", "");
+            ReflectionTestUtils.setField(bitacora, "intervaloInstantanea", Duration.ZERO);
+            ReflectionTestUtils.setField(bitacora, "compactar", true);
+            ReflectionTestUtils.setField(bitacora, "profesorDao", profesores);
+            ReflectionTestUtils.setField(bitacora, "materiaDao", materias);
+            ReflectionTestUtils.setField(bitacora, "carreraDao", carreras);
+            ReflectionTestUtils.setField(bitacora, "alumnoDao", alumnos);
+            ReflectionTestUtils.setField(bitacora, "asignaturaDao", asignaturas);
+            ReflectionTestUtils.invokeMethod(bitacora, "iniciar");
+        }
+
+        void cerrar() {
+            ReflectionTestUtils.invokeMethod(bitacora, "cerrar");
+        }
+
+        void tomarInstantanea() {
+            ReflectionTestUtils.invokeMethod(bitacora, "tomarInstantanea");
+        }
+
+        Bitacora bitacora() {
+            return (Bitacora) ReflectionTestUtils.getField(bitacora, "bitacora");
+        }
+
+        /** Cierra la bitácora sin volcar la instantánea final, como una caída. */
+        void caer() throws Exception {
+            bitacora().close();
+        }
+    }
+}
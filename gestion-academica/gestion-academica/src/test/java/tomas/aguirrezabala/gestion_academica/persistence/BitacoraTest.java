@@ -0,0 +1,249 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.Bitacora;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ModoDurabilidad;
+
+public class BitacoraTest {
+
+    @TempDir
+    Path directorio;
+
+    @ParameterizedTest
+    @EnumSource(ModoDurabilidad.class)
+    void reproducir_debeDevolverLosRegistrosEnOrden(ModoDurabilidad modo) throws IOException {
+        Path archivo = directorio.resolve("bitacora");
+        try (Bitacora bitacora = new Bitacora(archivo, modo, Duration.ofMillis(1))) {
+            bitacora.abrir();
+            for (int i = 0; i < 100; i++) {
+                Bitacora.esperar(bitacora.anotar(bytes("registro " + i)));
+            }
+        }
+
+        List<String> leidos = leer(archivo);
+
+        assertEquals(100, leidos.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("registro " + i, leidos.get(i));
+        }
+    }
+
+    @Test
+    void reproducir_debeDescartarYTruncarUnRegistroCortado() throws IOException {
+        Path archivo = directorio.resolve("bitacora");
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.SINCRONO, Duration.ZERO)) {
+            bitacora.abrir();
+            Bitacora.esperar(bitacora.anotar(bytes("uno")));
+            Bitacora.esperar(bitacora.anotar(bytes("dos")));
+        }
+        long tamanioValido = Files.size(archivo);
+        Files.write(archivo, new byte[] { 0, 0, 0, 50, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        assertEquals(List.of("uno", "dos"), leer(archivo));
+        assertEquals(tamanioValido, Files.size(archivo));
+
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.SINCRONO, Duration.ZERO)) {
+            bitacora.abrir();
+            Bitacora.esperar(bitacora.anotar(bytes("tres")));
+        }
+        assertEquals(List.of("uno", "dos", "tres"), leer(archivo));
+    }
+
+    @Test
+    void reproducir_debeDescartarUnRegistroConCrcInvalido() throws IOException {
+        Path archivo = directorio.resolve("bitacora");
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.SINCRONO, Duration.ZERO)) {
+            bitacora.abrir();
+            Bitacora.esperar(bitacora.anotar(bytes("uno")));
+            Bitacora.esperar(bitacora.anotar(bytes("dos")));
+        }
+        byte[] contenido = Files.readAllBytes(archivo);
+        contenido[contenido.length - 1] ^= 1;
+        Files.write(archivo, contenido);
+
+        assertEquals(List.of("uno"), leer(archivo));
+    }
+
+    @Test
+    void anotar_debeConservarTodasLasEscrituras_cuandoVariosHilosEscribenEnModoGrupo() throws Exception {
+        Path archivo = directorio.resolve("bitacora");
+        int hilos = 8;
+        int registrosPorHilo = 200;
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.GRUPO, Duration.ofMillis(1))) {
+            bitacora.abrir();
+            ejecutarEnParalelo(hilos, hilo -> {
+                for (int i = 0; i < registrosPorHilo; i++) {
+                    Bitacora.esperar(bitacora.anotar(bytes(hilo + ":" + i)));
+                }
+            });
+        }
+
+        List<String> leidos = leer(archivo);
+
+        assertEquals(hilos * registrosPorHilo, leidos.size());
+        Map<String, Integer> ultimoPorHilo = new HashMap<>();
+        for (String registro : leidos) {
+            String[] partes = registro.split(":");
+            int anterior = ultimoPorHilo.getOrDefault(partes[0], -1);
+            assertEquals(anterior + 1, Integer.parseInt(partes[1]));
+            ultimoPorHilo.put(partes[0], anterior + 1);
+        }
+    }
+
+    @Test
+    void anotar_debeFallar_cuandoLaBitacoraEstaCerrada() throws IOException {
+        Bitacora bitacora = new Bitacora(directorio.resolve("bitacora"), ModoDurabilidad.GRUPO, Duration.ZERO);
+        bitacora.abrir();
+        bitacora.close();
+
+        CompletableFuture<Void> confirmacion = bitacora.anotar(bytes("tarde"));
+
+        assertThrows(IllegalStateException.class, () -> Bitacora.esperar(confirmacion));
+        assertThrows(IllegalStateException.class, bitacora::verificarDisponible);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ModoDurabilidad.class, names = { "SINCRONO", "GRUPO" })
+    void anotar_debeFallarLoPendienteYLoQueSigue_cuandoFallaUnaEscritura(ModoDurabilidad modo) throws IOException {
+        Path archivo = directorio.resolve("bitacora");
+        Bitacora bitacora = new Bitacora(archivo, modo, Duration.ZERO);
+        bitacora.abrir();
+        Bitacora.esperar(bitacora.anotar(bytes("uno")));
+        long durable = bitacora.durable();
+        ((FileChannel) ReflectionTestUtils.getField(bitacora, "canal")).close();
+
+        CompletableFuture<Void> fallida = bitacora.anotar(bytes("dos"));
+
+        assertThrows(UncheckedIOException.class, () -> Bitacora.esperar(fallida));
+        assertThrows(UncheckedIOException.class, () -> Bitacora.esperar(bitacora.anotar(bytes("tres"))));
+        assertThrows(UncheckedIOException.class, bitacora::verificarDisponible);
+        assertEquals(durable, bitacora.durable());
+        bitacora.close();
+        assertEquals(List.of("uno"), leer(archivo));
+    }
+
+    @ParameterizedTest
+    @EnumSource(ModoDurabilidad.class)
+    void esperarDurable_debeDespertar_cuandoUnRegistroLlegaADisco(ModoDurabilidad modo) throws Exception {
+        Path archivo = directorio.resolve("bitacora");
+        try (Bitacora bitacora = new Bitacora(archivo, modo, Duration.ZERO)) {
+            bitacora.abrir();
+            assertEquals(0, bitacora.esperarDurable(0, Duration.ofMillis(10)));
+
+            CompletableFuture<Long> durable = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return bitacora.esperarDurable(0, Duration.ofSeconds(30));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            Bitacora.esperar(bitacora.anotar(bytes("registro")));
+            Bitacora.esperar(bitacora.vaciar());
+
+            assertEquals(bitacora.durable(), durable.get(30, TimeUnit.SECONDS));
+            assertEquals(Files.size(archivo) - Bitacora.ENCABEZADO, bitacora.durable());
+        }
+    }
+
+    @Test
+    void compactar_debeDescartarLoAnterior_sinCambiarLasPosiciones() throws Exception {
+        Path archivo = directorio.resolve("bitacora");
+        long hasta;
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.GRUPO, Duration.ZERO)) {
+            bitacora.abrir();
+            Bitacora.esperar(bitacora.anotar(bytes("uno")));
+            Bitacora.esperar(bitacora.anotar(bytes("dos")));
+            hasta = bitacora.durable();
+            Bitacora.esperar(bitacora.anotar(bytes("tres")));
+            long tamanio = Files.size(archivo);
+
+            Bitacora.esperar(bitacora.compactar(hasta));
+            Bitacora.esperar(bitacora.anotar(bytes("cuatro")));
+
+            assertEquals(hasta, bitacora.base());
+            // Sin "uno" y "dos", con "cuatro" y su cabecera de 8 bytes.
+            assertEquals(tamanio - hasta + 8 + bytes("cuatro").length, Files.size(archivo));
+            assertEquals(Files.size(archivo) - Bitacora.ENCABEZADO + hasta, bitacora.durable());
+        }
+
+        assertEquals(List.of("tres", "cuatro"), leer(archivo));
+        List<String> desdeLaCompactacion = new ArrayList<>();
+        new Bitacora(archivo, ModoDurabilidad.GRUPO, Duration.ZERO)
+                .reproducir(hasta, datos -> desdeLaCompactacion.add(new String(datos, StandardCharsets.UTF_8)));
+        assertEquals(List.of("tres", "cuatro"), desdeLaCompactacion);
+        assertThrows(IllegalStateException.class,
+                () -> new Bitacora(archivo, ModoDurabilidad.GRUPO, Duration.ZERO).reproducir(0, datos -> { }));
+
+        try (Bitacora bitacora = new Bitacora(archivo, ModoDurabilidad.GRUPO, Duration.ZERO)) {
+            bitacora.abrir();
+            assertEquals(hasta, bitacora.base());
+            assertEquals(Files.size(archivo) - Bitacora.ENCABEZADO + hasta, bitacora.durable());
+        }
+    }
+
+    private static List<String> leer(Path archivo) throws IOException {
+        List<String> leidos = Collections.synchronizedList(new ArrayList<>());
+        new Bitacora(archivo, ModoDurabilidad.SINCRONO, Duration.ZERO)
+                .reproducir(datos -> leidos.add(new String(datos, StandardCharsets.UTF_8)));
+        return leidos;
+    }
+
+    private static byte[] bytes(String texto) {
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private interface Tarea {
+        void ejecutar(int hilo) throws Exception;
+    }
+
+    private static void ejecutarEnParalelo(int hilos, Tarea tarea) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int hilo = h;
+                futuros.add(ejecutor.submit(() -> {
+                    largada.await();
+                    tarea.ejecutar(hilo);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+            assertTrue(ejecutor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
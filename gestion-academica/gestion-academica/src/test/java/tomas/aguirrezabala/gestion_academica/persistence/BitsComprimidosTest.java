@@ -0,0 +1,81 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.BitsComprimidos;
+
+public class BitsComprimidosTest {
+
+    @Test
+    void agregarYQuitar_debenCoincidirConUnTreeSet_alCruzarElLimiteDelArreglo() {
+        Random azar = new Random(23);
+        BitsComprimidos bits = new BitsComprimidos();
+        TreeSet<Integer> esperado = new TreeSet<>();
+
+        // Valores concentrados en tres bloques para que pasen de arreglo a mapa y vuelvan.
+        for (int i = 0; i < 60_000; i++) {
+            int valor = (azar.nextInt(3) << 16) | azar.nextInt(i < 30_000 ? 12_000 : 3_000);
+            if (i < 30_000 || azar.nextBoolean()) {
+                assertEquals(esperado.add(valor), bits.agregar(valor));
+            } else {
+                assertEquals(esperado.remove(valor), bits.quitar(valor));
+            }
+        }
+
+        assertEquals(esperado.size(), bits.cantidad());
+        assertArrayEquals(esperado.stream().mapToInt(Integer::intValue).toArray(), bits.valores());
+        for (int valor = 0; valor < 3 << 16; valor += 7) {
+            assertEquals(esperado.contains(valor), bits.contiene(valor));
+        }
+    }
+
+    @Test
+    void oEY_debenDarUnionEInterseccion_conBloquesDeLosDosTipos() {
+        Random azar = new Random(7);
+        BitsComprimidos a = new BitsComprimidos();
+        BitsComprimidos b = new BitsComprimidos();
+        TreeSet<Integer> enA = new TreeSet<>();
+        TreeSet<Integer> enB = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // En el bloque 0 los dos son mapas; en el 1 sólo 'a'; el 2 sólo lo tiene 'b'.
+            int valorA = azar.nextInt(2) << 16 | azar.nextInt(1 << 16);
+            int valorB = (i % 2 == 0 ? 0 : 2 << 16) | azar.nextInt(i % 2 == 0 ? 1 << 16 : 500);
+            a.agregar(valorA);
+            enA.add(valorA);
+            b.agregar(valorB);
+            enB.add(valorB);
+        }
+        TreeSet<Integer> union = new TreeSet<>(enA);
+        union.addAll(enB);
+        TreeSet<Integer> interseccion = new TreeSet<>(enA);
+        interseccion.retainAll(enB);
+
+        BitsComprimidos o = a.o(b);
+        BitsComprimidos y = a.y(b);
+
+        assertArrayEquals(union.stream().mapToInt(Integer::intValue).toArray(), o.valores());
+        assertEquals(union.size(), o.cantidad());
+        assertArrayEquals(interseccion.stream().mapToInt(Integer::intValue).toArray(), y.valores());
+        assertEquals(interseccion.size(), y.cantidad());
+        assertEquals(enA.size(), a.cantidad());
+        assertEquals(enB.size(), b.cantidad());
+    }
+
+    @Test
+    void agregar_debeRechazarNegativos() {
+        BitsComprimidos bits = new BitsComprimidos();
+
+        assertThrows(IllegalArgumentException.class, () -> bits.agregar(-1));
+        assertFalse(bits.contiene(-1));
+        assertTrue(bits.agregar(Integer.MAX_VALUE));
+        assertArrayEquals(new int[] {Integer.MAX_VALUE}, bits.valores());
+    }
+}
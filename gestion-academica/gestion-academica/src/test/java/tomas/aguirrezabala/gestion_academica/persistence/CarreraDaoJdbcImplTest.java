@@ -0,0 +1,117 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+
+public class CarreraDaoJdbcImplTest {
+
+    private DaosJdbc daos;
+    private Materia materia1, materia2;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosJdbc();
+        materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        materia2 = daos.materias.guardar(new Materia(null, "Base de Datos", 1, 2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeConservarLasMateriasEnOrden() {
+
+        Carrera carrera = new Carrera(null, "Técnico Universitario en Programación", 2);
+        carrera.setMaterias(new ArrayList<>(List.of(materia2, materia1)));
+
+        Carrera guardada = daos.carreras.guardar(carrera);
+
+        assertNotNull(guardada.getId());
+        Carrera recuperada = daos.carreras.buscarPorId(guardada.getId()).orElseThrow();
+        assertEquals(2, recuperada.getDuracionAnios());
+        assertEquals(List.of(materia2.getId(), materia1.getId()),
+                recuperada.getMaterias().stream().map(Materia::getId).toList());
+    }
+
+    @Test
+    void guardar_debeReemplazarLasMaterias_cuandoCarreraExistente() {
+
+        Carrera carrera = new Carrera(null, "Técnico Universitario en Programación", 2);
+        carrera.setMaterias(new ArrayList<>(List.of(materia1)));
+        daos.carreras.guardar(carrera);
+
+        carrera.setMaterias(new ArrayList<>(List.of(materia2)));
+        daos.carreras.guardar(carrera);
+
+        Carrera recuperada = daos.carreras.buscarPorNombre("Técnico Universitario en Programación").orElseThrow();
+        assertEquals(List.of(materia2.getId()), recuperada.getMaterias().stream().map(Materia::getId).toList());
+        assertFalse(daos.carreras.existePorMateriaId(materia1.getId()));
+        assertTrue(daos.carreras.existePorMateriaId(materia2.getId()));
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoNombreDuplicado() {
+
+        daos.carreras.guardar(new Carrera(null, "Técnico Universitario en Programación", 2));
+
+        assertThrows(EntidadDuplicadaException.class,
+                () -> daos.carreras.guardar(new Carrera(null, "Técnico Universitario en Programación", 3)));
+    }
+
+    @Test
+    void buscarAll_debeCargarLasMateriasDeTodasLasCarreras() {
+
+        Carrera carrera1 = new Carrera(null, "Programación", 2);
+        carrera1.setMaterias(new ArrayList<>(List.of(materia1)));
+        Carrera carrera2 = new Carrera(null, "Sistemas", 5);
+        carrera2.setMaterias(new ArrayList<>(List.of(materia1, materia2)));
+        daos.carreras.guardar(carrera1);
+        daos.carreras.guardar(carrera2);
+
+        List<Carrera> todas = daos.carreras.buscarAll();
+
+        assertEquals(2, todas.size());
+        assertEquals(1, todas.get(0).getMaterias().size());
+        assertEquals(2, todas.get(1).getMaterias().size());
+    }
+
+    @Test
+    void borrarMateria_debeLanzarExcepcion_cuandoPerteneceAUnaCarrera() {
+
+        Carrera carrera = new Carrera(null, "Programación", 2);
+        carrera.setMaterias(new ArrayList<>(List.of(materia1)));
+        daos.carreras.guardar(carrera);
+
+        assertThrows(ReglaNegocioException.class, () -> daos.materias.borrarPorId(materia1.getId()));
+    }
+
+    @Test
+    void borrarPorId_debeDejarSinCarreraASusAlumnos() {
+
+        Carrera carrera = daos.carreras.guardar(new Carrera(null, "Programación", 2));
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", carrera));
+
+        daos.carreras.borrarPorId(carrera.getId());
+
+        assertTrue(daos.carreras.buscarPorId(carrera.getId()).isEmpty());
+        assertNull(daos.alumnos.buscarPorId(alumno.getId()).orElseThrow().getCarrera());
+    }
+}
@@ -6,10 +6,12 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.model.Carrera;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.persistence.impl.CarreraDaoMemoryImpl;
@@ -197,4 +199,46 @@ public class CarreraDaoMemoryImplTest {
         assertTrue(recuperada.isPresent());
         assertEquals(2, recuperada.get().getMaterias().size());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void buscarPorNombre_debeRetornarCarrera_cuandoExisteNombre() {
+
+        Carrera carrera = new Carrera();
+        carrera.setNombre("Técnico Universitario en Programación");
+        Carrera carreraGuardada = carreraDao.guardar(carrera);
+
+        Optional<Carrera> resultado = carreraDao.buscarPorNombre("Técnico Universitario en Programación");
+
+        assertTrue(resultado.isPresent());
+        assertEquals(carreraGuardada.getId(), resultado.get().getId());
+        assertFalse(carreraDao.buscarPorNombre("Ingeniería en Sistemas").isPresent());
+    }
+    
+    @Test
+    void guardar_debeRechazarCarrera_cuandoNombreDuplicado() {
+
+        Carrera carrera = new Carrera();
+        carrera.setNombre("Técnico Universitario en Programación");
+        carreraDao.guardar(carrera);
+
+        Carrera otra = new Carrera();
+        otra.setNombre("Técnico Universitario en Programación");
+
+        assertThrows(EntidadDuplicadaException.class, () -> carreraDao.guardar(otra));
+        assertEquals(1, carreraDao.buscarAll().size());
+    }
+    
+    @Test
+    void buscarPorNombre_debeUsarNombreNuevo_cuandoSeRenombraCarrera() {
+
+        Carrera carrera = new Carrera();
+        carrera.setNombre("Técnico Universitario en Programación");
+        Carrera carreraGuardada = carreraDao.guardar(carrera);
+
+        carreraGuardada.setNombre("Técnico Superior en Programación");
+        carreraDao.guardar(carreraGuardada);
+
+        assertFalse(carreraDao.buscarPorNombre("Técnico Universitario en Programación").isPresent());
+        assertTrue(carreraDao.buscarPorNombre("Técnico Superior en Programación").isPresent());
+    }
+}
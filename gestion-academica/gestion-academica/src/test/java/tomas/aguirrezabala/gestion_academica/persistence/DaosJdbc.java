@@ -0,0 +1,51 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoJdbcImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoJdbcImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.CarreraDaoJdbcImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoJdbcImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoJdbcImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.UnidadDeTrabajoJdbc;
+
+/**
+ * Los cinco DAOs JDBC sobre una base H2 en memoria nueva con el esquema del perfil "jdbc".
+ */
+class DaosJdbc implements AutoCloseable {
+
+    final EmbeddedDatabase base = new EmbeddedDatabaseBuilder()
+            .generateUniqueName(true)
+            .setType(EmbeddedDatabaseType.H2)
+            .addScript("classpath:schema-jdbc.sql")
+            .build();
+    final JdbcTemplate jdbc = new JdbcTemplate(base);
+    final MateriaDaoJdbcImpl materias = new MateriaDaoJdbcImpl();
+    final ProfesorDaoJdbcImpl profesores = new ProfesorDaoJdbcImpl();
+    final CarreraDaoJdbcImpl carreras = new CarreraDaoJdbcImpl();
+    final AsignaturaDaoJdbcImpl asignaturas = new AsignaturaDaoJdbcImpl();
+    final AlumnoDaoJdbcImpl alumnos = new AlumnoDaoJdbcImpl();
+    final UnidadDeTrabajoJdbc unidadDeTrabajo = new UnidadDeTrabajoJdbc();
+
+    DaosJdbc() {
+        for (Object dao : new Object[] { materias, profesores, carreras, asignaturas, alumnos }) {
+            ReflectionTestUtils.setField(dao, "jdbc", jdbc);
+        }
+        ReflectionTestUtils.setField(profesores, "materiaDao", materias);
+        ReflectionTestUtils.setField(carreras, "materiaDao", materias);
+        ReflectionTestUtils.setField(asignaturas, "materiaDao", materias);
+        ReflectionTestUtils.setField(alumnos, "asignaturaDao", asignaturas);
+        ReflectionTestUtils.setField(unidadDeTrabajo, "jdbc", jdbc);
+        ReflectionTestUtils.setField(unidadDeTrabajo, "transacciones", new DataSourceTransactionManager(base));
+    }
+
+    @Override
+    public void close() {
+        base.shutdown();
+    }
+}
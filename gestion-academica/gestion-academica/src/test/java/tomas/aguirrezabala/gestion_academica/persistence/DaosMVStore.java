@@ -0,0 +1,50 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMVStoreImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoMVStoreImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.BaseMVStore;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.CarreraDaoMVStoreImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoMVStoreImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoMVStoreImpl;
+
+/**
+ * Los cinco DAOs del perfil "mvstore" sobre un MVStore nuevo, en memoria o en el archivo dado.
+ */
+class DaosMVStore implements AutoCloseable {
+
+    final BaseMVStore base = new BaseMVStore();
+    final MateriaDaoMVStoreImpl materias = new MateriaDaoMVStoreImpl();
+    final ProfesorDaoMVStoreImpl profesores = new ProfesorDaoMVStoreImpl();
+    final CarreraDaoMVStoreImpl carreras = new CarreraDaoMVStoreImpl();
+    final AsignaturaDaoMVStoreImpl asignaturas = new AsignaturaDaoMVStoreImpl();
+    final AlumnoDaoMVStoreImpl alumnos = new AlumnoDaoMVStoreImpl();
+
+    DaosMVStore() {
+        this(null);
+    }
+
+    DaosMVStore(Path archivo) {
+        ReflectionTestUtils.setField(base, "archivo", archivo != null ? archivo.toString() : "");
+        ReflectionTestUtils.setField(base, "cacheMb", 4);
+        ReflectionTestUtils.setField(base, "sincronizar", archivo != null);
+        ReflectionTestUtils.setField(base, "esperaBloqueo", Duration.ofMillis(200));
+        ReflectionTestUtils.invokeMethod(base, "abrir");
+        for (Object dao : new Object[] { materias, profesores, carreras, asignaturas, alumnos }) {
+            ReflectionTestUtils.setField(dao, "base", base);
+        }
+        ReflectionTestUtils.setField(profesores, "materiaDao", materias);
+        ReflectionTestUtils.setField(carreras, "materiaDao", materias);
+        ReflectionTestUtils.setField(asignaturas, "materiaDao", materias);
+        ReflectionTestUtils.setField(alumnos, "asignaturaDao", asignaturas);
+    }
+
+    @Override
+    public void close() {
+        ReflectionTestUtils.invokeMethod(base, "cerrar");
+    }
+}
@@ -0,0 +1,93 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MapaLong;
+
+/**
+ * Búsqueda por id en un mapa de 1M entradas: HashMap y ConcurrentHashMap con claves
+ * Long contra MapaLong. Se corre desde {@link MapaLongTest} con el perfil de GC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class MapaLongBenchmark {
+
+    private static final Object VALOR = new Object();
+
+    @Param("1000000")
+    public int entradas;
+
+    private HashMap<Long, Object> hashMap;
+    private ConcurrentHashMap<Long, Object> concurrentHashMap;
+    private MapaLong<Object> mapaLong;
+    /** Ids existentes a buscar, en orden aleatorio. */
+    private long[] consultas;
+    private int siguiente;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        hashMap = llenar(new HashMap<>(), entradas);
+        concurrentHashMap = llenar(new ConcurrentHashMap<>(), entradas);
+        mapaLong = llenar(new MapaLong<>(), entradas);
+        Random random = new Random(42);
+        consultas = new long[1 << 16];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = 1 + random.nextInt(entradas);
+        }
+    }
+
+    static <M extends Map<Long, Object>> M llenar(M mapa, int entradas) {
+        for (long id = 1; id <= entradas; id++) {
+            mapa.put(id, VALOR);
+        }
+        return mapa;
+    }
+
+    static MapaLong<Object> llenar(MapaLong<Object> mapa, int entradas) {
+        for (long id = 1; id <= entradas; id++) {
+            mapa.poner(id, VALOR);
+        }
+        return mapa;
+    }
+
+    private long consulta() {
+        siguiente = (siguiente + 1) & (consultas.length - 1);
+        return consultas[siguiente];
+    }
+
+    @Benchmark
+    public Object buscarHashMap() {
+        return hashMap.get(consulta());
+    }
+
+    @Benchmark
+    public Object buscarConcurrentHashMap() {
+        return concurrentHashMap.get(consulta());
+    }
+
+    @Benchmark
+    public Object buscarMapaLong() {
+        return mapaLong.buscar(consulta());
+    }
+}
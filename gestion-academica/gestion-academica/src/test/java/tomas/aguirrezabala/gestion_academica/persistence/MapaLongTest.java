@@ -0,0 +1,149 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MapaLong;
+
+public class MapaLongTest {
+
+    private MapaLong<String> mapa;
+
+    @BeforeEach
+    void setUp() {
+        mapa = new MapaLong<>();
+    }
+
+    @Test
+    void buscar_debeEncontrarCadaClave_cuandoLaTablaCrece() {
+        for (long clave = -5_000; clave <= 5_000; clave++) {
+            mapa.poner(clave, "valor " + clave);
+        }
+
+        assertEquals(10_001, mapa.tamanio());
+        for (long clave = -5_000; clave <= 5_000; clave++) {
+            assertEquals("valor " + clave, mapa.buscar(clave));
+        }
+        assertNull(mapa.buscar(5_001));
+        assertNull(mapa.buscar(Long.MIN_VALUE));
+    }
+
+    @Test
+    void quitar_debeDejarSeguirEncontrandoLasDemas_cuandoCompartenSondeo() {
+        for (long clave = 1; clave <= 1_000; clave++) {
+            mapa.poner(clave, "valor " + clave);
+        }
+
+        for (long clave = 1; clave <= 1_000; clave += 2) {
+            assertEquals("valor " + clave, mapa.quitar(clave));
+        }
+
+        assertEquals(500, mapa.tamanio());
+        for (long clave = 1; clave <= 1_000; clave++) {
+            assertEquals(clave % 2 == 0, mapa.contiene(clave));
+        }
+        mapa.poner(1, "de nuevo");
+        assertEquals("de nuevo", mapa.buscar(1));
+        assertEquals(501, mapa.tamanio());
+    }
+
+    @Test
+    void calcular_noDebeCambiarNada_cuandoElCalculoFalla() {
+        mapa.poner(7, "original");
+
+        assertThrows(IllegalStateException.class, () -> mapa.calcular(7, (clave, actual) -> {
+            throw new IllegalStateException("falla");
+        }));
+
+        assertEquals("original", mapa.buscar(7));
+        assertNull(mapa.calcularSiPresente(8, (clave, actual) -> "no debería"));
+        assertFalse(mapa.contiene(8));
+        assertEquals(1, mapa.tamanio());
+    }
+
+    @Test
+    void calcular_noDebePerderIncrementos_cuandoVariosHilosEscribenLaMismaClave() throws Exception {
+        MapaLong<Integer> contadores = new MapaLong<>();
+        int hilos = 8;
+        int incrementos = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    for (int j = 0; j < incrementos; j++) {
+                        contadores.calcular(j % 100, (clave, actual) -> actual != null ? actual + 1 : 1);
+                        assertTrue(contadores.contiene(j % 100));
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long clave = 0; clave < 100; clave++) {
+            assertEquals(hilos * incrementos / 100, contadores.buscar(clave));
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void rendimiento_debeCompararConLosMapasDeJava_conUnMillonDeEntradas() throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MapaLongBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        int entradas = 1_000_000;
+        System.out.println("mapa\tbytes retenidos por entrada");
+        System.out.printf("HashMap\t%.1f%n", retenidoPorEntrada(
+                () -> MapaLongBenchmark.llenar(new HashMap<>(), entradas), entradas));
+        System.out.printf("ConcurrentHashMap\t%.1f%n", retenidoPorEntrada(
+                () -> MapaLongBenchmark.llenar(new ConcurrentHashMap<>(), entradas), entradas));
+        System.out.printf("MapaLong\t%.1f%n", retenidoPorEntrada(
+                () -> MapaLongBenchmark.llenar(new MapaLong<>(), entradas), entradas));
+    }
+
+    private static double retenidoPorEntrada(Supplier<Object> crear, int entradas) {
+        long antes = heapUsado();
+        Object mapa = crear.get();
+        long despues = heapUsado();
+        assertTrue(mapa != null);
+        return (despues - antes) / (double) entradas;
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
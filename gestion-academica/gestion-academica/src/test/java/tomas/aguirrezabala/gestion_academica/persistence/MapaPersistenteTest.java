@@ -0,0 +1,122 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MapaPersistente;
+
+public class MapaPersistenteTest {
+
+    @Test
+    void vacio_noDebeTenerValores() {
+        MapaPersistente<String> mapa = MapaPersistente.vacio();
+
+        assertTrue(mapa.estaVacio());
+        assertEquals(0, mapa.tamanio());
+        assertNull(mapa.buscar(1L));
+        assertTrue(mapa.valores().isEmpty());
+    }
+
+    @Test
+    void con_debeReemplazarElValor_sinModificarLaVersionAnterior() {
+        MapaPersistente<String> original = MapaPersistente.<String>vacio().con(1L, "uno").con(2L, "dos");
+
+        MapaPersistente<String> modificado = original.con(1L, "UNO").sin(2L);
+
+        assertEquals(List.of("uno", "dos"), original.valores());
+        assertEquals(List.of("UNO"), modificado.valores());
+    }
+
+    @Test
+    void sin_debeDevolverElMismoMapa_cuandoLaClaveNoExiste() {
+        MapaPersistente<String> mapa = MapaPersistente.<String>vacio().con(1L, "uno");
+
+        assertSame(mapa, mapa.sin(2L));
+    }
+
+    @Test
+    void operacionesAleatorias_debenCoincidirConTreeMap() {
+        Random random = new Random(42);
+        TreeMap<Long, Integer> esperado = new TreeMap<>();
+        MapaPersistente<Integer> mapa = MapaPersistente.vacio();
+        List<MapaPersistente<Integer>> versiones = new ArrayList<>();
+        List<List<Integer>> contenidos = new ArrayList<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            long clave = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                esperado.remove(clave);
+                mapa = mapa.sin(clave);
+            } else {
+                esperado.put(clave, i);
+                mapa = mapa.con(clave, i);
+            }
+            if (i % 500 == 0) {
+                versiones.add(mapa);
+                contenidos.add(new ArrayList<>(esperado.values()));
+            }
+        }
+
+        assertEquals(esperado.size(), mapa.tamanio());
+        assertEquals(new ArrayList<>(esperado.values()), mapa.valores());
+        for (long clave = 0; clave < 500; clave++) {
+            assertEquals(esperado.get(clave), mapa.buscar(clave));
+        }
+        for (int i = 0; i < versiones.size(); i++) {
+            assertEquals(contenidos.get(i), versiones.get(i).valores());
+        }
+    }
+
+    @Test
+    void pagina_debeCoincidirConTreeMap_enAmbosSentidos() {
+        Random random = new Random(7);
+        TreeMap<Long, Integer> esperado = new TreeMap<>();
+        MapaPersistente<Integer> mapa = MapaPersistente.vacio();
+        for (int i = 0; i < 1_000; i++) {
+            long clave = random.nextInt(2_000);
+            esperado.put(clave, i);
+            mapa = mapa.con(clave, i);
+        }
+
+        assertEquals(new ArrayList<>(esperado.values()).subList(0, 10), mapa.pagina(null, 10, false));
+        assertEquals(new ArrayList<>(esperado.descendingMap().values()).subList(0, 10), mapa.pagina(null, 10, true));
+        for (long cursor = -1; cursor <= 2_001; cursor += 37) {
+            assertEquals(primeros(esperado.tailMap(cursor, false).values(), 25), mapa.pagina(cursor, 25, false));
+            assertEquals(primeros(esperado.headMap(cursor, false).descendingMap().values(), 25),
+                    mapa.pagina(cursor, 25, true));
+        }
+    }
+
+    private static List<Integer> primeros(Collection<Integer> valores, int cantidad) {
+        return valores.stream().limit(cantidad).toList();
+    }
+
+    @Test
+    void spliterator_debeRespetarElOrden_cuandoSeRecorreEnParalelo() {
+        MapaPersistente<Long> mapa = MapaPersistente.vacio();
+        for (long clave = 1; clave <= 10_000; clave++) {
+            mapa = mapa.con(clave, clave);
+        }
+
+        Spliterator<Long> recorrido = mapa.spliterator();
+        Spliterator<Long> primeraMitad = recorrido.trySplit();
+        assertEquals(10_000, primeraMitad.estimateSize() + recorrido.estimateSize());
+        assertTrue(primeraMitad.estimateSize() > 3_000 && recorrido.estimateSize() > 3_000);
+
+        List<Long> enParalelo = StreamSupport.stream(mapa.spliterator(), true).toList();
+        assertEquals(mapa.valores(), enParalelo);
+        assertEquals(50_005_000L, StreamSupport.stream(mapa.spliterator(), true).mapToLong(Long::longValue).sum());
+        assertEquals(0, StreamSupport.stream(MapaPersistente.<Long>vacio().spliterator(), true).count());
+    }
+}
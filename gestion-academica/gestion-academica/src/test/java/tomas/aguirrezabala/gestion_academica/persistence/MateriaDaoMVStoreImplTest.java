@@ -0,0 +1,107 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Asignatura;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+
+public class MateriaDaoMVStoreImplTest {
+
+    private DaosMVStore daos;
+    private Profesor profesor;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosMVStore();
+        profesor = daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Ingeniero"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeAsignarId_yCargarProfesor() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1, profesor));
+
+        assertNotNull(materia.getId());
+        Materia recuperada = daos.materias.buscarPorNombre("Programación I").orElseThrow();
+        assertEquals(materia.getId(), recuperada.getId());
+        assertEquals(1, recuperada.getAnio());
+        assertEquals("Perez", recuperada.getProfesor().getApellido());
+    }
+
+    @Test
+    void guardar_debeConservarCorrelatividades_eIndexarSoloLasExistentes() {
+
+        Materia materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia materia2 = daos.materias.guardar(new Materia(null, "Base de Datos", 1, 2));
+        Materia materia3 = new Materia(null, "Programación II", 2, 1);
+        materia3.setCorrelatividades(new ArrayList<>(List.of(materia2.getId(), 99L, materia1.getId())));
+
+        daos.materias.guardar(materia3);
+
+        Materia recuperada = daos.materias.buscarPorId(materia3.getId()).orElseThrow();
+        assertEquals(List.of(materia2.getId(), 99L, materia1.getId()), recuperada.getCorrelatividades());
+        assertTrue(daos.materias.existePorCorrelativaId(materia1.getId()));
+        assertFalse(daos.materias.existePorCorrelativaId(99L));
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoNombreDuplicado() {
+
+        daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+
+        assertThrows(EntidadDuplicadaException.class,
+                () -> daos.materias.guardar(new Materia(null, "Programación I", 2, 2)));
+        assertEquals(1, daos.materias.buscarAll().size());
+    }
+
+    @Test
+    void borrarPorId_debeLanzarExcepcion_cuandoEsCorrelativa() {
+
+        Materia materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia materia2 = new Materia(null, "Programación II", 1, 2);
+        materia2.setCorrelatividades(new ArrayList<>(List.of(materia1.getId())));
+        daos.materias.guardar(materia2);
+
+        ReglaNegocioException error = assertThrows(ReglaNegocioException.class,
+                () -> daos.materias.borrarPorId(materia1.getId()));
+
+        assertTrue(error.getMessage().contains("correlativa"));
+        daos.materias.borrarPorId(materia2.getId());
+        daos.materias.borrarPorId(materia1.getId());
+        assertTrue(daos.materias.buscarAll().isEmpty());
+    }
+
+    @Test
+    void borrarPorId_debeLanzarExcepcion_cuandoTieneAlumnosInscriptos() {
+
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Alumno alumno = daos.alumnos.guardar(new Alumno(null, "Tomas", "Aguirrezabala", "1", null));
+        daos.asignaturas.guardar(new Asignatura(null, materia, alumno, EstadoAsignatura.CURSANDO));
+
+        ReglaNegocioException error = assertThrows(ReglaNegocioException.class,
+                () -> daos.materias.borrarPorId(materia.getId()));
+
+        assertTrue(error.getMessage().contains("inscriptos"));
+        assertTrue(daos.materias.buscarPorId(materia.getId()).isPresent());
+    }
+}
@@ -1,5 +1,6 @@
 package tomas.aguirrezabala.gestion_academica.persistence;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -7,10 +8,13 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.exception.ReglaNegocioException;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoMemoryImpl;
@@ -233,4 +237,64 @@ public class MateriaDaoMemoryImplTest {
         assertEquals(1, materiaGuardada2.getId() - materiaGuardada1.getId());
         assertEquals(1, materiaGuardada3.getId() - materiaGuardada2.getId());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void buscarPorNombre_debeRetornarMateria_cuandoExisteNombre() {
+
+        Materia materia = new Materia();
+        materia.setNombre("Programación I");
+        Materia materiaGuardada = materiaDao.guardar(materia);
+
+        Optional<Materia> resultado = materiaDao.buscarPorNombre("Programación I");
+
+        assertTrue(resultado.isPresent());
+        assertEquals(materiaGuardada.getId(), resultado.get().getId());
+        assertFalse(materiaDao.buscarPorNombre("Programación II").isPresent());
+    }
+    
+    @Test
+    void guardar_debeRechazarMateria_cuandoNombreDuplicado() {
+
+        Materia materia = new Materia();
+        materia.setNombre("Programación I");
+        materiaDao.guardar(materia);
+
+        Materia otra = new Materia();
+        otra.setNombre("Programación I");
+
+        assertThrows(EntidadDuplicadaException.class, () -> materiaDao.guardar(otra));
+        assertEquals(1, materiaDao.buscarAll().size());
+    }
+    
+    @Test
+    void existePorCorrelativaId_debeSeguirLasCorrelatividadesActuales() {
+
+        Materia programacion1 = materiaDao.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia programacion2 = new Materia(null, "Programación II", 1, 2);
+        programacion2.setCorrelatividades(Arrays.asList(programacion1.getId()));
+        materiaDao.guardar(programacion2);
+
+        assertTrue(materiaDao.existePorCorrelativaId(programacion1.getId()));
+
+        programacion2.setCorrelatividades(new ArrayList<>());
+        materiaDao.guardar(programacion2);
+
+        assertFalse(materiaDao.existePorCorrelativaId(programacion1.getId()));
+    }
+    
+    @Test
+    void borrarPorId_debeFallar_cuandoEsCorrelativaDeOtraMateria() {
+
+        Materia programacion1 = materiaDao.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia programacion2 = new Materia(null, "Programación II", 1, 2);
+        programacion2.setCorrelatividades(Arrays.asList(programacion1.getId()));
+        materiaDao.guardar(programacion2);
+
+        assertThrows(ReglaNegocioException.class, () -> materiaDao.borrarPorId(programacion1.getId()));
+
+        materiaDao.borrarPorId(programacion2.getId());
+        materiaDao.borrarPorId(programacion1.getId());
+
+        assertFalse(materiaDao.buscarPorId(programacion1.getId()).isPresent());
+    }
+}
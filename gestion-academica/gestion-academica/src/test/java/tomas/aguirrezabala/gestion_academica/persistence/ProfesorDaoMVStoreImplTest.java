@@ -0,0 +1,150 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.exception.ConflictoDeVersionException;
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.model.Orden;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+
+public class ProfesorDaoMVStoreImplTest {
+
+    private DaosMVStore daos;
+
+    @BeforeEach
+    void setUp() {
+        daos = new DaosMVStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        daos.close();
+    }
+
+    @Test
+    void guardar_debeAsignarId_yCargarSusMaterias() {
+
+        Materia materia1 = daos.materias.guardar(new Materia(null, "Programación I", 1, 1));
+        Materia materia2 = daos.materias.guardar(new Materia(null, "Base de Datos", 1, 2));
+        Profesor profesor = new Profesor(null, "Juan", "Perez", "Ingeniero");
+        profesor.setMaterias(new ArrayList<>(List.of(materia2, materia1)));
+
+        daos.profesores.guardar(profesor);
+
+        assertNotNull(profesor.getId());
+        Profesor recuperado = daos.profesores.buscarPorNombreYApellido("Juan", "Perez").orElseThrow();
+        assertEquals("Ingeniero", recuperado.getTitulo());
+        assertEquals(List.of("Base de Datos", "Programación I"),
+                recuperado.getMaterias().stream().map(Materia::getNombre).toList());
+    }
+
+    @Test
+    void guardar_debeLanzarExcepcion_cuandoNombreYApellidoDuplicados() {
+
+        daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Ingeniero"));
+        Profesor repetido = new Profesor(null, "Juan", "Perez", "Licenciado");
+
+        assertThrows(EntidadDuplicadaException.class, () -> daos.profesores.guardar(repetido));
+        assertNull(repetido.getId());
+        daos.profesores.guardar(new Profesor(null, "Juan", "Gomez", "Licenciado"));
+        assertEquals(2, daos.profesores.buscarAll().size());
+    }
+
+    @Test
+    void guardar_debeLiberarNombreAnterior_cuandoSeRenombra() {
+
+        Profesor profesor = daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Ingeniero"));
+
+        profesor.setApellido("Gomez");
+        daos.profesores.guardar(profesor);
+
+        assertTrue(daos.profesores.buscarPorNombreYApellido("Juan", "Perez").isEmpty());
+        assertEquals(profesor.getId(), daos.profesores.buscarPorNombreYApellido("Juan", "Gomez").orElseThrow().getId());
+        daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Licenciado"));
+    }
+
+    @Test
+    void borrarPorId_debeDejarSinProfesorASusMaterias() {
+
+        Profesor profesor = daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Ingeniero"));
+        Materia materia = daos.materias.guardar(new Materia(null, "Programación I", 1, 1, profesor));
+
+        daos.profesores.borrarPorId(profesor.getId());
+
+        assertTrue(daos.profesores.buscarPorId(profesor.getId()).isEmpty());
+        assertNull(daos.materias.buscarPorId(materia.getId()).orElseThrow().getProfesor());
+    }
+
+    @Test
+    void guardar_debeRechazarLaEscritura_cuandoLaVersionQuedoVieja() {
+
+        Profesor profesor = daos.profesores.guardar(new Profesor(null, "Juan", "Perez", "Ingeniero"));
+        Profesor primera = daos.profesores.buscarPorId(profesor.getId()).orElseThrow();
+        Profesor segunda = daos.profesores.buscarPorId(profesor.getId()).orElseThrow();
+        primera.setTitulo("Licenciado");
+        segunda.setTitulo("Doctor");
+
+        daos.profesores.guardar(primera);
+
+        assertEquals(1L, profesor.getVersion());
+        assertEquals(2L, primera.getVersion());
+        assertThrows(ConflictoDeVersionException.class, () -> daos.profesores.guardar(segunda));
+        assertEquals(1L, segunda.getVersion());
+        Profesor recuperado = daos.profesores.buscarPorId(profesor.getId()).orElseThrow();
+        assertEquals("Licenciado", recuperado.getTitulo());
+        assertEquals(2L, recuperado.getVersion());
+        daos.profesores.borrarPorId(profesor.getId());
+        assertThrows(ConflictoDeVersionException.class, () -> daos.profesores.guardar(recuperado));
+    }
+
+    @Test
+    void buscarPagina_debeRecorrerDesdeElCursor_enAmbosSentidos() {
+
+        for (int i = 1; i <= 5; i++) {
+            daos.profesores.guardar(new Profesor(null, "Profesor", "Numero " + i, "Ingeniero"));
+        }
+        daos.profesores.borrarPorId(3L);
+
+        assertEquals(List.of(1L, 2L), ids(daos.profesores.buscarPagina(null, 2, Orden.ASCENDENTE)));
+        assertEquals(List.of(4L, 5L), ids(daos.profesores.buscarPagina(2L, 2, Orden.ASCENDENTE)));
+        assertEquals(List.of(), ids(daos.profesores.buscarPagina(5L, 2, Orden.ASCENDENTE)));
+        assertEquals(List.of(5L, 4L), ids(daos.profesores.buscarPagina(null, 2, Orden.DESCENDENTE)));
+        assertEquals(List.of(2L, 1L), ids(daos.profesores.buscarPagina(4L, 2, Orden.DESCENDENTE)));
+        assertEquals(List.of(), ids(daos.profesores.buscarPagina(1L, 2, Orden.DESCENDENTE)));
+    }
+
+    private static List<Long> ids(List<Profesor> pagina) {
+        return pagina.stream().map(Profesor::getId).toList();
+    }
+
+    @Test
+    void recorrer_debeTraerTodosEnOrden_aunqueOcupenVariasPaginas() {
+
+        for (int i = 1; i <= 600; i++) {
+            daos.profesores.guardar(new Profesor(null, "Profesor", "Numero " + i, "Ingeniero"));
+        }
+        daos.profesores.borrarPorId(300L);
+
+        List<Long> ids = daos.profesores.recorrer().map(Profesor::getId).toList();
+        assertEquals(599, ids.size());
+        assertEquals(1L, ids.get(0));
+        assertEquals(600L, ids.get(598));
+        assertEquals(599, daos.profesores.recorrer().parallel().count());
+        assertEquals(Optional.of(257L), daos.profesores.recorrer()
+                .filter(profesor -> profesor.getApellido().equals("Numero 257"))
+                .map(Profesor::getId)
+                .findFirst());
+    }
+}
@@ -7,10 +7,12 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import tomas.aguirrezabala.gestion_academica.exception.EntidadDuplicadaException;
 import tomas.aguirrezabala.gestion_academica.model.Materia;
 import tomas.aguirrezabala.gestion_academica.model.Profesor;
 import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoMemoryImpl;
@@ -230,4 +232,31 @@ public class ProfesorDaoMemoryImplTest {
         assertEquals(1, profesorGuardado2.getId() - profesorGuardado1.getId());
         assertEquals(1, profesorGuardado3.getId() - profesorGuardado2.getId());
     }
-}
\ No newline at end of file
+    
+    @Test
+    void buscarPorNombreYApellido_debeRetornarProfesor_cuandoExiste() {
+
+        Profesor profesor = new Profesor(null, "Tomas", "Aguirrezabala", "Técnico Universitario en Programación");
+        Profesor profesorGuardado = profesorDao.guardar(profesor);
+
+        Optional<Profesor> resultado = profesorDao.buscarPorNombreYApellido("Tomas", "Aguirrezabala");
+
+        assertTrue(resultado.isPresent());
+        assertEquals(profesorGuardado.getId(), resultado.get().getId());
+        assertFalse(profesorDao.buscarPorNombreYApellido("Tomas", "Perez").isPresent());
+        assertFalse(profesorDao.buscarPorNombreYApellido("Tomas", null).isPresent());
+    }
+    
+    @Test
+    void guardar_debeRechazarProfesor_cuandoNombreYApellidoDuplicados() {
+
+        profesorDao.guardar(new Profesor(null, "Tomas", "Aguirrezabala", "Técnico Universitario en Programación"));
+
+        Profesor otro = new Profesor(null, "Tomas", "Aguirrezabala", "Licenciado en Sistemas");
+
+        EntidadDuplicadaException exception = assertThrows(EntidadDuplicadaException.class,
+                () -> profesorDao.guardar(otro));
+        assertTrue(exception.getMessage().contains("Tomas Aguirrezabala"));
+        assertEquals(1, profesorDao.buscarAll().size());
+    }
+}
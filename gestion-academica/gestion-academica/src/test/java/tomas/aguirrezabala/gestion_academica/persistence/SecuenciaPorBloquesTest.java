@@ -0,0 +1,107 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlmacenEnMemoria;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.SecuenciaPorBloques;
+
+public class SecuenciaPorBloquesTest {
+
+    @Test
+    void siguiente_debeDarIdsConsecutivos_conUnSoloNodoYBloquesDeUno() {
+        SecuenciaPorBloques ids = new SecuenciaPorBloques();
+
+        assertEquals(List.of(1L, 2L, 3L), List.of(ids.siguiente(), ids.siguiente(), ids.siguiente()));
+        assertEquals(3L, ids.ultimo());
+    }
+
+    @Test
+    void siguiente_noDebeRepetirIds_entreNodos() {
+        SecuenciaPorBloques nodo0 = new SecuenciaPorBloques(0, 3, 4);
+        SecuenciaPorBloques nodo2 = new SecuenciaPorBloques(2, 3, 4);
+
+        Set<Long> vistos = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(vistos.add(nodo0.siguiente()));
+            assertTrue(vistos.add(nodo2.siguiente()));
+        }
+        SecuenciaPorBloques deATres = new SecuenciaPorBloques(0, 3, 1);
+        assertEquals(List.of(1L, 4L, 7L), List.of(deATres.siguiente(), deATres.siguiente(), deATres.siguiente()));
+        assertThrows(IllegalArgumentException.class, () -> new SecuenciaPorBloques(3, 3, 1));
+    }
+
+    @Test
+    void siguiente_debeRepartirBloquesPorHilo_sinRepetirIds() throws Exception {
+        SecuenciaPorBloques ids = new SecuenciaPorBloques(0, 1, 64);
+        int hilos = 8;
+        int porHilo = 10_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<List<Long>>> futuros = new ArrayList<>();
+        try {
+            for (int h = 0; h < hilos; h++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    List<Long> propios = new ArrayList<>(porHilo);
+                    for (int i = 0; i < porHilo; i++) {
+                        propios.add(ids.siguiente());
+                    }
+                    return propios;
+                }));
+            }
+            largada.countDown();
+            Set<Long> todos = new HashSet<>();
+            for (Future<List<Long>> futuro : futuros) {
+                List<Long> propios = futuro.get(60, TimeUnit.SECONDS);
+                // Dentro de un hilo los ids crecen.
+                for (int i = 1; i < propios.size(); i++) {
+                    assertTrue(propios.get(i) > propios.get(i - 1));
+                }
+                todos.addAll(propios);
+            }
+            assertEquals(hilos * porHilo, todos.size());
+            assertTrue(ids.ultimo() >= hilos * porHilo);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void avanzarHasta_debeSaltearLoQueQuedaDelBloque_cuandoLlegaUnIdExplicitoMayor() {
+        SecuenciaPorBloques ids = new SecuenciaPorBloques(1, 2, 16);
+        assertEquals(2L, ids.siguiente());
+
+        ids.avanzarHasta(100);
+
+        assertEquals(102L, ids.siguiente());
+        ids.avanzarHasta(50);
+        assertEquals(104L, ids.siguiente());
+    }
+
+    @Test
+    void usarIds_debeContinuarDespuesDelUltimoIdDelAlmacen() {
+        AlmacenEnMemoria<Profesor> almacen = new AlmacenEnMemoria<>(Profesor::getId, Profesor::setId);
+        almacen.guardar(new Profesor(null, "Nombre", "Apellido", "1"));
+        almacen.guardar(new Profesor(10L, "Nombre", "Apellido", "10"));
+
+        almacen.usarIds(new SecuenciaPorBloques(1, 4, 8));
+
+        assertEquals(14L, almacen.guardar(new Profesor(null, "Nombre", "Apellido", "nuevo")).getId());
+        assertEquals(18L, almacen.guardar(new Profesor(null, "Nombre", "Apellido", "nuevo")).getId());
+    }
+}
@@ -0,0 +1,142 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.Carrera;
+import tomas.aguirrezabala.gestion_academica.model.Profesor;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.ProfesorDaoMemoryImpl;
+
+/**
+ * Memoria de los textos repetidos (nombres, apellidos y títulos) con y sin compartirlos,
+ * medida con el heap ocupado después de un GC.
+ */
+@Tag("benchmark")
+public class TextosCompartidosBenchmarkTest {
+
+    private static final String[] NOMBRES = {"María", "Juan", "Sofía", "Lucas", "Martina", "Mateo", "Valentina",
+            "Santiago", "Camila", "Benjamín", "Lucía", "Joaquín", "Julieta", "Tomás", "Florencia", "Agustín",
+            "Catalina", "Nicolás", "Milagros", "Facundo", "Ana", "Pedro", "Paula", "Gonzalo", "Rocío",
+            "Federico", "Carolina", "Ignacio", "Victoria", "Matías"};
+    private static final String[] APELLIDOS = {"González", "Rodríguez", "Gómez", "Fernández", "López", "Díaz",
+            "Martínez", "Pérez", "García", "Sánchez", "Romero", "Sosa", "Álvarez", "Torres", "Ruiz", "Ramírez",
+            "Flores", "Acosta", "Benítez", "Medina", "Suárez", "Herrera", "Aguirre", "Pereyra", "Gutiérrez",
+            "Giménez", "Molina", "Silva", "Castro", "Rojas", "Ortiz", "Núñez", "Luna", "Juárez",
+            "Cabrera", "Ríos", "Ferreyra", "Godoy", "Morales", "Domínguez"};
+    private static final String[] TITULOS = {"Ingeniero", "Licenciado en Sistemas", "Doctor en Matemática",
+            "Profesor de Física", "Contador Público", "Magíster en Informática", "Analista de Sistemas",
+            "Licenciada en Letras"};
+
+    /**
+     * Sin compartir, cada campo tendría su propia instancia, como la deja Jackson al leer el
+     * JSON: se miden tantas copias como campos guardados contra una copia de cada instancia
+     * que quedó en los DAOs.
+     */
+    @Test
+    void memoria_debeAhorrarLosTextosRepetidos_conNombresYTitulosReales() {
+        List<String> campos = new ArrayList<>();
+        Set<String> guardados = guardarEnLosDaos(campos);
+
+        List<String> sinCompartir = new ArrayList<>(campos.size());
+        // Lo que dejaron los DAOs se termina de liberar antes de tomar la base.
+        memoriaUsada();
+        long antes = memoriaUsada();
+        for (String campo : campos) {
+            sinCompartir.add(copia(campo));
+        }
+        long bytesSinCompartir = memoriaUsada() - antes;
+        List<String> compartidos = new ArrayList<>(guardados.size());
+        antes = memoriaUsada();
+        for (String guardado : guardados) {
+            compartidos.add(copia(guardado));
+        }
+        long bytesCompartidos = memoriaUsada() - antes;
+
+        System.out.printf("Textos sin compartir: %,d instancias, %,d bytes medidos%n", sinCompartir.size(),
+                bytesSinCompartir);
+        System.out.printf("Textos compartidos: %,d instancias, %,d bytes medidos (%,d bytes ahorrados)%n",
+                compartidos.size(), bytesCompartidos, bytesSinCompartir - bytesCompartidos);
+        assertEquals(campos.size(), sinCompartir.size());
+        assertTrue(guardados.size() < 200);
+        assertTrue(bytesCompartidos * 20 < bytesSinCompartir);
+    }
+
+    /**
+     * Guarda 50.000 alumnos y 1.200 profesores, cada uno con sus propias copias de los
+     * textos, y devuelve las instancias distintas que quedaron en los DAOs. En un método
+     * aparte para que lo que usa no siga vivo durante las mediciones.
+     */
+    private static Set<String> guardarEnLosDaos(List<String> campos) {
+        AlumnoDaoMemoryImpl alumnoDao = new AlumnoDaoMemoryImpl();
+        ReflectionTestUtils.setField(alumnoDao, "asignaturaDao", mock(AsignaturaDao.class));
+        ProfesorDaoMemoryImpl profesorDao = new ProfesorDaoMemoryImpl();
+        Carrera carrera = new Carrera(1L, "Técnico Universitario en Programación", 2);
+        for (int i = 0; i < 50_000; i++) {
+            String nombre = NOMBRES[i % NOMBRES.length];
+            String apellido = APELLIDOS[(i / NOMBRES.length) % APELLIDOS.length];
+            alumnoDao.guardar(new Alumno(null, copia(nombre), copia(apellido), String.valueOf(i), carrera));
+            campos.add(nombre);
+            campos.add(apellido);
+        }
+        for (int i = 0; i < NOMBRES.length * APELLIDOS.length; i++) {
+            String nombre = NOMBRES[i % NOMBRES.length];
+            String apellido = APELLIDOS[i / NOMBRES.length];
+            String titulo = TITULOS[i % TITULOS.length];
+            profesorDao.guardar(new Profesor(null, copia(nombre), copia(apellido), copia(titulo)));
+            campos.add(nombre);
+            campos.add(apellido);
+            campos.add(titulo);
+        }
+        Set<String> guardados = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Alumno alumno : alumnoDao.buscarTodos()) {
+            guardados.add(alumno.getNombre());
+            guardados.add(alumno.getApellido());
+        }
+        for (Profesor profesor : profesorDao.buscarAll()) {
+            guardados.add(profesor.getNombre());
+            guardados.add(profesor.getApellido());
+            guardados.add(profesor.getTitulo());
+        }
+        return guardados;
+    }
+
+    /** Con su propio arreglo, no el del literal. */
+    private static String copia(String texto) {
+        return new String(texto.toCharArray());
+    }
+
+    /**
+     * Hasta que deje de bajar: lo que suelta una pasada (referencias débiles, el mock) a
+     * veces se libera recién en la siguiente.
+     */
+    private static long memoriaUsada() {
+        Runtime runtime = Runtime.getRuntime();
+        long usada = Long.MAX_VALUE;
+        for (int pasada = 0; pasada < 20; pasada++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long ahora = runtime.totalMemory() - runtime.freeMemory();
+            if (ahora >= usada) {
+                break;
+            }
+            usada = ahora;
+        }
+        return usada;
+    }
+}
@@ -0,0 +1,177 @@
+package tomas.aguirrezabala.gestion_academica.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import tomas.aguirrezabala.gestion_academica.business.impl.AlumnoServiceImpl;
+import tomas.aguirrezabala.gestion_academica.model.Alumno;
+import tomas.aguirrezabala.gestion_academica.model.EstadoAsignatura;
+import tomas.aguirrezabala.gestion_academica.model.Materia;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AlumnoDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.AsignaturaDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.MateriaDaoMemoryImpl;
+import tomas.aguirrezabala.gestion_academica.persistence.impl.UnidadDeTrabajoEnMemoria;
+
+public class UnidadDeTrabajoEnMemoriaTest {
+
+    private final UnidadDeTrabajoEnMemoria unidad = new UnidadDeTrabajoEnMemoria();
+
+    @Test
+    void ejecutar_debeSerializarLasUnidades_conLaMismaClaveExclusiva() throws Exception {
+        int[] contador = {0};
+
+        ejecutarEnParalelo(8, () -> {
+            for (int i = 0; i < 10_000; i++) {
+                unidad.ejecutar(Alcance.escribe(Alumno.class, 1L), () -> {
+                    contador[0]++;
+                });
+            }
+            return 0;
+        });
+
+        assertEquals(80_000, contador[0]);
+    }
+
+    @Test
+    void ejecutar_debeDejarCorrerJuntas_lasUnidadesConLaMismaClaveCompartida() throws Exception {
+        CountDownLatch adentro = new CountDownLatch(2);
+
+        List<Boolean> encontraron = ejecutarEnParalelo(2, () -> unidad.ejecutar(Alcance.lee(Materia.class, 1L), () -> {
+            adentro.countDown();
+            try {
+                return adentro.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+
+        assertEquals(List.of(true, true), encontraron);
+    }
+
+    @Test
+    void ejecutar_noDebeTrabarse_cuandoDosUnidadesPidenLasMismasClavesEnDistintoOrden() throws Exception {
+        AtomicInteger terminadas = new AtomicInteger();
+
+        ejecutarEnParalelo(2, () -> {
+            boolean alReves = terminadas.getAndIncrement() % 2 == 0;
+            for (int i = 0; i < 10_000; i++) {
+                Alcance alcance = alReves
+                        ? Alcance.escribe(Alumno.class, 2L).yEscribe(Alumno.class, 1L).yLee(Materia.class, 7L)
+                        : Alcance.lee(Materia.class, 7L).yEscribe(Alumno.class, 1L).yEscribe(Alumno.class, 2L);
+                unidad.ejecutar(alcance, () -> {
+                });
+            }
+            return 0;
+        });
+
+        assertEquals(2, terminadas.get());
+    }
+
+    @Test
+    void ejecutar_debeRechazarUnaUnidadAnidada_queAmplieElAlcance() {
+        Alcance alcance = Alcance.escribe(Alumno.class, 1L).yLee(Materia.class, 2L);
+
+        assertEquals("anidada", unidad.ejecutar(alcance,
+                () -> unidad.ejecutar(Alcance.lee(Alumno.class, 1L), () -> "anidada")));
+        assertThrows(IllegalStateException.class, () -> unidad.ejecutar(alcance,
+                () -> unidad.ejecutar(Alcance.escribe(Materia.class, 2L), () -> "anidada")));
+        // Los locks se sueltan aunque la operación falle.
+        assertEquals("otra", ejecutarEnOtroHilo(() -> unidad.ejecutar(Alcance.escribe(Alumno.class, 1L), () -> "otra")));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void rendimiento_inscripcionesALaMismaMateria_debeEscalarConLosHilos() throws Exception {
+        int maxHilos = Math.max(2, Runtime.getRuntime().availableProcessors());
+        int alumnosPorHilo = 5_000;
+
+        System.out.println("hilos\tinscripciones/s");
+        for (int hilos = 1; hilos <= maxHilos; hilos *= 2) {
+            AlumnoDaoMemoryImpl alumnoDao = new AlumnoDaoMemoryImpl();
+            MateriaDaoMemoryImpl materiaDao = new MateriaDaoMemoryImpl();
+            AsignaturaDaoMemoryImpl asignaturaDao = new AsignaturaDaoMemoryImpl();
+            ReflectionTestUtils.setField(alumnoDao, "asignaturaDao", asignaturaDao);
+            ReflectionTestUtils.setField(asignaturaDao, "alumnoDao", alumnoDao);
+            ReflectionTestUtils.setField(asignaturaDao, "materiaDao", materiaDao);
+            ReflectionTestUtils.invokeMethod(asignaturaDao, "vincularReferencias");
+            AlumnoServiceImpl servicio = new AlumnoServiceImpl();
+            ReflectionTestUtils.setField(servicio, "alumnoDao", alumnoDao);
+            ReflectionTestUtils.setField(servicio, "materiaDao", materiaDao);
+            ReflectionTestUtils.setField(servicio, "asignaturaDao", asignaturaDao);
+            ReflectionTestUtils.setField(servicio, "unidadDeTrabajo", new UnidadDeTrabajoEnMemoria());
+
+            Long correlativaId = materiaDao.guardar(new Materia(null, "Programación I", 1, 1)).getId();
+            Materia materia = new Materia(null, "Programación II", 1, 2);
+            materia.setCorrelatividades(List.of(correlativaId));
+            Long materiaId = materiaDao.guardar(materia).getId();
+            long[] alumnoIds = new long[hilos * alumnosPorHilo];
+            for (int i = 0; i < alumnoIds.length; i++) {
+                alumnoIds[i] = alumnoDao.guardar(new Alumno(null, "Alumno", "Numero " + i, String.valueOf(i), null)).getId();
+                servicio.inscribirEnMateria(alumnoIds[i], correlativaId);
+                servicio.cambiarEstadoAsignatura(alumnoIds[i],
+                        asignaturaDao.buscarPorAlumnoIdYMateriaId(alumnoIds[i], correlativaId).get().getId(),
+                        EstadoAsignatura.REGULAR, null);
+            }
+
+            AtomicInteger siguienteHilo = new AtomicInteger();
+            long inicio = System.nanoTime();
+            ejecutarEnParalelo(hilos, () -> {
+                int desde = siguienteHilo.getAndIncrement() * alumnosPorHilo;
+                for (int i = desde; i < desde + alumnosPorHilo; i++) {
+                    servicio.inscribirEnMateria(alumnoIds[i], materiaId);
+                }
+                return 0;
+            });
+            double segundos = (System.nanoTime() - inicio) / 1e9;
+            System.out.printf("%d\t%.0f%n", hilos, alumnoIds.length / segundos);
+
+            assertEquals(alumnoIds.length, asignaturaDao.recorrer()
+                    .filter(asignatura -> materiaId.equals(asignatura.getMateria().getId())).count());
+        }
+    }
+
+    private static <R> R ejecutarEnOtroHilo(Supplier<R> tarea) {
+        try {
+            return ejecutarEnParalelo(1, tarea::get).get(0);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <R> List<R> ejecutarEnParalelo(int hilos, Callable<R> tarea) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<R>> futuros = new ArrayList<>();
+            for (int i = 0; i < hilos; i++) {
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    return tarea.call();
+                }));
+            }
+            largada.countDown();
+
+            List<R> resultado = new ArrayList<>();
+            for (Future<R> futuro : futuros) {
+                resultado.add(futuro.get(60, TimeUnit.SECONDS));
+            }
+            return resultado;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}